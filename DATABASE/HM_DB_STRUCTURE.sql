@@ -18,7 +18,10 @@ CREATE TABLE usuario(
     nombre_usuario VARCHAR(100) NOT NULL UNIQUE,
     correo VARCHAR(100) NOT NULL UNIQUE,
     contrasena VARCHAR(100) NOT NULL,
-    activo BOOLEAN DEFAULT TRUE
+    activo BOOLEAN DEFAULT TRUE,
+    -- Los JWT emitidos con un epoch menor quedan revocados
+    -- (bases existentes: ALTER TABLE usuario ADD COLUMN token_epoch BIGINT NOT NULL DEFAULT 0;)
+    token_epoch BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE permiso(
@@ -41,7 +44,19 @@ TABLA DE ANIMALES
 CREATE TABLE especie(
 	id_especie INT PRIMARY KEY AUTO_INCREMENT,
     genero VARCHAR(50) NOT NULL,
-    especie VARCHAR(50) NOT NULL
+    especie VARCHAR(50) NOT NULL,
+    -- La importación masiva (INSERT ... ON DUPLICATE KEY UPDATE) depende de esta clave
+    -- (bases existentes: primero unir duplicados en la especie de menor id y luego crear la clave)
+    --   UPDATE especimen e
+    --   JOIN especie d ON d.id_especie = e.id_especie
+    --   JOIN (SELECT genero, especie, MIN(id_especie) AS id_especie FROM especie GROUP BY genero, especie) k
+    --     ON k.genero = d.genero AND k.especie = d.especie
+    --   SET e.id_especie = k.id_especie
+    --   WHERE e.id_especie <> k.id_especie;
+    --   DELETE d FROM especie d
+    --   JOIN especie k ON k.genero = d.genero AND k.especie = d.especie AND k.id_especie < d.id_especie;
+    --   ALTER TABLE especie ADD UNIQUE (genero, especie);
+    UNIQUE (genero, especie)
 );
 
 
@@ -56,6 +71,9 @@ CREATE TABLE especimen(
     activo BOOLEAN DEFAULT TRUE
 );
 
+-- Paginación por cursor (activo, nombre, id) y conteos filtrados
+CREATE INDEX idx_especimen_activo_nombre ON especimen(activo, nombre_especimen, id_especimen);
+
 -- REGISTRO DE ALTA
 CREATE TABLE origen_alta(
 	id_origen_alta INT PRIMARY KEY AUTO_INCREMENT,
@@ -1,9 +1,7 @@
 class DashboardStatistics {
     constructor(maxBars = 8) {
-        this.estadisticasEndpoint = '/hm/especies/estadisticas';
-        this.numActivosEndpoint = '/hm/especimenes/activos';
-        this.numInactivosEndpoint = '/hm/especimenes/bajas';
-        this.numRegistrosRecientesEndpoint = '/hm/registro_alta/recientes';
+        // Un solo resumen en memoria en lugar de cuatro consultas por carga
+        this.summaryEndpoint = '/hm/dashboard/summary';
 
         this.chart = null;
         this.maxBars = maxBars;
@@ -26,40 +24,25 @@ class DashboardStatistics {
 
     async loadStatistics() {
         this.showLoadingMetrics();
-        
-        try {
-            const response = await api.get(this.estadisticasEndpoint);
-            if (response && response.data) {
-                this.createChart(response.data.generos_mas_comunes);
-            }
-        } catch (error) {
-            console.error('Error al cargar estadísticas:', error);
-        }
-        
-        await this.loadMetrics();
-    }
 
-    async loadMetrics() {
+        let resumen = null;
         try {
-            const activosResponse = await api.get(this.numActivosEndpoint);
-            document.getElementById('activeAnimalsMetric').textContent = activosResponse.count || 0;
+            const response = await api.get(this.summaryEndpoint);
+            resumen = response && response.data ? response.data : null;
         } catch (error) {
-            document.getElementById('activeAnimalsMetric').textContent = '0';
+            console.error('Error al cargar el resumen del dashboard:', error);
         }
 
-        try {
-            const recientesResponse = await api.get(this.numRegistrosRecientesEndpoint);
-            document.getElementById('recentRecordsMetric').textContent = recientesResponse.recentCount || 0;
-        } catch (error) {
-            document.getElementById('recentRecordsMetric').textContent = '0';
+        if (resumen) {
+            this.createChart(resumen.especies_mas_comunes || []);
         }
+        this.loadMetrics(resumen);
+    }
 
-        try {
-            const inactivosResponse = await api.get(this.numInactivosEndpoint);
-            document.getElementById('animalsRemovedMetric').textContent = inactivosResponse.count || 0;
-        } catch (error) {
-            document.getElementById('animalsRemovedMetric').textContent = '0';
-        }
+    loadMetrics(resumen) {
+        document.getElementById('activeAnimalsMetric').textContent = resumen ? resumen.especimenes_activos || 0 : '0';
+        document.getElementById('recentRecordsMetric').textContent = resumen ? resumen.altas_ultima_semana || 0 : '0';
+        document.getElementById('animalsRemovedMetric').textContent = resumen ? resumen.especimenes_baja || 0 : '0';
     }
 
     createChart(especiesData) {
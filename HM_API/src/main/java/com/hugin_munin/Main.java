@@ -1,17 +1,28 @@
 package com.hugin_munin;
 
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.config.JsonConfig;
 import com.hugin_munin.di.AppModule;
 import io.javalin.Javalin;
+import io.javalin.http.ForbiddenResponse;
+import io.javalin.http.UnauthorizedResponse;
+import io.javalin.json.JavalinJackson;
 import com.hugin_munin.middleware.AuthMiddleware;
+import com.hugin_munin.middleware.ConnectionScope;
+import com.hugin_munin.middleware.LoadShedding;
+import com.hugin_munin.middleware.RequestLogging;
+import com.hugin_munin.middleware.RequestMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Main {
 
+    private static final Logger log = LoggerFactory.getLogger(Main.class);
+
     public static void main(String[] args) {
         try {
-            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "off");
-            System.setProperty("org.eclipse.jetty.LEVEL", "OFF");
-
-            System.out.println("Iniciando Hugin Munin API v2.0.0 (JWT)");
+            // Niveles y appender asíncrono configurados en logback.xml
+            log.info("Iniciando Hugin Munin API v2.0.0 (JWT)");
 
             Javalin app = Javalin.create(config -> {
                 // CORS básico
@@ -25,11 +36,36 @@ public class Main {
                 });
 
                 config.bundledPlugins.enableRouteOverview("/routes");
-                config.bundledPlugins.enableDevLogging();
+                if (AppConfig.getBoolean("DEV_LOGGING", false)) {
+                    config.bundledPlugins.enableDevLogging();
+                }
                 config.http.defaultContentType = "application/json";
                 config.showJavalinBanner = false;
+
+                // Hilos virtuales: esperar la base de datos no agota el pool de hilos de Jetty
+                config.useVirtualThreads = AppConfig.getBoolean("VIRTUAL_THREADS", true);
+
+                // Mapper compartido (ver JsonConfig)
+                config.jsonMapper(new JavalinJackson(JsonConfig.getMapper(), config.useVirtualThreads));
             });
 
+            // Contexto de logging por petición (request_id, ruta, usuario)
+            app.before("/*", RequestLogging.before());
+            app.after("/*", RequestLogging.after());
+
+            // 503 + Retry-After si el limitador de base de datos rechazó la petición
+            // (registrado antes que las métricas para que estas vean el estado final)
+            app.before("/*", LoadShedding.before());
+            app.after("/*", LoadShedding.after());
+
+            // Latencia por ruta para /hm/metrics
+            app.before("/*", RequestMetrics.before());
+            app.after("/*", RequestMetrics.after());
+
+            // Una conexión por petición, compartida por todos los repositorios (ver RequestConnectionScope)
+            app.before("/*", ConnectionScope.before());
+            app.after("/*", ConnectionScope.after());
+
             // Headers CORS manuales para JWT
             app.before("/*", ctx -> {
                 String origin = ctx.header("Origin");
@@ -50,6 +86,8 @@ public class Main {
 
             // Middleware JWT
             AuthMiddleware authMiddleware = new AuthMiddleware(AppModule.getAuthService());
+            app.exception(UnauthorizedResponse.class, authMiddleware.unauthorizedHandler());
+            app.exception(ForbiddenResponse.class, authMiddleware.forbiddenHandler());
 
             app.before("/hm/usuarios/*", authMiddleware.handle());
             app.before("/hm/auth/profile", authMiddleware.handle());
@@ -58,9 +96,15 @@ public class Main {
             app.before("/hm/especimenes/*", authMiddleware.handle());
             app.before("/hm/reportes/*", authMiddleware.handle());
             app.before("/hm/reportes-traslado/*", authMiddleware.handle());
-            app.before("/hm/registro-unificado/*", authMiddleware.handle());
+            app.before("/hm/registro_unificado/*", authMiddleware.handle());
+            app.before("/hm/registro_unificado/bulk", authMiddleware.requireAuthenticatedAdmin());
+            app.before("/hm/export/*", authMiddleware.requireAuthenticated());
+            app.before("/hm/dashboard/*", authMiddleware.requireAuthenticated());
+            app.before("/hm/analytics/*", authMiddleware.requireAuthenticated());
             app.before("/hm/roles/*", authMiddleware.requireAdmin());
             app.before("/hm/permisos/*", authMiddleware.requireAdmin());
+            app.before("/hm/admin/*", authMiddleware.requireAuthenticatedAdmin());
+            app.before("/hm/metrics", authMiddleware.requireAuthenticatedAdmin());
 
             // Inicializar rutas
             AppModule.initAuth().defineRoutes(app);
@@ -77,15 +121,23 @@ public class Main {
             AppModule.initRegistroUnificado().defineRoutes(app);
             AppModule.initRegistroAlta().defineRoutes(app);
             AppModule.initRegistroBaja().defineRoutes(app);
+            AppModule.initExport().defineRoutes(app);
+            AppModule.initAdmin().defineRoutes(app);
+            AppModule.initMetrics().defineRoutes(app);
+            AppModule.initDashboard().defineRoutes(app);
+            AppModule.initAnalytics().defineRoutes(app);
+
+            AppModule.warmCatalogCaches();
+            AppModule.buildSearchIndexes();
+            AppModule.startDashboard();
 
             // Iniciar servidor
             app.start(7000);
 
-            System.out.println("✅ API iniciada en http://localhost:7000 con JWT");
+            log.info("✅ API iniciada en http://localhost:7000 con JWT");
 
         } catch (Exception e) {
-            System.err.println("Error al iniciar la aplicación:");
-            e.printStackTrace();
+            log.error("Error al iniciar la aplicación", e);
             System.exit(1);
         }
     }
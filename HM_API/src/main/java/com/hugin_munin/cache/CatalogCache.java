@@ -0,0 +1,213 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.config.UnitOfWork;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché en memoria para tablas de catálogo pequeñas
+ * Carga la tabla completa la primera vez (read-through) y se descarta en cada escritura
+ * (y de nuevo al terminar la UnitOfWork de la escritura, ver invalidate)
+ * Entrega copias para que los llamadores no puedan modificar el contenido en caché
+ */
+public class CatalogCache<T> {
+
+    private static final List<CatalogCache<?>> REGISTRY = new CopyOnWriteArrayList<>();
+
+    private final String nombre;
+    private final Function<T, Integer> idExtractor;
+    private final UnaryOperator<T> copier;
+
+    private volatile Snapshot<T> snapshot;
+    private final AtomicLong generation = new AtomicLong();
+    // Escrituras dentro de una UnitOfWork aún sin terminar
+    private final AtomicInteger pendientes = new AtomicInteger();
+
+    // ReentrantLock y no synchronized: la carga hace I/O y no debe fijar el hilo virtual a su portador
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Carga de la tabla completa desde la base de datos
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> load() throws SQLException;
+    }
+
+    public CatalogCache(String nombre, Function<T, Integer> idExtractor, UnaryOperator<T> copier) {
+        this.nombre = nombre;
+        this.idExtractor = idExtractor;
+        this.copier = copier;
+        REGISTRY.add(this);
+    }
+
+    /**
+     * OBTENER todas las filas en el orden de carga
+     */
+    public List<T> getAll(Loader<T> loader) throws SQLException {
+        List<T> filas = snapshot(loader).filas;
+        List<T> copia = new ArrayList<>(filas.size());
+        for (T fila : filas) {
+            copia.add(copier.apply(fila));
+        }
+        return copia;
+    }
+
+    /**
+     * BUSCAR fila por ID
+     */
+    public Optional<T> get(Integer id, Loader<T> loader) throws SQLException {
+        if (id == null) {
+            return Optional.empty();
+        }
+        T fila = snapshot(loader).porId.get(id);
+        return fila == null ? Optional.empty() : Optional.of(copier.apply(fila));
+    }
+
+    /**
+     * VERIFICAR si existe una fila por ID
+     */
+    public boolean contains(Integer id, Loader<T> loader) throws SQLException {
+        return id != null && snapshot(loader).porId.containsKey(id);
+    }
+
+    /**
+     * BUSCAR la primera fila que cumpla el criterio
+     */
+    public Optional<T> findFirst(Predicate<T> criterio, Loader<T> loader) throws SQLException {
+        for (T fila : snapshot(loader).filas) {
+            if (criterio.test(fila)) {
+                return Optional.of(copier.apply(fila));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * DESCARTAR el contenido; la siguiente lectura recarga desde la base de datos
+     * Dentro de una UnitOfWork se descarta otra vez al terminarla, y mientras tanto las cargas
+     * no se publican: verían la tabla antes de que se confirme (o revierta) la escritura
+     */
+    public void invalidate() {
+        discard();
+        pendientes.incrementAndGet();
+        if (!UnitOfWork.afterCompletion(() -> {
+            discard();
+            pendientes.decrementAndGet();
+        })) {
+            pendientes.decrementAndGet();
+        }
+    }
+
+    private void discard() {
+        generation.incrementAndGet();
+        snapshot = null;
+        invalidations.incrementAndGet();
+    }
+
+    private Snapshot<T> snapshot(Loader<T> loader) throws SQLException {
+        Snapshot<T> actual = snapshot;
+        if (actual != null) {
+            hits.incrementAndGet();
+            return actual;
+        }
+
+        misses.incrementAndGet();
+        loadLock.lock();
+        try {
+            actual = snapshot;
+            if (actual != null) {
+                return actual;
+            }
+
+            long generacion = generation.get();
+            List<T> filas = loader.load();
+            loads.incrementAndGet();
+
+            Map<Integer, T> porId = new HashMap<>();
+            for (T fila : filas) {
+                porId.put(idExtractor.apply(fila), fila);
+            }
+            actual = new Snapshot<>(Collections.unmodifiableList(new ArrayList<>(filas)), porId);
+
+            // Si hubo una escritura durante la carga, o hay una sin confirmar, no se publica el resultado
+            if (generation.get() == generacion && pendientes.get() == 0) {
+                snapshot = actual;
+            }
+            return actual;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Estadísticas de uso de este caché
+     */
+    public Map<String, Object> getStats() {
+        Snapshot<T> actual = snapshot;
+        long totalHits = hits.get();
+        long totalMisses = misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalogo", nombre);
+        stats.put("cargado", actual != null);
+        stats.put("filas", actual != null ? actual.filas.size() : 0);
+        stats.put("hits", totalHits);
+        stats.put("misses", totalMisses);
+        stats.put("cargas", loads.get());
+        stats.put("invalidaciones", invalidations.get());
+        stats.put("hit_ratio", totalHits + totalMisses == 0
+                ? 0.0
+                : (double) totalHits / (totalHits + totalMisses));
+        return stats;
+    }
+
+    /**
+     * Estadísticas de todos los cachés de catálogo registrados
+     */
+    public static List<Map<String, Object>> getAllStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (CatalogCache<?> cache : REGISTRY) {
+            stats.add(cache.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Descartar todos los cachés de catálogo
+     */
+    public static void invalidateAll() {
+        for (CatalogCache<?> cache : REGISTRY) {
+            cache.invalidate();
+        }
+    }
+
+    private static final class Snapshot<T> {
+        final List<T> filas;
+        final Map<Integer, T> porId;
+
+        Snapshot(List<T> filas, Map<Integer, T> porId) {
+            this.filas = filas;
+            this.porId = porId;
+        }
+    }
+}
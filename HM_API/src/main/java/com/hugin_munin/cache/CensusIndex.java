@@ -0,0 +1,288 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.util.Fechas;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Censo de especímenes vivos por especie a cualquier fecha
+ * Cada especie guarda su línea de tiempo (+1 por alta, -1 por baja) como días ordenados con la suma
+ * acumulada, así que el conteo a una fecha es una búsqueda binaria. Las altas y bajas nuevas se suman
+ * después de confirmar; una edición o borrado de registros descarta el censo y la siguiente lectura lo recarga.
+ */
+public final class CensusIndex {
+
+    /**
+     * Destino de la carga completa
+     */
+    public interface Carga {
+        void especimen(int idEspecimen, int idEspecie);
+
+        // delta: +1 por alta, -1 por baja
+        void evento(int idEspecie, LocalDate fecha, int delta);
+    }
+
+    /**
+     * Lectura de especímenes, altas y bajas
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Carga carga) throws SQLException;
+    }
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    // null hasta la primera carga o tras una invalidación: las escrituras no se aplican (la carga las leerá)
+    private static Censo estado;
+    private static long cambios;
+
+    private CensusIndex() {
+    }
+
+    /**
+     * ESPECÍMENES vivos al final del día; idEspecie null = toda la colección
+     */
+    public static int census(Integer idEspecie, LocalDate fecha, Loader loader) throws SQLException {
+        int dia = (int) fecha.toEpochDay();
+        return query(loader, censo -> censo.linea(idEspecie).at(dia));
+    }
+
+    /**
+     * ESPECÍMENES vivos al final de cada fecha (una búsqueda binaria por fecha)
+     */
+    public static int[] census(Integer idEspecie, List<LocalDate> fechas, Loader loader) throws SQLException {
+        return query(loader, censo -> {
+            Linea linea = censo.linea(idEspecie);
+            int[] valores = new int[fechas.size()];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = linea.at((int) fechas.get(i).toEpochDay());
+            }
+            return valores;
+        });
+    }
+
+    /**
+     * ESPECÍMENES vivos por especie al final del día (solo especies con alguno)
+     */
+    public static Map<Integer, Integer> censusBySpecies(LocalDate fecha, Loader loader) throws SQLException {
+        int dia = (int) fecha.toEpochDay();
+        return query(loader, censo -> {
+            Map<Integer, Integer> conteos = new HashMap<>();
+            censo.porEspecie.forEach((idEspecie, linea) -> {
+                int vivos = linea.at(dia);
+                if (vivos != 0) {
+                    conteos.put(idEspecie, vivos);
+                }
+            });
+            return conteos;
+        });
+    }
+
+    /**
+     * CARGAR el censo si aún no está (arranque)
+     */
+    public static void load(Loader loader) throws SQLException {
+        query(loader, censo -> null);
+    }
+
+    /**
+     * Olvidar el censo (la próxima lectura vuelve a cargar)
+     */
+    public static void clear() {
+        LOCK.lock();
+        try {
+            estado = null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // ESCRITURAS (desde los repositorios)
+
+    /**
+     * Especimen nuevo o modificado; si cambió de especie sus eventos quedan en la anterior y se recarga
+     */
+    public static void specimenSaved(int idEspecimen, int idEspecie) {
+        apply(censo -> {
+            Integer anterior = censo.especies.put(idEspecimen, idEspecie);
+            if (anterior != null && anterior != idEspecie) {
+                estado = null;
+            }
+        });
+    }
+
+    public static void specimenRemoved(int idEspecimen) {
+        apply(censo -> censo.especies.remove(idEspecimen));
+    }
+
+    public static void altaCreated(int idEspecimen, Date fechaIngreso) {
+        LocalDate fecha = Fechas.toLocalDate(fechaIngreso);
+        apply(censo -> censo.eventoEspecimen(idEspecimen, fecha, 1));
+    }
+
+    public static void bajaCreated(int idEspecimen, Date fechaBaja) {
+        LocalDate fecha = Fechas.toLocalDate(fechaBaja);
+        apply(censo -> censo.eventoEspecimen(idEspecimen, fecha, -1));
+    }
+
+    /**
+     * Alta o baja editada o borrada: sin la fecha anterior no se puede restar, se recarga
+     */
+    public static void invalidate() {
+        apply(censo -> estado = null);
+    }
+
+    // MÉTODOS PRIVADOS
+
+    /**
+     * Consultar el censo cargado o, si no hay, uno recién leído
+     * Si hubo escrituras durante la lectura no se guarda (pudo contarlas o no), pero responde la consulta
+     */
+    private static <T> T query(Loader loader, Function<Censo, T> consulta) throws SQLException {
+        long version;
+        LOCK.lock();
+        try {
+            if (estado != null) {
+                return consulta.apply(estado);
+            }
+            version = cambios;
+        } finally {
+            LOCK.unlock();
+        }
+
+        Censo nuevo = new Censo();
+        loader.load(nuevo);
+
+        LOCK.lock();
+        try {
+            if (estado == null && cambios == version) {
+                estado = nuevo;
+            }
+            return consulta.apply(estado != null ? estado : nuevo);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Aplicar una escritura al confirmar la unidad de trabajo (o ya, si no hay una abierta)
+     */
+    private static void apply(Consumer<Censo> cambio) {
+        UnitOfWork.runAfterCommit(() -> {
+            LOCK.lock();
+            try {
+                cambios++;
+                if (estado != null) {
+                    cambio.accept(estado);
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        });
+    }
+
+    /**
+     * Líneas de tiempo por especie y de toda la colección, y la especie de cada especimen
+     */
+    private static final class Censo implements Carga {
+
+        private final Map<Integer, Integer> especies = new HashMap<>();
+        private final Map<Integer, Linea> porEspecie = new HashMap<>();
+        private final Linea total = new Linea();
+
+        @Override
+        public void especimen(int idEspecimen, int idEspecie) {
+            especies.put(idEspecimen, idEspecie);
+        }
+
+        @Override
+        public void evento(int idEspecie, LocalDate fecha, int delta) {
+            int dia = (int) fecha.toEpochDay();
+            porEspecie.computeIfAbsent(idEspecie, k -> new Linea()).add(dia, delta);
+            total.add(dia, delta);
+        }
+
+        Linea linea(Integer idEspecie) {
+            return idEspecie == null ? total : porEspecie.getOrDefault(idEspecie, Linea.VACIA);
+        }
+
+        /**
+         * Evento de un especimen; sin fecha no cuenta (como en la carga), si no se conoce su especie se recarga
+         */
+        void eventoEspecimen(int idEspecimen, LocalDate fecha, int delta) {
+            if (fecha == null) {
+                return;
+            }
+            Integer idEspecie = especies.get(idEspecimen);
+            if (idEspecie == null) {
+                estado = null;
+                return;
+            }
+            evento(idEspecie, fecha, delta);
+        }
+    }
+
+    /**
+     * Días con eventos (epoch day, ascendentes, sin repetir) y los vivos al final de cada uno
+     * Agregar en el último día o después es O(1); un evento atrasado desplaza y corrige la suma desde su día
+     */
+    private static final class Linea {
+
+        static final Linea VACIA = new Linea();
+
+        private int[] dias = new int[4];
+        private int[] vivos = new int[4];
+        private int size;
+
+        int at(int dia) {
+            int posicion = Arrays.binarySearch(dias, 0, size, dia);
+            int ultimo = posicion >= 0 ? posicion : -posicion - 2;
+            return ultimo >= 0 ? vivos[ultimo] : 0;
+        }
+
+        void add(int dia, int delta) {
+            if (size > 0 && dias[size - 1] == dia) {
+                vivos[size - 1] += delta;
+                return;
+            }
+            if (size == 0 || dias[size - 1] < dia) {
+                ensureCapacity();
+                dias[size] = dia;
+                vivos[size] = (size > 0 ? vivos[size - 1] : 0) + delta;
+                size++;
+                return;
+            }
+
+            int posicion = Arrays.binarySearch(dias, 0, size, dia);
+            if (posicion < 0) {
+                posicion = -posicion - 1;
+                ensureCapacity();
+                System.arraycopy(dias, posicion, dias, posicion + 1, size - posicion);
+                System.arraycopy(vivos, posicion, vivos, posicion + 1, size - posicion);
+                dias[posicion] = dia;
+                vivos[posicion] = posicion > 0 ? vivos[posicion - 1] : 0;
+                size++;
+            }
+            for (int i = posicion; i < size; i++) {
+                vivos[i] += delta;
+            }
+        }
+
+        private void ensureCapacity() {
+            if (size == dias.length) {
+                dias = Arrays.copyOf(dias, dias.length * 2);
+                vivos = Arrays.copyOf(vivos, vivos.length * 2);
+            }
+        }
+    }
+}
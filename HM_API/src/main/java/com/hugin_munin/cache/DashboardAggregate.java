@@ -0,0 +1,385 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.dto.ResumenDashboard;
+import com.hugin_munin.util.Fechas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Resumen del dashboard en memoria: especímenes activos y de baja, especies, altas y reportes
+ * Se carga una vez desde SQL y luego lo actualizan en O(1) las rutas de escritura de los
+ * repositorios, siempre después de confirmar. La conciliación periódica (ver DashboardService)
+ * lo reemplaza por uno recién leído y registra cualquier diferencia encontrada.
+ */
+public final class DashboardAggregate {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardAggregate.class);
+
+    // Ventana de "recientes", igual que countSpecimensFromLastWeek (fecha >= hoy - 7 días)
+    public static final int DIAS_RECIENTES = 7;
+
+    /**
+     * Destino de la carga completa
+     */
+    public interface Carga {
+        void especie(int idEspecie, String genero, String especie);
+
+        void especimen(int idEspecimen, int idEspecie, boolean activo);
+
+        void totalAltas(long total);
+
+        void altaReciente(int idRegistroAlta, LocalDate fechaIngreso);
+
+        void totalReportes(long total);
+
+        void reporteReciente(int idReporte, LocalDate fechaReporte);
+    }
+
+    /**
+     * Lectura de las tablas; las altas y reportes recientes son los de fecha >= desde
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Carga carga, LocalDate desde) throws SQLException;
+    }
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    // null hasta la primera carga: antes de eso las escrituras no se aplican (la carga las leerá)
+    private static Estado estado;
+    private static long cambios;
+    private static long conciliadoEn;
+
+    private DashboardAggregate() {
+    }
+
+    /**
+     * RESUMEN actual con las especies de más especímenes activos primero
+     */
+    public static ResumenDashboard summary(int topEspecies) {
+        LocalDate desde = LocalDate.now().minusDays(DIAS_RECIENTES);
+        LOCK.lock();
+        try {
+            if (estado == null) {
+                throw new IllegalStateException("El resumen del dashboard aún no se ha cargado");
+            }
+            return new ResumenDashboard(
+                    estado.activos,
+                    estado.inactivos,
+                    estado.especies.size(),
+                    estado.totalAltas,
+                    estado.altasRecientes.count(desde),
+                    estado.totalReportes,
+                    estado.reportesRecientes.count(desde),
+                    estado.topEspecies(topEspecies),
+                    conciliadoEn);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    public static boolean isLoaded() {
+        LOCK.lock();
+        try {
+            return estado != null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * CARGAR el resumen desde la base y reemplazar el actual
+     * Si hubo escrituras mientras se leía, la lectura puede haberlas contado o no: se descarta
+     * y se devuelve false (queda para la siguiente conciliación), salvo en la primera carga.
+     */
+    public static boolean reload(Loader loader) throws SQLException {
+        long version;
+        LOCK.lock();
+        try {
+            version = cambios;
+        } finally {
+            LOCK.unlock();
+        }
+
+        Estado nuevo = new Estado();
+        loader.load(nuevo, LocalDate.now().minusDays(DIAS_RECIENTES));
+
+        LOCK.lock();
+        try {
+            if (estado != null && cambios != version) {
+                log.debug("Conciliación del dashboard descartada: hubo escrituras durante la lectura");
+                return false;
+            }
+            if (estado != null) {
+                logDrift(estado, nuevo);
+            }
+            estado = nuevo;
+            conciliadoEn = System.currentTimeMillis();
+            return true;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Olvidar el estado (la próxima lectura vuelve a cargar)
+     */
+    public static void clear() {
+        LOCK.lock();
+        try {
+            estado = null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // ESCRITURAS (desde los repositorios)
+
+    /**
+     * Especimen nuevo o modificado (puede cambiar de especie o de estado)
+     */
+    public static void specimenSaved(int idEspecimen, int idEspecie, boolean activo) {
+        apply(e -> e.putSpecimen(idEspecimen, idEspecie, activo));
+    }
+
+    /**
+     * Especimen activado o dado de baja
+     */
+    public static void specimenActive(int idEspecimen, boolean activo) {
+        apply(e -> e.setActive(idEspecimen, activo));
+    }
+
+    public static void specimenRemoved(int idEspecimen) {
+        apply(e -> e.removeSpecimen(idEspecimen));
+    }
+
+    public static void speciesSaved(int idEspecie, String genero, String especie) {
+        apply(e -> e.especie(idEspecie, genero, especie));
+    }
+
+    public static void speciesRemoved(int idEspecie) {
+        apply(e -> e.especies.remove(idEspecie));
+    }
+
+    public static void altaCreated(int idRegistroAlta, Date fechaIngreso) {
+        LocalDate fecha = Fechas.toLocalDate(fechaIngreso);
+        apply(e -> {
+            e.totalAltas++;
+            e.altasRecientes.put(idRegistroAlta, fecha);
+        });
+    }
+
+    public static void altaUpdated(int idRegistroAlta, Date fechaIngreso) {
+        LocalDate fecha = Fechas.toLocalDate(fechaIngreso);
+        apply(e -> e.altasRecientes.put(idRegistroAlta, fecha));
+    }
+
+    public static void altaRemoved(int idRegistroAlta) {
+        apply(e -> {
+            e.totalAltas--;
+            e.altasRecientes.remove(idRegistroAlta);
+        });
+    }
+
+    public static void reporteCreated(int idReporte, Date fechaReporte) {
+        LocalDate fecha = Fechas.toLocalDate(fechaReporte);
+        apply(e -> {
+            e.totalReportes++;
+            e.reportesRecientes.put(idReporte, fecha);
+        });
+    }
+
+    public static void reporteUpdated(int idReporte, Date fechaReporte) {
+        LocalDate fecha = Fechas.toLocalDate(fechaReporte);
+        apply(e -> e.reportesRecientes.put(idReporte, fecha));
+    }
+
+    public static void reporteRemoved(int idReporte) {
+        apply(e -> {
+            e.totalReportes--;
+            e.reportesRecientes.remove(idReporte);
+        });
+    }
+
+    // MÉTODOS PRIVADOS
+
+    /**
+     * Aplicar una escritura al confirmar la unidad de trabajo (o ya, si no hay una abierta)
+     */
+    private static void apply(Consumer<Estado> cambio) {
+        UnitOfWork.runAfterCommit(() -> {
+            LOCK.lock();
+            try {
+                cambios++;
+                if (estado != null) {
+                    cambio.accept(estado);
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        });
+    }
+
+    private static void logDrift(Estado anterior, Estado nuevo) {
+        LocalDate desde = LocalDate.now().minusDays(DIAS_RECIENTES);
+        if (anterior.activos != nuevo.activos || anterior.inactivos != nuevo.inactivos
+                || anterior.totalAltas != nuevo.totalAltas || anterior.totalReportes != nuevo.totalReportes
+                || anterior.altasRecientes.count(desde) != nuevo.altasRecientes.count(desde)
+                || anterior.reportesRecientes.count(desde) != nuevo.reportesRecientes.count(desde)
+                || !anterior.activosPorEspecie.equals(nuevo.activosPorEspecie)) {
+            log.warn("Resumen del dashboard corregido por la conciliación: activos {}→{}, baja {}→{}, altas {}→{}, reportes {}→{}",
+                    anterior.activos, nuevo.activos, anterior.inactivos, nuevo.inactivos,
+                    anterior.totalAltas, nuevo.totalAltas, anterior.totalReportes, nuevo.totalReportes);
+        }
+    }
+
+    /**
+     * Conteos y el estado mínimo por fila para aplicar cada cambio en O(1)
+     */
+    private static final class Estado implements Carga {
+
+        // Especimen → id_especie * 2 + activo (para saber qué restar cuando cambia)
+        private final Map<Integer, Integer> especimenes = new HashMap<>();
+        private final Map<Integer, Integer> activosPorEspecie = new HashMap<>();
+        private final Map<Integer, String[]> especies = new HashMap<>();
+        private int activos;
+        private int inactivos;
+
+        private long totalAltas;
+        private final Ventana altasRecientes = new Ventana();
+        private long totalReportes;
+        private final Ventana reportesRecientes = new Ventana();
+
+        @Override
+        public void especie(int idEspecie, String genero, String especie) {
+            especies.put(idEspecie, new String[]{genero, especie});
+        }
+
+        @Override
+        public void especimen(int idEspecimen, int idEspecie, boolean activo) {
+            putSpecimen(idEspecimen, idEspecie, activo);
+        }
+
+        @Override
+        public void totalAltas(long total) {
+            totalAltas = total;
+        }
+
+        @Override
+        public void altaReciente(int idRegistroAlta, LocalDate fechaIngreso) {
+            altasRecientes.put(idRegistroAlta, fechaIngreso);
+        }
+
+        @Override
+        public void totalReportes(long total) {
+            totalReportes = total;
+        }
+
+        @Override
+        public void reporteReciente(int idReporte, LocalDate fechaReporte) {
+            reportesRecientes.put(idReporte, fechaReporte);
+        }
+
+        void putSpecimen(int idEspecimen, int idEspecie, boolean activo) {
+            removeSpecimen(idEspecimen);
+            especimenes.put(idEspecimen, idEspecie * 2 + (activo ? 1 : 0));
+            if (activo) {
+                activos++;
+                activosPorEspecie.merge(idEspecie, 1, Integer::sum);
+            } else {
+                inactivos++;
+            }
+        }
+
+        void setActive(int idEspecimen, boolean activo) {
+            Integer anterior = especimenes.get(idEspecimen);
+            if (anterior != null) {
+                putSpecimen(idEspecimen, anterior / 2, activo);
+            }
+        }
+
+        void removeSpecimen(int idEspecimen) {
+            Integer anterior = especimenes.remove(idEspecimen);
+            if (anterior == null) {
+                return;
+            }
+            if (anterior % 2 == 1) {
+                activos--;
+                activosPorEspecie.computeIfPresent(anterior / 2, (id, n) -> n == 1 ? null : n - 1);
+            } else {
+                inactivos--;
+            }
+        }
+
+        /**
+         * Especies con más especímenes activos (empates por género y especie, como getMostCommonGeneros)
+         */
+        List<ResumenDashboard.EspecieConteo> topEspecies(int limite) {
+            List<ResumenDashboard.EspecieConteo> conteos = new ArrayList<>(activosPorEspecie.size());
+            activosPorEspecie.forEach((idEspecie, cantidad) -> {
+                String[] nombre = especies.get(idEspecie);
+                if (nombre != null) {
+                    conteos.add(new ResumenDashboard.EspecieConteo(idEspecie, nombre[0], nombre[1],
+                            nombre[0] + " " + nombre[1], cantidad));
+                }
+            });
+            conteos.sort(Comparator.comparingInt(ResumenDashboard.EspecieConteo::cantidad_especimenes).reversed()
+                    .thenComparing(ResumenDashboard.EspecieConteo::genero, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(ResumenDashboard.EspecieConteo::especie, Comparator.nullsLast(Comparator.naturalOrder())));
+            return conteos.size() > limite ? List.copyOf(conteos.subList(0, limite)) : conteos;
+        }
+    }
+
+    /**
+     * Filas con fecha dentro de la ventana de recientes, contadas por día
+     * Solo se guardan las de fecha >= inicio de la ventana; las que van quedando fuera se
+     * descartan al contar.
+     */
+    private static final class Ventana {
+        private final Map<Integer, LocalDate> porId = new HashMap<>();
+        private final TreeMap<LocalDate, Integer> porDia = new TreeMap<>();
+
+        /**
+         * AGREGAR o mover una fila (sale de la ventana si su nueva fecha ya quedó fuera)
+         */
+        void put(int id, LocalDate fecha) {
+            remove(id);
+            if (fecha != null && !fecha.isBefore(LocalDate.now().minusDays(DIAS_RECIENTES))) {
+                porId.put(id, fecha);
+                porDia.merge(fecha, 1, Integer::sum);
+            }
+        }
+
+        void remove(int id) {
+            LocalDate fecha = porId.remove(id);
+            if (fecha != null) {
+                porDia.computeIfPresent(fecha, (dia, n) -> n == 1 ? null : n - 1);
+            }
+        }
+
+        int count(LocalDate desde) {
+            if (!porDia.isEmpty() && porDia.firstKey().isBefore(desde)) {
+                porDia.headMap(desde).clear();
+                porId.values().removeIf(fecha -> fecha.isBefore(desde));
+            }
+            int total = 0;
+            for (int n : porDia.values()) {
+                total += n;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.model.Usuario;
+import com.hugin_munin.util.TokenDigest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de usuarios autenticados, indexado por la huella del token
+ * Evita verificar el JWT y consultar la base de datos en cada petición
+ */
+public class PrincipalCache {
+
+    private static final long DEFAULT_TTL_MS = 60_000;
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PrincipalCache() {
+        this(DEFAULT_TTL_MS, DEFAULT_MAX_ENTRIES);
+    }
+
+    public PrincipalCache(long ttlMs, int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * OBTENER el usuario asociado al token si sigue vigente en caché
+     */
+    public Usuario get(TokenDigest key) {
+        Entry entry = entries.get(key);
+        long ahora = System.currentTimeMillis();
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.validUntil <= ahora) {
+            entries.remove(key, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return copy(entry.usuario);
+    }
+
+    /**
+     * GUARDAR usuario verificado; nunca más allá de la expiración del propio token
+     */
+    public void put(TokenDigest key, Usuario usuario, long tokenExpiresAtMs) {
+        long validUntil = Math.min(System.currentTimeMillis() + ttlMs, tokenExpiresAtMs);
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, new Entry(copy(usuario), validUntil));
+    }
+
+    /**
+     * INVALIDAR un token concreto (logout)
+     */
+    public void invalidate(TokenDigest key) {
+        entries.remove(key);
+    }
+
+    /**
+     * INVALIDAR todas las sesiones en caché de un usuario
+     */
+    public void invalidateUser(Integer idUsuario) {
+        if (idUsuario == null) {
+            return;
+        }
+        entries.values().removeIf(entry -> idUsuario.equals(entry.usuario.getId_usuario()));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Liberar espacio: primero las entradas vencidas y, si no basta, una décima parte del caché
+     */
+    private void evict() {
+        long ahora = System.currentTimeMillis();
+        int antes = entries.size();
+        entries.values().removeIf(entry -> entry.validUntil <= ahora);
+
+        int objetivo = maxEntries - maxEntries / 10;
+        Iterator<TokenDigest> it = entries.keySet().iterator();
+        while (entries.size() > objetivo && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        evictions.addAndGet(Math.max(0, antes - entries.size()));
+    }
+
+    private static Usuario copy(Usuario usuario) {
+        return new Usuario(usuario.getId_usuario(), usuario.getId_rol(), usuario.getNombre_usuario(),
+                usuario.getCorreo(), null, usuario.isActivo());
+    }
+
+    /**
+     * Estadísticas de uso del caché
+     */
+    public Map<String, Object> getStats() {
+        long totalHits = hits.get();
+        long totalMisses = misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entradas", entries.size());
+        stats.put("max_entradas", maxEntries);
+        stats.put("ttl_ms", ttlMs);
+        stats.put("hits", totalHits);
+        stats.put("misses", totalMisses);
+        stats.put("desalojos", evictions.get());
+        stats.put("hit_ratio", totalHits + totalMisses == 0
+                ? 0.0
+                : (double) totalHits / (totalHits + totalMisses));
+        return stats;
+    }
+
+    private static final class Entry {
+        final Usuario usuario;
+        final long validUntil;
+
+        Entry(Usuario usuario, long validUntil) {
+            this.usuario = usuario;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.config.UnitOfWork;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de cambios por tabla para ETags (ver middleware.ConditionalGet)
+ * Cada ruta de escritura de los repositorios incrementa las tablas que modifica;
+ * dentro de una UnitOfWork el incremento espera a que la unidad termine, para que un ETag
+ * nuevo nunca acompañe datos aún sin confirmar.
+ * Las versiones viven en memoria: el prefijo de arranque descarta los ETags de otro proceso.
+ */
+public final class TableVersions {
+
+    private static final String ARRANQUE = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final Map<String, AtomicLong> VERSIONES = new ConcurrentHashMap<>();
+
+    private TableVersions() {
+    }
+
+    /**
+     * INCREMENTAR la versión de las tablas modificadas
+     */
+    public static void bump(String... tablas) {
+        UnitOfWork.runAfterCompletion(() -> increment(tablas));
+    }
+
+    /**
+     * Versión actual de una tabla (0 si no ha cambiado desde el arranque)
+     */
+    public static long get(String tabla) {
+        AtomicLong version = VERSIONES.get(tabla);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * ETag débil a partir de las versiones de las tablas leídas
+     */
+    public static String etag(String... tablas) {
+        StringBuilder etag = new StringBuilder("W/\"").append(ARRANQUE);
+        for (String tabla : tablas) {
+            etag.append('-').append(get(tabla));
+        }
+        return etag.append('"').toString();
+    }
+
+    private static void increment(String[] tablas) {
+        for (String tabla : tablas) {
+            VERSIONES.computeIfAbsent(tabla, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
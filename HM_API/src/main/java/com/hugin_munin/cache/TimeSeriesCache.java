@@ -0,0 +1,288 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.util.Fechas;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Series de tiempo de la analítica ya agrupadas por periodo, una entrada por (métrica, granularidad, rango)
+ * Cada entrada se calcula con un solo recorrido de las filas ordenadas por fecha; los eventos nuevos
+ * se suman a las entradas ya calculadas después de confirmar, y una edición o borrado descarta las de su métrica.
+ */
+public final class TimeSeriesCache {
+
+    // Rangos distintos que se conservan (LRU): cada uno cuesta un int[] por serie
+    private static final int MAX_ENTRADAS = 64;
+
+    /**
+     * Eventos que se pueden graficar y su agrupación
+     */
+    public enum Metrica {
+        ALTAS("altas"),        // registro_alta por origen
+        BAJAS("bajas"),        // registro_baja por causa (las defunciones son una causa de baja)
+        REPORTES("reportes"),  // reporte por tipo de reporte
+        TRASLADOS("traslados"); // reporte_traslado por par de áreas
+
+        private final String nombre;
+
+        Metrica(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public static Metrica parse(String valor) {
+            for (Metrica metrica : values()) {
+                if (metrica.nombre.equalsIgnoreCase(valor)) {
+                    return metrica;
+                }
+            }
+            throw new IllegalArgumentException("Métrica no soportada: " + valor + " (use altas, bajas, reportes o traslados)");
+        }
+    }
+
+    /**
+     * Tamaño del periodo; las semanas empiezan en lunes (ISO)
+     */
+    public enum Granularidad {
+        DIA("dia", "day", ChronoUnit.DAYS),
+        SEMANA("semana", "week", ChronoUnit.WEEKS),
+        MES("mes", "month", ChronoUnit.MONTHS),
+        ANIO("anio", "year", ChronoUnit.YEARS);
+
+        private final String nombre;
+        private final String alias;
+        private final ChronoUnit unidad;
+
+        Granularidad(String nombre, String alias, ChronoUnit unidad) {
+            this.nombre = nombre;
+            this.alias = alias;
+            this.unidad = unidad;
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public static Granularidad parse(String valor) {
+            for (Granularidad granularidad : values()) {
+                if (granularidad.nombre.equalsIgnoreCase(valor) || granularidad.alias.equalsIgnoreCase(valor)) {
+                    return granularidad;
+                }
+            }
+            throw new IllegalArgumentException("Granularidad no soportada: " + valor + " (use dia, semana, mes o anio)");
+        }
+
+        /**
+         * Primer día del periodo que contiene la fecha
+         */
+        public LocalDate inicio(LocalDate fecha) {
+            return switch (this) {
+                case DIA -> fecha;
+                case SEMANA -> fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MES -> fecha.withDayOfMonth(1);
+                case ANIO -> fecha.withDayOfYear(1);
+            };
+        }
+
+        /**
+         * Primer día del periodo siguiente (inicio debe ser inicio de periodo)
+         */
+        public LocalDate siguiente(LocalDate inicio) {
+            return inicio.plus(1, unidad);
+        }
+
+        /**
+         * Posición del periodo de la fecha contando desde el periodo que empieza en desde
+         */
+        public int indice(LocalDate desde, LocalDate fecha) {
+            return (int) unidad.between(desde, inicio(fecha));
+        }
+    }
+
+    /**
+     * Destino de las filas (fecha, clave de la serie), en orden de fecha
+     */
+    @FunctionalInterface
+    public interface Fila {
+        void accept(LocalDate fecha, String clave);
+    }
+
+    /**
+     * Lectura de las filas de una métrica con fecha entre desde y hasta (inclusivas)
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Metrica metrica, LocalDate desde, LocalDate hasta, Fila fila) throws SQLException;
+    }
+
+    private record Clave(Metrica metrica, Granularidad granularidad, LocalDate desde, LocalDate hasta) {
+    }
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static final LinkedHashMap<Clave, Periodos> ENTRADAS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Clave, Periodos> eldest) {
+            return size() > MAX_ENTRADAS;
+        }
+    };
+
+    // Escrituras confirmadas por métrica: un cálculo que se cruzó con alguna no se guarda
+    private static final Map<Metrica, Long> CAMBIOS = new EnumMap<>(Metrica.class);
+
+    private TimeSeriesCache() {
+    }
+
+    /**
+     * OBTENER las series (clave → conteo por periodo) del rango [desde, hasta]
+     * desde se lleva al inicio de su periodo; el último periodo es el que contiene hasta
+     */
+    public static Map<String, int[]> get(Metrica metrica, Granularidad granularidad, LocalDate desde, LocalDate hasta,
+                                         Loader loader) throws SQLException {
+        Clave clave = new Clave(metrica, granularidad, granularidad.inicio(desde), hasta);
+        long version;
+        LOCK.lock();
+        try {
+            Periodos entrada = ENTRADAS.get(clave);
+            if (entrada != null) {
+                return entrada.copy();
+            }
+            version = CAMBIOS.getOrDefault(metrica, 0L);
+        } finally {
+            LOCK.unlock();
+        }
+
+        Periodos nueva = new Periodos(granularidad, clave.desde(), hasta);
+        loader.load(metrica, clave.desde(), hasta, nueva);
+
+        LOCK.lock();
+        try {
+            if (CAMBIOS.getOrDefault(metrica, 0L) == version) {
+                ENTRADAS.put(clave, nueva);
+            }
+            return nueva.copy();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Evento nuevo: se suma a las entradas de su métrica cuyo rango incluye la fecha
+     */
+    public static void append(Metrica metrica, Date fecha, String clave) {
+        LocalDate dia = Fechas.toLocalDate(fecha);
+        afterCommit(metrica, () -> {
+            for (Map.Entry<Clave, Periodos> entrada : ENTRADAS.entrySet()) {
+                if (entrada.getKey().metrica() == metrica) {
+                    entrada.getValue().append(dia, clave);
+                }
+            }
+        });
+    }
+
+    /**
+     * Evento editado o borrado: sin la fecha y clave anteriores no se puede restar, se recalcula
+     */
+    public static void invalidate(Metrica metrica) {
+        afterCommit(metrica, () -> ENTRADAS.keySet().removeIf(clave -> clave.metrica() == metrica));
+    }
+
+    public static void clear() {
+        LOCK.lock();
+        try {
+            ENTRADAS.clear();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // MÉTODOS PRIVADOS
+
+    /**
+     * Aplicar un cambio al confirmar la unidad de trabajo (o ya, si no hay una abierta)
+     */
+    private static void afterCommit(Metrica metrica, Runnable cambio) {
+        UnitOfWork.runAfterCommit(() -> {
+            LOCK.lock();
+            try {
+                CAMBIOS.merge(metrica, 1L, Long::sum);
+                cambio.run();
+            } finally {
+                LOCK.unlock();
+            }
+        });
+    }
+
+    /**
+     * Conteos por periodo de cada serie de un rango
+     */
+    private static final class Periodos implements Fila {
+
+        private final Granularidad granularidad;
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final int total;
+        private final Map<String, int[]> series = new HashMap<>();
+
+        // Barrido de la carga: periodo actual y el inicio del siguiente
+        private int actual;
+        private LocalDate finActual;
+
+        Periodos(Granularidad granularidad, LocalDate desde, LocalDate hasta) {
+            this.granularidad = granularidad;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.total = granularidad.indice(desde, hasta) + 1;
+            this.finActual = granularidad.siguiente(desde);
+        }
+
+        /**
+         * Fila de la carga: llegan en orden de fecha, así que solo se avanza el periodo actual
+         */
+        @Override
+        public void accept(LocalDate fecha, String clave) {
+            if (fecha.isBefore(desde) || fecha.isAfter(hasta)) {
+                return;
+            }
+            while (!fecha.isBefore(finActual)) {
+                actual++;
+                finActual = granularidad.siguiente(finActual);
+            }
+            add(clave, actual);
+        }
+
+        /**
+         * Evento posterior a la carga, con cualquier fecha
+         */
+        void append(LocalDate fecha, String clave) {
+            if (fecha == null || fecha.isBefore(desde) || fecha.isAfter(hasta)) {
+                return;
+            }
+            add(clave, granularidad.indice(desde, fecha));
+        }
+
+        Map<String, int[]> copy() {
+            Map<String, int[]> copia = new HashMap<>(series.size() * 2);
+            series.forEach((clave, valores) -> copia.put(clave, valores.clone()));
+            return copia;
+        }
+
+        private void add(String clave, int periodo) {
+            series.computeIfAbsent(clave, k -> new int[total])[periodo]++;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hugin_munin.cache;
+
+import com.hugin_munin.repository.UsuarioRepository;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Epoch de tokens por usuario (id_usuario → epoch en milisegundos)
+ * Un JWT solo es válido si su claim "epoch" es igual o mayor al epoch vigente del usuario.
+ * Se carga de forma perezosa desde la base de datos, una vez por usuario.
+ */
+public class TokenEpochCache {
+
+    // Marca para usuarios inexistentes o inactivos: ningún token es válido
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private final UsuarioRepository usuarioRepository;
+    private final ConcurrentHashMap<Integer, Long> epochs = new ConcurrentHashMap<>();
+
+    public TokenEpochCache(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    /**
+     * OBTENER epoch vigente para emitir un token nuevo
+     */
+    public long currentEpoch(Integer idUsuario) throws SQLException {
+        long epoch = load(idUsuario);
+        return epoch == REVOKED ? 0 : epoch;
+    }
+
+    /**
+     * VERIFICAR si un token con el epoch indicado sigue vigente para el usuario
+     */
+    public boolean isValid(Integer idUsuario, long tokenEpoch) throws SQLException {
+        if (idUsuario == null) {
+            return false;
+        }
+        long epoch = load(idUsuario);
+        return epoch != REVOKED && tokenEpoch >= epoch;
+    }
+
+    /**
+     * REVOCAR todas las sesiones del usuario: O(1), persiste el nuevo epoch
+     */
+    public long revokeAll(Integer idUsuario) throws SQLException {
+        long anterior = load(idUsuario);
+        long nuevo = Math.max(System.currentTimeMillis(), anterior == REVOKED ? 0 : anterior + 1);
+        usuarioRepository.updateTokenEpoch(idUsuario, nuevo);
+        epochs.put(idUsuario, nuevo);
+        return nuevo;
+    }
+
+    /**
+     * MARCAR usuario eliminado: ningún token suyo vuelve a ser válido
+     */
+    public void markDeleted(Integer idUsuario) {
+        epochs.put(idUsuario, REVOKED);
+    }
+
+    /**
+     * OLVIDAR el valor en memoria (se recarga en la siguiente verificación)
+     */
+    public void forget(Integer idUsuario) {
+        epochs.remove(idUsuario);
+    }
+
+    public int size() {
+        return epochs.size();
+    }
+
+    private long load(Integer idUsuario) throws SQLException {
+        Long epoch = epochs.get(idUsuario);
+        if (epoch != null) {
+            return epoch;
+        }
+
+        Long desdeBd = usuarioRepository.findActiveTokenEpoch(idUsuario);
+        long valor = desdeBd != null ? desdeBd : REVOKED;
+        Long previo = epochs.putIfAbsent(idUsuario, valor);
+        return previo != null ? previo : valor;
+    }
+}
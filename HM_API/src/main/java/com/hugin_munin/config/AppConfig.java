@@ -0,0 +1,65 @@
+package com.hugin_munin.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parámetros de configuración de la aplicación (.env o variables de entorno)
+ */
+public class AppConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AppConfig.class);
+    private static Dotenv dotenv;
+
+    private static Dotenv dotenv() {
+        if (dotenv == null) {
+            dotenv = Dotenv.configure()
+                    .ignoreIfMissing()
+                    .load();
+        }
+        return dotenv;
+    }
+
+    /**
+     * Obtener valor de texto; defaultValue si no existe o está vacío
+     */
+    public static String get(String key, String defaultValue) {
+        String value = dotenv().get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("Valor inválido para {}: {}, usando {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Valor inválido para {}: {}, usando {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hugin_munin.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Origen de conexiones de los repositorios
+ * Los repositorios cierran la conexión al terminar; según el contexto eso la devuelve al pool
+ * o no tiene efecto (conexión de la petición o de una UnitOfWork).
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Proveedor compartido: conexión de la UnitOfWork abierta, si no la de la petición, si no una del pool
+     */
+    static ConnectionProvider shared() {
+        return RequestConnectionScope::getConnection;
+    }
+}
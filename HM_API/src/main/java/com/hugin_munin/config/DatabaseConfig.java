@@ -2,17 +2,41 @@ package com.hugin_munin.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.hugin_munin.metrics.MetricsRegistry;
+import com.hugin_munin.metrics.SqlInstrumentation;
 import io.github.cdimascio.dotenv.Dotenv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class DatabaseConfig {
-    private static HikariDataSource dataSource;
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConfig.class);
+    // volatile y con permitLimiter publicado antes que dataSource: quien ve el pool ya ve el limitador
+    private static volatile HikariDataSource dataSource;
+    private static volatile DbPermitLimiter permitLimiter;
+
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
 
     public static DataSource getDataSource() {
-        if (dataSource == null) {
+        HikariDataSource actual = dataSource;
+        if (actual != null) {
+            return actual;
+        }
+
+        INIT_LOCK.lock();
+        try {
+            if (dataSource != null) {
+                return dataSource;
+            }
+            HikariDataSource nuevo = null;
             try {
                 // Cargar variables de entorno
                 Dotenv dotenv = Dotenv.configure()
@@ -25,10 +49,10 @@ public class DatabaseConfig {
                 String user = getEnvValue(dotenv, "DB_USER", "root");
                 String password = getEnvValue(dotenv, "DB_PSWD", "");
 
-                String jdbcUrl = String.format("jdbc:mysql://%s:3306/%s?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC", host, dbName);
+                String jdbcUrl = String.format("jdbc:mysql://%s:3306/%s?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true", host, dbName);
 
-                System.out.println("Conectando a: " + jdbcUrl);
-                System.out.println("Usuario: " + user);
+                log.info("Conectando a: {}", jdbcUrl);
+                log.info("Usuario: {}", user);
 
                 HikariConfig config = new HikariConfig();
                 config.setJdbcUrl(jdbcUrl);
@@ -42,38 +66,98 @@ public class DatabaseConfig {
                 config.setIdleTimeout(600000);
                 config.setMaxLifetime(1800000);
 
-                dataSource = new HikariDataSource(config);
+                nuevo = new HikariDataSource(config);
+
+                // Permisos delante del pool: espera acotada y luego 503 (ver LoadShedding)
+                permitLimiter = new DbPermitLimiter(
+                        AppConfig.getInt("DB_PERMITS", config.getMaximumPoolSize()),
+                        AppConfig.getLong("DB_PERMIT_WAIT_MS", 2000));
 
                 // Probar la conexión
-                try (Connection testConn = dataSource.getConnection()) {
-                    System.out.println("✅ Conexión a base de datos exitosa");
+                try (Connection testConn = nuevo.getConnection()) {
+                    log.info("✅ Conexión a base de datos exitosa");
                 }
 
+                dataSource = nuevo;
+                return nuevo;
+
             } catch (Exception e) {
-                System.err.println("Error al configurar la base de datos: " + e.getMessage());
-                e.printStackTrace();
+                if (nuevo != null) {
+                    nuevo.close();
+                }
+                log.error("Error al configurar la base de datos: {}", e.getMessage(), e);
                 throw new RuntimeException("No se pudo configurar la conexión a la base de datos", e);
             }
+        } finally {
+            INIT_LOCK.unlock();
         }
-        return dataSource;
     }
 
     private static String getEnvValue(Dotenv dotenv, String key, String defaultValue) {
         String value = dotenv.get(key);
         if (value == null || value.trim().isEmpty()) {
-            System.out.println("Variable " + key + " no encontrada, usando valor por defecto: " + defaultValue);
+            log.info("Variable {} no encontrada, usando valor por defecto: {}", key, defaultValue);
             return defaultValue;
         }
         return value;
     }
 
-    public static Connection getConnection() throws SQLException {
-        return getDataSource().getConnection();
+    /**
+     * Obtener una conexión nueva del pool (con permiso e instrumentación)
+     * Los repositorios no la piden aquí sino a ConnectionProvider.shared()
+     */
+    static Connection acquireConnection() throws SQLException {
+        DataSource ds = getDataSource();
+        DbPermitLimiter limiter = permitLimiter;
+
+        long inicio = System.nanoTime();
+        limiter.acquire();
+        Connection conn;
+        try {
+            conn = ds.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        MetricsRegistry.DB_CONNECTION_ACQUIRE.recordNanos(System.nanoTime() - inicio);
+
+        // Conexión instrumentada: tiempos y filas por consulta (ver /hm/admin/sql-stats)
+        // El permiso se devuelve al cerrar la conexión
+        return SqlInstrumentation.wrap(conn, limiter::release);
+    }
+
+    /**
+     * Preparar consulta de solo lectura con streaming de MySQL (fila a fila, sin cargar el resultado completo)
+     * Mientras el cursor está abierto la conexión no admite otras consultas (ni de otros repositorios:
+     * en una petición todos comparten la conexión), así que el RowHandler no debe consultar la base de datos
+     */
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+
+    /**
+     * Estado del pool (activas, inactivas, en espera); null si aún no se inicializó
+     */
+    public static HikariPoolMXBean getPoolStats() {
+        return dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+    }
+
+    /**
+     * Limitador de permisos de base de datos; null si aún no se inicializó
+     */
+    public static DbPermitLimiter getPermitLimiter() {
+        return permitLimiter;
+    }
+
+    public static int getMaximumPoolSize() {
+        return dataSource != null ? dataSource.getMaximumPoolSize() : 0;
     }
 
     public static void close() {
         if (dataSource != null && !dataSource.isClosed()) {
-            System.out.println("Cerrando " + dataSource.getJdbcUrl());
+            log.info("Cerrando {}", dataSource.getJdbcUrl());
             dataSource.close();
         }
     }
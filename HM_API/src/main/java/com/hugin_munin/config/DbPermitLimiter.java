@@ -0,0 +1,123 @@
+package com.hugin_munin.config;
+
+import com.hugin_munin.metrics.LatencyHistogram;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de acceso a la base de datos delante del pool de Hikari
+ * Cola justa (FIFO) de permisos: cada conexión abierta ocupa uno hasta cerrarse.
+ * Si no hay permiso dentro del presupuesto de espera, la petición se descarta
+ * (la API responde 503 con Retry-After, ver LoadShedding) en lugar de esperar
+ * el connectionTimeout completo del pool.
+ */
+public class DbPermitLimiter {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long waitBudgetMs;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+
+    // Marca por hilo: la petición en curso fue rechazada por falta de permisos
+    private static final ThreadLocal<boolean[]> REJECTED_IN_REQUEST = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    public DbPermitLimiter(int maxPermits, long waitBudgetMs) {
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.waitBudgetMs = waitBudgetMs;
+    }
+
+    /**
+     * OBTENER permiso esperando como máximo el presupuesto configurado
+     */
+    public void acquire() throws SQLTransientConnectionException {
+        // tryAcquire() sin tiempo ignora la cola justa; con tiempo la respeta
+        long inicio = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean obtenido;
+        try {
+            obtenido = permits.tryAcquire(waitBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        } finally {
+            waiting.decrementAndGet();
+            waitTime.recordNanos(System.nanoTime() - inicio);
+        }
+
+        if (!obtenido) {
+            rejected.increment();
+            REJECTED_IN_REQUEST.get()[0] = true;
+            throw new SQLTransientConnectionException(
+                    "Base de datos saturada: sin conexión disponible tras " + waitBudgetMs + " ms");
+        }
+        acquired.increment();
+    }
+
+    /**
+     * LIBERAR permiso (al cerrar la conexión)
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Reiniciar la marca de rechazo al comenzar una petición
+     */
+    public static void startRequest() {
+        REJECTED_IN_REQUEST.get()[0] = false;
+    }
+
+    /**
+     * Marcar la petición en curso como rechazada cuando el rechazo ocurrió en otro hilo (ramas de FanOut)
+     */
+    public static void markRejectedInRequest() {
+        REJECTED_IN_REQUEST.get()[0] = true;
+    }
+
+    /**
+     * La petición en curso fue rechazada por el limitador
+     */
+    public static boolean rejectedInRequest() {
+        return REJECTED_IN_REQUEST.get()[0];
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Peticiones esperando permiso en este momento
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getWaitBudgetMs() {
+        return waitBudgetMs;
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+}
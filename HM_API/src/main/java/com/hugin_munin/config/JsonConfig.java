@@ -0,0 +1,28 @@
+package com.hugin_munin.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * ObjectMapper compartido por toda la aplicación
+ * Javalin (ctx.json / bodyAsClass), el streaming de listas y JwtUtil usan esta misma instancia,
+ * así los serializadores de cada clase se construyen una sola vez.
+ * Blackbird genera accesores en bytecode (LambdaMetafactory) en lugar de reflexión.
+ * Fechas como timestamp y demás valores por defecto se mantienen: el JSON de salida no cambia.
+ */
+public class JsonConfig {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new BlackbirdModule())
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    private JsonConfig() {
+    }
+
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+}
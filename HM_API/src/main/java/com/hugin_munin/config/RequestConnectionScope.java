@@ -0,0 +1,141 @@
+package com.hugin_munin.config;
+
+import com.hugin_munin.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Conexión por petición
+ * Entre begin() y end() (before/after de Javalin) todas las llamadas a repositorios del hilo
+ * comparten una conexión, que se pide al pool en el primer uso y se devuelve en end().
+ * Los repositorios siguen controlando sus propias transacciones; solo su close() no tiene efecto.
+ * Sin petición abierta (tareas de arranque, hilos auxiliares) cada llamada usa una conexión del pool.
+ */
+public final class RequestConnectionScope {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestConnectionScope.class);
+
+    private static final ThreadLocal<RequestConnectionScope> CURRENT = new ThreadLocal<>();
+
+    private Connection connection;
+    private Connection compartida;
+    private long adquiridaEn;
+    private int solicitudes;
+
+    private RequestConnectionScope() {
+    }
+
+    /**
+     * ABRIR el alcance de la petición (sin conexión todavía)
+     */
+    public static void begin() {
+        end();
+        CURRENT.set(new RequestConnectionScope());
+    }
+
+    /**
+     * CERRAR el alcance y devolver la conexión al pool si se llegó a usar
+     */
+    public static void end() {
+        RequestConnectionScope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        CURRENT.remove();
+
+        if (scope.connection == null) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - scope.adquiridaEn;
+        MetricsRegistry.recordRequestConnection(nanos, scope.solicitudes);
+        log.debug("Conexión de la petición: {} solicitudes, retenida {} ms", scope.solicitudes, nanos / 1_000_000);
+
+        try {
+            if (!scope.connection.getAutoCommit()) {
+                log.warn("Conexión de la petición con una transacción abierta, se revierte");
+                scope.connection.rollback();
+                scope.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Error restaurando la conexión de la petición: {}", e.getMessage());
+        } finally {
+            try {
+                scope.connection.close();
+            } catch (SQLException e) {
+                log.warn("Error cerrando la conexión de la petición: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hay una petición abierta en este hilo
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * La petición abierta en este hilo ya tiene su conexión (y su permiso) del pool
+     */
+    public static boolean holdsConnection() {
+        RequestConnectionScope scope = CURRENT.get();
+        return scope != null && scope.connection != null;
+    }
+
+    /**
+     * Conexión para un repositorio (ver ConnectionProvider.shared())
+     */
+    static Connection getConnection() throws SQLException {
+        Connection enUnidad = UnitOfWork.currentConnection();
+        if (enUnidad != null) {
+            return enUnidad;
+        }
+
+        RequestConnectionScope scope = CURRENT.get();
+        if (scope == null) {
+            return DatabaseConfig.acquireConnection();
+        }
+
+        scope.solicitudes++;
+        scope.physical();
+        return scope.compartida;
+    }
+
+    /**
+     * Conexión física de la petición abierta (se obtiene en el primer uso), o null si no hay petición
+     * La UnitOfWork la usa para no pedir una segunda conexión al pool
+     */
+    static Connection currentPhysical() throws SQLException {
+        RequestConnectionScope scope = CURRENT.get();
+        return scope != null ? scope.physical() : null;
+    }
+
+    private Connection physical() throws SQLException {
+        if (connection == null) {
+            connection = DatabaseConfig.acquireConnection();
+            compartida = nonClosing(connection);
+            adquiridaEn = System.nanoTime();
+        }
+        return connection;
+    }
+
+    private static Connection nonClosing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(RequestConnectionScope.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
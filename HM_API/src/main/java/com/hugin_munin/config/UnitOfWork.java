@@ -0,0 +1,214 @@
+package com.hugin_munin.config;
+
+import com.hugin_munin.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unidad de trabajo: una sola conexión y una sola transacción para varias llamadas a repositorios
+ * Mientras está abierta, ConnectionProvider.shared() en el mismo hilo devuelve esa conexión
+ * (la de la petición si hay una abierta, ver RequestConnectionScope).
+ * Los close/commit/rollback/setAutoCommit de los repositorios no tienen efecto: se confirma al
+ * terminar run() o se deshace todo si lanza. Un run() dentro de otro se une a la unidad abierta;
+ * savepoint() permite que un paso opcional falle sin deshacer el resto.
+ */
+public final class UnitOfWork {
+
+    private static final Logger log = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T execute() throws E;
+    }
+
+    private final Connection connection;
+    private final Connection participante;
+    private final List<Runnable> alTerminar = new ArrayList<>();
+    private final List<Runnable> alConfirmar = new ArrayList<>();
+    private int usos;
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+        this.participante = participating(connection);
+    }
+
+    /**
+     * EJECUTAR el trabajo en una transacción (se une a la unidad abierta si ya hay una)
+     */
+    public static <T, E extends Exception> T run(String nombre, Work<T, E> work) throws E, SQLException {
+        if (CURRENT.get() != null) {
+            return work.execute();
+        }
+
+        long inicio = System.nanoTime();
+        Connection dePeticion = RequestConnectionScope.currentPhysical();
+        boolean propia = dePeticion == null;
+        Connection conn = propia ? DatabaseConfig.acquireConnection() : dePeticion;
+        UnitOfWork unidad = new UnitOfWork(conn);
+        boolean confirmada = false;
+
+        CURRENT.set(unidad);
+        try {
+            conn.setAutoCommit(false);
+            T resultado = work.execute();
+            conn.commit();
+            confirmada = true;
+            return resultado;
+        } catch (Throwable t) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                t.addSuppressed(rollbackEx);
+            }
+            throw t;
+        } finally {
+            CURRENT.remove();
+            if (confirmada) {
+                unidad.alConfirmar.forEach(Runnable::run);
+            }
+            unidad.alTerminar.forEach(Runnable::run);
+            try {
+                conn.setAutoCommit(true);
+                if (propia) {
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                log.warn("Error cerrando la conexión de la unidad {}: {}", nombre, e.getMessage());
+            }
+
+            long nanos = System.nanoTime() - inicio;
+            MetricsRegistry.recordUnitOfWork(nombre, nanos, confirmada, unidad.usos);
+            log.debug("Unidad de trabajo {} {} en {} ms ({} usos de una conexión)",
+                    nombre, confirmada ? "confirmada" : "revertida", nanos / 1_000_000, unidad.usos);
+        }
+    }
+
+    /**
+     * EJECUTAR un paso que puede fallar sin deshacer la unidad abierta (savepoint)
+     * Fuera de una unidad se ejecuta tal cual
+     */
+    public static <T, E extends Exception> T savepoint(Work<T, E> work) throws E, SQLException {
+        UnitOfWork actual = CURRENT.get();
+        return actual != null ? actual.runNested(work) : work.execute();
+    }
+
+    /**
+     * REGISTRAR una acción para cuando termine la unidad abierta (confirmada o revertida)
+     * Devuelve false si no hay unidad abierta: el llamador la ejecuta de inmediato
+     */
+    public static boolean afterCompletion(Runnable accion) {
+        UnitOfWork actual = CURRENT.get();
+        if (actual == null) {
+            return false;
+        }
+        actual.alTerminar.add(accion);
+        return true;
+    }
+
+    /**
+     * REGISTRAR una acción solo para cuando se confirme la unidad abierta
+     * Se descarta si la unidad (o el savepoint en que se registró) se revierte.
+     * Devuelve false si no hay unidad abierta: el llamador la ejecuta de inmediato
+     */
+    public static boolean afterCommit(Runnable accion) {
+        UnitOfWork actual = CURRENT.get();
+        if (actual == null) {
+            return false;
+        }
+        actual.alConfirmar.add(accion);
+        return true;
+    }
+
+    /**
+     * EJECUTAR la acción al confirmar la unidad abierta, o ya si no hay una
+     * Para cachés e índices en memoria que solo deben reflejar escrituras confirmadas
+     */
+    public static void runAfterCommit(Runnable accion) {
+        if (!afterCommit(accion)) {
+            accion.run();
+        }
+    }
+
+    /**
+     * EJECUTAR la acción al terminar la unidad abierta (confirmada o revertida), o ya si no hay una
+     */
+    public static void runAfterCompletion(Runnable accion) {
+        if (!afterCompletion(accion)) {
+            accion.run();
+        }
+    }
+
+    /**
+     * Hay una unidad abierta en este hilo
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Conexión de la unidad abierta en este hilo, o null
+     */
+    static Connection currentConnection() {
+        UnitOfWork actual = CURRENT.get();
+        if (actual == null) {
+            return null;
+        }
+        actual.usos++;
+        return actual.participante;
+    }
+
+    private <T, E extends Exception> T runNested(Work<T, E> work) throws E, SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        int pendientes = alConfirmar.size();
+        try {
+            T resultado = work.execute();
+            connection.releaseSavepoint(savepoint);
+            return resultado;
+        } catch (Throwable t) {
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException rollbackEx) {
+                t.addSuppressed(rollbackEx);
+            }
+            alConfirmar.subList(pendientes, alConfirmar.size()).clear();
+            throw t;
+        }
+    }
+
+    /**
+     * Vista de la conexión para los repositorios: la unidad decide cuándo confirmar y cerrar
+     */
+    private static Connection participating(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                        case "commit":
+                        case "setAutoCommit":
+                            return null;
+                        case "rollback":
+                            if (args == null) {
+                                return null;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,136 @@
+package com.hugin_munin.controller;
+
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.PrincipalCache;
+import com.hugin_munin.metrics.SqlStats;
+import com.hugin_munin.service.AuthService;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador de administración y diagnóstico interno
+ */
+public class AdminController {
+
+    private final PrincipalCache principalCache;
+    private final AuthService authService;
+
+    public AdminController(PrincipalCache principalCache, AuthService authService) {
+        this.principalCache = principalCache;
+        this.authService = authService;
+    }
+
+    /**
+     * GET /hm/admin/cache - Estadísticas de los cachés de catálogo
+     */
+    public void getCacheStats(Context ctx) {
+        try {
+            List<Map<String, Object>> stats = CatalogCache.getAllStats();
+            ctx.json(Map.of(
+                    "data", stats,
+                    "usuarios_autenticados", principalCache.getStats(),
+                    "total", stats.size(),
+                    "message", "Estadísticas de caché obtenidas exitosamente"
+            ));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener estadísticas de caché", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /hm/admin/cache/invalidate - Descartar todos los cachés de catálogo
+     */
+    public void invalidateCaches(Context ctx) {
+        try {
+            CatalogCache.invalidateAll();
+            ctx.json(Map.of(
+                    "success", true,
+                    "message", "Cachés de catálogo invalidados"
+            ));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al invalidar cachés", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /hm/admin/sql-stats - Consultas SQL por huella, ordenadas por tiempo total
+     */
+    public void getSqlStats(Context ctx) {
+        try {
+            String limitParam = ctx.queryParam("limit");
+            int limit = limitParam != null ? Integer.parseInt(limitParam) : 50;
+            if (limit <= 0) {
+                throw new IllegalArgumentException("El límite debe ser mayor a 0");
+            }
+
+            List<Map<String, Object>> stats = SqlStats.getReport(limit);
+            ctx.json(Map.of(
+                    "data", stats,
+                    "total_consultas_distintas", SqlStats.size(),
+                    "umbral_consulta_lenta_ms", SqlStats.getSlowQueryThresholdMs(),
+                    "message", "Estadísticas SQL obtenidas exitosamente"
+            ));
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetro inválido", "El límite debe ser un número entero"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetro inválido", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener estadísticas SQL", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /hm/admin/sql-stats/reset - Descartar estadísticas SQL acumuladas
+     */
+    public void resetSqlStats(Context ctx) {
+        SqlStats.reset();
+        ctx.json(Map.of(
+                "success", true,
+                "message", "Estadísticas SQL reiniciadas"
+        ));
+    }
+
+    /**
+     * POST /hm/admin/usuarios/{id}/revocar-sesiones - Invalidar todos los tokens de un usuario
+     */
+    public void revokeUserSessions(Context ctx) {
+        try {
+            int id = Integer.parseInt(ctx.pathParam("id"));
+            authService.revokeAllSessions(id);
+            ctx.json(Map.of(
+                    "success", true,
+                    "message", "Sesiones del usuario revocadas",
+                    "id_usuario", id
+            ));
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("ID inválido", "El ID debe ser un número entero"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.NOT_FOUND)
+                    .json(createErrorResponse("Usuario no encontrado", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al revocar sesiones", e.getMessage()));
+        }
+    }
+
+    /**
+     * Crear respuesta de error estandarizada
+     */
+    private Map<String, Object> createErrorResponse(String error, String details) {
+        return Map.of(
+                "success", false,
+                "error", error,
+                "details", details != null ? details : "Sin detalles",
+                "timestamp", System.currentTimeMillis()
+        );
+    }
+}
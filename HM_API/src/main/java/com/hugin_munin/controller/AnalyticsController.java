@@ -0,0 +1,55 @@
+package com.hugin_munin.controller;
+
+import com.hugin_munin.dto.SerieTemporal;
+import com.hugin_munin.service.AnalyticsService;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Controlador de la analítica por periodos
+ */
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * GET /hm/analytics/timeseries - Conteos por periodo de una métrica
+     * Parámetros: metric=altas|bajas|reportes|traslados, granularity=dia|semana|mes|anio (o day|week|month|year),
+     * inicio/fin (YYYY-MM-DD, inclusivas)
+     */
+    public void getTimeSeries(Context ctx) {
+        try {
+            SerieTemporal serie = analyticsService.getTimeSeries(ctx.queryParam("metric"),
+                    ctx.queryParam("granularity"), ctx.queryParam("inicio"), ctx.queryParam("fin"));
+
+            ctx.json(Map.of(
+                    "data", serie,
+                    "message", "Serie obtenida exitosamente"
+            ));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener la serie", e.getMessage()));
+        }
+    }
+
+    /**
+     * Método auxiliar para crear respuestas de error consistentes
+     */
+    private Map<String, Object> createErrorResponse(String error, String details) {
+        return Map.of(
+                "success", false,
+                "error", error,
+                "details", details != null ? details : "Sin detalles",
+                "timestamp", System.currentTimeMillis()
+        );
+    }
+}
@@ -7,6 +7,8 @@ import com.hugin_munin.service.UsuarioService;
 import com.hugin_munin.util.JwtUtil;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -17,6 +19,8 @@ import java.util.HashMap;
  */
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthService authService;
     private final UsuarioService usuarioService;
 
@@ -30,13 +34,13 @@ public class AuthController {
      */
     public void login(Context ctx) {
         try {
-            System.out.println("AuthController: Iniciando proceso de login con JWT");
+            log.debug("AuthController: Iniciando proceso de login con JWT");
 
             Map<String, String> credentials = ctx.bodyAsClass(Map.class);
             String nombreUsuario = credentials.get("nombre_usuario");
             String contrasena = credentials.get("contrasena");
 
-            System.out.println("Datos recibidos - Usuario: " + nombreUsuario);
+            log.debug("Datos recibidos - Usuario: {}", nombreUsuario);
 
             if (nombreUsuario == null || nombreUsuario.trim().isEmpty()) {
                 ctx.status(HttpStatus.BAD_REQUEST)
@@ -53,7 +57,7 @@ public class AuthController {
             AuthService.AuthResponse authResponse = authService.authenticate(nombreUsuario, contrasena);
 
             if (!authResponse.isSuccess()) {
-                System.out.println("Login fallido: " + authResponse.getMessage());
+                log.debug("Login fallido: {}", authResponse.getMessage());
                 ctx.status(HttpStatus.UNAUTHORIZED)
                         .json(createErrorResponse("Credenciales inválidas", authResponse.getMessage()));
                 return;
@@ -62,7 +66,7 @@ public class AuthController {
             Usuario usuario = authResponse.getUsuario();
             String token = authResponse.getToken();
 
-            System.out.println("Usuario autenticado: " + usuario.getNombre_usuario());
+            log.debug("Usuario autenticado: {}", usuario.getNombre_usuario());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -81,8 +85,7 @@ public class AuthController {
             ctx.json(response);
 
         } catch (Exception e) {
-            System.err.println("Error en login: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en login: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al procesar el login"));
         }
@@ -93,16 +96,16 @@ public class AuthController {
      */
     public void logout(Context ctx) {
         try {
-            System.out.println("AuthController: Iniciando logout con JWT");
+            log.debug("AuthController: Iniciando logout con JWT");
 
             String token = extractTokenFromHeader(ctx);
 
             if (token != null) {
                 boolean invalidated = authService.invalidateToken(token);
                 if (invalidated) {
-                    System.out.println("Token invalidado exitosamente");
+                    log.debug("Token invalidado exitosamente");
                 } else {
-                    System.out.println("Error al invalidar token");
+                    log.debug("Error al invalidar token");
                 }
             }
 
@@ -114,8 +117,7 @@ public class AuthController {
             ctx.json(response);
 
         } catch (Exception e) {
-            System.err.println("Error en logout: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en logout: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al procesar el logout"));
         }
@@ -126,12 +128,12 @@ public class AuthController {
      */
     public void verifyToken(Context ctx) {
         try {
-            System.out.println("AuthController: Verificando token JWT");
+            log.debug("AuthController: Verificando token JWT");
 
             String token = extractTokenFromHeader(ctx);
 
             if (token == null) {
-                System.out.println("No hay token en el header Authorization");
+                log.debug("No hay token en el header Authorization");
                 ctx.json(Map.of(
                         "success", false,
                         "message", "No hay token de autenticación",
@@ -144,7 +146,7 @@ public class AuthController {
             Usuario usuario = authService.getUserByToken(token);
 
             if (usuario == null) {
-                System.out.println("Token inválido o expirado");
+                log.debug("Token inválido o expirado");
                 ctx.json(Map.of(
                         "success", false,
                         "message", "Token inválido o expirado",
@@ -154,11 +156,11 @@ public class AuthController {
                 return;
             }
 
-            System.out.println("Token válido para usuario: " + usuario.getNombre_usuario());
+            log.debug("Token válido para usuario: {}", usuario.getNombre_usuario());
 
             // Verificar si el token necesita renovación
             String refreshedToken = authService.refreshTokenIfNeeded(token);
-            boolean tokenRefreshed = !refreshedToken.equals(token);
+            boolean tokenRefreshed = refreshedToken != null && !refreshedToken.equals(token);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -181,8 +183,7 @@ public class AuthController {
             ctx.json(response);
 
         } catch (Exception e) {
-            System.err.println("Error en verifyToken: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en verifyToken: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al verificar el token"));
         }
@@ -193,18 +194,18 @@ public class AuthController {
      */
     public void getProfile(Context ctx) {
         try {
-            System.out.println("AuthController: Iniciando getProfile con JWT");
+            log.debug("AuthController: Iniciando getProfile con JWT");
 
             Usuario usuario = ctx.attribute("usuario");
 
             if (usuario == null) {
-                System.out.println("AuthController: Usuario no encontrado en attributes");
+                log.debug("AuthController: Usuario no encontrado en attributes");
                 ctx.status(HttpStatus.UNAUTHORIZED)
                         .json(createErrorResponse("No autorizado", "Debe iniciar sesión para acceder al perfil"));
                 return;
             }
 
-            System.out.println("AuthController: Usuario obtenido: " + usuario.getNombre_usuario());
+            log.debug("AuthController: Usuario obtenido: {}", usuario.getNombre_usuario());
 
             try {
                 UsuarioConPermisos usuarioConPermisos = usuarioService.getUsuarioConPermisosByCorreo(usuario.getCorreo());
@@ -225,11 +226,11 @@ public class AuthController {
                     ));
                 }
 
-                System.out.println("AuthController: Perfil preparado con " + usuarioConPermisos.getPermisos().size() + " permisos");
+                log.debug("AuthController: Perfil preparado con {} permisos", usuarioConPermisos.getPermisos().size());
                 ctx.json(profile);
 
             } catch (Exception e) {
-                System.err.println("AuthController: Error obteniendo permisos, devolviendo perfil básico: " + e.getMessage());
+                log.warn("AuthController: Error obteniendo permisos, devolviendo perfil básico: {}", e.getMessage());
 
                 Map<String, Object> basicProfile = new HashMap<>();
                 basicProfile.put("success", true);
@@ -248,8 +249,7 @@ public class AuthController {
             }
 
         } catch (Exception e) {
-            System.err.println("AuthController: Error en getProfile: " + e.getMessage());
-            e.printStackTrace();
+            log.error("AuthController: Error en getProfile: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al obtener el perfil del usuario"));
         }
@@ -260,7 +260,7 @@ public class AuthController {
      */
     public void changePassword(Context ctx) {
         try {
-            System.out.println("AuthController: Iniciando cambio de contraseña");
+            log.debug("AuthController: Iniciando cambio de contraseña");
 
             Usuario usuario = ctx.attribute("usuario");
             if (usuario == null) {
@@ -299,7 +299,7 @@ public class AuthController {
                 return;
             }
 
-            System.out.println("Contraseña cambiada para usuario: " + usuario.getNombre_usuario());
+            log.debug("Contraseña cambiada para usuario: {}", usuario.getNombre_usuario());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -310,8 +310,7 @@ public class AuthController {
             ctx.json(response);
 
         } catch (Exception e) {
-            System.err.println("Error en changePassword: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en changePassword: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al cambiar la contraseña"));
         }
@@ -322,7 +321,7 @@ public class AuthController {
      */
     public void refreshToken(Context ctx) {
         try {
-            System.out.println("AuthController: Refrescando token");
+            log.debug("AuthController: Refrescando token");
 
             String token = extractTokenFromHeader(ctx);
 
@@ -351,8 +350,7 @@ public class AuthController {
             ctx.json(response);
 
         } catch (Exception e) {
-            System.err.println("Error en refreshToken: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en refreshToken: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno", "Error al refrescar el token"));
         }
@@ -0,0 +1,49 @@
+package com.hugin_munin.controller;
+
+import com.hugin_munin.dto.ResumenDashboard;
+import com.hugin_munin.service.DashboardService;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Controlador del dashboard
+ */
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * GET /hm/dashboard/summary - Conteos y especies más comunes en una sola respuesta
+     */
+    public void getSummary(Context ctx) {
+        try {
+            ResumenDashboard resumen = dashboardService.getSummary();
+
+            ctx.json(Map.of(
+                    "data", resumen,
+                    "message", "Resumen obtenido exitosamente"
+            ));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener el resumen del dashboard", e.getMessage()));
+        }
+    }
+
+    /**
+     * Método auxiliar para crear respuestas de error consistentes
+     */
+    private Map<String, Object> createErrorResponse(String error, String details) {
+        return Map.of(
+                "success", false,
+                "error", error,
+                "details", details != null ? details : "Sin detalles",
+                "timestamp", System.currentTimeMillis()
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package com.hugin_munin.controller;
 
+import com.hugin_munin.dto.Censo;
 import com.hugin_munin.model.Especie;
 import com.hugin_munin.service.EspecieService;
 
@@ -207,6 +208,53 @@ public class EspecieController {
         }
     }
 
+    /**
+     * GET /hm/especies/{id}/censo - Especímenes vivos de la especie a una fecha o su evolución
+     * Parámetros: fecha (YYYY-MM-DD, hoy por defecto) o inicio/fin/granularity=dia|semana|mes|anio
+     */
+    public void getSpecieCensus(Context ctx) {
+        try {
+            int id = Integer.parseInt(ctx.pathParam("id"));
+            Censo censo = especieService.getCensus(id, ctx.queryParam("fecha"), ctx.queryParam("inicio"),
+                    ctx.queryParam("fin"), ctx.queryParam("granularity"));
+
+            ctx.json(Map.of(
+                    "data", censo,
+                    "message", "Censo obtenido exitosamente"
+            ));
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("ID inválido", "El ID debe ser un número entero"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener el censo", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /hm/especies/censo - Especímenes vivos de toda la colección (y por especie) a una fecha o su evolución
+     */
+    public void getCollectionCensus(Context ctx) {
+        try {
+            Censo censo = especieService.getCensus(null, ctx.queryParam("fecha"), ctx.queryParam("inicio"),
+                    ctx.queryParam("fin"), ctx.queryParam("granularity"));
+
+            ctx.json(Map.of(
+                    "data", censo,
+                    "message", "Censo obtenido exitosamente"
+            ));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener el censo", e.getMessage()));
+        }
+    }
+
     /**
      * GET /hm/especies/estadisticas - Obtener estadísticas de especies
      */
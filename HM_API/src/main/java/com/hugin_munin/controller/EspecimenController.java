@@ -1,10 +1,14 @@
 package com.hugin_munin.controller;
 
+import com.hugin_munin.dto.EspecimenSugerencia;
 import com.hugin_munin.model.Especimen;
 import com.hugin_munin.service.EspecimenService;
+import com.hugin_munin.util.JsonListStreamer;
 
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
@@ -16,6 +20,8 @@ import java.sql.SQLException;
  * Maneja todas las operaciones CRUD para especímenes
  */
 public class EspecimenController {
+    private static final Logger log = LoggerFactory.getLogger(EspecimenController.class);
+
     private final EspecimenService especimenService;
 
     public EspecimenController(EspecimenService especimenService) {
@@ -24,21 +30,65 @@ public class EspecimenController {
 
     /**
      * GET /hm/especimenes - Obtener todos los especímenes
+     * Con cursor, size o page responde una sola página (sort=id|nombre, activos=true)
      */
     public void getAllSpecimens(Context ctx) {
         try {
-            List<Especimen> especimenes = especimenService.getAllSpecimens();
-            ctx.json(Map.of(
-                    "data", especimenes,
-                    "total", especimenes.size(),
-                    "message", "Especímenes obtenidos exitosamente"
-            ));
+            String cursor = ctx.queryParam("cursor");
+            String size = ctx.queryParam("size");
+            String page = ctx.queryParam("page");
+
+            if (cursor != null || size != null || page != null) {
+                EspecimenService.SpecimenPage pagina = especimenService.findSpecimensPage(
+                        cursor,
+                        page != null ? Integer.parseInt(page) : 1,
+                        size != null ? Integer.parseInt(size) : 50,
+                        ctx.queryParam("search"),
+                        ctx.queryParam("sort"),
+                        "true".equalsIgnoreCase(ctx.queryParam("activos")));
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("data", pagina.getEspecimenes());
+                response.put("total", pagina.getTotal());
+                response.put("next_cursor", pagina.getNextCursor());
+                response.put("has_more", pagina.isHasMore());
+                response.put("message", "Especímenes obtenidos exitosamente");
+                ctx.json(response);
+                return;
+            }
+
+            streamAllSpecimens(ctx);
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", "page y size deben ser números enteros"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
         } catch (Exception e) {
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al obtener especímenes", e.getMessage()));
         }
     }
 
+    /**
+     * Listado completo sin paginar, escrito en streaming
+     */
+    private void streamAllSpecimens(Context ctx) {
+        JsonListStreamer streamer = JsonListStreamer.envelope(ctx);
+        try {
+            especimenService.streamAllSpecimens(streamer);
+            streamer.finish(Map.of("message", "Especímenes obtenidos exitosamente"));
+        } catch (Exception e) {
+            if (streamer.isStarted()) {
+                log.error("Error a mitad del streaming de especímenes ({} enviados)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al obtener especímenes", e.getMessage()));
+        }
+    }
+
     /**
      * GET /hm/especimenes/{id} - Obtener especimen por ID
      */
@@ -123,6 +173,36 @@ public class EspecimenController {
         }
     }
 
+    /**
+     * GET /hm/especimenes/autocomplete?q=&limit=&activos= - Sugerencias mientras se escribe
+     * Busca en número de inventario, nombre y especie; una q vacía devuelve una lista vacía
+     */
+    public void autocomplete(Context ctx) {
+        try {
+            String texto = ctx.queryParam("q");
+            String limitParam = ctx.queryParam("limit");
+            int limite = limitParam == null || limitParam.isBlank() ? 10 : Integer.parseInt(limitParam.trim());
+            boolean soloActivos = "true".equalsIgnoreCase(ctx.queryParam("activos"));
+
+            List<EspecimenSugerencia> sugerencias = especimenService.autocompleteSpecimens(texto, limite, soloActivos);
+
+            ctx.json(Map.of(
+                    "data", sugerencias,
+                    "total", sugerencias.size(),
+                    "search_term", texto != null ? texto : ""
+            ));
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetro inválido", "limit debe ser un número entero"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetro inválido", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error en el autocompletado", e.getMessage()));
+        }
+    }
+
     /**
      * GET /hm/especimenes - Buscar especímenes por número de inventario
      */
@@ -0,0 +1,83 @@
+package com.hugin_munin.controller;
+
+import com.hugin_munin.service.ExportService;
+import com.hugin_munin.util.ExportStreamer;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Controlador de exportaciones completas en CSV o JSONL
+ */
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * GET /hm/export/{entidad} - Volcado en streaming
+     * Parámetros: format=csv|jsonl, campos=a,b,c, inicio/fin (YYYY-MM-DD, inclusivas), gzip=true
+     */
+    public void export(Context ctx) {
+        String format = ctx.queryParam("format") != null ? ctx.queryParam("format") : "csv";
+        if (!format.equals("csv") && !format.equals("jsonl")) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Formato no soportado", "Use format=csv o format=jsonl"));
+            return;
+        }
+
+        ExportService.Exportacion exportacion;
+        try {
+            exportacion = exportService.prepare(ctx.pathParam("entidad"), ctx.queryParam("campos"),
+                    ctx.queryParam("inicio"), ctx.queryParam("fin"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
+            return;
+        }
+
+        String nombre = exportacion.entidad().nombre();
+        boolean gzip = "true".equalsIgnoreCase(ctx.queryParam("gzip"));
+        ExportStreamer streamer = format.equals("csv")
+                ? ExportStreamer.csv(ctx, nombre, exportacion.columnas(), gzip)
+                : ExportStreamer.jsonLines(ctx, nombre, exportacion.columnas(), gzip);
+
+        long inicio = System.nanoTime();
+        try {
+            exportService.export(exportacion, streamer);
+            streamer.finish();
+
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            log.info("Exportación {} ({}{}): {} filas en {} ms ({} filas/s)", nombre, format, gzip ? "+gzip" : "",
+                    streamer.getTotal(), ms, ms == 0 ? streamer.getTotal() : streamer.getTotal() * 1000L / ms);
+        } catch (Exception e) {
+            if (streamer.isStarted()) {
+                log.error("Error a mitad de la exportación {} ({} filas enviadas)", nombre, streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error al exportar " + nombre, e.getMessage()));
+        }
+    }
+
+    /**
+     * Crear respuesta de error estandarizada
+     */
+    private Map<String, Object> createErrorResponse(String error, String details) {
+        return Map.of(
+                "success", false,
+                "error", error,
+                "details", details != null ? details : "Sin detalles",
+                "timestamp", System.currentTimeMillis()
+        );
+    }
+}
@@ -0,0 +1,191 @@
+package com.hugin_munin.controller;
+
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.PrincipalCache;
+import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.config.DbPermitLimiter;
+import com.hugin_munin.metrics.LatencyHistogram;
+import com.hugin_munin.metrics.MetricsRegistry;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador de métricas en formato de texto de Prometheus
+ */
+public class MetricsController {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrincipalCache principalCache;
+
+    public MetricsController(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * GET /hm/metrics - Latencias por ruta, autenticación, cachés y pool de conexiones
+     */
+    public void getMetrics(Context ctx) {
+        try {
+            StringBuilder out = new StringBuilder(8192);
+
+            writeRequestHistograms(out);
+            writeAuthCounters(out);
+            writeCacheCounters(out);
+            writePoolGauges(out);
+            writeUnitsOfWork(out);
+
+            ctx.contentType(CONTENT_TYPE).result(out.toString());
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(Map.of(
+                            "success", false,
+                            "error", "Error al generar métricas",
+                            "details", e.getMessage() != null ? e.getMessage() : "Sin detalles",
+                            "timestamp", System.currentTimeMillis()
+                    ));
+        }
+    }
+
+    private void writeRequestHistograms(StringBuilder out) {
+        String nombre = "hm_http_request_duration_seconds";
+        header(out, nombre, "histogram", "Duración de las peticiones HTTP por ruta, método y clase de estado");
+        MetricsRegistry.forEachRequestHistogram((etiquetas, histograma) ->
+                writeHistogram(out, nombre,
+                        "route=\"" + escape(etiquetas[0]) + "\",method=\"" + etiquetas[1]
+                                + "\",status=\"" + etiquetas[2] + "\"",
+                        histograma.snapshot()));
+    }
+
+    private void writeAuthCounters(StringBuilder out) {
+        String nombre = "hm_auth_failures_total";
+        header(out, nombre, "counter", "Peticiones rechazadas por el middleware de autenticación");
+        sample(out, nombre, "reason=\"unauthorized\"", MetricsRegistry.AUTH_UNAUTHORIZED.sum());
+        sample(out, nombre, "reason=\"forbidden\"", MetricsRegistry.AUTH_FORBIDDEN.sum());
+    }
+
+    private void writeCacheCounters(StringBuilder out) {
+        List<Map<String, Object>> catalogos = CatalogCache.getAllStats();
+
+        header(out, "hm_cache_hits_total", "counter", "Aciertos de caché en memoria");
+        for (Map<String, Object> stats : catalogos) {
+            sample(out, "hm_cache_hits_total", cacheLabel(stats.get("catalogo")), toNumber(stats.get("hits")));
+        }
+        Map<String, Object> principales = principalCache.getStats();
+        sample(out, "hm_cache_hits_total", cacheLabel("usuarios_autenticados"), toNumber(principales.get("hits")));
+
+        header(out, "hm_cache_misses_total", "counter", "Fallos de caché en memoria");
+        for (Map<String, Object> stats : catalogos) {
+            sample(out, "hm_cache_misses_total", cacheLabel(stats.get("catalogo")), toNumber(stats.get("misses")));
+        }
+        sample(out, "hm_cache_misses_total", cacheLabel("usuarios_autenticados"), toNumber(principales.get("misses")));
+    }
+
+    private void writePoolGauges(StringBuilder out) {
+        HikariPoolMXBean pool = DatabaseConfig.getPoolStats();
+        if (pool != null) {
+            gauge(out, "hm_db_pool_active_connections", "Conexiones en uso", pool.getActiveConnections());
+            gauge(out, "hm_db_pool_idle_connections", "Conexiones inactivas", pool.getIdleConnections());
+            gauge(out, "hm_db_pool_total_connections", "Conexiones abiertas", pool.getTotalConnections());
+            gauge(out, "hm_db_pool_pending_threads", "Hilos esperando una conexión", pool.getThreadsAwaitingConnection());
+            gauge(out, "hm_db_pool_max_connections", "Tamaño máximo del pool", DatabaseConfig.getMaximumPoolSize());
+        }
+
+        DbPermitLimiter limiter = DatabaseConfig.getPermitLimiter();
+        if (limiter != null) {
+            gauge(out, "hm_db_permits_available", "Permisos de base de datos libres", limiter.getAvailablePermits());
+            gauge(out, "hm_db_permits_max", "Permisos de base de datos totales", limiter.getMaxPermits());
+            gauge(out, "hm_db_permit_queue_depth", "Peticiones esperando un permiso de base de datos", limiter.getQueueDepth());
+
+            header(out, "hm_db_permit_rejected_total", "counter", "Peticiones descartadas (503) por falta de permisos");
+            sample(out, "hm_db_permit_rejected_total", "", limiter.getRejectedCount());
+
+            String espera = "hm_db_permit_wait_seconds";
+            header(out, espera, "histogram", "Espera por un permiso de base de datos");
+            writeHistogram(out, espera, "", limiter.getWaitTime().snapshot());
+        }
+
+        String nombre = "hm_db_connection_acquire_seconds";
+        header(out, nombre, "histogram", "Tiempo para obtener una conexión del pool");
+        writeHistogram(out, nombre, "", MetricsRegistry.DB_CONNECTION_ACQUIRE.snapshot());
+
+        // _count = peticiones que usaron la base de datos; solicitudes / _count = llamadas por petición
+        String retenida = "hm_db_request_connection_held_seconds";
+        header(out, retenida, "histogram", "Tiempo que una petición retiene su conexión");
+        writeHistogram(out, retenida, "", MetricsRegistry.DB_REQUEST_CONNECTION_HELD.snapshot());
+
+        header(out, "hm_db_request_connection_requests_total", "counter",
+                "Solicitudes de conexión de repositorios atendidas por la conexión de la petición");
+        sample(out, "hm_db_request_connection_requests_total", "", MetricsRegistry.DB_REQUEST_CONNECTION_REQUESTS.sum());
+    }
+
+    private void writeUnitsOfWork(StringBuilder out) {
+        String nombre = "hm_unit_of_work_duration_seconds";
+        header(out, nombre, "histogram", "Duración de las unidades de trabajo (una conexión, una transacción)");
+        MetricsRegistry.forEachUnitOfWork((unidad, metricas) ->
+                writeHistogram(out, nombre, unitLabel(unidad), metricas.duration.snapshot()));
+
+        header(out, "hm_unit_of_work_total", "counter", "Unidades de trabajo por resultado");
+        MetricsRegistry.forEachUnitOfWork((unidad, metricas) -> {
+            sample(out, "hm_unit_of_work_total", unitLabel(unidad) + ",outcome=\"commit\"", metricas.commits.sum());
+            sample(out, "hm_unit_of_work_total", unitLabel(unidad) + ",outcome=\"rollback\"", metricas.rollbacks.sum());
+        });
+
+        header(out, "hm_unit_of_work_connection_uses_total", "counter",
+                "Peticiones de conexión atendidas por la conexión de la unidad (sin ir al pool)");
+        MetricsRegistry.forEachUnitOfWork((unidad, metricas) ->
+                sample(out, "hm_unit_of_work_connection_uses_total", unitLabel(unidad), metricas.connectionUses.sum()));
+    }
+
+    private void writeHistogram(StringBuilder out, String nombre, String etiquetas, LatencyHistogram.Snapshot snapshot) {
+        String prefijo = etiquetas.isEmpty() ? "" : etiquetas + ",";
+        for (double limite : LatencyHistogram.EXPORT_BOUNDS_SECONDS) {
+            sample(out, nombre + "_bucket", prefijo + "le=\"" + limite + "\"", snapshot.countAtOrBelow(limite));
+        }
+        sample(out, nombre + "_bucket", prefijo + "le=\"+Inf\"", snapshot.getCount());
+        out.append(nombre).append("_sum");
+        if (!etiquetas.isEmpty()) {
+            out.append('{').append(etiquetas).append('}');
+        }
+        out.append(' ').append(snapshot.getSumSeconds()).append('\n');
+        sample(out, nombre + "_count", etiquetas, snapshot.getCount());
+    }
+
+    private void gauge(StringBuilder out, String nombre, String ayuda, long valor) {
+        header(out, nombre, "gauge", ayuda);
+        sample(out, nombre, "", valor);
+    }
+
+    private void header(StringBuilder out, String nombre, String tipo, String ayuda) {
+        out.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        out.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    private void sample(StringBuilder out, String nombre, String etiquetas, long valor) {
+        out.append(nombre);
+        if (!etiquetas.isEmpty()) {
+            out.append('{').append(etiquetas).append('}');
+        }
+        out.append(' ').append(valor).append('\n');
+    }
+
+    private String cacheLabel(Object cache) {
+        return "cache=\"" + escape(String.valueOf(cache)) + "\"";
+    }
+
+    private String unitLabel(String unidad) {
+        return "unit=\"" + escape(unidad) + "\"";
+    }
+
+    private long toNumber(Object valor) {
+        return valor instanceof Number n ? n.longValue() : 0;
+    }
+
+    private String escape(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -2,15 +2,19 @@ package com.hugin_munin.controller;
 
 import com.hugin_munin.model.RegistroAlta;
 import com.hugin_munin.service.RegistroAltaService;
+import com.hugin_munin.util.JsonListStreamer;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.util.List;
 import java.util.Map;
 
 public class RegistroAltaController {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistroAltaController.class);
+
     private final RegistroAltaService service;
 
     public RegistroAltaController(RegistroAltaService service) {
@@ -18,17 +22,21 @@ public class RegistroAltaController {
     }
 
     public void getAll(Context ctx) {
+        // Arreglo sin sobre, igual que la respuesta original
+        JsonListStreamer streamer = JsonListStreamer.array(ctx);
         try {
-            List<RegistroAlta> registros = service.getAll();
-            ctx.json(registros);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .json(errorResponse("Error al obtener registros: " + e.getMessage()));
+            service.streamAll(streamer);
+            streamer.finish(Map.of());
         } catch (Exception e) {
-            e.printStackTrace();
+            if (streamer.isStarted()) {
+                log.error("Error a mitad del streaming de registros de alta ({} enviados)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
+            log.error("Error procesando la petición", e);
+            String prefijo = e instanceof SQLException ? "Error al obtener registros: " : "Error inesperado: ";
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .json(errorResponse("Error inesperado: " + e.getMessage()));
+                    .json(errorResponse(prefijo + e.getMessage()));
         }
     }
 
@@ -46,11 +54,11 @@ public class RegistroAltaController {
         } catch (IllegalArgumentException e) {
             ctx.status(HttpStatus.NOT_FOUND).json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al buscar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -59,7 +67,7 @@ public class RegistroAltaController {
     public void create(Context ctx) {
         try {
             RegistroAlta nuevo = ctx.bodyAsClass(RegistroAlta.class);
-            System.out.println("Datos recibidos: " + nuevo);
+            log.debug("Datos recibidos: {}", nuevo);
 
             if (!nuevo.isValid()) {
                 ctx.status(HttpStatus.BAD_REQUEST).json(errorResponse("Datos incompletos"));
@@ -71,11 +79,11 @@ public class RegistroAltaController {
         } catch (IllegalArgumentException e) {
             ctx.status(HttpStatus.BAD_REQUEST).json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al crear el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -99,11 +107,11 @@ public class RegistroAltaController {
         } catch (IllegalArgumentException e) {
             ctx.status(HttpStatus.BAD_REQUEST).json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace(); // Para debugging
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al actualizar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace(); // Para debugging
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -121,11 +129,11 @@ public class RegistroAltaController {
         } catch (NumberFormatException e) {
             ctx.status(HttpStatus.BAD_REQUEST).json(errorResponse("ID inválido"));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al eliminar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
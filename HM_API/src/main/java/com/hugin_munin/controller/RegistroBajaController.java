@@ -1,20 +1,26 @@
 package com.hugin_munin.controller;
 
+import com.hugin_munin.dto.DataEnvelope;
+import com.hugin_munin.dto.RegistroBajaView;
 import com.hugin_munin.model.RegistroBaja;
 import com.hugin_munin.service.RegistroBajaService;
+import com.hugin_munin.util.JsonListStreamer;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * Controlador para gestionar registros de baja
  */
 public class RegistroBajaController {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistroBajaController.class);
+
     private final RegistroBajaService service;
 
     public RegistroBajaController(RegistroBajaService service) {
@@ -25,25 +31,22 @@ public class RegistroBajaController {
      * GET /hm/registro_baja - Obtener todos los registros de baja CON DATOS DE REGISTRO_ALTA
      */
     public void getAll(Context ctx) {
+        JsonListStreamer streamer = JsonListStreamer.envelope(ctx);
         try {
-            List<RegistroBaja> registros = service.getAll();
-            List<Map<String, Object>> registrosEnriquecidos = registros.stream()
-                    .map(this::buildEnhancedResponse)
-                    .collect(java.util.stream.Collectors.toList());
-
-            ctx.json(Map.of(
-                    "data", registrosEnriquecidos,
-                    "total", registros.size(),
+            service.streamAll(registro -> streamer.accept(buildEnhancedResponse(registro)));
+            streamer.finish(Map.of(
                     "message", "Registros de baja obtenidos exitosamente con información de registro_alta"
             ));
-        } catch (SQLException e) {
-            e.printStackTrace();
-            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .json(errorResponse("Error al obtener registros de baja: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            if (streamer.isStarted()) {
+                log.error("Error a mitad del streaming de registros de baja ({} enviados)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
+            log.error("Error procesando la petición", e);
+            String prefijo = e instanceof SQLException ? "Error al obtener registros de baja: " : "Error inesperado: ";
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .json(errorResponse("Error inesperado: " + e.getMessage()));
+                    .json(errorResponse(prefijo + e.getMessage()));
         }
     }
 
@@ -55,9 +58,7 @@ public class RegistroBajaController {
             int id = Integer.parseInt(ctx.pathParam("id"));
             RegistroBaja registro = service.getById(id);
 
-            Map<String, Object> response = buildEnhancedResponse(registro);
-
-            ctx.json(response);
+            ctx.json(buildEnhancedResponse(registro));
         } catch (NumberFormatException e) {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse("ID inválido"));
@@ -65,11 +66,11 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.NOT_FOUND)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al buscar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -81,7 +82,7 @@ public class RegistroBajaController {
     public void create(Context ctx) {
         try {
             RegistroBaja nuevo = ctx.bodyAsClass(RegistroBaja.class);
-            System.out.println("Datos recibidos: " + nuevo);
+            log.debug("Datos recibidos: {}", nuevo);
 
             if (!nuevo.isValid()) {
                 ctx.status(HttpStatus.BAD_REQUEST)
@@ -100,11 +101,11 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al crear el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -127,11 +128,11 @@ public class RegistroBajaController {
 
             RegistroBaja result = service.update(actualizado);
 
-            Map<String, Object> response = buildEnhancedResponse(result);
-            response.put("message", "Registro de baja actualizado exitosamente");
-            response.put("success", true);
-
-            ctx.status(HttpStatus.OK).json(response);
+            ctx.status(HttpStatus.OK).json(Map.of(
+                    "data", RegistroBajaView.of(result),
+                    "message", "Registro de baja actualizado exitosamente",
+                    "success", true
+            ));
         } catch (NumberFormatException e) {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse("ID inválido"));
@@ -139,11 +140,11 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al actualizar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -171,11 +172,11 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse("ID inválido"));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al eliminar el registro: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error inesperado: " + e.getMessage()));
         }
@@ -202,7 +203,7 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al buscar registros: " + e.getMessage()));
         }
@@ -229,7 +230,7 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al buscar registros: " + e.getMessage()));
         }
@@ -256,7 +257,7 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al buscar registros: " + e.getMessage()));
         }
@@ -275,7 +276,7 @@ public class RegistroBajaController {
                     "message", "Estadísticas por causa de baja obtenidas exitosamente"
             ));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al obtener estadísticas: " + e.getMessage()));
         }
@@ -295,7 +296,7 @@ public class RegistroBajaController {
                     "message", "Estadísticas generales obtenidas exitosamente"
             ));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al obtener estadísticas: " + e.getMessage()));
         }
@@ -323,7 +324,7 @@ public class RegistroBajaController {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(errorResponse(e.getMessage()));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Error procesando la petición", e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(errorResponse("Error al verificar especimen: " + e.getMessage()));
         }
@@ -340,67 +341,7 @@ public class RegistroBajaController {
         );
     }
 
-    private Map<String, Object> buildEnhancedResponse(RegistroBaja registro) {
-        Map<String, Object> response = new HashMap<>();
-
-        Map<String, Object> registroBajaData = new HashMap<>();
-        registroBajaData.put("id_registro_baja", registro.getId_registro_baja());
-        registroBajaData.put("id_especimen", registro.getId_especimen());
-        registroBajaData.put("id_causa_baja", registro.getId_causa_baja());
-        registroBajaData.put("id_responsable", registro.getId_responsable());
-        registroBajaData.put("fecha_baja", registro.getFecha_baja());
-        registroBajaData.put("observacion", registro.getObservacion());
-
-        if (registro.getEspecimen() != null) {
-            Map<String, Object> especimenData = new HashMap<>();
-            especimenData.put("id_especimen", registro.getEspecimen().getId_especimen());
-            especimenData.put("num_inventario", registro.getEspecimen().getNum_inventario());
-            especimenData.put("nombre_especimen", registro.getEspecimen().getNombre_especimen());
-            especimenData.put("activo", registro.getEspecimen().isActivo());
-
-            if (registro.getEspecimen().getEspecie() != null) {
-                Map<String, Object> especieData = new HashMap<>();
-                especieData.put("genero", registro.getEspecimen().getEspecie().getGenero());
-                especieData.put("especie", registro.getEspecimen().getEspecie().getEspecie());
-                especimenData.put("especie_info", especieData);
-            }
-
-            registroBajaData.put("especimen", especimenData);
-        }
-
-        if (registro.getCausa_baja() != null) {
-            Map<String, Object> causaData = new HashMap<>();
-            causaData.put("id_causa_baja", registro.getCausa_baja().getId_causa_baja());
-            causaData.put("nombre_causa_baja", registro.getCausa_baja().getNombre_causa_baja());
-            registroBajaData.put("causa_baja", causaData);
-        }
-
-            if (registro.getResponsable() != null) {
-            Map<String, Object> responsableData = new HashMap<>();
-            responsableData.put("id_usuario", registro.getResponsable().getId_usuario());
-            responsableData.put("nombre_usuario", registro.getResponsable().getNombre_usuario());
-            responsableData.put("correo", registro.getResponsable().getCorreo());
-            registroBajaData.put("responsable", responsableData);
-        }
-
-        if (registro.getRegistro_alta() != null) {
-            Map<String, Object> registroAltaData = new HashMap<>();
-            registroAltaData.put("id_registro_alta", registro.getRegistro_alta().getId_registro_alta());
-            registroAltaData.put("id_origen_alta", registro.getRegistro_alta().getId_origen_alta());
-            registroAltaData.put("procedencia", registro.getRegistro_alta().getProcedencia());
-            registroAltaData.put("fecha_ingreso", registro.getRegistro_alta().getFecha_ingreso());
-
-            if (registro.getRegistro_alta().getOrigen_alta() != null) {
-                Map<String, Object> origenData = new HashMap<>();
-                origenData.put("id_origen_alta", registro.getRegistro_alta().getOrigen_alta().getId_origen_alta());
-                origenData.put("nombre_origen_alta", registro.getRegistro_alta().getOrigen_alta().getNombre_origen_alta());
-                registroAltaData.put("origen_alta", origenData);
-            }
-
-            registroBajaData.put("registro_alta_info", registroAltaData);
-        }
-
-        response.put("data", registroBajaData);
-        return response;
+    private DataEnvelope<RegistroBajaView> buildEnhancedResponse(RegistroBaja registro) {
+        return new DataEnvelope<>(RegistroBajaView.of(registro));
     }
 }
\ No newline at end of file
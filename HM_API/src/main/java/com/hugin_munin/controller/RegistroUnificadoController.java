@@ -1,22 +1,42 @@
 package com.hugin_munin.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hugin_munin.config.JsonConfig;
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.dto.EspecieInfo;
+import com.hugin_munin.dto.EspecimenInfo;
+import com.hugin_munin.dto.RegistroUnificadoCommand;
+import com.hugin_munin.dto.RegistroUnificadoCreado;
+import com.hugin_munin.dto.RegistroUnificadoRespuesta;
+import com.hugin_munin.dto.RegistroUnificadoView;
+import com.hugin_munin.dto.ReporteTrasladoView;
 import com.hugin_munin.service.EspecimenService;
 import com.hugin_munin.model.Especimen;
 import com.hugin_munin.service.ReporteTrasladoService;
+import com.hugin_munin.service.ImportacionService;
 import com.hugin_munin.service.OrigenAltaService;
+import com.hugin_munin.service.RegistroUnificadoValidator;
+import com.hugin_munin.service.ValidationException;
 import com.hugin_munin.model.RegistroAlta;
 import com.hugin_munin.model.ReporteTraslado;
 import com.hugin_munin.model.OrigenAlta;
+import com.hugin_munin.util.FanOut;
+import com.hugin_munin.util.ImportReader;
+import com.hugin_munin.util.JsonListStreamer;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * RegistroUnificadoController
@@ -25,114 +45,110 @@ import java.util.List;
  */
 public class RegistroUnificadoController {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistroUnificadoController.class);
+
     private final EspecimenService especimenService;
     private final ReporteTrasladoService reporteTrasladoService;
     private final OrigenAltaService origenAltaService;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+    private final ImportacionService importacionService;
+
+    private static final ObjectReader COMMAND_READER =
+            JsonConfig.getMapper().readerFor(RegistroUnificadoCommand.class);
 
     public RegistroUnificadoController(EspecimenService especimenService,
                                        ReporteTrasladoService reporteTrasladoService,
-                                       OrigenAltaService origenAltaService) {
+                                       OrigenAltaService origenAltaService,
+                                       ImportacionService importacionService) {
         this.especimenService = especimenService;
         this.reporteTrasladoService = reporteTrasladoService;
         this.origenAltaService = origenAltaService;
+        this.importacionService = importacionService;
     }
 
     /**
      * POST /hm/registro-unificado - CREAR REGISTRO UNIFICADO
      */
     public void createUnifiedRegistration(Context ctx) {
-        System.out.println("\n===== INICIO REGISTRO UNIFICADO =====");
+        log.debug("===== INICIO REGISTRO UNIFICADO =====");
 
         try {
-            Map<String, Object> requestData = ctx.bodyAsClass(Map.class);
-            if (requestData == null || requestData.isEmpty()) {
-                System.err.println("Request vacío");
+            RegistroUnificadoCommand command = readCommand(ctx);
+            if (command == null || command.isEmpty()) {
+                log.warn("Request vacío");
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Datos requeridos", "El cuerpo de la solicitud no puede estar vacío"));
                 return;
             }
 
-            System.out.println("REQUEST RECIBIDO:");
-            System.out.println("   Keys disponibles: " + requestData.keySet());
-
-            if (!requestData.containsKey("especie") || !requestData.containsKey("especimen") ||
-                    !requestData.containsKey("registro_alta")) {
-                System.err.println("Faltan secciones obligatorias");
+            if (command.especie() == null || command.especimen() == null || command.registro_alta() == null) {
+                log.warn("Faltan secciones obligatorias");
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Estructura incompleta",
                                 "Se requieren las secciones: especie, especimen, registro_alta"));
                 return;
             }
 
-            processDatesSafely(requestData);
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> reporteData = (Map<String, Object>) requestData.get("reporte_traslado");
-            boolean incluirReporte = reporteData != null && !reporteData.isEmpty();
-
-            if (incluirReporte) {
-                // FORZAR TIPO DE REPORTE A 5 (Reporte de Traslado)
-                Object tipoReporteOriginal = reporteData.get("id_tipo_reporte");
-                if (tipoReporteOriginal != null && !tipoReporteOriginal.equals(5)) {
-                    System.out.println("ADVERTENCIA: El tipo de reporte enviado (" + tipoReporteOriginal +
-                            ") será reemplazado por 5 (Reporte de Traslado)");
-                }
-                reporteData.put("id_tipo_reporte", 5);
-                System.out.println("Tipo de reporte establecido automáticamente como 5 (Reporte de Traslado)");
-            }
-
-            System.out.println("Incluir reporte de traslado: " + incluirReporte);
+            boolean incluirReporte = command.hasReporteTraslado();
             if (incluirReporte) {
-                System.out.println("   Datos del reporte: " + reporteData.keySet());
+                warnTipoReporte(command.reporte_traslado());
             }
 
-            System.out.println("=== PASO 1: CREANDO REGISTRO UNIFICADO ===");
-            Map<String, Object> registroResult;
+            log.debug("Incluir reporte de traslado: {}", incluirReporte);
 
-            try {
-                registroResult = especimenService.createSpecimenWithRegistration(requestData);
-                System.out.println("Registro unificado creado exitosamente");
-                System.out.println("   Resultado keys: " + registroResult.keySet());
+            // Especie, especimen, registro de alta y reporte: una conexión y una transacción
+            RegistroUnificadoRespuesta response = UnitOfWork.run("registro_unificado.create", () -> {
+                log.debug("=== PASO 1: CREANDO REGISTRO UNIFICADO ===");
+                RegistroUnificadoCreado registroResult;
 
-                if (registroResult.containsKey("especimen")) {
-                    System.out.println("   Especimen info: " + registroResult.get("especimen"));
-                }
-
-            } catch (Exception e) {
-                System.err.println("ERROR en registro unificado: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Error al crear registro unificado: " + e.getMessage(), e);
-            }
-
-            Map<String, Object> reporteResult = null;
-            if (incluirReporte) {
-                System.out.println("=== PASO 2: CREANDO REPORTE DE TRASLADO ===");
                 try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> registroData = (Map<String, Object>) requestData.get("registro_alta");
-                    reporteResult = createReporteTrasladoRobust(reporteData, registroData, registroResult);
-                    System.out.println("Reporte de traslado creado exitosamente");
+                    registroResult = especimenService.createSpecimenWithRegistration(command);
+                    log.debug("Registro unificado creado exitosamente");
+                    log.debug("Especimen info: {}", registroResult.especimen());
+
+                } catch (ValidationException e) {
+                    throw e;
                 } catch (Exception e) {
-                    System.err.println("ERROR en reporte de traslado: " + e.getMessage());
-                    e.printStackTrace();
+                    log.error("ERROR en registro unificado: {}", e.getMessage(), e);
+                    throw new RuntimeException("Error al crear registro unificado: " + e.getMessage(), e);
+                }
 
-                    throw new RuntimeException("Error al crear reporte de traslado: " + e.getMessage(), e);
+                ReporteTrasladoView reporteResult = null;
+                if (incluirReporte) {
+                    log.debug("=== PASO 2: CREANDO REPORTE DE TRASLADO ===");
+                    try {
+                        Integer idEspecimen = registroResult.especimen() != null ? registroResult.especimen().id_especimen() : null;
+                        if (idEspecimen == null) {
+                            throw new IllegalStateException("FALLO CRÍTICO: No se pudo extraer el ID del especimen del resultado: " + registroResult);
+                        }
+                        reporteResult = createReporteTraslado(command.reporte_traslado(), idEspecimen,
+                                command.registro_alta().id_responsable());
+                        log.debug("Reporte de traslado creado exitosamente");
+                    } catch (Exception e) {
+                        log.error("ERROR en reporte de traslado: {}", e.getMessage(), e);
+
+                        throw new RuntimeException("Error al crear reporte de traslado: " + e.getMessage(), e);
+                    }
                 }
-            }
 
-            Map<String, Object> response = buildSuccessResponse(registroResult, reporteResult, incluirReporte);
+                return buildSuccessResponse(registroResult, reporteResult, incluirReporte);
+            });
 
-            System.out.println("===== REGISTRO UNIFICADO COMPLETADO =====");
+            log.debug("===== REGISTRO UNIFICADO COMPLETADO =====");
             ctx.status(HttpStatus.CREATED).json(response);
 
+        } catch (JsonProcessingException e) {
+            log.warn("JSON inválido: {}", e.getOriginalMessage());
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("JSON inválido", e.getOriginalMessage()));
+        } catch (ValidationException e) {
+            log.warn("Error de validación: {}", e.getMessage());
+            ctx.status(HttpStatus.BAD_REQUEST).json(validationErrorResponse(e));
         } catch (IllegalArgumentException e) {
-            System.err.println("Error de validación: " + e.getMessage());
+            log.warn("Error de validación: {}", e.getMessage());
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(createErrorResponse("Datos inválidos", e.getMessage()));
         } catch (RuntimeException e) {
-            System.err.println("Error de runtime: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error de runtime: {}", e.getMessage(), e);
 
             if (e.getMessage().contains("Ya existe")) {
                 ctx.status(HttpStatus.CONFLICT)
@@ -145,8 +161,7 @@ public class RegistroUnificadoController {
                         .json(createErrorResponse("Error interno del servidor", e.getMessage()));
             }
         } catch (Exception e) {
-            System.err.println("Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inesperado: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error inesperado", "Error no controlado: " + e.getMessage()));
         }
@@ -156,7 +171,7 @@ public class RegistroUnificadoController {
      * GET /hm/registro-unificado/{id_especimen} - OBTENER REGISTRO UNIFICADO
      * */
     public void getUnifiedRegistration(Context ctx) {
-        System.out.println("\n===== INICIO GET REGISTRO UNIFICADO =====");
+        log.debug("===== INICIO GET REGISTRO UNIFICADO =====");
 
         try {
             String idParam = ctx.pathParam("id_especimen");
@@ -175,26 +190,21 @@ public class RegistroUnificadoController {
                 return;
             }
 
-            System.out.println("Buscando registro unificado para ID especimen: " + idEspecimen);
+            log.debug("Buscando registro unificado para ID especimen: {}", idEspecimen);
 
-            Map<String, Object> especimenCompleto = especimenService.getSpecimenWithAllData(idEspecimen);
-            if (especimenCompleto == null || especimenCompleto.isEmpty()) {
+            RegistroUnificadoView response = loadUnifiedView(idEspecimen);
+            if (response == null) {
                 ctx.status(HttpStatus.NOT_FOUND)
                         .json(createErrorResponse("Especimen no encontrado",
                                 "No se encontró especimen con ID: " + idEspecimen));
                 return;
             }
 
-            List<ReporteTraslado> reportesTraslado = reporteTrasladoService.getReportesByEspecimen(idEspecimen);
-
-            Map<String, Object> response = buildEnhancedUnifiedResponse(especimenCompleto, reportesTraslado);
-
-            System.out.println("===== GET REGISTRO UNIFICADO COMPLETADO =====");
+            log.debug("===== GET REGISTRO UNIFICADO COMPLETADO =====");
             ctx.status(HttpStatus.OK).json(response);
 
         } catch (Exception e) {
-            System.err.println("Error inesperado en GET: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inesperado en GET: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al obtener registro", e.getMessage()));
         }
@@ -204,7 +214,7 @@ public class RegistroUnificadoController {
      * PUT /hm/registro-unificado/{id_especimen} - ACTUALIZAR REGISTRO UNIFICADO
      */
     public void updateUnifiedRegistration(Context ctx) {
-        System.out.println("\n===== INICIO UPDATE REGISTRO UNIFICADO =====");
+        log.debug("===== INICIO UPDATE REGISTRO UNIFICADO =====");
 
         try {
             String idParam = ctx.pathParam("id_especimen");
@@ -223,15 +233,14 @@ public class RegistroUnificadoController {
                 return;
             }
 
-            Map<String, Object> requestData = ctx.bodyAsClass(Map.class);
-            if (requestData == null || requestData.isEmpty()) {
+            RegistroUnificadoCommand command = readCommand(ctx);
+            if (command == null || command.isEmpty()) {
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Datos requeridos", "El cuerpo de la solicitud no puede estar vacío"));
                 return;
             }
 
-            System.out.println("Actualizando registro unificado para ID especimen: " + idEspecimen);
-            System.out.println("   Datos recibidos: " + requestData.keySet());
+            log.debug("Actualizando registro unificado para ID especimen: {}", idEspecimen);
 
             Map<String, Object> existingData = especimenService.getSpecimenWithAllData(idEspecimen);
             if (existingData == null || existingData.isEmpty()) {
@@ -241,72 +250,65 @@ public class RegistroUnificadoController {
                 return;
             }
 
-            processDatesSafely(requestData);
-
-            System.out.println("=== PASO 1: ACTUALIZANDO REGISTRO UNIFICADO ===");
-            Map<String, Object> updateResult;
-
-            try {
-                requestData.put("id_especimen", idEspecimen);
-                updateResult = especimenService.updateSpecimenWithRegistration(requestData);
-                System.out.println("Registro unificado actualizado exitosamente");
-
-            } catch (Exception e) {
-                System.err.println("ERROR en actualización unificada: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Error al actualizar registro unificado: " + e.getMessage(), e);
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> reporteData = (Map<String, Object>) requestData.get("reporte_traslado");
-            Map<String, Object> reporteResult = null;
-
-            if (reporteData != null && !reporteData.isEmpty()) {
-                System.out.println("=== PASO 2: PROCESANDO REPORTE DE TRASLADO ===");
-
-                Object tipoReporteOriginal = reporteData.get("id_tipo_reporte");
-                if (tipoReporteOriginal != null && !tipoReporteOriginal.equals(5)) {
-                    System.out.println("ADVERTENCIA: El tipo de reporte enviado (" + tipoReporteOriginal +
-                            ") será reemplazado por 5 (Reporte de Traslado)");
-                }
-                reporteData.put("id_tipo_reporte", 5);
-                System.out.println("🔧 Tipo de reporte establecido automáticamente como 5 (Reporte de Traslado)");
-
+            UnitOfWork.run("registro_unificado.update", () -> {
+                log.debug("=== PASO 1: ACTUALIZANDO REGISTRO UNIFICADO ===");
                 try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> registroData = (Map<String, Object>) requestData.get("registro_alta");
-
-                    if (reporteData.containsKey("id_reporte")) {
-                        reporteResult = updateReporteTrasladoRobust(reporteData, idEspecimen);
-                    } else {
-                        reporteResult = createReporteTrasladoExistingMethod(reporteData, registroData, updateResult);
-                    }
-                    System.out.println("Reporte de traslado procesado exitosamente");
+                    especimenService.updateSpecimenWithRegistration(idEspecimen, command);
+                    log.debug("Registro unificado actualizado exitosamente");
 
+                } catch (ValidationException e) {
+                    throw e;
                 } catch (Exception e) {
-                    System.err.println("ERROR en reporte de traslado: " + e.getMessage());
-                    e.printStackTrace();
-                    System.out.println("Continuando sin reporte de traslado");
+                    log.error("ERROR en actualización unificada: {}", e.getMessage(), e);
+                    throw new RuntimeException("Error al actualizar registro unificado: " + e.getMessage(), e);
                 }
-            }
 
-            Map<String, Object> updatedData = especimenService.getSpecimenWithAllData(idEspecimen);
-            List<ReporteTraslado> reportesTraslado = reporteTrasladoService.getReportesByEspecimen(idEspecimen);
+                if (command.hasReporteTraslado()) {
+                    log.debug("=== PASO 2: PROCESANDO REPORTE DE TRASLADO ===");
+                    RegistroUnificadoCommand.ReporteTraslado reporteData = command.reporte_traslado();
+                    warnTipoReporte(reporteData);
+
+                    try {
+                        // Si el reporte falla solo se deshace su parte (savepoint)
+                        UnitOfWork.savepoint(() -> {
+                            if (reporteData.id_reporte() != null) {
+                                return updateReporteTrasladoRobust(reporteData);
+                            }
+                            if (command.registro_alta() == null) {
+                                throw new IllegalStateException("No se pudieron extraer los IDs necesarios para el reporte");
+                            }
+                            return createReporteTraslado(reporteData, idEspecimen, command.registro_alta().id_responsable());
+                        });
+                        log.debug("Reporte de traslado procesado exitosamente");
+
+                    } catch (Exception e) {
+                        log.error("ERROR en reporte de traslado: {}", e.getMessage(), e);
+                        log.debug("Continuando sin reporte de traslado");
+                    }
+                }
+                return null;
+            });
 
-            Map<String, Object> response = buildEnhancedUnifiedResponse(updatedData, reportesTraslado);
-            response.put("message", "Registro unificado actualizado exitosamente");
-            response.put("success", true);
+            RegistroUnificadoView actualizado = loadUnifiedView(idEspecimen);
+            RegistroUnificadoView response = (actualizado != null ? actualizado : RegistroUnificadoView.EMPTY)
+                    .withMessage("Registro unificado actualizado exitosamente");
 
-            System.out.println("===== UPDATE REGISTRO UNIFICADO COMPLETADO =====");
+            log.debug("===== UPDATE REGISTRO UNIFICADO COMPLETADO =====");
             ctx.status(HttpStatus.OK).json(response);
 
+        } catch (JsonProcessingException e) {
+            log.warn("JSON inválido: {}", e.getOriginalMessage());
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("JSON inválido", e.getOriginalMessage()));
+        } catch (ValidationException e) {
+            log.warn("Error de validación: {}", e.getMessage());
+            ctx.status(HttpStatus.BAD_REQUEST).json(validationErrorResponse(e));
         } catch (IllegalArgumentException e) {
-            System.err.println("Error de validación: " + e.getMessage());
+            log.warn("Error de validación: {}", e.getMessage());
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(createErrorResponse("Datos inválidos", e.getMessage()));
         } catch (RuntimeException e) {
-            System.err.println("Error de runtime: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error de runtime: {}", e.getMessage(), e);
 
             if (e.getMessage().contains("no existe")) {
                 ctx.status(HttpStatus.NOT_FOUND)
@@ -316,8 +318,7 @@ public class RegistroUnificadoController {
                         .json(createErrorResponse("Error interno del servidor", e.getMessage()));
             }
         } catch (Exception e) {
-            System.err.println("Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inesperado: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error inesperado", "Error no controlado: " + e.getMessage()));
         }
@@ -327,7 +328,7 @@ public class RegistroUnificadoController {
      * DELETE /hm/registro-unificado/{id_especimen} - ELIMINAR REGISTRO UNIFICADO
      */
     public void deleteUnifiedRegistration(Context ctx) {
-        System.out.println("\n🗑===== INICIO DELETE REGISTRO UNIFICADO =====");
+        log.debug("🗑===== INICIO DELETE REGISTRO UNIFICADO =====");
 
         try {
             String idParam = ctx.pathParam("id_especimen");
@@ -346,7 +347,7 @@ public class RegistroUnificadoController {
                 return;
             }
 
-            System.out.println("Eliminando registro unificado para ID especimen: " + idEspecimen);
+            log.debug("Eliminando registro unificado para ID especimen: {}", idEspecimen);
 
             Map<String, Object> existingData = especimenService.getSpecimenWithAllData(idEspecimen);
             if (existingData == null || existingData.isEmpty()) {
@@ -356,32 +357,38 @@ public class RegistroUnificadoController {
                 return;
             }
 
-            System.out.println("=== PASO 1: ELIMINANDO REPORTES DE TRASLADO ===");
-            try {
-                List<ReporteTraslado> reportesTraslado = reporteTrasladoService.getReportesByEspecimen(idEspecimen);
-                int reportesEliminados = 0;
+            // Reportes y especimen en una transacción: si el especimen no se puede borrar, los reportes se conservan
+            UnitOfWork.run("registro_unificado.delete", () -> {
+                log.debug("=== PASO 1: ELIMINANDO REPORTES DE TRASLADO ===");
+                try {
+                    int reportesEliminados = UnitOfWork.savepoint(() -> {
+                        List<ReporteTraslado> reportesTraslado = reporteTrasladoService.getReportesByEspecimen(idEspecimen);
+                        int eliminados = 0;
 
-                for (ReporteTraslado reporte : reportesTraslado) {
-                    boolean eliminado = reporteTrasladoService.deleteReporteTraslado(reporte.getId_reporte());
-                    if (eliminado) {
-                        reportesEliminados++;
-                    }
-                }
+                        for (ReporteTraslado reporte : reportesTraslado) {
+                            if (reporteTrasladoService.deleteReporteTraslado(reporte.getId_reporte())) {
+                                eliminados++;
+                            }
+                        }
+                        return eliminados;
+                    });
 
-                System.out.println("Reportes de traslado eliminados: " + reportesEliminados);
+                    log.debug("Reportes de traslado eliminados: {}", reportesEliminados);
 
-            } catch (Exception e) {
-                System.err.println("Error eliminando reportes de traslado: " + e.getMessage());
-            }
+                } catch (Exception e) {
+                    log.warn("Error eliminando reportes de traslado: {}", e.getMessage());
+                }
 
-            System.out.println("=== PASO 2: ELIMINANDO ESPECIMEN ===");
-            boolean especimenEliminado = especimenService.deleteSpecimen(idEspecimen);
+                log.debug("=== PASO 2: ELIMINANDO ESPECIMEN ===");
+                boolean especimenEliminado = especimenService.deleteSpecimen(idEspecimen);
 
-            if (!especimenEliminado) {
-                throw new RuntimeException("No se pudo eliminar el especimen");
-            }
+                if (!especimenEliminado) {
+                    throw new RuntimeException("No se pudo eliminar el especimen");
+                }
+                return null;
+            });
 
-            System.out.println("Especimen eliminado exitosamente");
+            log.debug("Especimen eliminado exitosamente");
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -389,12 +396,11 @@ public class RegistroUnificadoController {
             response.put("id_especimen", idEspecimen);
             response.put("timestamp", System.currentTimeMillis());
 
-            System.out.println("===== DELETE REGISTRO UNIFICADO COMPLETADO =====");
+            log.debug("===== DELETE REGISTRO UNIFICADO COMPLETADO =====");
             ctx.status(HttpStatus.OK).json(response);
 
         } catch (Exception e) {
-            System.err.println("Error inesperado en DELETE: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inesperado en DELETE: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al eliminar registro", e.getMessage()));
         }
@@ -402,16 +408,34 @@ public class RegistroUnificadoController {
 
     /**
      * GET /hm/registro-unificado - LISTAR REGISTROS UNIFICADOS
+     * Sin cursor ni size devuelve la lista completa; con ellos, una página ordenada por nombre
      */
     public void listUnifiedRegistrations(Context ctx) {
-        System.out.println("\n===== INICIO LIST REGISTROS UNIFICADOS (SIN PAGINACIÓN) =====");
+        log.debug("===== INICIO LIST REGISTROS UNIFICADOS =====");
 
         try {
             String search = ctx.queryParam("search");
 
-            System.out.println("Parámetros de consulta: search=" + search);
+            String cursor = ctx.queryParam("cursor");
+            String size = ctx.queryParam("size");
+
+            log.debug("Parámetros de consulta: search={}, cursor={}, size={}", search, cursor, size);
 
-            List<Map<String, Object>> allSpecimens = getAllSpecimensWithCompleteData(search);
+            if (cursor != null || size != null) {
+                String page = ctx.queryParam("page");
+                Map<String, Object> response = getSpecimensPageWithCompleteData(
+                        cursor,
+                        page != null ? Integer.parseInt(page) : 1,
+                        size != null ? Integer.parseInt(size) : 50,
+                        search);
+                response.put("success", true);
+                response.put("message", "Lista de registros unificados obtenida exitosamente");
+
+                ctx.status(HttpStatus.OK).json(response);
+                return;
+            }
+
+            List<RegistroUnificadoView> allSpecimens = getAllSpecimensWithCompleteData(search);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -419,270 +443,221 @@ public class RegistroUnificadoController {
             response.put("data", allSpecimens);
             response.put("total", allSpecimens.size());
 
-            System.out.println("===== LIST REGISTROS UNIFICADOS COMPLETADO =====");
+            log.debug("===== LIST REGISTROS UNIFICADOS COMPLETADO =====");
             ctx.status(HttpStatus.OK).json(response);
 
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros de paginación inválidos", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("Error inesperado en LIST: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inesperado en LIST: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al listar registros", e.getMessage()));
         }
     }
 
 
-    private Map<String, Object> buildEnhancedUnifiedResponse(Map<String, Object> especimenCompleto,
-                                                             List<ReporteTraslado> reportesTraslado) {
-        Map<String, Object> response = new HashMap<>();
+    /**
+     * MÉTODO AUXILIAR: Especimen, registros de alta y reportes de traslado consultados en paralelo
+     * Devuelve null si el especimen no existe
+     */
+    private RegistroUnificadoView loadUnifiedView(Integer idEspecimen) throws SQLException {
+        try (FanOut fanOut = FanOut.open()) {
+            Supplier<Map<String, Object>> especimenCompleto = especimenService.forkSpecimenWithAllData(fanOut, idEspecimen);
+            FanOut.Branch<List<ReporteTraslado>> reportesTraslado = fanOut.fork("reportes_traslado",
+                    () -> reporteTrasladoService.getReportesByEspecimen(idEspecimen));
+            fanOut.join();
 
+            Map<String, Object> datos = especimenCompleto.get();
+            if (datos == null || datos.isEmpty()) {
+                return null;
+            }
+            return buildEnhancedUnifiedResponse(datos, reportesTraslado.get());
+        }
+    }
+
+    private RegistroUnificadoView buildEnhancedUnifiedResponse(Map<String, Object> especimenCompleto,
+                                                               List<ReporteTraslado> reportesTraslado) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> especimenData = (Map<String, Object>) especimenCompleto.get("especimen");
+            EspecimenInfo especimenData = (EspecimenInfo) especimenCompleto.get("especimen");
             @SuppressWarnings("unchecked")
             List<RegistroAlta> registrosAlta = (List<RegistroAlta>) especimenCompleto.get("registros_alta");
 
-            Map<String, Object> especieInfo = new HashMap<>();
-            if (especimenData != null && especimenData.containsKey("especie_info")) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> especieData = (Map<String, Object>) especimenData.get("especie_info");
-                especieInfo.put("genero", especieData.get("genero"));
-                especieInfo.put("especie", especieData.get("especie"));
+            EspecieInfo especieInfo = null;
+            if (especimenData != null && especimenData.especie_info() != null) {
+                EspecieInfo especieData = especimenData.especie_info();
+                especieInfo = new EspecieInfo(null, especieData.genero(), especieData.especie());
             }
 
-            Map<String, Object> especimenInfo = new HashMap<>();
-            if (especimenData != null) {
-                especimenInfo.put("id_especimen", especimenData.get("id_especimen"));
-                especimenInfo.put("num_inventario", especimenData.get("num_inventario"));
-                especimenInfo.put("nombre_especimen", especimenData.get("nombre_especimen"));
-            }
+            RegistroUnificadoView.EspecimenSeccion especimenInfo =
+                    especimenData != null ? RegistroUnificadoView.EspecimenSeccion.of(especimenData) : null;
 
-            Map<String, Object> registroInfo = new HashMap<>();
+            RegistroUnificadoView.RegistroAltaSeccion registroInfo = null;
             if (registrosAlta != null && !registrosAlta.isEmpty()) {
                 RegistroAlta registro = registrosAlta.get(0);
-                registroInfo.put("id_origen_alta", registro.getId_origen_alta());
-                registroInfo.put("id_responsable", registro.getId_responsable());
-                registroInfo.put("procedencia", registro.getProcedencia());
-                registroInfo.put("observacion", registro.getObservacion());
-                registroInfo.put("fecha_ingreso", registro.getFecha_ingreso());
+                String nombreOrigen = null;
 
                 try {
                     OrigenAlta origenAlta = origenAltaService.getOrigenById(registro.getId_origen_alta());
                     if (origenAlta != null) {
-                        registroInfo.put("nombre_origen_alta", origenAlta.getNombre_origen_alta());
-                        System.out.println("Información de origen agregada: " + origenAlta.getNombre_origen_alta());
+                        nombreOrigen = origenAlta.getNombre_origen_alta();
+                        log.debug("Información de origen agregada: {}", nombreOrigen);
                     }
                 } catch (Exception e) {
-                    System.err.println("Error obteniendo información de origen: " + e.getMessage());
-                    registroInfo.put("nombre_origen_alta", "No disponible");
+                    log.warn("Error obteniendo información de origen: {}", e.getMessage());
+                    nombreOrigen = "No disponible";
                 }
+                registroInfo = RegistroUnificadoView.RegistroAltaSeccion.of(registro, nombreOrigen);
             }
 
-            Map<String, Object> reporteInfo = new HashMap<>();
+            RegistroUnificadoView.ReporteTrasladoSeccion reporteInfo = null;
             if (reportesTraslado != null && !reportesTraslado.isEmpty()) {
-                ReporteTraslado reporte = reportesTraslado.get(reportesTraslado.size() - 1);
-                reporteInfo.put("id_tipo_reporte", reporte.getId_tipo_reporte());
-                reporteInfo.put("area_origen", reporte.getArea_origen());
-                reporteInfo.put("area_destino", reporte.getArea_destino());
-                reporteInfo.put("ubicacion_origen", reporte.getUbicacion_origen());
-                reporteInfo.put("ubicacion_destino", reporte.getUbicacion_destino());
-                reporteInfo.put("motivo", reporte.getMotivo());
+                reporteInfo = RegistroUnificadoView.ReporteTrasladoSeccion.of(reportesTraslado.get(reportesTraslado.size() - 1));
             }
 
-            response.put("especie", especieInfo);
-            response.put("especimen", especimenInfo);
-            response.put("registro_alta", registroInfo);
-            response.put("reporte_traslado", reporteInfo);
+            return new RegistroUnificadoView(especieInfo, especimenInfo, registroInfo, reporteInfo);
 
         } catch (Exception e) {
-            System.err.println("Error construyendo respuesta mejorada: " + e.getMessage());
-            response.put("especie", new HashMap<>());
-            response.put("especimen", new HashMap<>());
-            response.put("registro_alta", new HashMap<>());
-            response.put("reporte_traslado", new HashMap<>());
+            log.warn("Error construyendo respuesta mejorada: {}", e.getMessage());
+            return RegistroUnificadoView.EMPTY;
         }
-
-        return response;
     }
 
     /**
      * MÉTODO: Obtener todos los especímenes con datos completos (sin paginación)
+     * Carga en bloque: especímenes+especie, registros de alta+origen y reportes de traslado
+     * (tres consultas en total) y los une en memoria por id_especimen
      */
-    private List<Map<String, Object>> getAllSpecimensWithCompleteData(String search) throws Exception {
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        List<Especimen> specimens;
-        if (search != null && !search.trim().isEmpty()) {
-            specimens = especimenService.searchSpecimensByName(search).stream()
-                    .filter(Especimen::isActivo)
-                    .collect(java.util.stream.Collectors.toList());
-        } else {
-            specimens = especimenService.getActiveSpecimens();
-        }
+    private List<RegistroUnificadoView> getAllSpecimensWithCompleteData(String search) throws Exception {
+        String filtro = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
 
-        for (Especimen specimen : specimens) {
-            try {
-                Integer idEspecimen = specimen.getId_especimen();
-                if (idEspecimen != null) {
-                    Map<String, Object> completeData = especimenService.getSpecimenWithAllData(idEspecimen);
-                    List<ReporteTraslado> reportes = reporteTrasladoService.getReportesByEspecimen(idEspecimen);
+        List<Especimen> specimens = especimenService.getActiveSpecimensWithSpecieInfo(filtro);
+        Map<Integer, RegistroAlta> registrosPorEspecimen = especimenService.getLatestRegistrosAltaForActiveSpecimens(filtro);
+        Map<Integer, ReporteTraslado> reportesPorEspecimen = reporteTrasladoService.getFirstReportesForActiveSpecimens(filtro);
 
-                    Map<String, Object> enhancedData = buildEnhancedUnifiedResponse(completeData, reportes);
-                    result.add(enhancedData);
-                }
-            } catch (Exception e) {
-                System.err.println("Error procesando especimen: " + e.getMessage());
+        List<RegistroUnificadoView> result = new ArrayList<>(specimens.size());
+
+        for (Especimen specimen : specimens) {
+            Integer idEspecimen = specimen.getId_especimen();
+            if (idEspecimen == null) {
+                continue;
             }
+
+            result.add(buildUnifiedListEntry(specimen,
+                    registrosPorEspecimen.get(idEspecimen),
+                    reportesPorEspecimen.get(idEspecimen)));
         }
 
         return result;
     }
 
-
     /**
-     * MÉTODO AUXILIAR: Procesamiento seguro de fechas
+     * MÉTODO: Obtener una página de especímenes activos con datos completos
+     * Solo se cargan registros y reportes de los especímenes de la página
      */
-    @SuppressWarnings("unchecked")
-    private void processDatesSafely(Map<String, Object> requestData) {
-        try {
-            if (requestData.containsKey("registro_alta")) {
-                Map<String, Object> registroData = (Map<String, Object>) requestData.get("registro_alta");
-                if (registroData != null) {
-                    processDateField(registroData, "fecha_ingreso");
-                }
-            }
+    private Map<String, Object> getSpecimensPageWithCompleteData(String cursor, int page, int size,
+                                                                 String search) throws Exception {
+        String filtro = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
 
-            if (requestData.containsKey("reporte_traslado")) {
-                Map<String, Object> reporteData = (Map<String, Object>) requestData.get("reporte_traslado");
-                if (reporteData != null && !reporteData.isEmpty()) {
-                    processDateField(reporteData, "fecha_reporte");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error en procesamiento de fechas: " + e.getMessage());
+        EspecimenService.SpecimenPage pagina = especimenService.findSpecimensPage(cursor, page, size, filtro, "nombre", true);
+
+        List<Integer> ids = new ArrayList<>(pagina.getEspecimenes().size());
+        for (Especimen specimen : pagina.getEspecimenes()) {
+            ids.add(specimen.getId_especimen());
         }
-    }
 
+        Map<Integer, RegistroAlta> registrosPorEspecimen = especimenService.getLatestRegistrosAltaForSpecimens(ids);
+        Map<Integer, ReporteTraslado> reportesPorEspecimen = reporteTrasladoService.getFirstReportesForSpecimens(ids);
 
-    private void processDateField(Map<String, Object> data, String fieldName) {
-        if (!data.containsKey(fieldName)) {
-            data.put(fieldName, new Date());
-            return;
+        List<RegistroUnificadoView> data = new ArrayList<>(ids.size());
+        for (Especimen specimen : pagina.getEspecimenes()) {
+            data.add(buildUnifiedListEntry(specimen,
+                    registrosPorEspecimen.get(specimen.getId_especimen()),
+                    reportesPorEspecimen.get(specimen.getId_especimen())));
         }
 
-        Object fechaObj = data.get(fieldName);
-        if (fechaObj instanceof Date) {
-        } else if (fechaObj instanceof String) {
-            String fechaStr = (String) fechaObj;
-            if (fechaStr != null && !fechaStr.trim().isEmpty()) {
-                try {
-                    Date fecha = DATE_FORMAT.parse(fechaStr);
-                    data.put(fieldName, fecha);
-                } catch (ParseException e) {
-                    System.err.println("Error parseando fecha '" + fechaStr + "', usando fecha actual");
-                    data.put(fieldName, new Date());
-                }
-            } else {
-                data.put(fieldName, new Date());
-            }
-        } else {
-            data.put(fieldName, new Date());
-        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("data", data);
+        result.put("total", pagina.getTotal());
+        result.put("next_cursor", pagina.getNextCursor());
+        result.put("has_more", pagina.isHasMore());
+        return result;
     }
 
+    /**
+     * MÉTODO AUXILIAR: Entrada del listado unificado para un especimen
+     */
+    private RegistroUnificadoView buildUnifiedListEntry(Especimen specimen, RegistroAlta registro,
+                                                        ReporteTraslado reporte) {
+        RegistroUnificadoView.RegistroAltaSeccion registroInfo = null;
+        if (registro != null) {
+            // Sin origen no se incluye nombre_origen_alta (como en la consulta por especimen)
+            OrigenAlta origenAlta = registro.getOrigen_alta();
+            registroInfo = RegistroUnificadoView.RegistroAltaSeccion.of(registro,
+                    origenAlta != null ? origenAlta.getNombre_origen_alta() : null);
+        }
+
+        return new RegistroUnificadoView(
+                specimen.getEspecie() != null ? EspecieInfo.nombre(specimen.getEspecie()) : null,
+                RegistroUnificadoView.EspecimenSeccion.of(specimen),
+                registroInfo,
+                reporte != null ? RegistroUnificadoView.ReporteTrasladoSeccion.of(reporte) : null);
+    }
 
-    private Map<String, Object> createReporteTrasladoRobust(Map<String, Object> reporteData,
-                                                            Map<String, Object> registroData,
-                                                            Map<String, Object> registroResult) throws Exception {
-
-        System.out.println("=== EXTRACCIÓN ROBUSTA DE ID ESPECIMEN ===");
-
-        Integer idEspecimen = extractEspecimenId(registroResult);
-        Integer idResponsable = extractResponsableId(registroData);
-
-        System.out.println("   IDs extraídos:");
-        System.out.println("   ID Especimen: " + idEspecimen);
-        System.out.println("   ID Responsable: " + idResponsable);
 
-        if (idEspecimen == null) {
-            throw new IllegalStateException("FALLO CRÍTICO: No se pudo extraer el ID del especimen del resultado: " + registroResult);
-        }
-        if (idResponsable == null) {
-            throw new IllegalStateException("FALLO CRÍTICO: No se pudo extraer el ID del responsable");
+    /**
+     * MÉTODO AUXILIAR: Enlazar el cuerpo al comando tipado directamente desde el stream
+     * Devuelve null si el cuerpo está vacío
+     */
+    private RegistroUnificadoCommand readCommand(Context ctx) throws IOException {
+        try (JsonParser parser = COMMAND_READER.createParser(ctx.bodyInputStream())) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return COMMAND_READER.readValue(parser);
         }
-
-        reporteData.put("id_tipo_reporte", 5);
-        System.out.println("ID de tipo de reporte forzado a 5 (Reporte de Traslado)");
-
-        ReporteTraslado reporteTraslado = buildReporteTraslado(reporteData, idEspecimen, idResponsable);
-
-        System.out.println("   Reporte de traslado construido:");
-        System.out.println("   Tipo: " + reporteTraslado.getId_tipo_reporte());
-        System.out.println("   Especimen: " + reporteTraslado.getId_especimen());
-        System.out.println("   Responsable: " + reporteTraslado.getId_responsable());
-        System.out.println("   Traslado: " + reporteTraslado.getArea_origen() + " → " + reporteTraslado.getArea_destino());
-
-        ReporteTraslado reporteCreado = reporteTrasladoService.createReporteTraslado(reporteTraslado);
-
-        return convertReporteToMap(reporteCreado);
     }
 
-
-    private Map<String, Object> createReporteTrasladoExistingMethod(Map<String, Object> reporteData,
-                                                                    Map<String, Object> registroData,
-                                                                    Map<String, Object> updateResult) throws Exception {
-        System.out.println("=== CREANDO REPORTE DE TRASLADO EN UPDATE ===");
-
-        Integer idEspecimen = extractEspecimenId(updateResult);
-        Integer idResponsable = extractResponsableId(registroData);
-
-        if (idEspecimen == null || idResponsable == null) {
-            throw new IllegalStateException("No se pudieron extraer los IDs necesarios para el reporte");
+    /**
+     * El tipo de reporte siempre se fuerza a 5 (Reporte de Traslado)
+     */
+    private void warnTipoReporte(RegistroUnificadoCommand.ReporteTraslado reporteData) {
+        Integer tipoReporteOriginal = reporteData.id_tipo_reporte();
+        if (tipoReporteOriginal != null && tipoReporteOriginal != 5) {
+            log.warn("El tipo de reporte enviado ({}) será reemplazado por 5 (Reporte de Traslado)", tipoReporteOriginal);
         }
+    }
 
-        ReporteTraslado reporteTraslado = new ReporteTraslado();
-        reporteTraslado.setId_tipo_reporte(5);
-        reporteTraslado.setId_especimen(idEspecimen);
-        reporteTraslado.setId_responsable(idResponsable);
 
-        String asunto = (String) reporteData.get("asunto");
-        if (asunto == null || asunto.trim().isEmpty()) {
+    private ReporteTrasladoView createReporteTraslado(RegistroUnificadoCommand.ReporteTraslado reporteData,
+                                                      Integer idEspecimen,
+                                                      Integer idResponsable) throws Exception {
 
-        }
-        reporteTraslado.setAsunto(asunto);
+        log.debug("IDs del reporte - especimen: {}, responsable: {}", idEspecimen, idResponsable);
 
-        String contenido = (String) reporteData.get("contenido");
-        if (contenido == null || contenido.trim().isEmpty()) {
-            contenido = String.format("Traslado de especimen desde %s (%s) hacia %s (%s). Motivo: %s",
-                    reporteData.get("area_origen"), reporteData.get("ubicacion_origen"),
-                    reporteData.get("area_destino"), reporteData.get("ubicacion_destino"),
-                    reporteData.get("motivo"));
+        if (idResponsable == null) {
+            throw new IllegalStateException("FALLO CRÍTICO: No se pudo extraer el ID del responsable");
         }
-        reporteTraslado.setContenido(contenido);
 
-        Object fechaObj = reporteData.get("fecha_reporte");
-        if (fechaObj instanceof Date) {
-            reporteTraslado.setFecha_reporte((Date) fechaObj);
-        } else {
-            reporteTraslado.setFecha_reporte(new Date());
-        }
+        ReporteTraslado reporteTraslado = buildReporteTraslado(reporteData, idEspecimen, idResponsable);
 
-        reporteTraslado.setArea_origen((String) reporteData.get("area_origen"));
-        reporteTraslado.setArea_destino((String) reporteData.get("area_destino"));
-        reporteTraslado.setUbicacion_origen((String) reporteData.get("ubicacion_origen"));
-        reporteTraslado.setUbicacion_destino((String) reporteData.get("ubicacion_destino"));
-        reporteTraslado.setMotivo((String) reporteData.get("motivo"));
+        if (log.isDebugEnabled()) {
+            log.debug("Reporte de traslado construido - tipo: {}, especimen: {}, responsable: {}, traslado: {} → {}",
+                    reporteTraslado.getId_tipo_reporte(), reporteTraslado.getId_especimen(),
+                    reporteTraslado.getId_responsable(), reporteTraslado.getArea_origen(),
+                    reporteTraslado.getArea_destino());
+        }
 
         ReporteTraslado reporteCreado = reporteTrasladoService.createReporteTraslado(reporteTraslado);
 
-        return convertReporteToMap(reporteCreado);
+        return toReporteView(reporteCreado);
     }
 
 
-    private Map<String, Object> updateReporteTrasladoRobust(Map<String, Object> reporteData,
-                                                            Integer idEspecimen) throws Exception {
-        System.out.println("=== ACTUALIZANDO REPORTE DE TRASLADO ===");
+    private ReporteTrasladoView updateReporteTrasladoRobust(RegistroUnificadoCommand.ReporteTraslado reporteData) throws Exception {
+        log.debug("=== ACTUALIZANDO REPORTE DE TRASLADO ===");
 
-        Integer idReporte = (Integer) reporteData.get("id_reporte");
+        Integer idReporte = reporteData.id_reporte();
         if (idReporte == null) {
             throw new IllegalArgumentException("ID del reporte es requerido para actualización");
         }
@@ -693,234 +668,156 @@ public class RegistroUnificadoController {
         }
 
         reporteExistente.setId_tipo_reporte(5);
-        System.out.println("Tipo de reporte mantenido como 5 (Reporte de Traslado)");
+        log.debug("Tipo de reporte mantenido como 5 (Reporte de Traslado)");
 
         updateReporteFields(reporteExistente, reporteData);
 
         ReporteTraslado reporteActualizado = reporteTrasladoService.updateReporteTraslado(reporteExistente);
 
-        return convertReporteToMap(reporteActualizado);
+        return toReporteView(reporteActualizado);
     }
 
 
-    private void updateReporteFields(ReporteTraslado reporte, Map<String, Object> updateData) {
-        if (updateData.containsKey("asunto")) {
-            reporte.setAsunto((String) updateData.get("asunto"));
+    private void updateReporteFields(ReporteTraslado reporte, RegistroUnificadoCommand.ReporteTraslado updateData) {
+        if (updateData.asunto() != null) {
+            reporte.setAsunto(updateData.asunto());
         }
-        if (updateData.containsKey("contenido")) {
-            reporte.setContenido((String) updateData.get("contenido"));
+        if (updateData.contenido() != null) {
+            reporte.setContenido(updateData.contenido());
         }
-        if (updateData.containsKey("area_origen")) {
-            reporte.setArea_origen((String) updateData.get("area_origen"));
+        if (updateData.area_origen() != null) {
+            reporte.setArea_origen(updateData.area_origen());
         }
-        if (updateData.containsKey("area_destino")) {
-            reporte.setArea_destino((String) updateData.get("area_destino"));
+        if (updateData.area_destino() != null) {
+            reporte.setArea_destino(updateData.area_destino());
         }
-        if (updateData.containsKey("ubicacion_origen")) {
-            reporte.setUbicacion_origen((String) updateData.get("ubicacion_origen"));
+        if (updateData.ubicacion_origen() != null) {
+            reporte.setUbicacion_origen(updateData.ubicacion_origen());
         }
-        if (updateData.containsKey("ubicacion_destino")) {
-            reporte.setUbicacion_destino((String) updateData.get("ubicacion_destino"));
+        if (updateData.ubicacion_destino() != null) {
+            reporte.setUbicacion_destino(updateData.ubicacion_destino());
         }
-        if (updateData.containsKey("motivo")) {
-            reporte.setMotivo((String) updateData.get("motivo"));
-        }
-        if (updateData.containsKey("fecha_reporte")) {
-            Object fechaObj = updateData.get("fecha_reporte");
-            if (fechaObj instanceof Date) {
-                reporte.setFecha_reporte((Date) fechaObj);
-            }
+        if (updateData.motivo() != null) {
+            reporte.setMotivo(updateData.motivo());
         }
+        reporte.setFecha_reporte(updateData.fechaReporteOrNow());
     }
 
     /**
-     * MÉTODO AUXILIAR: Convertir ReporteTraslado a Map para respuesta
+     * MÉTODO AUXILIAR: Vista del ReporteTraslado para la respuesta
      */
-    private Map<String, Object> convertReporteToMap(ReporteTraslado reporte) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("id_reporte", reporte.getId_reporte());
-        result.put("id_tipo_reporte", reporte.getId_tipo_reporte());
-        result.put("id_especimen", reporte.getId_especimen());
-        result.put("id_responsable", reporte.getId_responsable());
-        result.put("asunto", reporte.getAsunto());
-        result.put("contenido", reporte.getContenido());
-        result.put("fecha_reporte", reporte.getFecha_reporte());
-        result.put("area_origen", reporte.getArea_origen());
-        result.put("area_destino", reporte.getArea_destino());
-        result.put("ubicacion_origen", reporte.getUbicacion_origen());
-        result.put("ubicacion_destino", reporte.getUbicacion_destino());
-        result.put("motivo", reporte.getMotivo());
-        result.put("message", "Reporte de traslado procesado exitosamente");
-        return result;
-    }
-
-    /**
-     * EXTRACCIÓN ROBUSTA: ID del especimen con múltiples estrategias
-     */
-    @SuppressWarnings("unchecked")
-    private Integer extractEspecimenId(Map<String, Object> registroResult) {
-        System.out.println("   Extrayendo ID especimen...");
-        System.out.println("   Estructura disponible: " + registroResult.keySet());
-
-        Integer idEspecimen = null;
-
-        try {
-            if (registroResult.containsKey("especimen")) {
-                Object especimenObj = registroResult.get("especimen");
-                System.out.println("   Especimen object: " + especimenObj);
-
-                if (especimenObj instanceof Map) {
-                    Map<String, Object> especimenInfo = (Map<String, Object>) especimenObj;
-                    if (especimenInfo.containsKey("id_especimen")) {
-                        idEspecimen = (Integer) especimenInfo.get("id_especimen");
-                        System.out.println("ESTRATEGIA 1 exitosa: " + idEspecimen);
-                        return idEspecimen;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Estrategia 1 falló: " + e.getMessage());
-        }
-
-        try {
-            if (registroResult.containsKey("registro_alta")) {
-                Map<String, Object> registroInfo = (Map<String, Object>) registroResult.get("registro_alta");
-                if (registroInfo != null && registroInfo.containsKey("id_especimen")) {
-                    idEspecimen = (Integer) registroInfo.get("id_especimen");
-                    System.out.println("ESTRATEGIA 2 exitosa: " + idEspecimen);
-                    return idEspecimen;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Estrategia 2 falló: " + e.getMessage());
-        }
-
-        try {
-            idEspecimen = findValueRecursively(registroResult, "id_especimen");
-            if (idEspecimen != null) {
-                System.out.println("ESTRATEGIA 3 exitosa: " + idEspecimen);
-                return idEspecimen;
-            }
-        } catch (Exception e) {
-            System.err.println("Estrategia 3 falló: " + e.getMessage());
-        }
-
-        System.err.println("TODAS las estrategias fallaron para extraer ID especimen");
-        return null;
-    }
-
-    /**
-     * EXTRACCIÓN SIMPLE: ID del responsable
-     */
-    private Integer extractResponsableId(Map<String, Object> registroData) {
-        try {
-            return (Integer) registroData.get("id_responsable");
-        } catch (Exception e) {
-            System.err.println("Error extrayendo ID responsable: " + e.getMessage());
-            return null;
-        }
+    private ReporteTrasladoView toReporteView(ReporteTraslado reporte) {
+        return ReporteTrasladoView.of(reporte, "Reporte de traslado procesado exitosamente");
     }
 
     /**
      * CONSTRUCTOR: ReporteTraslado con validaciones
      */
-    private ReporteTraslado buildReporteTraslado(Map<String, Object> reporteData,
+    private ReporteTraslado buildReporteTraslado(RegistroUnificadoCommand.ReporteTraslado reporteData,
                                                  Integer idEspecimen,
                                                  Integer idResponsable) {
 
         ReporteTraslado reporteTraslado = new ReporteTraslado();
 
         reporteTraslado.setId_tipo_reporte(5);
-        System.out.println("Tipo de reporte establecido como 5 (Reporte de Traslado)");
+        log.debug("Tipo de reporte establecido como 5 (Reporte de Traslado)");
 
         reporteTraslado.setId_especimen(idEspecimen);
         reporteTraslado.setId_responsable(idResponsable);
 
-        String asunto = (String) reporteData.get("asunto");
+        String asunto = reporteData.asunto();
         if (asunto == null || asunto.trim().isEmpty()) {
-            if(reporteTraslado.getId_tipo_reporte() == 5){
-                asunto = "Reporte de alta - Proviene de " + reporteData.get("area_origen") + ", asignado a " + reporteData.get("area_destino");
-            }
-            else{
-                asunto = "Reporte de traslado - " + reporteData.get("area_origen") + " a " + reporteData.get("area_destino");
-            }
+            asunto = "Reporte de alta - Proviene de " + reporteData.area_origen() + ", asignado a " + reporteData.area_destino();
         }
         reporteTraslado.setAsunto(asunto);
 
-        String contenido = (String) reporteData.get("contenido");
+        String contenido = reporteData.contenido();
         if (contenido == null || contenido.trim().isEmpty()) {
             contenido = String.format("Traslado de especimen desde %s (%s) hacia %s (%s). Motivo: %s",
-                    reporteData.get("area_origen"), reporteData.get("ubicacion_origen"),
-                    reporteData.get("area_destino"), reporteData.get("ubicacion_destino"),
-                    reporteData.get("motivo"));
+                    reporteData.area_origen(), reporteData.ubicacion_origen(),
+                    reporteData.area_destino(), reporteData.ubicacion_destino(),
+                    reporteData.motivo());
         }
         reporteTraslado.setContenido(contenido);
 
-        Object fechaObj = reporteData.get("fecha_reporte");
-        if (fechaObj instanceof Date) {
-            reporteTraslado.setFecha_reporte((Date) fechaObj);
-        } else {
-            reporteTraslado.setFecha_reporte(new Date());
-        }
+        reporteTraslado.setFecha_reporte(reporteData.fechaReporteOrNow());
 
-        reporteTraslado.setArea_origen((String) reporteData.get("area_origen"));
-        reporteTraslado.setArea_destino((String) reporteData.get("area_destino"));
-        reporteTraslado.setUbicacion_origen((String) reporteData.get("ubicacion_origen"));
-        reporteTraslado.setUbicacion_destino((String) reporteData.get("ubicacion_destino"));
-        reporteTraslado.setMotivo((String) reporteData.get("motivo"));
+        reporteTraslado.setArea_origen(reporteData.area_origen());
+        reporteTraslado.setArea_destino(reporteData.area_destino());
+        reporteTraslado.setUbicacion_origen(reporteData.ubicacion_origen());
+        reporteTraslado.setUbicacion_destino(reporteData.ubicacion_destino());
+        reporteTraslado.setMotivo(reporteData.motivo());
 
         return reporteTraslado;
     }
 
+
+    private RegistroUnificadoRespuesta buildSuccessResponse(RegistroUnificadoCreado registroResult,
+                                                            ReporteTrasladoView reporteResult,
+                                                            boolean incluirReporte) {
+        return new RegistroUnificadoRespuesta(
+                true,
+                incluirReporte ?
+                        "Registro unificado creado exitosamente con reporte de traslado" :
+                        "Registro unificado creado exitosamente",
+                registroResult,
+                reporteResult != null ? reporteResult : "No se creó reporte de traslado",
+                Map.of(
+                        "especie", "éxito",
+                        "especimen", "éxito",
+                        "registro_alta", "éxito",
+                        "reporte_traslado", incluirReporte ? "éxito" : "fallo"
+                ));
+    }
+
     /**
-     * BÚSQUEDA RECURSIVA: Encontrar un valor por clave en estructura anidada
+     * POST /hm/registro-unificado/bulk - Importación masiva (JSONL o CSV)
+     * Formato por ?format=csv|jsonl o por Content-Type (text/csv); el resultado de cada fila
+     * se escribe en streaming a medida que se confirma cada bloque.
      */
-    @SuppressWarnings("unchecked")
-    private Integer findValueRecursively(Object obj, String key) {
-        if (obj == null) return null;
+    public void importBulk(Context ctx) {
+        String format = ctx.queryParam("format");
+        if (format == null) {
+            String contentType = ctx.contentType();
+            format = contentType != null && contentType.toLowerCase().contains("csv") ? "csv" : "jsonl";
+        }
+        if (!format.equals("csv") && !format.equals("jsonl")) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Formato no soportado", "Use format=csv o format=jsonl"));
+            return;
+        }
 
-        if (obj instanceof Map) {
-            Map<String, Object> map = (Map<String, Object>) obj;
+        JsonListStreamer streamer = JsonListStreamer.envelope(ctx);
+        try (ImportReader reader = format.equals("csv")
+                ? ImportReader.csv(ctx.bodyInputStream())
+                : ImportReader.jsonLines(ctx.bodyInputStream())) {
 
-            if (map.containsKey(key)) {
-                Object value = map.get(key);
-                if (value instanceof Integer) {
-                    return (Integer) value;
-                }
-            }
+            ImportacionService.Resumen resumen = importacionService.importar(reader, streamer::accept);
 
-            for (Object value : map.values()) {
-                Integer result = findValueRecursively(value, key);
-                if (result != null) {
-                    return result;
-                }
+            Map<String, Object> trailer = new HashMap<>();
+            trailer.put("success", resumen.fallidas() == 0);
+            trailer.put("creados", resumen.creadas());
+            trailer.put("errores", resumen.fallidas());
+            trailer.put("duracion_ms", resumen.duracionMs());
+            trailer.put("filas_por_segundo", Math.round(resumen.filasPorSegundo()));
+            trailer.put("message", "Importación finalizada: " + resumen.creadas() + " de "
+                    + resumen.procesadas() + " filas creadas");
+            streamer.finish(trailer);
+        } catch (Exception e) {
+            if (streamer.isStarted()) {
+                log.error("Error a mitad de la importación masiva ({} filas informadas)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
+            if (e instanceof IllegalArgumentException) {
+                ctx.status(HttpStatus.BAD_REQUEST)
+                        .json(createErrorResponse("Archivo inválido", e.getMessage()));
+                return;
             }
+            log.error("Error en importación masiva", e);
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error en la importación", e.getMessage()));
         }
-
-        return null;
-    }
-
-
-    private Map<String, Object> buildSuccessResponse(Map<String, Object> registroResult,
-                                                     Map<String, Object> reporteResult,
-                                                     boolean incluirReporte) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", incluirReporte ?
-                "Registro unificado creado exitosamente con reporte de traslado" :
-                "Registro unificado creado exitosamente");
-
-        response.put("registro_data", registroResult);
-        response.put("reporte_traslado", reporteResult != null ? reporteResult : "No se creó reporte de traslado");
-
-        Map<String, String> componentsCreated = new HashMap<>();
-        componentsCreated.put("especie", "éxito");
-        componentsCreated.put("especimen", "éxito");
-        componentsCreated.put("registro_alta", "éxito");
-        componentsCreated.put("reporte_traslado", incluirReporte ? "éxito" : "fallo");
-        response.put("components_created", componentsCreated);
-
-        return response;
     }
 
     /**
@@ -928,15 +825,19 @@ public class RegistroUnificadoController {
      */
     public void validateUnifiedRegistration(Context ctx) {
         try {
-            Map<String, Object> requestData = ctx.bodyAsClass(Map.class);
+            RegistroUnificadoCommand command = readCommand(ctx);
 
-            if (requestData == null || requestData.isEmpty()) {
+            if (command == null || command.isEmpty()) {
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Datos requeridos", "El cuerpo de la solicitud no puede estar vacío"));
                 return;
             }
 
-            Map<String, Object> validationResult = validateRegistrationData(requestData);
+            RegistroUnificadoValidator.validateCreate(command);
+
+            Map<String, Object> validationResult = new HashMap<>();
+            validationResult.put("valid", true);
+            validationResult.put("warnings", new ArrayList<>());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -945,10 +846,14 @@ public class RegistroUnificadoController {
 
             ctx.json(response);
 
-        } catch (IllegalArgumentException e) {
+        } catch (JsonProcessingException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("JSON inválido", e.getOriginalMessage()));
+        } catch (ValidationException e) {
             Map<String, Object> validationError = new HashMap<>();
             validationError.put("valid", false);
             validationError.put("errors", e.getMessage());
+            validationError.put("error_list", e.getErrors());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -1040,24 +945,6 @@ public class RegistroUnificadoController {
     }
 
 
-    private Map<String, Object> validateRegistrationData(Map<String, Object> requestData) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("valid", true);
-        result.put("warnings", new ArrayList<>());
-
-        if (!requestData.containsKey("especie")) {
-            throw new IllegalArgumentException("Faltan datos de especie");
-        }
-        if (!requestData.containsKey("especimen")) {
-            throw new IllegalArgumentException("Faltan datos de especimen");
-        }
-        if (!requestData.containsKey("registro_alta")) {
-            throw new IllegalArgumentException("Faltan datos de registro de alta");
-        }
-
-        return result;
-    }
-
     private Map<String, Object> createErrorResponse(String error, String details) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
@@ -1068,4 +955,10 @@ public class RegistroUnificadoController {
 
         return response;
     }
+
+    private Map<String, Object> validationErrorResponse(ValidationException e) {
+        Map<String, Object> response = createErrorResponse("Datos inválidos", e.getMessage());
+        response.put("error_list", e.getErrors());
+        return response;
+    }
 }
\ No newline at end of file
@@ -3,10 +3,13 @@ package com.hugin_munin.controller;
 import com.hugin_munin.model.Reporte;
 import com.hugin_munin.service.ReporteService;
 import io.javalin.http.Context;
+import com.hugin_munin.util.Fechas;
+import com.hugin_munin.util.JsonListStreamer;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -16,8 +19,9 @@ import java.util.Map;
  */
 public class ReporteController {
 
+    private static final Logger log = LoggerFactory.getLogger(ReporteController.class);
+
     private final ReporteService reporteService;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
 
     public ReporteController(ReporteService reporteService) {
         this.reporteService = reporteService;
@@ -27,14 +31,16 @@ public class ReporteController {
      * GET /hm/reportes - Obtener todos los reportes
      */
     public void getAllReportes(Context ctx) {
+        JsonListStreamer streamer = JsonListStreamer.envelope(ctx);
         try {
-            List<Reporte> reportes = reporteService.getAllReportes();
-            ctx.json(Map.of(
-                    "data", reportes,
-                    "total", reportes.size(),
-                    "message", "Reportes obtenidos exitosamente"
-            ));
+            reporteService.streamAllReportes(streamer);
+            streamer.finish(Map.of("message", "Reportes obtenidos exitosamente"));
         } catch (Exception e) {
+            if (streamer.isStarted()) {
+                log.error("Error a mitad del streaming de reportes ({} enviados)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al obtener reportes", e.getMessage()));
         }
@@ -160,6 +166,48 @@ public class ReporteController {
         }
     }
 
+    /**
+     * GET /hm/reportes/search?q=&limit=&offset= - Búsqueda por texto ordenada por relevancia
+     */
+    public void searchReportes(Context ctx) {
+        try {
+            String consulta = ctx.queryParam("q");
+
+            if (consulta == null || consulta.trim().isEmpty()) {
+                ctx.status(HttpStatus.BAD_REQUEST)
+                        .json(createErrorResponse("Parámetro requerido", "Debe proporcionar el parámetro 'q'"));
+                return;
+            }
+
+            String limitParam = ctx.queryParam("limit");
+            String offsetParam = ctx.queryParam("offset");
+            int limite = limitParam == null || limitParam.isBlank() ? 20 : Integer.parseInt(limitParam.trim());
+            int desde = offsetParam == null || offsetParam.isBlank() ? 0 : Integer.parseInt(offsetParam.trim());
+
+            ReporteService.ResultadoBusqueda resultado = reporteService.searchReportes(consulta, limite, desde);
+
+            ctx.json(Map.of(
+                    "data", resultado.reportes(),
+                    "count", resultado.reportes().size(),
+                    "total", resultado.total(),
+                    "truncated", resultado.truncado(),
+                    "limit", limite,
+                    "offset", desde,
+                    "search_term", consulta,
+                    "message", String.format("Se encontraron %d reportes", resultado.total())
+            ));
+        } catch (NumberFormatException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", "limit y offset deben ser números enteros"));
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST)
+                    .json(createErrorResponse("Parámetros inválidos", e.getMessage()));
+        } catch (Exception e) {
+            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .json(createErrorResponse("Error en la búsqueda de reportes", e.getMessage()));
+        }
+    }
+
     /**
      * GET /hm/reportes/search/contenido?q= - Buscar reportes por contenido
      */
@@ -201,8 +249,11 @@ public class ReporteController {
                 return;
             }
 
-            Date fechaInicio = DATE_FORMAT.parse(fechaInicioStr);
-            Date fechaFin = DATE_FORMAT.parse(fechaFinStr);
+            Date fechaInicio = Fechas.toDate(Fechas.parse(fechaInicioStr));
+            Date fechaFin = Fechas.toDate(Fechas.parse(fechaFinStr));
+            if (fechaInicio == null || fechaFin == null) {
+                throw new DateTimeParseException("Fecha vacía", fechaInicioStr + " / " + fechaFinStr, 0);
+            }
 
             List<Reporte> reportes = reporteService.getReportesByDateRange(fechaInicio, fechaFin);
 
@@ -213,7 +264,7 @@ public class ReporteController {
                     "fecha_fin", fechaFinStr,
                     "message", String.format("Se encontraron %d reportes en el rango de fechas", reportes.size())
             ));
-        } catch (ParseException e) {
+        } catch (DateTimeParseException | NumberFormatException e) {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(createErrorResponse("Formato de fecha inválido", "Use el formato YYYY-MM-DD"));
         } catch (Exception e) {
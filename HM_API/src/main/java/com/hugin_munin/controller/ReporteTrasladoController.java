@@ -4,10 +4,13 @@ import com.hugin_munin.model.ReporteTraslado;
 import com.hugin_munin.service.ReporteTrasladoService;
 import com.hugin_munin.repository.ReporteTrasladoRepository;
 import io.javalin.http.Context;
+import com.hugin_munin.util.Fechas;
+import com.hugin_munin.util.JsonListStreamer;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -17,8 +20,9 @@ import java.util.Map;
  */
 public class ReporteTrasladoController {
 
+    private static final Logger log = LoggerFactory.getLogger(ReporteTrasladoController.class);
+
     private final ReporteTrasladoService reporteTrasladoService;
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
 
     public ReporteTrasladoController(ReporteTrasladoService reporteTrasladoService) {
         this.reporteTrasladoService = reporteTrasladoService;
@@ -28,14 +32,16 @@ public class ReporteTrasladoController {
      * GET /hm/reportes-traslado - Obtener todos los reportes de traslado
      */
     public void getAllReportesTraslado(Context ctx) {
+        JsonListStreamer streamer = JsonListStreamer.envelope(ctx);
         try {
-            List<ReporteTraslado> reportes = reporteTrasladoService.getAllReportesTraslado();
-            ctx.json(Map.of(
-                    "data", reportes,
-                    "total", reportes.size(),
-                    "message", "Reportes de traslado obtenidos exitosamente"
-            ));
+            reporteTrasladoService.streamAllReportesTraslado(streamer);
+            streamer.finish(Map.of("message", "Reportes de traslado obtenidos exitosamente"));
         } catch (Exception e) {
+            if (streamer.isStarted()) {
+                log.error("Error a mitad del streaming de reportes de traslado ({} enviados)", streamer.getTotal(), e);
+                streamer.abort();
+                return;
+            }
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error al obtener reportes de traslado", e.getMessage()));
         }
@@ -232,8 +238,11 @@ public class ReporteTrasladoController {
                 return;
             }
 
-            Date fechaInicio = DATE_FORMAT.parse(fechaInicioStr);
-            Date fechaFin = DATE_FORMAT.parse(fechaFinStr);
+            Date fechaInicio = Fechas.toDate(Fechas.parse(fechaInicioStr));
+            Date fechaFin = Fechas.toDate(Fechas.parse(fechaFinStr));
+            if (fechaInicio == null || fechaFin == null) {
+                throw new DateTimeParseException("Fecha vacía", fechaInicioStr + " / " + fechaFinStr, 0);
+            }
 
             List<ReporteTraslado> reportes = reporteTrasladoService.getReportesByDateRange(fechaInicio, fechaFin);
 
@@ -244,7 +253,7 @@ public class ReporteTrasladoController {
                     "fecha_fin", fechaFinStr,
                     "message", String.format("Se encontraron %d reportes de traslado en el rango de fechas", reportes.size())
             ));
-        } catch (ParseException e) {
+        } catch (DateTimeParseException | NumberFormatException e) {
             ctx.status(HttpStatus.BAD_REQUEST)
                     .json(createErrorResponse("Formato de fecha inválido", "Use el formato YYYY-MM-DD"));
         } catch (Exception e) {
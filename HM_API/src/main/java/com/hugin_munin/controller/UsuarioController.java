@@ -5,6 +5,8 @@ import com.hugin_munin.model.UsuarioConPermisos;
 import com.hugin_munin.service.UsuarioService;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +17,8 @@ import java.util.Map;
  */
 public class UsuarioController {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioController.class);
+
     private final UsuarioService usuarioService;
 
     public UsuarioController(UsuarioService usuarioService) {
@@ -91,32 +95,32 @@ public class UsuarioController {
      */
     public void getUsuarioConPermisosByCorreo(Context ctx) {
         try {
-            System.out.println("Controller: Iniciando getUsuarioConPermisosByCorreo");
+            log.debug("Controller: Iniciando getUsuarioConPermisosByCorreo");
 
             String correo = ctx.queryParam("correo");
             if (correo == null || correo.trim().isEmpty()) {
-                System.out.println("Controller: Correo vacío");
+                log.debug("Controller: Correo vacío");
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Parámetro requerido", "Debe proporcionar el parámetro 'correo'"));
                 return;
             }
 
-            System.out.println("Controller: Correo recibido: " + correo);
+            log.debug("Controller: Correo recibido: {}", correo);
 
             UsuarioConPermisos usuarioConPermisos = usuarioService.getUsuarioConPermisosByCorreo(correo);
 
-            System.out.println("Controller: Usuario obtenido del service");
+            log.debug("Controller: Usuario obtenido del service");
 
             Map<String, Object> response = usuarioConPermisos.toResponseMap();
             response.put("success", true);
             response.put("message", "Usuario con permisos obtenido exitosamente");
             response.put("timestamp", System.currentTimeMillis());
 
-            System.out.println("Controller: Respuesta preparada, enviando JSON");
+            log.debug("Controller: Respuesta preparada, enviando JSON");
             ctx.json(response);
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Controller: Error de argumento: " + e.getMessage());
+            log.warn("Controller: Error de argumento: {}", e.getMessage());
             if (e.getMessage().contains("no se encontró") || e.getMessage().contains("No se encontró")) {
                 ctx.status(HttpStatus.NOT_FOUND)
                         .json(createErrorResponse("Usuario no encontrado", e.getMessage()));
@@ -125,8 +129,7 @@ public class UsuarioController {
                         .json(createErrorResponse("Error de validación", e.getMessage()));
             }
         } catch (Exception e) {
-            System.err.println("Controller: Error interno: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Controller: Error interno: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno del servidor", "Error al obtener usuario con permisos: " + e.getMessage()));
         }
@@ -138,32 +141,32 @@ public class UsuarioController {
      */
     public void getUsuarioConPermisosByNombre(Context ctx) {
         try {
-            System.out.println("Controller: Iniciando getUsuarioConPermisosByNombre");
+            log.debug("Controller: Iniciando getUsuarioConPermisosByNombre");
 
             String nombreUsuario = ctx.queryParam("nombre_usuario");
             if (nombreUsuario == null || nombreUsuario.trim().isEmpty()) {
-                System.out.println("Controller: Nombre de usuario vacío");
+                log.debug("Controller: Nombre de usuario vacío");
                 ctx.status(HttpStatus.BAD_REQUEST)
                         .json(createErrorResponse("Parámetro requerido", "Debe proporcionar el parámetro 'nombre_usuario'"));
                 return;
             }
 
-            System.out.println("Controller: Nombre de usuario recibido: " + nombreUsuario);
+            log.debug("Controller: Nombre de usuario recibido: {}", nombreUsuario);
 
             UsuarioConPermisos usuarioConPermisos = usuarioService.getUsuarioConPermisosByNombre(nombreUsuario);
 
-            System.out.println("Controller: Usuario obtenido del service por nombre");
+            log.debug("Controller: Usuario obtenido del service por nombre");
 
             Map<String, Object> response = usuarioConPermisos.toResponseMap();
             response.put("success", true);
             response.put("message", "Usuario con permisos obtenido exitosamente por nombre de usuario");
             response.put("timestamp", System.currentTimeMillis());
 
-            System.out.println("Controller: Respuesta preparada, enviando JSON");
+            log.debug("Controller: Respuesta preparada, enviando JSON");
             ctx.json(response);
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Controller: Error de argumento: " + e.getMessage());
+            log.warn("Controller: Error de argumento: {}", e.getMessage());
             if (e.getMessage().contains("no se encontró") || e.getMessage().contains("No se encontró")) {
                 ctx.status(HttpStatus.NOT_FOUND)
                         .json(createErrorResponse("Usuario no encontrado", e.getMessage()));
@@ -172,8 +175,7 @@ public class UsuarioController {
                         .json(createErrorResponse("Error de validación", e.getMessage()));
             }
         } catch (Exception e) {
-            System.err.println("Controller: Error interno: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Controller: Error interno: {}", e.getMessage(), e);
             ctx.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .json(createErrorResponse("Error interno del servidor", "Error al obtener usuario con permisos por nombre: " + e.getMessage()));
         }
@@ -1,9 +1,21 @@
 package com.hugin_munin.di;
 
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.PrincipalCache;
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.cache.TokenEpochCache;
+import com.hugin_munin.config.AppConfig;
 import com.hugin_munin.controller.*;
 import com.hugin_munin.repository.*;
 import com.hugin_munin.routes.*;
+import com.hugin_munin.search.ReporteSearchIndex;
 import com.hugin_munin.service.*;
+import com.hugin_munin.util.RevocationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
 
 /**
  * AppModule - Gestión de dependencias con instancias singleton
@@ -11,6 +23,8 @@ import com.hugin_munin.service.*;
  */
 public class AppModule {
 
+    private static final Logger log = LoggerFactory.getLogger(AppModule.class);
+
     // ========================================
     // INSTANCIAS SINGLETON - UNA SOLA POR TODA LA APP
     // ========================================
@@ -19,6 +33,11 @@ public class AppModule {
     private static RolRepository rolRepositoryInstance;
     private static AuthService authServiceInstance;
     private static UsuarioService usuarioServiceInstance;
+    private static PrincipalCache principalCacheInstance;
+    private static RevocationStore revocationStoreInstance;
+    private static TokenEpochCache tokenEpochCacheInstance;
+    private static ReporteSearchIndex reporteSearchIndexInstance;
+    private static DashboardService dashboardServiceInstance;
 
     // ========================================
     // MÉTODOS PARA OBTENER INSTANCIAS SINGLETON
@@ -30,7 +49,7 @@ public class AppModule {
     public static UsuarioRepository getUsuarioRepository() {
         if (usuarioRepositoryInstance == null) {
             usuarioRepositoryInstance = new UsuarioRepository();
-            System.out.println("🔧 UsuarioRepository: Nueva instancia creada");
+            log.info("🔧 UsuarioRepository: Nueva instancia creada");
         }
         return usuarioRepositoryInstance;
     }
@@ -41,19 +60,73 @@ public class AppModule {
     public static RolRepository getRolRepository() {
         if (rolRepositoryInstance == null) {
             rolRepositoryInstance = new RolRepository();
-            System.out.println("🔧 RolRepository: Nueva instancia creada");
+            log.info("🔧 RolRepository: Nueva instancia creada");
         }
         return rolRepositoryInstance;
     }
 
+    /**
+     * Obtener la ÚNICA instancia del caché de usuarios autenticados
+     */
+    public static PrincipalCache getPrincipalCache() {
+        if (principalCacheInstance == null) {
+            principalCacheInstance = new PrincipalCache();
+        }
+        return principalCacheInstance;
+    }
+
+    /**
+     * Obtener la ÚNICA instancia del almacén de tokens revocados
+     * REVOCATION_SNAPSHOT (opcional) indica el archivo donde persistir las revocaciones
+     */
+    public static RevocationStore getRevocationStore() {
+        if (revocationStoreInstance == null) {
+            String snapshot = AppConfig.get("REVOCATION_SNAPSHOT", null);
+            revocationStoreInstance = new RevocationStore(snapshot != null ? Path.of(snapshot) : null);
+        }
+        return revocationStoreInstance;
+    }
+
+    /**
+     * Obtener la ÚNICA instancia del epoch de sesiones por usuario
+     */
+    public static TokenEpochCache getTokenEpochCache() {
+        if (tokenEpochCacheInstance == null) {
+            tokenEpochCacheInstance = new TokenEpochCache(getUsuarioRepository());
+        }
+        return tokenEpochCacheInstance;
+    }
+
+    /**
+     * Obtener la ÚNICA instancia del índice de búsqueda de reportes
+     * (compartida por ReporteService y todos los ReporteTrasladoService)
+     */
+    public static ReporteSearchIndex getReporteSearchIndex() {
+        if (reporteSearchIndexInstance == null) {
+            reporteSearchIndexInstance = new ReporteSearchIndex(new ReporteRepository());
+        }
+        return reporteSearchIndexInstance;
+    }
+
+    /**
+     * Obtener la ÚNICA instancia de DashboardService (dueña de la conciliación periódica)
+     */
+    public static DashboardService getDashboardService() {
+        if (dashboardServiceInstance == null) {
+            dashboardServiceInstance = new DashboardService(new DashboardRepository());
+        }
+        return dashboardServiceInstance;
+    }
+
     /**
      * Obtener la ÚNICA instancia de AuthService
      * ACTUALIZADO: Ahora usa JWT en lugar de sesiones con cookies
      */
     public static AuthService getAuthService() {
         if (authServiceInstance == null) {
-            authServiceInstance = new AuthService(getUsuarioRepository());
-            System.out.println("🔧 AuthService: Nueva instancia creada (SINGLETON - JWT)");
+            authServiceInstance = new AuthService(getUsuarioRepository(), getPrincipalCache(), getRevocationStore(),
+                    getTokenEpochCache());
+            log.info("🔧 AuthService: Nueva instancia creada (SINGLETON - JWT)");
         }
         return authServiceInstance;
     }
@@ -63,8 +136,9 @@ public class AppModule {
      */
     public static UsuarioService getUsuarioService() {
         if (usuarioServiceInstance == null) {
-            usuarioServiceInstance = new UsuarioService(getUsuarioRepository(), getRolRepository());
-            System.out.println("🔧 UsuarioService: Nueva instancia creada");
+            usuarioServiceInstance = new UsuarioService(getUsuarioRepository(), getRolRepository(), getPrincipalCache(),
+                    getTokenEpochCache());
+            log.info("🔧 UsuarioService: Nueva instancia creada");
         }
         return usuarioServiceInstance;
     }
@@ -78,14 +152,14 @@ public class AppModule {
      * ACTUALIZADO: Usa instancias singleton con JWT
      */
     public static AuthRoutes initAuth() {
-        System.out.println("🚀 Inicializando módulo de autenticación con JWT...");
+        log.info("🚀 Inicializando módulo de autenticación con JWT...");
 
         AuthService authService = getAuthService(); // Instancia singleton
         UsuarioService usuarioService = getUsuarioService(); // Instancia singleton
 
         AuthController authController = new AuthController(authService, usuarioService);
 
-        System.out.println("✅ Módulo de autenticación JWT inicializado");
+        log.info("✅ Módulo de autenticación JWT inicializado");
         return new AuthRoutes(authController);
     }
 
@@ -94,12 +168,12 @@ public class AppModule {
      * CORREGIDO: Usa instancias singleton
      */
     public static UsuarioRoutes initUsuarios() {
-        System.out.println("🚀 Inicializando módulo de usuarios...");
+        log.info("🚀 Inicializando módulo de usuarios...");
 
         UsuarioService usuarioService = getUsuarioService(); // Instancia singleton
         UsuarioController usuarioController = new UsuarioController(usuarioService);
 
-        System.out.println("✅ Módulo de usuarios inicializado");
+        log.info("✅ Módulo de usuarios inicializado");
         return new UsuarioRoutes(usuarioController);
     }
 
@@ -152,7 +226,7 @@ public class AppModule {
      */
     public static EspecieRoutes initSpecies() {
         EspecieRepository especieRepository = new EspecieRepository();
-        EspecieService especieService = new EspecieService(especieRepository);
+        EspecieService especieService = new EspecieService(especieRepository, new CensusRepository());
         EspecieController especieController = new EspecieController(especieService);
 
         return new EspecieRoutes(especieController);
@@ -204,7 +278,8 @@ public class AppModule {
                 reporteRepository,
                 tipoReporteRepository,
                 especimenRepository,
-                usuarioRepository
+                usuarioRepository,
+                getReporteSearchIndex()
         );
         ReporteController reporteController = new ReporteController(reporteService);
 
@@ -224,7 +299,8 @@ public class AppModule {
                 reporteTrasladoRepository,
                 tipoReporteRepository,
                 especimenRepository,
-                usuarioRepository
+                usuarioRepository,
+                getReporteSearchIndex()
         );
         ReporteTrasladoController reporteTrasladoController = new ReporteTrasladoController(reporteTrasladoService);
 
@@ -256,15 +332,25 @@ public class AppModule {
                 reporteTrasladoRepository,
                 tipoReporteRepository,
                 especimenRepository,
-                usuarioRepository
+                usuarioRepository,
+                getReporteSearchIndex()
         );
 
         OrigenAltaService origenAltaService = new OrigenAltaService(origenAltaRepository);
 
+        ImportacionService importacionService = new ImportacionService(
+                especieRepository,
+                especimenRepository,
+                registroAltaRepository,
+                usuarioRepository,
+                origenAltaRepository
+        );
+
         RegistroUnificadoController unificadoController = new RegistroUnificadoController(
                 especimenService,
                 reporteTrasladoService,
-                origenAltaService
+                origenAltaService,
+                importacionService
         );
 
         return new RegistroUnificadoRoutes(unificadoController);
@@ -310,6 +396,93 @@ public class AppModule {
         return new RegistroBajaRoutes(registroBajaController);
     }
 
+    /**
+     * Inicializar módulo de exportaciones
+     */
+    public static ExportRoutes initExport() {
+        ExportService exportService = new ExportService(new ExportRepository());
+        ExportController exportController = new ExportController(exportService);
+
+        return new ExportRoutes(exportController);
+    }
+
+    /**
+     * Inicializar módulo de administración
+     */
+    public static AdminRoutes initAdmin() {
+        AdminController adminController = new AdminController(getPrincipalCache(), getAuthService());
+
+        return new AdminRoutes(adminController);
+    }
+
+    /**
+     * Inicializar módulo del dashboard
+     */
+    public static DashboardRoutes initDashboard() {
+        DashboardController dashboardController = new DashboardController(getDashboardService());
+
+        return new DashboardRoutes(dashboardController);
+    }
+
+    /**
+     * Inicializar módulo de analítica
+     */
+    public static AnalyticsRoutes initAnalytics() {
+        AnalyticsService analyticsService = new AnalyticsService(new AnalyticsRepository(),
+                new OrigenAltaRepository(), new CausaBajaRepository(), new TipoReporteRepository());
+        AnalyticsController analyticsController = new AnalyticsController(analyticsService);
+
+        return new AnalyticsRoutes(analyticsController);
+    }
+
+    /**
+     * Inicializar módulo de métricas
+     */
+    public static MetricsRoutes initMetrics() {
+        MetricsController metricsController = new MetricsController(getPrincipalCache());
+
+        return new MetricsRoutes(metricsController);
+    }
+
+    /**
+     * Precargar los cachés de catálogo para que la primera petición no pague la consulta
+     */
+    public static void warmCatalogCaches() {
+        try {
+            new OrigenAltaRepository().findAll();
+            new CausaBajaRepository().findAll();
+            new TipoReporteRepository().findAll();
+            new RolRepository().findAll();
+            new PermisoRepository().findAll();
+            new EspecieRepository().findAllSpecies();
+            log.info("✅ Cachés de catálogo precargados");
+        } catch (Exception e) {
+            // Sin base de datos disponible se cargarán en la primera lectura
+            log.warn("No se pudieron precargar los cachés de catálogo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Construir los índices de búsqueda (reportes y autocompletado de especímenes) y el censo antes de aceptar peticiones
+     */
+    public static void buildSearchIndexes() {
+        try {
+            getReporteSearchIndex().rebuild();
+            new EspecimenRepository().rebuildAutocomplete();
+            CensusIndex.load(new CensusRepository()::loadCensus);
+        } catch (Exception e) {
+            // Sin base de datos disponible se construirán en la primera búsqueda
+            log.warn("No se pudieron construir los índices de búsqueda: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cargar el resumen del dashboard y programar su conciliación antes de aceptar peticiones
+     */
+    public static void startDashboard() {
+        getDashboardService().start();
+    }
+
     // ========================================
     // MÉTODOS DE UTILIDAD Y DEBUGGING
     // ========================================
@@ -319,20 +492,20 @@ public class AppModule {
      * ACTUALIZADO: Para JWT en lugar de sesiones con cookies
      */
     public static void printSingletonStatus() {
-        System.out.println("\n=== ESTADO DE INSTANCIAS SINGLETON (JWT) ===");
-        System.out.println("UsuarioRepository: " + (usuarioRepositoryInstance != null ? "✅ CREADA" : "❌ NO CREADA"));
-        System.out.println("RolRepository: " + (rolRepositoryInstance != null ? "✅ CREADA" : "❌ NO CREADA"));
-        System.out.println("AuthService: " + (authServiceInstance != null ? "✅ CREADA (JWT)" : "❌ NO CREADA"));
-        System.out.println("UsuarioService: " + (usuarioServiceInstance != null ? "✅ CREADA" : "❌ NO CREADA"));
+        log.info("=== ESTADO DE INSTANCIAS SINGLETON (JWT) ===");
+        log.info("UsuarioRepository: {}", usuarioRepositoryInstance != null ? "✅ CREADA" : "❌ NO CREADA");
+        log.info("RolRepository: {}", rolRepositoryInstance != null ? "✅ CREADA" : "❌ NO CREADA");
+        log.info("AuthService: {}", authServiceInstance != null ? "✅ CREADA (JWT)" : "❌ NO CREADA");
+        log.info("UsuarioService: {}", usuarioServiceInstance != null ? "✅ CREADA" : "❌ NO CREADA");
 
         if (authServiceInstance != null) {
             // Obtener información del AuthService JWT
             var authInfo = authServiceInstance.getAuthInfo();
-            System.out.println("Tipo de autenticación: " + authInfo.get("tipo_autenticacion"));
-            System.out.println("Tokens en lista negra: " + authInfo.get("tokens_en_lista_negra"));
-            System.out.println("Expiración de tokens: " + authInfo.get("tiempo_expiracion_token"));
+            log.info("Tipo de autenticación: {}", authInfo.get("tipo_autenticacion"));
+            log.info("Tokens en lista negra: {}", authInfo.get("tokens_en_lista_negra"));
+            log.info("Expiración de tokens: {}", authInfo.get("tiempo_expiracion_token"));
         }
-        System.out.println("=======================================\n");
+        log.info("=======================================");
     }
 
     /**
@@ -343,7 +516,14 @@ public class AppModule {
         rolRepositoryInstance = null;
         authServiceInstance = null;
         usuarioServiceInstance = null;
-        System.out.println("🧹 Todas las instancias singleton han sido limpiadas (JWT)");
+        principalCacheInstance = null;
+        revocationStoreInstance = null;
+        reporteSearchIndexInstance = null;
+        dashboardServiceInstance = null;
+        DashboardAggregate.clear();
+        TimeSeriesCache.clear();
+        CensusIndex.clear();
+        log.info("🧹 Todas las instancias singleton han sido limpiadas (JWT)");
     }
 
     /**
@@ -351,14 +531,13 @@ public class AppModule {
      */
     public static void printJWTAuthInfo() {
         if (authServiceInstance != null) {
-            System.out.println("\n=== INFORMACIÓN DEL SERVICIO JWT ===");
+            log.info("=== INFORMACIÓN DEL SERVICIO JWT ===");
             var authInfo = authServiceInstance.getAuthInfo();
             authInfo.forEach((key, value) ->
-                    System.out.println(key + ": " + value)
-            );
-            System.out.println("===================================\n");
+                    log.info("{}: {}", key, value));
+            log.info("===================================");
         } else {
-            System.out.println("❌ AuthService no está inicializado");
+            log.error("❌ AuthService no está inicializado");
         }
     }
 
@@ -368,31 +547,31 @@ public class AppModule {
     public static boolean validateCriticalDependencies() {
         boolean allValid = true;
 
-        System.out.println("\n🔍 VALIDANDO DEPENDENCIAS CRÍTICAS...");
+        log.info("🔍 VALIDANDO DEPENDENCIAS CRÍTICAS...");
 
         if (getUsuarioRepository() == null) {
-            System.out.println("❌ UsuarioRepository no se pudo crear");
+            log.error("❌ UsuarioRepository no se pudo crear");
             allValid = false;
         } else {
-            System.out.println("✅ UsuarioRepository inicializado");
+            log.info("✅ UsuarioRepository inicializado");
         }
 
         if (getAuthService() == null) {
-            System.out.println("❌ AuthService (JWT) no se pudo crear");
+            log.error("❌ AuthService (JWT) no se pudo crear");
             allValid = false;
         } else {
-            System.out.println("✅ AuthService (JWT) inicializado");
+            log.info("✅ AuthService (JWT) inicializado");
         }
 
         if (getUsuarioService() == null) {
-            System.out.println("❌ UsuarioService no se pudo crear");
+            log.error("❌ UsuarioService no se pudo crear");
             allValid = false;
         } else {
-            System.out.println("✅ UsuarioService inicializado");
+            log.info("✅ UsuarioService inicializado");
         }
 
-        System.out.println(allValid ? "✅ Todas las dependencias críticas están OK" : "❌ Hay problemas con las dependencias");
-        System.out.println("=========================================\n");
+        log.info("{}", allValid ? "✅ Todas las dependencias críticas están OK" : "❌ Hay problemas con las dependencias");
+        log.info("=========================================");
 
         return allValid;
     }
@@ -0,0 +1,33 @@
+package com.hugin_munin.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /hm/especies/{id}/censo y /hm/especies/censo
+ * especimenes son los vivos al final de fecha (altas menos bajas hasta ese día); evolucion solo viene
+ * si se pidió un rango, con un punto al final de cada periodo; especies solo en el censo de la colección
+ */
+public record Censo(
+        Integer id_especie,
+        String fecha,
+        int especimenes,
+        List<Punto> evolucion,
+        List<ConteoEspecie> especies) {
+
+    /**
+     * Vivos al final del día indicado
+     */
+    public record Punto(
+            String fecha,
+            int especimenes) {
+    }
+
+    /**
+     * Vivos de una especie en la fecha del censo
+     */
+    public record ConteoEspecie(
+            int id_especie,
+            String nombre_cientifico_completo,
+            int especimenes) {
+    }
+}
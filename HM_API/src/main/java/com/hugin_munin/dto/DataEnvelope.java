@@ -0,0 +1,7 @@
+package com.hugin_munin.dto;
+
+/**
+ * Sobre {"data": ...} de un solo elemento
+ */
+public record DataEnvelope<T>(T data) {
+}
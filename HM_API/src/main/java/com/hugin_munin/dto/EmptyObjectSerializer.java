@@ -0,0 +1,23 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Serializa una sección ausente (null) como {} para conservar la forma de las respuestas
+ */
+public class EmptyObjectSerializer extends StdSerializer<Object> {
+
+    public EmptyObjectSerializer() {
+        super(Object.class);
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,24 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hugin_munin.model.Especie;
+
+/**
+ * Datos básicos de especie dentro de otras respuestas (id_especie se omite si es null)
+ */
+public record EspecieInfo(
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer id_especie,
+        String genero,
+        String especie) {
+
+    public static EspecieInfo of(Especie especie) {
+        return new EspecieInfo(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+    }
+
+    /**
+     * Solo nombre científico (género y especie)
+     */
+    public static EspecieInfo nombre(Especie especie) {
+        return new EspecieInfo(null, especie.getGenero(), especie.getEspecie());
+    }
+}
@@ -0,0 +1,33 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hugin_munin.model.Especimen;
+
+/**
+ * Vista de especimen (especie_info solo si la especie viene cargada)
+ */
+public record EspecimenInfo(
+        Integer id_especimen,
+        String num_inventario,
+        Integer id_especie,
+        String nombre_especimen,
+        boolean activo,
+        @JsonInclude(JsonInclude.Include.NON_NULL) EspecieInfo especie_info) {
+
+    /**
+     * Con especie_info si la especie viene cargada
+     */
+    public static EspecimenInfo of(Especimen especimen) {
+        return new EspecimenInfo(especimen.getId_especimen(), especimen.getNum_inventario(),
+                especimen.getId_especie(), especimen.getNombre_especimen(), especimen.isActivo(),
+                especimen.getEspecie() != null ? EspecieInfo.of(especimen.getEspecie()) : null);
+    }
+
+    /**
+     * Sin especie_info
+     */
+    public static EspecimenInfo basic(Especimen especimen) {
+        return new EspecimenInfo(especimen.getId_especimen(), especimen.getNum_inventario(),
+                especimen.getId_especie(), especimen.getNombre_especimen(), especimen.isActivo(), null);
+    }
+}
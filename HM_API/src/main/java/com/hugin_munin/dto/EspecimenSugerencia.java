@@ -0,0 +1,17 @@
+package com.hugin_munin.dto;
+
+/**
+ * Sugerencia de autocompletado de especímenes (servida desde memoria, sin consultar la base)
+ * coincidencia indica el campo que encontró el texto: num_inventario, nombre_especimen o especie
+ */
+public record EspecimenSugerencia(
+        int id_especimen,
+        String num_inventario,
+        String nombre_especimen,
+        int id_especie,
+        String genero,
+        String especie,
+        boolean activo,
+        String coincidencia,
+        double puntaje) {
+}
@@ -0,0 +1,23 @@
+package com.hugin_munin.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una fila de la importación masiva
+ */
+public record ImportacionFila(
+        int fila,
+        String num_inventario,
+        boolean success,
+        Integer id_especimen,
+        Integer id_registro_alta,
+        List<String> errors) {
+
+    public static ImportacionFila creada(int fila, String numInventario, Integer idEspecimen, Integer idRegistroAlta) {
+        return new ImportacionFila(fila, numInventario, true, idEspecimen, idRegistroAlta, List.of());
+    }
+
+    public static ImportacionFila fallida(int fila, String numInventario, List<String> errors) {
+        return new ImportacionFila(fila, numInventario, false, null, null, List.copyOf(errors));
+    }
+}
@@ -0,0 +1,24 @@
+package com.hugin_munin.dto;
+
+import com.hugin_munin.model.RegistroAlta;
+
+import java.util.Date;
+
+/**
+ * Registro de alta recién creado
+ */
+public record RegistroAltaInfo(
+        Integer id_registro_alta,
+        Integer id_especimen,
+        Integer id_origen_alta,
+        Integer id_responsable,
+        Date fecha_ingreso,
+        String procedencia,
+        String observacion) {
+
+    public static RegistroAltaInfo of(RegistroAlta registro) {
+        return new RegistroAltaInfo(registro.getId_registro_alta(), registro.getId_especimen(),
+                registro.getId_origen_alta(), registro.getId_responsable(), registro.getFecha_ingreso(),
+                registro.getProcedencia(), registro.getObservacion());
+    }
+}
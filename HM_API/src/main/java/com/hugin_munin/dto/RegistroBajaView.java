@@ -0,0 +1,87 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hugin_munin.model.CausaBaja;
+import com.hugin_munin.model.Especimen;
+import com.hugin_munin.model.OrigenAlta;
+import com.hugin_munin.model.RegistroAlta;
+import com.hugin_munin.model.RegistroBaja;
+import com.hugin_munin.model.Usuario;
+
+import java.util.Date;
+
+/**
+ * Registro de baja con especimen, causa, responsable y registro de alta (secciones omitidas si no vienen cargadas)
+ */
+public record RegistroBajaView(
+        Integer id_registro_baja,
+        Integer id_especimen,
+        Integer id_causa_baja,
+        Integer id_responsable,
+        Date fecha_baja,
+        String observacion,
+        @JsonInclude(JsonInclude.Include.NON_NULL) EspecimenSeccion especimen,
+        @JsonInclude(JsonInclude.Include.NON_NULL) CausaBajaSeccion causa_baja,
+        @JsonInclude(JsonInclude.Include.NON_NULL) ResponsableSeccion responsable,
+        @JsonInclude(JsonInclude.Include.NON_NULL) RegistroAltaSeccion registro_alta_info) {
+
+    public static RegistroBajaView of(RegistroBaja registro) {
+        return new RegistroBajaView(
+                registro.getId_registro_baja(),
+                registro.getId_especimen(),
+                registro.getId_causa_baja(),
+                registro.getId_responsable(),
+                registro.getFecha_baja(),
+                registro.getObservacion(),
+                registro.getEspecimen() != null ? EspecimenSeccion.of(registro.getEspecimen()) : null,
+                registro.getCausa_baja() != null ? CausaBajaSeccion.of(registro.getCausa_baja()) : null,
+                registro.getResponsable() != null ? ResponsableSeccion.of(registro.getResponsable()) : null,
+                registro.getRegistro_alta() != null ? RegistroAltaSeccion.of(registro.getRegistro_alta()) : null);
+    }
+
+    public record EspecimenSeccion(
+            Integer id_especimen,
+            String num_inventario,
+            String nombre_especimen,
+            boolean activo,
+            @JsonInclude(JsonInclude.Include.NON_NULL) EspecieInfo especie_info) {
+
+        static EspecimenSeccion of(Especimen especimen) {
+            return new EspecimenSeccion(especimen.getId_especimen(), especimen.getNum_inventario(),
+                    especimen.getNombre_especimen(), especimen.isActivo(),
+                    especimen.getEspecie() != null ? EspecieInfo.nombre(especimen.getEspecie()) : null);
+        }
+    }
+
+    public record CausaBajaSeccion(Integer id_causa_baja, String nombre_causa_baja) {
+
+        static CausaBajaSeccion of(CausaBaja causa) {
+            return new CausaBajaSeccion(causa.getId_causa_baja(), causa.getNombre_causa_baja());
+        }
+    }
+
+    public record ResponsableSeccion(Integer id_usuario, String nombre_usuario, String correo) {
+
+        static ResponsableSeccion of(Usuario usuario) {
+            return new ResponsableSeccion(usuario.getId_usuario(), usuario.getNombre_usuario(), usuario.getCorreo());
+        }
+    }
+
+    public record RegistroAltaSeccion(
+            Integer id_registro_alta,
+            Integer id_origen_alta,
+            String procedencia,
+            Date fecha_ingreso,
+            @JsonInclude(JsonInclude.Include.NON_NULL) OrigenAltaSeccion origen_alta) {
+
+        static RegistroAltaSeccion of(RegistroAlta registro) {
+            OrigenAlta origen = registro.getOrigen_alta();
+            return new RegistroAltaSeccion(registro.getId_registro_alta(), registro.getId_origen_alta(),
+                    registro.getProcedencia(), registro.getFecha_ingreso(),
+                    origen != null ? new OrigenAltaSeccion(origen.getId_origen_alta(), origen.getNombre_origen_alta()) : null);
+        }
+    }
+
+    public record OrigenAltaSeccion(Integer id_origen_alta, String nombre_origen_alta) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hugin_munin.util.Fechas;
+
+import java.util.Date;
+
+/**
+ * Cuerpo de POST/PUT /hm/registro_unificado, enlazado una sola vez desde el stream de la petición
+ * Las fechas llegan como texto (YYYY-MM-DD) y se validan junto con el resto de campos
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RegistroUnificadoCommand(
+        Especie especie,
+        Especimen especimen,
+        RegistroAlta registro_alta,
+        ReporteTraslado reporte_traslado) {
+
+    /**
+     * Cuerpo vacío ({})
+     */
+    public boolean isEmpty() {
+        return especie == null && especimen == null && registro_alta == null && reporte_traslado == null;
+    }
+
+    /**
+     * Incluye un reporte de traslado con al menos un campo
+     */
+    public boolean hasReporteTraslado() {
+        return reporte_traslado != null && !reporte_traslado.isEmpty();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Especie(String genero, String especie) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Especimen(String num_inventario, String nombre_especimen) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record RegistroAlta(
+            Integer id_origen_alta,
+            Integer id_responsable,
+            String procedencia,
+            String observacion,
+            String fecha_ingreso) {
+
+        /**
+         * Fecha de ingreso o el momento actual si no viene
+         */
+        public Date fechaIngresoOrNow() {
+            return Fechas.toDateOrNow(Fechas.parse(fecha_ingreso));
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ReporteTraslado(
+            Integer id_reporte,
+            Integer id_tipo_reporte,
+            String asunto,
+            String contenido,
+            String fecha_reporte,
+            String area_origen,
+            String area_destino,
+            String ubicacion_origen,
+            String ubicacion_destino,
+            String motivo) {
+
+        public boolean isEmpty() {
+            return id_reporte == null && id_tipo_reporte == null && asunto == null && contenido == null
+                    && fecha_reporte == null && area_origen == null && area_destino == null
+                    && ubicacion_origen == null && ubicacion_destino == null && motivo == null;
+        }
+
+        /**
+         * Fecha del reporte o el momento actual si no viene
+         */
+        public Date fechaReporteOrNow() {
+            return Fechas.toDateOrNow(Fechas.parse(fecha_reporte));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.hugin_munin.dto;
+
+/**
+ * Resultado de crear especie (o reutilizarla), especimen y registro de alta en una sola operación
+ */
+public record RegistroUnificadoCreado(
+        EspecieInfo especie,
+        EspecimenInfo especimen,
+        RegistroAltaInfo registro_alta,
+        String message,
+        boolean success) {
+}
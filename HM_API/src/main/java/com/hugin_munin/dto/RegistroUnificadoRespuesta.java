@@ -0,0 +1,15 @@
+package com.hugin_munin.dto;
+
+import java.util.Map;
+
+/**
+ * Respuesta de POST /hm/registro-unificado
+ * reporte_traslado es un ReporteTrasladoView o el texto "No se creó reporte de traslado"
+ */
+public record RegistroUnificadoRespuesta(
+        boolean success,
+        String message,
+        RegistroUnificadoCreado registro_data,
+        Object reporte_traslado,
+        Map<String, String> components_created) {
+}
@@ -0,0 +1,79 @@
+package com.hugin_munin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hugin_munin.model.Especimen;
+import com.hugin_munin.model.RegistroAlta;
+import com.hugin_munin.model.ReporteTraslado;
+
+import java.util.Date;
+
+/**
+ * Vista unificada de un especimen: especie, especimen, último registro de alta y reporte de traslado
+ * Las secciones sin datos se serializan como {}
+ */
+public record RegistroUnificadoView(
+        @JsonSerialize(nullsUsing = EmptyObjectSerializer.class) EspecieInfo especie,
+        @JsonSerialize(nullsUsing = EmptyObjectSerializer.class) EspecimenSeccion especimen,
+        @JsonSerialize(nullsUsing = EmptyObjectSerializer.class) RegistroAltaSeccion registro_alta,
+        @JsonSerialize(nullsUsing = EmptyObjectSerializer.class) ReporteTrasladoSeccion reporte_traslado,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String message,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Boolean success) {
+
+    public static final RegistroUnificadoView EMPTY = new RegistroUnificadoView(null, null, null, null);
+
+    public RegistroUnificadoView(EspecieInfo especie, EspecimenSeccion especimen,
+                                 RegistroAltaSeccion registro_alta, ReporteTrasladoSeccion reporte_traslado) {
+        this(especie, especimen, registro_alta, reporte_traslado, null, null);
+    }
+
+    /**
+     * Misma vista como respuesta exitosa de una operación
+     */
+    public RegistroUnificadoView withMessage(String message) {
+        return new RegistroUnificadoView(especie, especimen, registro_alta, reporte_traslado, message, true);
+    }
+
+    public record EspecimenSeccion(Integer id_especimen, String num_inventario, String nombre_especimen) {
+
+        public static EspecimenSeccion of(Especimen especimen) {
+            return new EspecimenSeccion(especimen.getId_especimen(), especimen.getNum_inventario(),
+                    especimen.getNombre_especimen());
+        }
+
+        public static EspecimenSeccion of(EspecimenInfo especimen) {
+            return new EspecimenSeccion(especimen.id_especimen(), especimen.num_inventario(),
+                    especimen.nombre_especimen());
+        }
+    }
+
+    public record RegistroAltaSeccion(
+            Integer id_origen_alta,
+            Integer id_responsable,
+            String procedencia,
+            String observacion,
+            Date fecha_ingreso,
+            @JsonInclude(JsonInclude.Include.NON_NULL) String nombre_origen_alta) {
+
+        public static RegistroAltaSeccion of(RegistroAlta registro, String nombreOrigenAlta) {
+            return new RegistroAltaSeccion(registro.getId_origen_alta(), registro.getId_responsable(),
+                    registro.getProcedencia(), registro.getObservacion(), registro.getFecha_ingreso(),
+                    nombreOrigenAlta);
+        }
+    }
+
+    public record ReporteTrasladoSeccion(
+            Integer id_tipo_reporte,
+            String area_origen,
+            String area_destino,
+            String ubicacion_origen,
+            String ubicacion_destino,
+            String motivo) {
+
+        public static ReporteTrasladoSeccion of(ReporteTraslado reporte) {
+            return new ReporteTrasladoSeccion(reporte.getId_tipo_reporte(), reporte.getArea_origen(),
+                    reporte.getArea_destino(), reporte.getUbicacion_origen(), reporte.getUbicacion_destino(),
+                    reporte.getMotivo());
+        }
+    }
+}
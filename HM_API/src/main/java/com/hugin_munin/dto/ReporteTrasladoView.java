@@ -0,0 +1,32 @@
+package com.hugin_munin.dto;
+
+import com.hugin_munin.model.ReporteTraslado;
+
+import java.util.Date;
+
+/**
+ * Reporte de traslado creado o actualizado desde el registro unificado
+ */
+public record ReporteTrasladoView(
+        Integer id_reporte,
+        Integer id_tipo_reporte,
+        Integer id_especimen,
+        Integer id_responsable,
+        String asunto,
+        String contenido,
+        Date fecha_reporte,
+        String area_origen,
+        String area_destino,
+        String ubicacion_origen,
+        String ubicacion_destino,
+        String motivo,
+        String message) {
+
+    public static ReporteTrasladoView of(ReporteTraslado reporte, String message) {
+        return new ReporteTrasladoView(reporte.getId_reporte(), reporte.getId_tipo_reporte(),
+                reporte.getId_especimen(), reporte.getId_responsable(), reporte.getAsunto(),
+                reporte.getContenido(), reporte.getFecha_reporte(), reporte.getArea_origen(),
+                reporte.getArea_destino(), reporte.getUbicacion_origen(), reporte.getUbicacion_destino(),
+                reporte.getMotivo(), message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hugin_munin.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /hm/dashboard/summary (servida desde memoria, sin consultar la base)
+ * Los "ultima_semana" cuentan fechas desde hace 7 días, como /hm/registro_alta/recientes;
+ * conciliado_en es la última vez que el resumen se comparó con la base (epoch ms)
+ */
+public record ResumenDashboard(
+        int especimenes_activos,
+        int especimenes_baja,
+        int total_especies,
+        long total_altas,
+        int altas_ultima_semana,
+        long total_reportes,
+        int reportes_ultima_semana,
+        List<EspecieConteo> especies_mas_comunes,
+        long conciliado_en) {
+
+    /**
+     * Especie con su número de especímenes activos (mismos campos que generos_mas_comunes)
+     */
+    public record EspecieConteo(
+            int id_especie,
+            String genero,
+            String especie,
+            String nombre_cientifico_completo,
+            int cantidad_especimenes) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.hugin_munin.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /hm/analytics/timeseries
+ * periodos son las fechas de inicio de cada periodo (YYYY-MM-DD); valores y totales van en ese mismo orden
+ */
+public record SerieTemporal(
+        String metrica,
+        String granularidad,
+        String desde,
+        String hasta,
+        List<String> periodos,
+        List<Serie> series,
+        int[] totales,
+        long total) {
+
+    /**
+     * Conteos de una clave (origen, causa, tipo de reporte o par de áreas) por periodo
+     */
+    public record Serie(
+            String clave,
+            String etiqueta,
+            int[] valores,
+            long total) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.hugin_munin.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias log-lineal (estilo HDR), sin candados
+ * Cada potencia de dos se divide en 8 sub-buckets (error relativo máximo ~12.5%),
+ * valores en microsegundos desde 1 µs hasta ~12 días. record() no reserva memoria.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BITS + 2);
+
+    // Límites de exposición para Prometheus, en segundos
+    public static final double[] EXPORT_BOUNDS_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumMicros = new LongAdder();
+
+    /**
+     * REGISTRAR una duración en nanosegundos
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1000, 0), MAX_VALUE_MICROS);
+        counts.incrementAndGet(indexOf(micros));
+        sumMicros.add(micros);
+    }
+
+    /**
+     * Copia consistente por bucket (no atómica entre buckets) para exportar
+     */
+    public Snapshot snapshot() {
+        long[] copia = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copia[i] = counts.get(i);
+            total += copia[i];
+        }
+        return new Snapshot(copia, total, sumMicros.sum());
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponente - SUB_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Límite superior (exclusivo) del bucket, en microsegundos
+     */
+    static long upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << shift;
+    }
+
+    /**
+     * Contenido del histograma en un instante
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+
+        Snapshot(long[] counts, long count, long sumMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSumSeconds() {
+            return sumMicros / 1_000_000.0;
+        }
+
+        /**
+         * Observaciones con valor <= limite (cuenta los buckets cuyo límite superior no lo excede)
+         */
+        public long countAtOrBelow(double limiteSegundos) {
+            long limiteMicros = (long) (limiteSegundos * 1_000_000);
+            long acumulado = 0;
+            for (int i = 0; i < counts.length && upperBoundMicros(i) <= limiteMicros; i++) {
+                acumulado += counts[i];
+            }
+            return acumulado;
+        }
+
+        /**
+         * Percentil aproximado (límite superior del bucket), en segundos
+         */
+        public double percentileSeconds(double percentil) {
+            if (count == 0) {
+                return 0;
+            }
+            long objetivo = (long) Math.ceil(count * percentil / 100.0);
+            long acumulado = 0;
+            for (int i = 0; i < counts.length; i++) {
+                acumulado += counts[i];
+                if (acumulado >= objetivo) {
+                    return upperBoundMicros(i) / 1_000_000.0;
+                }
+            }
+            return upperBoundMicros(counts.length - 1) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hugin_munin.metrics;
+
+import io.javalin.http.HandlerType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Registro de métricas de la API
+ * Latencia por plantilla de ruta, método y clase de estado (1xx..5xx), contadores de
+ * fallos de autenticación y tiempo de adquisición de conexiones del pool.
+ * Tras el primer acceso a una combinación, registrar no reserva memoria.
+ */
+public final class MetricsRegistry {
+
+    private static final int METHODS = HandlerType.values().length;
+    private static final int STATUS_CLASSES = 5;
+
+    private static final ConcurrentHashMap<String, RouteMetrics> ROUTES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, UnitOfWorkMetrics> UNITS = new ConcurrentHashMap<>();
+
+    public static final LongAdder AUTH_UNAUTHORIZED = new LongAdder();
+    public static final LongAdder AUTH_FORBIDDEN = new LongAdder();
+    public static final LatencyHistogram DB_CONNECTION_ACQUIRE = new LatencyHistogram();
+    public static final LatencyHistogram DB_REQUEST_CONNECTION_HELD = new LatencyHistogram();
+    public static final LongAdder DB_REQUEST_CONNECTION_REQUESTS = new LongAdder();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * REGISTRAR la duración de una petición
+     */
+    public static void recordRequest(String routeTemplate, HandlerType method, int status, long nanos) {
+        RouteMetrics route = ROUTES.get(routeTemplate);
+        if (route == null) {
+            route = ROUTES.computeIfAbsent(routeTemplate, k -> new RouteMetrics());
+        }
+        route.histogram(method.ordinal(), statusClassIndex(status)).recordNanos(nanos);
+    }
+
+    /**
+     * Recorrer los histogramas existentes: (etiquetas ruta/método/estado, histograma)
+     */
+    public static void forEachRequestHistogram(BiConsumer<String[], LatencyHistogram> visitor) {
+        HandlerType[] metodos = HandlerType.values();
+        for (Map.Entry<String, RouteMetrics> entry : ROUTES.entrySet()) {
+            RouteMetrics route = entry.getValue();
+            for (int m = 0; m < METHODS; m++) {
+                for (int s = 0; s < STATUS_CLASSES; s++) {
+                    LatencyHistogram histograma = route.histograms.get(m * STATUS_CLASSES + s);
+                    if (histograma != null) {
+                        visitor.accept(new String[]{entry.getKey(), metodos[m].name(), (s + 1) + "xx"}, histograma);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * REGISTRAR la conexión de una petición: tiempo retenida y solicitudes de repositorios atendidas
+     */
+    public static void recordRequestConnection(long nanos, int solicitudes) {
+        DB_REQUEST_CONNECTION_HELD.recordNanos(nanos);
+        DB_REQUEST_CONNECTION_REQUESTS.add(solicitudes);
+    }
+
+    /**
+     * REGISTRAR una unidad de trabajo: duración, resultado y usos de su única conexión
+     */
+    public static void recordUnitOfWork(String nombre, long nanos, boolean confirmada, int usosConexion) {
+        UnitOfWorkMetrics unidad = UNITS.get(nombre);
+        if (unidad == null) {
+            unidad = UNITS.computeIfAbsent(nombre, k -> new UnitOfWorkMetrics());
+        }
+        unidad.duration.recordNanos(nanos);
+        (confirmada ? unidad.commits : unidad.rollbacks).increment();
+        unidad.connectionUses.add(usosConexion);
+    }
+
+    /**
+     * Recorrer las unidades de trabajo registradas: (nombre, métricas)
+     */
+    public static void forEachUnitOfWork(BiConsumer<String, UnitOfWorkMetrics> visitor) {
+        UNITS.forEach(visitor);
+    }
+
+    private static int statusClassIndex(int status) {
+        int clase = status / 100 - 1;
+        return clase < 0 ? 0 : Math.min(clase, STATUS_CLASSES - 1);
+    }
+
+    private static final class RouteMetrics {
+        final AtomicReferenceArray<LatencyHistogram> histograms =
+                new AtomicReferenceArray<>(METHODS * STATUS_CLASSES);
+
+        LatencyHistogram histogram(int method, int statusClass) {
+            int slot = method * STATUS_CLASSES + statusClass;
+            LatencyHistogram histograma = histograms.get(slot);
+            if (histograma == null) {
+                histograms.compareAndSet(slot, null, new LatencyHistogram());
+                histograma = histograms.get(slot);
+            }
+            return histograma;
+        }
+    }
+
+    public static final class UnitOfWorkMetrics {
+        public final LatencyHistogram duration = new LatencyHistogram();
+        public final LongAdder commits = new LongAdder();
+        public final LongAdder rollbacks = new LongAdder();
+        public final LongAdder connectionUses = new LongAdder();
+    }
+}
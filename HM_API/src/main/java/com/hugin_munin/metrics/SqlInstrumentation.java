@@ -0,0 +1,166 @@
+package com.hugin_munin.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envoltorios JDBC instrumentados (Connection → Statement → ResultSet)
+ * Miden cada ejecución, cuentan filas leídas/afectadas y las acumulan en SqlStats
+ * por huella de consulta. Los repositorios no cambian: DatabaseConfig entrega la conexión envuelta.
+ */
+public final class SqlInstrumentation {
+
+    private SqlInstrumentation() {
+    }
+
+    /**
+     * Envolver una conexión del pool
+     */
+    public static Connection wrap(Connection connection) {
+        return wrap(connection, null);
+    }
+
+    /**
+     * Envolver una conexión del pool, ejecutando onClose una sola vez al cerrarla
+     */
+    public static Connection wrap(Connection connection, Runnable onClose) {
+        return (Connection) Proxy.newProxyInstance(SqlInstrumentation.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, onClose));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ConnectionHandler(Connection target, Runnable onClose) {
+            this.target = target;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close")) {
+                try {
+                    return SqlInstrumentation.invoke(target, method, args);
+                } finally {
+                    if (onClose != null && closed.compareAndSet(false, true)) {
+                        onClose.run();
+                    }
+                }
+            }
+
+            Object resultado = SqlInstrumentation.invoke(target, method, args);
+
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return wrapStatement((Statement) resultado, PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return wrapStatement((Statement) resultado, CallableStatement.class, (String) args[0]);
+                case "createStatement":
+                    return wrapStatement((Statement) resultado, Statement.class, null);
+                default:
+                    return resultado;
+            }
+        }
+    }
+
+    private static Statement wrapStatement(Statement statement, Class<? extends Statement> tipo, String sql) {
+        return (Statement) Proxy.newProxyInstance(SqlInstrumentation.class.getClassLoader(),
+                new Class<?>[]{tipo}, new StatementHandler(statement, sql));
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final SqlStats.Stat preparedStat;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.preparedStat = sql != null ? SqlStats.forSql(sql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (!nombre.startsWith("execute")) {
+                if (nombre.equals("getResultSet")) {
+                    ResultSet rs = (ResultSet) SqlInstrumentation.invoke(target, method, args);
+                    return preparedStat != null ? wrapResultSet(rs, preparedStat) : rs;
+                }
+                return SqlInstrumentation.invoke(target, method, args);
+            }
+
+            // Statement simple: el SQL llega como argumento de execute*
+            SqlStats.Stat stat = preparedStat;
+            if (stat == null) {
+                stat = SqlStats.forSql(args != null && args.length > 0 && args[0] instanceof String sql ? sql : null);
+            }
+
+            long inicio = System.nanoTime();
+            boolean fallida = true;
+            try {
+                Object resultado = SqlInstrumentation.invoke(target, method, args);
+                fallida = false;
+
+                if (resultado instanceof ResultSet rs) {
+                    return wrapResultSet(rs, stat);
+                }
+                if (resultado instanceof Integer filas) {
+                    stat.rowsAffected.add(Math.max(filas, 0));
+                } else if (resultado instanceof Long filas) {
+                    stat.rowsAffected.add(Math.max(filas, 0));
+                } else if (resultado instanceof int[] lote) {
+                    for (int filas : lote) {
+                        stat.rowsAffected.add(Math.max(filas, 0));
+                    }
+                }
+                return resultado;
+            } finally {
+                SqlStats.recordExecution(stat, System.nanoTime() - inicio, fallida);
+            }
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, SqlStats.Stat stat) {
+        if (resultSet == null) {
+            return null;
+        }
+        return (ResultSet) Proxy.newProxyInstance(SqlInstrumentation.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, stat));
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final SqlStats.Stat stat;
+
+        ResultSetHandler(ResultSet target, SqlStats.Stat stat) {
+            this.target = target;
+            this.stat = stat;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object resultado = SqlInstrumentation.invoke(target, method, args);
+            if (resultado == Boolean.TRUE && method.getName().equals("next")) {
+                stat.rowsFetched.increment();
+            }
+            return resultado;
+        }
+    }
+}
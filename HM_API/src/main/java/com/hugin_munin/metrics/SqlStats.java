@@ -0,0 +1,174 @@
+package com.hugin_munin.metrics;
+
+import com.hugin_munin.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Estadísticas de SQL por huella (consulta normalizada, sin literales)
+ * Ejecuciones, tiempo total y máximo, filas leídas/afectadas, errores, log de consultas lentas
+ * y contador de consultas de la petición en curso (para detectar N+1)
+ */
+public final class SqlStats {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStats.class);
+
+    private static final long SLOW_QUERY_NANOS = AppConfig.getLong("SLOW_QUERY_MS", 250) * 1_000_000;
+    private static final int MAX_FINGERPRINT_CACHE = 4096;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final ConcurrentHashMap<String, String> FINGERPRINTS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Stat> STATS = new ConcurrentHashMap<>();
+
+    // Contador de la petición en curso (lo crea RequestMetrics); las ramas de FanOut lo comparten
+    private static final ThreadLocal<AtomicLong> REQUEST_QUERIES = new ThreadLocal<>();
+
+    private SqlStats() {
+    }
+
+    /**
+     * Estadística acumulada de una huella
+     */
+    public static Stat forSql(String sql) {
+        String huella = fingerprint(sql);
+        Stat stat = STATS.get(huella);
+        if (stat == null) {
+            stat = STATS.computeIfAbsent(huella, Stat::new);
+        }
+        return stat;
+    }
+
+    /**
+     * REGISTRAR una ejecución
+     */
+    static void recordExecution(Stat stat, long nanos, boolean fallida) {
+        stat.count.increment();
+        stat.totalNanos.add(nanos);
+        stat.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (fallida) {
+            stat.errors.increment();
+        }
+        AtomicLong consultas = REQUEST_QUERIES.get();
+        if (consultas != null) {
+            consultas.incrementAndGet();
+        }
+
+        if (nanos >= SLOW_QUERY_NANOS) {
+            log.warn("Consulta lenta ({} ms): {}", nanos / 1_000_000, stat.fingerprint);
+        }
+    }
+
+    /**
+     * Contador de la petición en curso, para pasarlo a un hilo auxiliar (null fuera de una petición)
+     */
+    public static AtomicLong requestCounter() {
+        return REQUEST_QUERIES.get();
+    }
+
+    /**
+     * Contar las consultas de este hilo en el contador de la petición (null: dejar de contar)
+     */
+    public static void bindRequestCounter(AtomicLong consultas) {
+        if (consultas == null) {
+            REQUEST_QUERIES.remove();
+        } else {
+            REQUEST_QUERIES.set(consultas);
+        }
+    }
+
+    /**
+     * Reporte ordenado por tiempo total descendente
+     */
+    public static List<Map<String, Object>> getReport(int limit) {
+        List<Stat> ordenadas = new ArrayList<>(STATS.values());
+        ordenadas.sort(Comparator.comparingLong((Stat s) -> s.totalNanos.sum()).reversed());
+
+        List<Map<String, Object>> reporte = new ArrayList<>();
+        for (Stat stat : ordenadas.subList(0, Math.min(limit, ordenadas.size()))) {
+            long ejecuciones = stat.count.sum();
+            long total = stat.totalNanos.sum();
+
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("sql", stat.fingerprint);
+            fila.put("ejecuciones", ejecuciones);
+            fila.put("tiempo_total_ms", total / 1_000_000.0);
+            fila.put("tiempo_promedio_ms", ejecuciones == 0 ? 0.0 : total / 1_000_000.0 / ejecuciones);
+            fila.put("tiempo_max_ms", stat.maxNanos.get() / 1_000_000.0);
+            fila.put("filas_leidas", stat.rowsFetched.sum());
+            fila.put("filas_afectadas", stat.rowsAffected.sum());
+            fila.put("errores", stat.errors.sum());
+            reporte.add(fila);
+        }
+        return reporte;
+    }
+
+    public static int size() {
+        return STATS.size();
+    }
+
+    public static long getSlowQueryThresholdMs() {
+        return SLOW_QUERY_NANOS / 1_000_000;
+    }
+
+    /**
+     * Descartar las estadísticas acumuladas
+     */
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /**
+     * Normalizar SQL: espacios colapsados, literales y listas IN (?, ?, ...) reemplazados
+     */
+    static String fingerprint(String sql) {
+        if (sql == null) {
+            return "<sin sql>";
+        }
+
+        String huella = FINGERPRINTS.get(sql);
+        if (huella != null) {
+            return huella;
+        }
+
+        huella = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        huella = STRING_LITERAL.matcher(huella).replaceAll("?");
+        huella = NUMBER_LITERAL.matcher(huella).replaceAll("?");
+        huella = PLACEHOLDER_LIST.matcher(huella).replaceAll("(?...)");
+
+        if (FINGERPRINTS.size() < MAX_FINGERPRINT_CACHE) {
+            FINGERPRINTS.put(sql, huella);
+        }
+        return huella;
+    }
+
+    /**
+     * Contadores de una huella
+     */
+    public static final class Stat {
+        final String fingerprint;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder rowsFetched = new LongAdder();
+        final LongAdder rowsAffected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Stat(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
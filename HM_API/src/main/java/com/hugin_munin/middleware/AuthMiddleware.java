@@ -1,10 +1,17 @@
 package com.hugin_munin.middleware;
 
+import com.hugin_munin.metrics.MetricsRegistry;
 import com.hugin_munin.model.Usuario;
 import com.hugin_munin.service.AuthService;
 import io.javalin.http.Context;
+import io.javalin.http.ExceptionHandler;
+import io.javalin.http.ForbiddenResponse;
 import io.javalin.http.Handler;
 import io.javalin.http.HttpStatus;
+import io.javalin.http.UnauthorizedResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -17,6 +24,8 @@ import java.util.List;
  */
 public class AuthMiddleware {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthMiddleware.class);
+
     private final AuthService authService;
 
     private static final List<String> PUBLIC_ROUTES = Arrays.asList(
@@ -44,30 +53,17 @@ public class AuthMiddleware {
             String path = ctx.path();
             String method = ctx.method().toString();
 
-            System.out.println("JWT Middleware verificando: " + method + " " + path);
+            log.debug("JWT Middleware verificando: {} {}", method, path);
 
             if (isPublicRoute(path)) {
-                System.out.println("Ruta pública permitida: " + path);
+                log.debug("Ruta pública permitida: {}", path);
                 return;
             }
 
-            // DEBUG específico para profile (ahora con JWT)
-            if (path.equals("/hm/auth/profile")) {
-                System.out.println("DEBUG PROFILE: Verificando autenticación JWT para profile");
-                String authHeader = ctx.header("Authorization");
-                System.out.println("Authorization header: " + (authHeader != null ? "presente" : "AUSENTE"));
-
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-                    System.out.println("JWT token: presente (" + token.substring(0, Math.min(20, token.length())) + "...)");
-                    System.out.println("DEBUG: Intentando verificar token con AuthService...");
-                }
-            }
-
             Usuario usuario = authenticateRequest(ctx);
 
             if (usuario == null) {
-                System.out.println("Acceso denegado para: " + method + " " + path);
+                log.info("Acceso denegado para: {} {}", method, path);
                 sendUnauthorizedResponse(ctx);
                 return;
             }
@@ -77,8 +73,9 @@ public class AuthMiddleware {
             ctx.attribute("user_id", usuario.getId_usuario());
             ctx.attribute("user_name", usuario.getNombre_usuario());
             ctx.attribute("user_role", usuario.getId_rol());
+            MDC.put(RequestLogging.MDC_USER_ID, String.valueOf(usuario.getId_usuario()));
 
-            System.out.println("Usuario autenticado con JWT: " + usuario.getNombre_usuario() + " accediendo a " + path);
+            log.debug("Usuario autenticado con JWT: {} accediendo a {}", usuario.getNombre_usuario(), path);
         };
     }
 
@@ -102,6 +99,53 @@ public class AuthMiddleware {
         };
     }
 
+    /**
+     * Autenticación JWT que corta la cadena si falla (ver requireAuthenticatedAdmin)
+     */
+    public Handler requireAuthenticated() {
+        Handler autenticar = handle();
+
+        return ctx -> {
+            autenticar.handle(ctx);
+            if (ctx.attribute("usuario") == null) {
+                throw new UnauthorizedResponse();
+            }
+        };
+    }
+
+    /**
+     * Autenticación JWT más rol de administrador en un solo paso
+     * A diferencia de handle()/requireAdmin(), corta la cadena si la petición es rechazada:
+     * lanza UnauthorizedResponse/ForbiddenResponse (ver unauthorizedHandler/forbiddenHandler), así Javalin
+     * no ejecuta el endpoint pero sí los after (que devuelven la conexión de la petición, entre otros).
+     * skipRemainingHandlers() no sirve aquí porque también salta los after.
+     */
+    public Handler requireAuthenticatedAdmin() {
+        Handler autenticar = handle();
+
+        return ctx -> {
+            autenticar.handle(ctx);
+            Usuario usuario = ctx.attribute("usuario");
+            if (usuario == null) {
+                throw new UnauthorizedResponse();
+            }
+            if (!isAdminUser(usuario)) {
+                throw new ForbiddenResponse("Se requieren permisos de administrador");
+            }
+        };
+    }
+
+    /**
+     * Respuesta JSON para el rechazo lanzado por los handlers que cortan la cadena
+     */
+    public ExceptionHandler<UnauthorizedResponse> unauthorizedHandler() {
+        return (e, ctx) -> sendUnauthorizedResponse(ctx);
+    }
+
+    public ExceptionHandler<ForbiddenResponse> forbiddenHandler() {
+        return (e, ctx) -> sendForbiddenResponse(ctx, e.getMessage());
+    }
+
     /**
      * Autenticar request usando JWT del header Authorization
      * REEMPLAZA: authenticateRequest que usaba cookies
@@ -110,29 +154,23 @@ public class AuthMiddleware {
         try {
             String token = extractTokenFromHeader(ctx);
 
-            System.out.println("JWT token: " + (token != null ? "presente" : "ausente"));
-
             if (token == null || token.trim().isEmpty()) {
-                System.out.println("No hay token JWT en Authorization header");
+                log.debug("No hay token JWT en Authorization header");
                 return null;
             }
 
-            System.out.println("Verificando token JWT con AuthService...");
-
             // Usar el método JWT del AuthService
             Usuario usuario = authService.getUserByToken(token);
 
             if (usuario == null) {
-                System.out.println("Token JWT inválido o expirado");
+                log.debug("Token JWT inválido o expirado");
                 return null;
             }
 
-            System.out.println("Token JWT válido para usuario: " + usuario.getNombre_usuario());
             return usuario;
 
         } catch (Exception e) {
-            System.err.println("Error en autenticación JWT: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en autenticación JWT: {}", e.getMessage(), e);
             return null;
         }
     }
@@ -145,12 +183,10 @@ public class AuthMiddleware {
         String authHeader = ctx.header("Authorization");
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7); // Remover "Bearer "
-            System.out.println("Token JWT extraído: " + token.substring(0, Math.min(20, token.length())) + "...");
-            return token;
+            return authHeader.substring(7); // Remover "Bearer "
         }
 
-        System.out.println("Header Authorization no contiene Bearer token válido");
+        log.debug("Header Authorization no contiene Bearer token válido");
         return null;
     }
 
@@ -189,6 +225,8 @@ public class AuthMiddleware {
      * ACTUALIZADO: Mensaje específico para JWT
      */
     private void sendUnauthorizedResponse(Context ctx) {
+        MetricsRegistry.AUTH_UNAUTHORIZED.increment();
+
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
         response.put("error", "No autorizado");
@@ -205,6 +243,8 @@ public class AuthMiddleware {
      * SIN CAMBIOS
      */
     private void sendForbiddenResponse(Context ctx, String message) {
+        MetricsRegistry.AUTH_FORBIDDEN.increment();
+
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
         response.put("error", "Acceso prohibido");
@@ -0,0 +1,76 @@
+package com.hugin_munin.middleware;
+
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.AppConfig;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HttpStatus;
+
+/**
+ * GET condicional: ETag débil a partir de las versiones de las tablas que lee el endpoint
+ * Si If-None-Match coincide se responde 304 sin ejecutar el handler (ninguna consulta).
+ * Reemplaza el Cache-Control global "no-store" solo para las rutas envueltas.
+ */
+public class ConditionalGet {
+
+    private static final int CATALOG_MAX_AGE = AppConfig.getInt("CATALOG_MAX_AGE_SECONDS", 300);
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Datos que cambian a menudo: el navegador guarda la respuesta pero revalida siempre
+     */
+    public static Handler of(Handler handler, String... tablas) {
+        return wrap(handler, "private, no-cache", tablas);
+    }
+
+    /**
+     * Catálogos: se reutilizan sin preguntar durante CATALOG_MAX_AGE_SECONDS y luego se revalidan
+     */
+    public static Handler catalog(Handler handler, String... tablas) {
+        return wrap(handler, "private, max-age=" + CATALOG_MAX_AGE, tablas);
+    }
+
+    private static Handler wrap(Handler handler, String cacheControl, String[] tablas) {
+        return ctx -> {
+            // Versiones leídas antes de consultar: una escritura concurrente solo puede dejar un ETag más viejo
+            String etag = TableVersions.etag(tablas);
+            ctx.header("ETag", etag);
+            ctx.header("Cache-Control", cacheControl);
+
+            if (matches(ctx.header("If-None-Match"), etag)) {
+                ctx.status(HttpStatus.NOT_MODIFIED);
+                return;
+            }
+
+            handler.handle(ctx);
+
+            if (ctx.statusCode() >= 400) {
+                // Los errores no se guardan (un 500 pasajero no debe reutilizarse)
+                ctx.header("Cache-Control", "no-store");
+            }
+        };
+    }
+
+    /**
+     * Comparación débil contra la lista de If-None-Match (o *)
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String valor = opaque(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String limpio = candidato.trim();
+            if (limpio.equals("*") || opaque(limpio).equals(valor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
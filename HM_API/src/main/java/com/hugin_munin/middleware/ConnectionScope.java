@@ -0,0 +1,23 @@
+package com.hugin_munin.middleware;
+
+import com.hugin_munin.config.RequestConnectionScope;
+import io.javalin.http.Handler;
+
+/**
+ * Una conexión de base de datos por petición (par before/after)
+ * Se pide al pool en la primera consulta y se devuelve al terminar la petición;
+ * before, endpoint y after se ejecutan en el mismo hilo.
+ */
+public class ConnectionScope {
+
+    private ConnectionScope() {
+    }
+
+    public static Handler before() {
+        return ctx -> RequestConnectionScope.begin();
+    }
+
+    public static Handler after() {
+        return ctx -> RequestConnectionScope.end();
+    }
+}
@@ -0,0 +1,44 @@
+package com.hugin_munin.middleware;
+
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.config.DbPermitLimiter;
+import io.javalin.http.Handler;
+import io.javalin.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Descarte de carga cuando la base de datos está saturada
+ * Los controladores capturan cualquier excepción y responden 500; si durante la
+ * petición el DbPermitLimiter rechazó una conexión, la respuesta se reemplaza por
+ * 503 con Retry-After para que el cliente reintente más tarde.
+ */
+public class LoadShedding {
+
+    private static final String RETRY_AFTER_SECONDS = String.valueOf(AppConfig.getInt("DB_RETRY_AFTER_SECONDS", 1));
+
+    private LoadShedding() {
+    }
+
+    public static Handler before() {
+        return ctx -> DbPermitLimiter.startRequest();
+    }
+
+    public static Handler after() {
+        return ctx -> {
+            // Una respuesta en streaming ya enviada no puede reemplazarse
+            if (!DbPermitLimiter.rejectedInRequest() || ctx.res().isCommitted()) {
+                return;
+            }
+
+            ctx.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", RETRY_AFTER_SECONDS)
+                    .json(Map.of(
+                            "success", false,
+                            "error", "Servicio saturado",
+                            "details", "La base de datos está atendiendo demasiadas peticiones, intente nuevamente",
+                            "timestamp", System.currentTimeMillis()
+                    ));
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.hugin_munin.middleware;
+
+import io.javalin.http.Handler;
+import org.slf4j.MDC;
+
+import java.util.UUID;
+
+/**
+ * Contexto de logging por petición (MDC)
+ * Cada línea de log emitida durante la petición lleva request_id, ruta y, una vez
+ * autenticado, el ID de usuario (ver logback.xml)
+ */
+public class RequestLogging {
+
+    public static final String MDC_REQUEST_ID = "request_id";
+    public static final String MDC_ROUTE = "route";
+    public static final String MDC_USER_ID = "user_id";
+
+    private static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private RequestLogging() {
+    }
+
+    /**
+     * Abrir el contexto: reutiliza X-Request-Id del cliente o genera uno nuevo
+     */
+    public static Handler before() {
+        return ctx -> {
+            MDC.clear();
+
+            String requestId = ctx.header(REQUEST_ID_HEADER);
+            if (requestId == null || requestId.isBlank() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+                requestId = UUID.randomUUID().toString();
+            }
+
+            MDC.put(MDC_REQUEST_ID, requestId);
+            MDC.put(MDC_ROUTE, ctx.method() + " " + ctx.path());
+            ctx.header(REQUEST_ID_HEADER, requestId);
+        };
+    }
+
+    /**
+     * Cerrar el contexto para que no se filtre a la siguiente petición del hilo
+     */
+    public static Handler after() {
+        return ctx -> MDC.clear();
+    }
+}
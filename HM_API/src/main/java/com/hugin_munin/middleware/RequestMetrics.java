@@ -0,0 +1,74 @@
+package com.hugin_munin.middleware;
+
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.metrics.MetricsRegistry;
+import com.hugin_munin.metrics.SqlStats;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Medición de latencia por petición (par before/after)
+ * El instante de inicio y el contador de consultas SQL viven en atributos de la petición;
+ * el contador además se asocia al hilo para que SqlStats (que no ve el Context) lo incremente.
+ * También publica las consultas SQL ejecutadas en la cabecera X-Query-Count.
+ */
+public class RequestMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetrics.class);
+
+    // Más consultas que esto en una sola petición suele indicar un patrón N+1
+    private static final long QUERY_COUNT_WARN = AppConfig.getLong("QUERY_COUNT_WARN", 50);
+
+    private static final String UNMATCHED_ROUTE = "<sin_ruta>";
+
+    private static final String ATTR_INICIO = "metrics_inicio";
+    private static final String ATTR_CONSULTAS = "metrics_consultas";
+
+    private RequestMetrics() {
+    }
+
+    public static Handler before() {
+        return ctx -> {
+            AtomicLong consultas = new AtomicLong();
+            ctx.attribute(ATTR_INICIO, System.nanoTime());
+            ctx.attribute(ATTR_CONSULTAS, consultas);
+            SqlStats.bindRequestCounter(consultas);
+        };
+    }
+
+    public static Handler after() {
+        return ctx -> {
+            Long inicio = ctx.attribute(ATTR_INICIO);
+            AtomicLong contador = ctx.attribute(ATTR_CONSULTAS);
+            SqlStats.bindRequestCounter(null);
+            if (inicio == null || contador == null) {
+                return;
+            }
+            String ruta = routeTemplate(ctx);
+            MetricsRegistry.recordRequest(ruta, ctx.method(), ctx.statusCode(), System.nanoTime() - inicio);
+
+            long consultas = contador.get();
+            ctx.header("X-Query-Count", Long.toString(consultas));
+            if (consultas > QUERY_COUNT_WARN) {
+                log.warn("{} consultas SQL en una sola petición a {}", consultas, ruta);
+            }
+        };
+    }
+
+    /**
+     * Plantilla de la ruta atendida (/hm/especimenes/{id}), no la URL concreta
+     */
+    private static String routeTemplate(Context ctx) {
+        try {
+            String plantilla = ctx.endpointHandlerPath();
+            return plantilla != null ? plantilla : UNMATCHED_ROUTE;
+        } catch (RuntimeException e) {
+            // Sin endpoint (404) o petición rechazada antes de llegar a uno
+            return UNMATCHED_ROUTE;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hugin_munin.repository;
+
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.config.ConnectionProvider;
+import com.hugin_munin.config.DatabaseConfig;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Repositorio de las series de la analítica (ver TimeSeriesCache)
+ * Cada métrica es una sola consulta de (fecha, clave) ordenada por fecha que se recorre una vez
+ */
+public class AnalyticsRepository {
+
+    // Separador de las áreas en la clave de los traslados (la carga y los eventos nuevos usan el mismo)
+    public static final String SEPARADOR_AREAS = " → ";
+
+    private final ConnectionProvider connectionProvider;
+
+    public AnalyticsRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public AnalyticsRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * Clave de la serie de un traslado
+     */
+    public static String parDeAreas(String areaOrigen, String areaDestino) {
+        return areaOrigen + SEPARADOR_AREAS + areaDestino;
+    }
+
+    /**
+     * RECORRER las filas de la métrica con fecha entre desde y hasta (inclusivas), en orden de fecha
+     */
+    public void sweep(TimeSeriesCache.Metrica metrica, LocalDate desde, LocalDate hasta,
+                      TimeSeriesCache.Fila fila) throws SQLException {
+        String query = switch (metrica) {
+            case ALTAS -> """
+                SELECT fecha_ingreso AS fecha, id_origen_alta AS clave
+                FROM registro_alta
+                WHERE fecha_ingreso BETWEEN ? AND ?
+                ORDER BY fecha_ingreso
+                """;
+            case BAJAS -> """
+                SELECT fecha_baja AS fecha, id_causa_baja AS clave
+                FROM registro_baja
+                WHERE fecha_baja BETWEEN ? AND ?
+                ORDER BY fecha_baja
+                """;
+            case REPORTES -> """
+                SELECT fecha_reporte AS fecha, id_tipo_reporte AS clave
+                FROM reporte
+                WHERE fecha_reporte BETWEEN ? AND ?
+                ORDER BY fecha_reporte
+                """;
+            case TRASLADOS -> """
+                SELECT r.fecha_reporte AS fecha, CONCAT(rt.area_origen, ?, rt.area_destino) AS clave
+                FROM reporte_traslado rt
+                INNER JOIN reporte r ON rt.id_reporte = r.id_reporte
+                WHERE r.fecha_reporte BETWEEN ? AND ?
+                ORDER BY r.fecha_reporte
+                """;
+        };
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, query)) {
+            int indice = 1;
+            if (metrica == TimeSeriesCache.Metrica.TRASLADOS) {
+                stmt.setString(indice++, SEPARADOR_AREAS);
+            }
+            stmt.setDate(indice++, Date.valueOf(desde));
+            stmt.setDate(indice, Date.valueOf(hasta));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    fila.accept(rs.getDate("fecha").toLocalDate(), rs.getString("clave"));
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.CausaBaja;
 
 import java.sql.*;
@@ -14,14 +16,35 @@ import java.util.Optional;
  */
 public class CausaBajaRepository {
 
+    private static final CatalogCache<CausaBaja> CACHE = new CatalogCache<>(
+            "causa_baja", CausaBaja::getId_causa_baja,
+            t -> new CausaBaja(t.getId_causa_baja(), t.getNombre_causa_baja()));
+
+    private final ConnectionProvider connectionProvider;
+
+    public CausaBajaRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public CausaBajaRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todas las causas de baja
      */
     public List<CausaBaja> findAll() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * CARGAR todos los causas de baja desde la base de datos (origen del caché)
+     */
+    private List<CausaBaja> loadAll() throws SQLException {
         List<CausaBaja> causas = new ArrayList<>();
         String query = "SELECT id_causa_baja, nombre_causa_baja FROM causa_baja ORDER BY id_causa_baja ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -37,40 +60,19 @@ public class CausaBajaRepository {
      * BUSCAR causa de baja por ID
      */
     public Optional<CausaBaja> findById(Integer id) throws SQLException {
-        String query = "SELECT id_causa_baja, nombre_causa_baja FROM causa_baja WHERE id_causa_baja = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToCausaBaja(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
      * BUSCAR causa de baja por nombre
      */
     public Optional<CausaBaja> findByName(String nombreCausa) throws SQLException {
-        String query = "SELECT id_causa_baja, nombre_causa_baja FROM causa_baja WHERE nombre_causa_baja = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreCausa.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToCausaBaja(rs));
-                }
-            }
+        if (nombreCausa == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String buscado = nombreCausa.trim();
+        return CACHE.findFirst(t -> t.getNombre_causa_baja() != null
+                && t.getNombre_causa_baja().trim().equalsIgnoreCase(buscado), this::loadAll);
     }
 
     /**
@@ -80,7 +82,7 @@ public class CausaBajaRepository {
         List<CausaBaja> causas = new ArrayList<>();
         String query = "SELECT id_causa_baja, nombre_causa_baja FROM causa_baja WHERE nombre_causa_baja LIKE ? ORDER BY nombre_causa_baja ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombreCausa + "%");
@@ -100,12 +102,14 @@ public class CausaBajaRepository {
     public CausaBaja save(CausaBaja causaBaja) throws SQLException {
         String query = "INSERT INTO causa_baja (nombre_causa_baja) VALUES (?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, causaBaja.getNombre_causa_baja());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("causa_baja");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear causa de baja, no se insertaron filas");
@@ -129,13 +133,16 @@ public class CausaBajaRepository {
     public boolean update(CausaBaja causaBaja) throws SQLException {
         String query = "UPDATE causa_baja SET nombre_causa_baja = ? WHERE id_causa_baja = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, causaBaja.getNombre_causa_baja());
             stmt.setInt(2, causaBaja.getId_causa_baja());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("causa_baja");
+            return afectado;
         }
     }
 
@@ -145,11 +152,14 @@ public class CausaBajaRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM causa_baja WHERE id_causa_baja = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("causa_baja");
+            return afectado;
         }
     }
 
@@ -157,34 +167,14 @@ public class CausaBajaRepository {
      * VERIFICAR si existe una causa de baja por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM causa_baja WHERE id_causa_baja = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * VERIFICAR si existe una causa de baja por nombre
      */
     public boolean existsByName(String nombreCausa) throws SQLException {
-        String query = "SELECT COUNT(*) FROM causa_baja WHERE nombre_causa_baja = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreCausa.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return findByName(nombreCausa).isPresent();
     }
 
     /**
@@ -193,7 +183,7 @@ public class CausaBajaRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM causa_baja";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -210,7 +200,7 @@ public class CausaBajaRepository {
     public boolean isCausaInUse(Integer idCausa) throws SQLException {
         String query = "SELECT COUNT(*) FROM registro_baja WHERE id_causa_baja = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idCausa);
@@ -237,7 +227,7 @@ public class CausaBajaRepository {
 
         List<CausaEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -0,0 +1,60 @@
+package com.hugin_munin.repository;
+
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.config.ConnectionProvider;
+import com.hugin_munin.config.DatabaseConfig;
+
+import java.sql.*;
+
+/**
+ * Repositorio de la carga del censo por especie (ver CensusIndex)
+ * Solo se consulta al arrancar y después de editar o borrar altas y bajas
+ */
+public class CensusRepository {
+
+    private final ConnectionProvider connectionProvider;
+
+    public CensusRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public CensusRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * CARGAR la especie de cada especimen y sus altas (+1) y bajas (-1) en orden de fecha
+     * (así cada evento cae al final de su línea de tiempo y la de la colección)
+     * Los registros sin fecha (columnas nulables) no entran en ninguna fecha del censo
+     */
+    public void loadCensus(CensusIndex.Carga carga) throws SQLException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            String especimenes = "SELECT id_especimen, id_especie FROM especimen";
+            try (PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, especimenes);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.especimen(rs.getInt("id_especimen"), rs.getInt("id_especie"));
+                }
+            }
+
+            String eventos = """
+                SELECT e.id_especie, ra.fecha_ingreso AS fecha, 1 AS delta
+                FROM registro_alta ra
+                INNER JOIN especimen e ON ra.id_especimen = e.id_especimen
+                WHERE ra.fecha_ingreso IS NOT NULL
+                UNION ALL
+                SELECT e.id_especie, rb.fecha_baja AS fecha, -1 AS delta
+                FROM registro_baja rb
+                INNER JOIN especimen e ON rb.id_especimen = e.id_especimen
+                WHERE rb.fecha_baja IS NOT NULL
+                ORDER BY fecha
+                """;
+            try (PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, eventos);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.evento(rs.getInt("id_especie"), rs.getDate("fecha").toLocalDate(), rs.getInt("delta"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.hugin_munin.repository;
+
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.config.ConnectionProvider;
+import com.hugin_munin.config.DatabaseConfig;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Repositorio de la carga del resumen del dashboard (ver DashboardAggregate)
+ * Solo lo usan el arranque y la conciliación: las lecturas del dashboard no consultan la base
+ */
+public class DashboardRepository {
+
+    private final ConnectionProvider connectionProvider;
+
+    public DashboardRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public DashboardRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * CARGAR especies, estado de cada especimen, totales y altas/reportes con fecha >= desde
+     */
+    public void loadSummary(DashboardAggregate.Carga carga, LocalDate desde) throws SQLException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id_especie, genero, especie FROM especie");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.especie(rs.getInt("id_especie"), rs.getString("genero"), rs.getString("especie"));
+                }
+            }
+
+            String especimenes = "SELECT id_especimen, id_especie, activo FROM especimen";
+            try (PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, especimenes);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.especimen(rs.getInt("id_especimen"), rs.getInt("id_especie"), rs.getBoolean("activo"));
+                }
+            }
+
+            carga.totalAltas(count(conn, "SELECT COUNT(*) FROM registro_alta"));
+            String altas = "SELECT id_registro_alta, fecha_ingreso FROM registro_alta WHERE fecha_ingreso >= ?";
+            try (PreparedStatement stmt = conn.prepareStatement(altas)) {
+                stmt.setDate(1, Date.valueOf(desde));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        carga.altaReciente(rs.getInt("id_registro_alta"), rs.getDate("fecha_ingreso").toLocalDate());
+                    }
+                }
+            }
+
+            carga.totalReportes(count(conn, "SELECT COUNT(*) FROM reporte"));
+            String reportes = "SELECT id_reporte, fecha_reporte FROM reporte WHERE fecha_reporte >= ?";
+            try (PreparedStatement stmt = conn.prepareStatement(reportes)) {
+                stmt.setDate(1, Date.valueOf(desde));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        carga.reporteReciente(rs.getInt("id_reporte"), rs.getDate("fecha_reporte").toLocalDate());
+                    }
+                }
+            }
+        }
+    }
+
+    private long count(Connection conn, String query) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
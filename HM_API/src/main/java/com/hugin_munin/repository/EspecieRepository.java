@@ -1,7 +1,11 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.Especie;
+import com.hugin_munin.search.EspecimenAutocompleteIndex;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -16,14 +20,35 @@ import java.util.Optional;
  */
 public class EspecieRepository {
 
+    private static final CatalogCache<Especie> CACHE = new CatalogCache<>(
+            "especie", Especie::getId_especie,
+            t -> new Especie(t.getId_especie(), t.getGenero(), t.getEspecie()));
+
+    private final ConnectionProvider connectionProvider;
+
+    public EspecieRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public EspecieRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * Buscar todas las especies
      */
     public List<Especie> findAllSpecies() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * Cargar todas las especies desde la base de datos (origen del caché)
+     */
+    private List<Especie> loadAll() throws SQLException {
         List<Especie> especies = new ArrayList<>();
         String query = "SELECT * FROM especie ORDER BY genero ASC, especie ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -39,20 +64,7 @@ public class EspecieRepository {
      * Buscar especie por ID
      */
     public Optional<Especie> findById(Integer id) throws SQLException {
-        String query = "SELECT id_especie, genero, especie FROM especie WHERE id_especie = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToEspecie(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
@@ -62,7 +74,7 @@ public class EspecieRepository {
         List<Especie> especies = new ArrayList<>();
         String query = "SELECT * FROM especie WHERE CONCAT(genero, ' ', especie) LIKE ? ORDER BY genero, especie";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + scientificName + "%");
@@ -84,7 +96,7 @@ public class EspecieRepository {
         List<Especie> especies = new ArrayList<>();
         String query = "SELECT * FROM especie WHERE genero LIKE ? ORDER BY especie ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + genero + "%");
@@ -102,21 +114,14 @@ public class EspecieRepository {
      * Buscar especie exacta por género y especie
      */
     public Optional<Especie> findByGeneroAndEspecie(String genero, String especie) throws SQLException {
-        String query = "SELECT * FROM especie WHERE genero = ? AND especie = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, genero.trim());
-            stmt.setString(2, especie.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToEspecie(rs));
-                }
-            }
+        if (genero == null || especie == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String generoBuscado = genero.trim();
+        String especieBuscada = especie.trim();
+        return CACHE.findFirst(t -> t.getGenero() != null && t.getEspecie() != null
+                && t.getGenero().trim().equalsIgnoreCase(generoBuscado)
+                && t.getEspecie().trim().equalsIgnoreCase(especieBuscada), this::loadAll);
     }
 
     /**
@@ -125,13 +130,15 @@ public class EspecieRepository {
     public Especie saveSpecie(Especie especie) throws SQLException {
         String query = "INSERT INTO especie (genero, especie) VALUES (?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, especie.getGenero());
             stmt.setString(2, especie.getEspecie());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("especie");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear especie, no se insertaron filas");
@@ -145,6 +152,8 @@ public class EspecieRepository {
                 }
             }
         }
+        EspecimenAutocompleteIndex.shared().putSpecies(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+        DashboardAggregate.speciesSaved(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
 
         return especie;
     }
@@ -155,14 +164,21 @@ public class EspecieRepository {
     public boolean update(Especie especie) throws SQLException {
         String query = "UPDATE especie SET genero = ?, especie = ? WHERE id_especie = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, especie.getGenero());
             stmt.setString(2, especie.getEspecie());
             stmt.setInt(3, especie.getId_especie());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("especie");
+            if (afectado) {
+                EspecimenAutocompleteIndex.shared().putSpecies(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+                DashboardAggregate.speciesSaved(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+            }
+            return afectado;
         }
     }
 
@@ -172,11 +188,18 @@ public class EspecieRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM especie WHERE id_especie = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("especie");
+            if (afectado) {
+                EspecimenAutocompleteIndex.shared().removeSpecies(id);
+                DashboardAggregate.speciesRemoved(id);
+            }
+            return afectado;
         }
     }
 
@@ -184,35 +207,55 @@ public class EspecieRepository {
      * Verificar si existe especie por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM especie WHERE id_especie = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * Verificar si existe especie por género y especie
      */
     public boolean existsByGeneroAndEspecie(String genero, String especie) throws SQLException {
-        String query = "SELECT COUNT(*) FROM especie WHERE genero = ? AND especie = ?";
+        return findByGeneroAndEspecie(genero, especie).isPresent();
+    }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+    /**
+     * GUARDAR varias especies en una sola sentencia (las ya existentes se ignoran)
+     * Devuelve todas con su ID, nuevas y existentes; requiere UNIQUE (genero, especie)
+     */
+    public List<Especie> upsertAll(List<Especie> especies) throws SQLException {
+        List<Especie> resultado = new ArrayList<>();
+        if (especies.isEmpty()) {
+            return resultado;
+        }
 
-            stmt.setString(1, genero.trim());
-            stmt.setString(2, especie.trim());
+        String valores = String.join(", ", java.util.Collections.nCopies(especies.size(), "(?, ?)"));
+        String insert = "INSERT INTO especie (genero, especie) VALUES " + valores
+                + " ON DUPLICATE KEY UPDATE id_especie = id_especie";
+        String select = "SELECT * FROM especie WHERE (genero, especie) IN (" + valores + ")";
+
+        try (Connection conn = connectionProvider.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                bindPairs(stmt, especies);
+                stmt.executeUpdate();
+            } finally {
+                CACHE.invalidate();
+                TableVersions.bump("especie");
+            }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                bindPairs(stmt, especies);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        resultado.add(mapResultSetToEspecie(rs));
+                    }
+                }
             }
         }
+        for (Especie especie : resultado) {
+            EspecimenAutocompleteIndex.shared().putSpecies(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+            DashboardAggregate.speciesSaved(especie.getId_especie(), especie.getGenero(), especie.getEspecie());
+        }
+
+        return resultado;
     }
 
     /**
@@ -221,7 +264,7 @@ public class EspecieRepository {
     public boolean isSpecieInUse(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE id_especie = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -238,7 +281,7 @@ public class EspecieRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM especie";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -255,7 +298,7 @@ public class EspecieRepository {
     public int countUniqueGeneros() throws SQLException {
         String query = "SELECT COUNT(DISTINCT genero) FROM especie";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -273,7 +316,7 @@ public class EspecieRepository {
         List<String> generos = new ArrayList<>();
         String query = "SELECT DISTINCT genero FROM especie ORDER BY genero ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -301,7 +344,7 @@ public class EspecieRepository {
         LIMIT ?
         """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, limit);
@@ -335,7 +378,7 @@ public class EspecieRepository {
             ORDER BY e.genero ASC, e.especie ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -370,7 +413,7 @@ public class EspecieRepository {
             LIMIT ?
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, limit);
@@ -403,7 +446,7 @@ public class EspecieRepository {
             ORDER BY e.genero ASC, e.especie ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -414,6 +457,17 @@ public class EspecieRepository {
         return especies;
     }
 
+    /**
+     * Asignar los pares (genero, especie) a los parámetros en orden
+     */
+    private void bindPairs(PreparedStatement stmt, List<Especie> especies) throws SQLException {
+        int i = 1;
+        for (Especie especie : especies) {
+            stmt.setString(i++, especie.getGenero());
+            stmt.setString(i++, especie.getEspecie());
+        }
+    }
+
     /**
      * Mapear ResultSet a objeto Especie
      */
@@ -1,12 +1,24 @@
 package com.hugin_munin.repository;
 
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.dto.EspecimenSugerencia;
 import com.hugin_munin.model.Especimen;
+import com.hugin_munin.search.EspecimenAutocompleteIndex;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repositorio para gestionar especímenes
@@ -14,6 +26,16 @@ import java.util.Optional;
  */
 public class EspecimenRepository {
 
+    private final ConnectionProvider connectionProvider;
+
+    public EspecimenRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public EspecimenRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * Buscar todos los especímenes
      */
@@ -21,7 +43,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen ORDER BY id_especimen ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -33,6 +55,25 @@ public class EspecimenRepository {
         return especimenes;
     }
 
+    /**
+     * Recorrer todos los especímenes en streaming (mismo orden que findAllSpecimen)
+     */
+    public int streamAllSpecimen(RowHandler<? super Especimen> handler) throws SQLException, IOException {
+        int total = 0;
+        String query = "SELECT * FROM especimen ORDER BY id_especimen ASC";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.accept(mapResultSetToEspecimen(rs));
+                total++;
+            }
+        }
+        return total;
+    }
+
     /**
      * Buscar especímenes activos
      */
@@ -40,7 +81,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen WHERE activo = TRUE ORDER BY nombre_especimen ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -57,7 +98,7 @@ public class EspecimenRepository {
     public int countActiveSpecimens() throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE activo = TRUE";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -74,7 +115,7 @@ public class EspecimenRepository {
     public int countInactiveSpecimens() throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE activo = FALSE";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -91,7 +132,7 @@ public class EspecimenRepository {
     public Optional<Especimen> findById(Integer id) throws SQLException {
         String query = "SELECT * FROM especimen WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -111,7 +152,7 @@ public class EspecimenRepository {
     public Optional<Especimen> findByInventoryNumber(String numInventario) throws SQLException {
         String query = "SELECT * FROM especimen WHERE num_inventario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, numInventario.trim());
@@ -132,7 +173,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen WHERE nombre_especimen LIKE ? ORDER BY nombre_especimen ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombre + "%");
@@ -153,7 +194,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen WHERE num_inventario LIKE ? ORDER BY num_inventario ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + numero + "%");
@@ -174,7 +215,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen WHERE id_especie = ? ORDER BY nombre_especimen ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idEspecie);
@@ -194,7 +235,7 @@ public class EspecimenRepository {
     public Especimen saveSpecimen(Especimen especimen) throws SQLException {
         String query = "INSERT INTO especimen (num_inventario, id_especie, nombre_especimen, activo) VALUES (?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, especimen.getNum_inventario());
@@ -203,6 +244,7 @@ public class EspecimenRepository {
             stmt.setBoolean(4, especimen.isActivo());
 
             int rowsAffected = stmt.executeUpdate();
+            TableVersions.bump("especimen");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear especimen, no se insertaron filas");
@@ -216,17 +258,82 @@ public class EspecimenRepository {
                 }
             }
         }
+        indexInMemory(especimen);
 
         return especimen;
     }
 
+    /**
+     * GUARDAR varios especímenes en un solo lote (asigna los IDs generados)
+     */
+    public void saveAllSpecimens(List<Especimen> especimenes) throws SQLException {
+        if (especimenes.isEmpty()) {
+            return;
+        }
+        String query = "INSERT INTO especimen (num_inventario, id_especie, nombre_especimen, activo) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (Especimen especimen : especimenes) {
+                stmt.setString(1, especimen.getNum_inventario());
+                stmt.setInt(2, especimen.getId_especie());
+                stmt.setString(3, especimen.getNombre_especimen());
+                stmt.setBoolean(4, especimen.isActivo());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            TableVersions.bump("especimen");
+
+            // Con rewriteBatchedStatements las claves llegan en el orden del lote
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Especimen especimen : especimenes) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Error al crear especímenes en lote, no se obtuvieron todos los IDs");
+                    }
+                    especimen.setId_especimen(generatedKeys.getInt(1));
+                }
+            }
+        }
+        especimenes.forEach(this::indexInMemory);
+    }
+
+    /**
+     * BUSCAR cuáles de estos números de inventario ya están en uso
+     */
+    public Set<String> findExistingInventoryNumbers(Collection<String> numerosInventario) throws SQLException {
+        Set<String> existentes = new HashSet<>();
+        if (numerosInventario.isEmpty()) {
+            return existentes;
+        }
+        String placeholders = String.join(",", Collections.nCopies(numerosInventario.size(), "?"));
+        String query = "SELECT num_inventario FROM especimen WHERE num_inventario IN (" + placeholders + ")";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            int i = 1;
+            for (String numero : numerosInventario) {
+                stmt.setString(i++, numero);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getString(1));
+                }
+            }
+        }
+
+        return existentes;
+    }
+
     /**
      * Actualizar especimen existente
      */
     public boolean update(Especimen especimen) throws SQLException {
         String query = "UPDATE especimen SET num_inventario = ?, id_especie = ?, nombre_especimen = ?, activo = ? WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, especimen.getNum_inventario());
@@ -235,7 +342,12 @@ public class EspecimenRepository {
             stmt.setBoolean(4, especimen.isActivo());
             stmt.setInt(5, especimen.getId_especimen());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("especimen");
+            if (afectado) {
+                indexInMemory(especimen);
+            }
+            return afectado;
         }
     }
 
@@ -245,11 +357,18 @@ public class EspecimenRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM especimen WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("especimen");
+            if (afectado) {
+                EspecimenAutocompleteIndex.shared().removeSpecimen(id);
+                DashboardAggregate.specimenRemoved(id);
+                CensusIndex.specimenRemoved(id);
+            }
+            return afectado;
         }
     }
 
@@ -259,11 +378,17 @@ public class EspecimenRepository {
     public boolean activateById(Integer id) throws SQLException {
         String query = "UPDATE especimen SET activo = TRUE WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("especimen");
+            if (afectado) {
+                EspecimenAutocompleteIndex.shared().setActive(id, true);
+                DashboardAggregate.specimenActive(id, true);
+            }
+            return afectado;
         }
     }
 
@@ -273,21 +398,41 @@ public class EspecimenRepository {
     public boolean deactivateById(Integer id) throws SQLException {
         String query = "UPDATE especimen SET activo = FALSE WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("especimen");
+            if (afectado) {
+                EspecimenAutocompleteIndex.shared().setActive(id, false);
+                DashboardAggregate.specimenActive(id, false);
+            }
+            return afectado;
         }
     }
 
+    /**
+     * AUTOCOMPLETAR por inventario, nombre o especie desde el índice en memoria
+     */
+    public List<EspecimenSugerencia> autocomplete(String texto, int limite, boolean soloActivos) throws SQLException {
+        return EspecimenAutocompleteIndex.shared().search(texto, limite, soloActivos, this::loadAutocomplete);
+    }
+
+    /**
+     * CONSTRUIR el índice de autocompletado (arranque)
+     */
+    public void rebuildAutocomplete() throws SQLException {
+        EspecimenAutocompleteIndex.shared().rebuild(this::loadAutocomplete);
+    }
+
     /**
      * Verificar si existe especimen por ID
      */
     public boolean existsById(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -304,7 +449,7 @@ public class EspecimenRepository {
     public boolean existsByIN(String numInventario) throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE num_inventario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, numInventario.trim());
@@ -327,7 +472,7 @@ public class EspecimenRepository {
             ) AS usage_check
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -345,7 +490,7 @@ public class EspecimenRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -362,7 +507,7 @@ public class EspecimenRepository {
     public int countActive() throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE activo = TRUE";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -379,7 +524,7 @@ public class EspecimenRepository {
     public int countInactive() throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE activo = FALSE";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -396,7 +541,7 @@ public class EspecimenRepository {
     public int countByEspecie(Integer idEspecie) throws SQLException {
         String query = "SELECT COUNT(*) FROM especimen WHERE id_especie = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idEspecie);
@@ -417,7 +562,7 @@ public class EspecimenRepository {
         List<Especimen> especimenes = new ArrayList<>();
         String query = "SELECT * FROM especimen ORDER BY id_especimen DESC LIMIT ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, limit);
@@ -443,7 +588,7 @@ public class EspecimenRepository {
             ORDER BY esp.id_especimen ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -475,7 +620,7 @@ public class EspecimenRepository {
             WHERE esp.id_especimen = ?
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -499,6 +644,142 @@ public class EspecimenRepository {
         return Optional.empty();
     }
 
+    /**
+     * Buscar especímenes activos con información de especie en una sola consulta
+     * Si se proporciona nombre, filtra por coincidencia parcial
+     */
+    public List<Especimen> findActiveWithSpecieInfo(String nombre) throws SQLException {
+        List<Especimen> especimenes = new ArrayList<>();
+        boolean filtrar = nombre != null && !nombre.trim().isEmpty();
+        String query = """
+            SELECT esp.*, e.id_especie as e_id_especie, e.genero, e.especie
+            FROM especimen esp
+            LEFT JOIN especie e ON esp.id_especie = e.id_especie
+            WHERE esp.activo = TRUE
+            """ + (filtrar ? " AND esp.nombre_especimen LIKE ?" : "") +
+                " ORDER BY esp.nombre_especimen ASC";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            if (filtrar) {
+                stmt.setString(1, "%" + nombre.trim() + "%");
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Especimen especimen = mapResultSetToEspecimen(rs);
+
+                    if (rs.getObject("e_id_especie") != null) {
+                        com.hugin_munin.model.Especie especie = new com.hugin_munin.model.Especie();
+                        especie.setId_especie(rs.getInt("e_id_especie"));
+                        especie.setGenero(rs.getString("genero"));
+                        especie.setEspecie(rs.getString("especie"));
+                        especimen.setEspecie(especie);
+                    }
+
+                    especimenes.add(especimen);
+                }
+            }
+        }
+        return especimenes;
+    }
+
+    /**
+     * Obtener una página de especímenes (con información de especie) resuelta en la base de datos
+     *
+     * Modo keyset: si afterId no es nulo se devuelven las filas posteriores a esa posición
+     * (afterName se usa además cuando se ordena por nombre) y offset se ignora.
+     * Modo offset: si afterId es nulo se aplica LIMIT/OFFSET.
+     */
+    public List<Especimen> findPage(boolean soloActivos, String nombre, boolean ordenarPorNombre,
+                                    Integer afterId, String afterName, int offset, int limit) throws SQLException {
+        StringBuilder query = new StringBuilder("""
+            SELECT esp.*, e.id_especie as e_id_especie, e.genero, e.especie
+            FROM especimen esp
+            LEFT JOIN especie e ON esp.id_especie = e.id_especie
+            WHERE 1 = 1
+            """);
+        List<Object> params = new ArrayList<>();
+
+        appendFilters(query, params, soloActivos, nombre);
+
+        if (afterId != null) {
+            if (ordenarPorNombre) {
+                query.append(" AND (esp.nombre_especimen > ? OR (esp.nombre_especimen = ? AND esp.id_especimen > ?))");
+                params.add(afterName != null ? afterName : "");
+                params.add(afterName != null ? afterName : "");
+                params.add(afterId);
+            } else {
+                query.append(" AND esp.id_especimen > ?");
+                params.add(afterId);
+            }
+        }
+
+        query.append(ordenarPorNombre
+                ? " ORDER BY esp.nombre_especimen ASC, esp.id_especimen ASC"
+                : " ORDER BY esp.id_especimen ASC");
+        query.append(" LIMIT ?");
+        params.add(limit);
+
+        if (afterId == null && offset > 0) {
+            query.append(" OFFSET ?");
+            params.add(offset);
+        }
+
+        List<Especimen> especimenes = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Especimen especimen = mapResultSetToEspecimen(rs);
+
+                    if (rs.getObject("e_id_especie") != null) {
+                        com.hugin_munin.model.Especie especie = new com.hugin_munin.model.Especie();
+                        especie.setId_especie(rs.getInt("e_id_especie"));
+                        especie.setGenero(rs.getString("genero"));
+                        especie.setEspecie(rs.getString("especie"));
+                        especimen.setEspecie(especie);
+                    }
+
+                    especimenes.add(especimen);
+                }
+            }
+        }
+        return especimenes;
+    }
+
+    /**
+     * Contar especímenes con los mismos filtros que findPage
+     */
+    public int countFiltered(boolean soloActivos, String nombre) throws SQLException {
+        StringBuilder query = new StringBuilder("SELECT COUNT(*) FROM especimen esp WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        appendFilters(query, params, soloActivos, nombre);
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        return 0;
+    }
+
     /**
      * Obtener estadísticas de especímenes por especie
      */
@@ -516,7 +797,7 @@ public class EspecimenRepository {
 
         List<EspecimenEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -536,6 +817,19 @@ public class EspecimenRepository {
         return estadisticas;
     }
 
+    /**
+     * Agregar filtros comunes de paginación (activos y nombre parcial)
+     */
+    private void appendFilters(StringBuilder query, List<Object> params, boolean soloActivos, String nombre) {
+        if (soloActivos) {
+            query.append(" AND esp.activo = TRUE");
+        }
+        if (nombre != null && !nombre.trim().isEmpty()) {
+            query.append(" AND esp.nombre_especimen LIKE ?");
+            params.add("%" + nombre.trim() + "%");
+        }
+    }
+
     /**
      * Mapear ResultSet a objeto Especimen
      */
@@ -551,6 +845,39 @@ public class EspecimenRepository {
         return especimen;
     }
 
+    /**
+     * Agregar o reemplazar el especimen en el autocompletado, el resumen del dashboard y el censo
+     */
+    private void indexInMemory(Especimen especimen) {
+        EspecimenAutocompleteIndex.shared().putSpecimen(especimen.getId_especimen(), especimen.getNum_inventario(),
+                especimen.getNombre_especimen(), especimen.getId_especie(), especimen.isActivo());
+        DashboardAggregate.specimenSaved(especimen.getId_especimen(), especimen.getId_especie(), especimen.isActivo());
+        CensusIndex.specimenSaved(especimen.getId_especimen(), especimen.getId_especie());
+    }
+
+    /**
+     * Carga completa del autocompletado: especies y luego especímenes en streaming
+     */
+    private void loadAutocomplete(EspecimenAutocompleteIndex.Carga carga) throws SQLException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id_especie, genero, especie FROM especie");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.especie(rs.getInt("id_especie"), rs.getString("genero"), rs.getString("especie"));
+                }
+            }
+
+            String query = "SELECT id_especimen, num_inventario, nombre_especimen, id_especie, activo FROM especimen ORDER BY id_especimen";
+            try (PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, query);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    carga.especimen(rs.getInt("id_especimen"), rs.getString("num_inventario"),
+                            rs.getString("nombre_especimen"), rs.getInt("id_especie"), rs.getBoolean("activo"));
+                }
+            }
+        }
+    }
+
     /**
      * Clase auxiliar para estadísticas de especímenes por especie
      */
@@ -0,0 +1,241 @@
+package com.hugin_munin.repository;
+
+import com.hugin_munin.config.ConnectionProvider;
+import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.util.RowHandler;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repositorio de exportaciones: volcados planos de cada tabla con sus joins
+ * Solo se consultan las entidades y columnas definidas aquí (nunca texto del cliente en el SQL).
+ * Las filas se leen con un cursor de solo avance (ver DatabaseConfig.prepareStreaming).
+ */
+public class ExportRepository {
+
+    /**
+     * Definición de una entidad exportable: columnas de salida y su expresión SQL
+     */
+    public record Entidad(String nombre, String from, Map<String, String> columnas, String fecha, String orden) {
+
+        public List<String> nombresColumnas() {
+            return List.copyOf(columnas.keySet());
+        }
+    }
+
+    private static final Map<String, Entidad> ENTIDADES = new LinkedHashMap<>();
+
+    static {
+        // Una fila por especimen: solo su primera alta (puede tener varias)
+        register(new Entidad("especimen",
+                """
+                especimen esp
+                JOIN especie e ON e.id_especie = esp.id_especie
+                LEFT JOIN registro_alta ra ON ra.id_registro_alta = (
+                    SELECT MIN(ra1.id_registro_alta) FROM registro_alta ra1
+                    WHERE ra1.id_especimen = esp.id_especimen)
+                """,
+                columns(
+                        "id_especimen", "esp.id_especimen",
+                        "num_inventario", "esp.num_inventario",
+                        "nombre_especimen", "esp.nombre_especimen",
+                        "activo", "esp.activo",
+                        "id_especie", "e.id_especie",
+                        "genero", "e.genero",
+                        "especie", "e.especie",
+                        "fecha_ingreso", "ra.fecha_ingreso"),
+                "ra.fecha_ingreso", "esp.id_especimen"));
+
+        register(new Entidad("registro_alta",
+                """
+                registro_alta ra
+                JOIN especimen esp ON esp.id_especimen = ra.id_especimen
+                JOIN especie e ON e.id_especie = esp.id_especie
+                JOIN origen_alta oa ON oa.id_origen_alta = ra.id_origen_alta
+                JOIN usuario u ON u.id_usuario = ra.id_responsable
+                """,
+                columns(
+                        "id_registro_alta", "ra.id_registro_alta",
+                        "id_especimen", "ra.id_especimen",
+                        "num_inventario", "esp.num_inventario",
+                        "nombre_especimen", "esp.nombre_especimen",
+                        "genero", "e.genero",
+                        "especie", "e.especie",
+                        "id_origen_alta", "ra.id_origen_alta",
+                        "nombre_origen_alta", "oa.nombre_origen_alta",
+                        "id_responsable", "ra.id_responsable",
+                        "responsable", "u.nombre_usuario",
+                        "fecha_ingreso", "ra.fecha_ingreso",
+                        "procedencia", "ra.procedencia",
+                        "observacion", "ra.observacion"),
+                "ra.fecha_ingreso", "ra.id_registro_alta"));
+
+        register(new Entidad("registro_baja",
+                """
+                registro_baja rb
+                JOIN especimen esp ON esp.id_especimen = rb.id_especimen
+                JOIN especie e ON e.id_especie = esp.id_especie
+                JOIN causa_baja cb ON cb.id_causa_baja = rb.id_causa_baja
+                JOIN usuario u ON u.id_usuario = rb.id_responsable
+                """,
+                columns(
+                        "id_registro_baja", "rb.id_registro_baja",
+                        "id_especimen", "rb.id_especimen",
+                        "num_inventario", "esp.num_inventario",
+                        "nombre_especimen", "esp.nombre_especimen",
+                        "genero", "e.genero",
+                        "especie", "e.especie",
+                        "id_causa_baja", "rb.id_causa_baja",
+                        "nombre_causa_baja", "cb.nombre_causa_baja",
+                        "id_responsable", "rb.id_responsable",
+                        "responsable", "u.nombre_usuario",
+                        "fecha_baja", "rb.fecha_baja",
+                        "observacion", "rb.observacion"),
+                "rb.fecha_baja", "rb.id_registro_baja"));
+
+        register(new Entidad("reporte",
+                """
+                reporte r
+                JOIN tipo_reporte tr ON tr.id_tipo_reporte = r.id_tipo_reporte
+                JOIN especimen esp ON esp.id_especimen = r.id_especimen
+                JOIN especie e ON e.id_especie = esp.id_especie
+                JOIN usuario u ON u.id_usuario = r.id_responsable
+                """,
+                columns(
+                        "id_reporte", "r.id_reporte",
+                        "id_tipo_reporte", "r.id_tipo_reporte",
+                        "nombre_tipo_reporte", "tr.nombre_tipo_reporte",
+                        "id_especimen", "r.id_especimen",
+                        "num_inventario", "esp.num_inventario",
+                        "nombre_especimen", "esp.nombre_especimen",
+                        "genero", "e.genero",
+                        "especie", "e.especie",
+                        "id_responsable", "r.id_responsable",
+                        "responsable", "u.nombre_usuario",
+                        "asunto", "r.asunto",
+                        "fecha_reporte", "r.fecha_reporte",
+                        "contenido", "r.contenido"),
+                "r.fecha_reporte", "r.id_reporte"));
+
+        register(new Entidad("reporte_traslado",
+                """
+                reporte_traslado rt
+                JOIN reporte r ON r.id_reporte = rt.id_reporte
+                JOIN especimen esp ON esp.id_especimen = r.id_especimen
+                JOIN especie e ON e.id_especie = esp.id_especie
+                JOIN usuario u ON u.id_usuario = r.id_responsable
+                """,
+                columns(
+                        "id_reporte", "rt.id_reporte",
+                        "id_especimen", "r.id_especimen",
+                        "num_inventario", "esp.num_inventario",
+                        "nombre_especimen", "esp.nombre_especimen",
+                        "genero", "e.genero",
+                        "especie", "e.especie",
+                        "id_responsable", "r.id_responsable",
+                        "responsable", "u.nombre_usuario",
+                        "asunto", "r.asunto",
+                        "fecha_reporte", "r.fecha_reporte",
+                        "area_origen", "rt.area_origen",
+                        "area_destino", "rt.area_destino",
+                        "ubicacion_origen", "rt.ubicacion_origen",
+                        "ubicacion_destino", "rt.ubicacion_destino",
+                        "motivo", "rt.motivo",
+                        "contenido", "r.contenido"),
+                "r.fecha_reporte", "rt.id_reporte"));
+    }
+
+    private final ConnectionProvider connectionProvider;
+
+    public ExportRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public ExportRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * BUSCAR la definición de una entidad exportable
+     */
+    public Optional<Entidad> findEntidad(String nombre) {
+        return Optional.ofNullable(ENTIDADES.get(nombre));
+    }
+
+    /**
+     * Nombres de las entidades exportables
+     */
+    public List<String> getNombresEntidades() {
+        return List.copyOf(ENTIDADES.keySet());
+    }
+
+    /**
+     * RECORRER la entidad en streaming: solo las columnas pedidas y, si vienen, dentro del rango de fechas
+     * Cada fila llega como un arreglo de valores en el orden de columnas; el arreglo se reutiliza
+     */
+    public int stream(Entidad entidad, List<String> columnas, LocalDate inicio, LocalDate fin,
+                      RowHandler<Object[]> handler) throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columnas.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(entidad.columnas().get(columnas.get(i)));
+        }
+        sql.append(" FROM ").append(entidad.from());
+
+        List<Object> parametros = new ArrayList<>();
+        if (inicio != null) {
+            sql.append(parametros.isEmpty() ? " WHERE " : " AND ").append(entidad.fecha()).append(" >= ?");
+            parametros.add(java.sql.Date.valueOf(inicio));
+        }
+        if (fin != null) {
+            sql.append(parametros.isEmpty() ? " WHERE " : " AND ").append(entidad.fecha()).append(" <= ?");
+            parametros.add(java.sql.Date.valueOf(fin));
+        }
+        sql.append(" ORDER BY ").append(entidad.orden());
+
+        int total = 0;
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, sql.toString())) {
+
+            for (int i = 0; i < parametros.size(); i++) {
+                stmt.setObject(i + 1, parametros.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                Object[] fila = new Object[columnas.size()];
+                while (rs.next()) {
+                    for (int i = 0; i < fila.length; i++) {
+                        fila[i] = rs.getObject(i + 1);
+                    }
+                    handler.accept(fila);
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static void register(Entidad entidad) {
+        ENTIDADES.put(entidad.nombre(), entidad);
+    }
+
+    private static Map<String, String> columns(String... pares) {
+        Map<String, String> columnas = new LinkedHashMap<>();
+        for (int i = 0; i < pares.length; i += 2) {
+            columnas.put(pares[i], pares[i + 1]);
+        }
+        return columnas;
+    }
+}
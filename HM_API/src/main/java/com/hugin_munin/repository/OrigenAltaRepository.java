@@ -1,6 +1,8 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.OrigenAlta;
 
 import java.sql.*;
@@ -14,14 +16,35 @@ import java.util.Optional;
  */
 public class OrigenAltaRepository {
 
+    private static final CatalogCache<OrigenAlta> CACHE = new CatalogCache<>(
+            "origen_alta", OrigenAlta::getId_origen_alta,
+            t -> new OrigenAlta(t.getId_origen_alta(), t.getNombre_origen_alta()));
+
+    private final ConnectionProvider connectionProvider;
+
+    public OrigenAltaRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public OrigenAltaRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todos los orígenes de alta
      */
     public List<OrigenAlta> findAll() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * CARGAR todos los orígenes de alta desde la base de datos (origen del caché)
+     */
+    private List<OrigenAlta> loadAll() throws SQLException {
         List<OrigenAlta> origenes = new ArrayList<>();
         String query = "SELECT id_origen_alta, nombre_origen_alta FROM origen_alta ORDER BY id_origen_alta ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -37,40 +60,19 @@ public class OrigenAltaRepository {
      * BUSCAR origen de alta por ID
      */
     public Optional<OrigenAlta> findById(Integer id) throws SQLException {
-        String query = "SELECT id_origen_alta, nombre_origen_alta FROM origen_alta WHERE id_origen_alta = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToOrigenAlta(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
      * BUSCAR origen de alta por nombre
      */
     public Optional<OrigenAlta> findByName(String nombreOrigen) throws SQLException {
-        String query = "SELECT id_origen_alta, nombre_origen_alta FROM origen_alta WHERE nombre_origen_alta = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreOrigen.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToOrigenAlta(rs));
-                }
-            }
+        if (nombreOrigen == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String buscado = nombreOrigen.trim();
+        return CACHE.findFirst(t -> t.getNombre_origen_alta() != null
+                && t.getNombre_origen_alta().trim().equalsIgnoreCase(buscado), this::loadAll);
     }
 
     /**
@@ -80,7 +82,7 @@ public class OrigenAltaRepository {
         List<OrigenAlta> origenes = new ArrayList<>();
         String query = "SELECT id_origen_alta, nombre_origen_alta FROM origen_alta WHERE nombre_origen_alta LIKE ? ORDER BY nombre_origen_alta ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombreOrigen + "%");
@@ -100,12 +102,14 @@ public class OrigenAltaRepository {
     public OrigenAlta save(OrigenAlta origenAlta) throws SQLException {
         String query = "INSERT INTO origen_alta (nombre_origen_alta) VALUES (?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, origenAlta.getNombre_origen_alta());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("origen_alta");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear origen de alta, no se insertaron filas");
@@ -129,13 +133,16 @@ public class OrigenAltaRepository {
     public boolean update(OrigenAlta origenAlta) throws SQLException {
         String query = "UPDATE origen_alta SET nombre_origen_alta = ? WHERE id_origen_alta = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, origenAlta.getNombre_origen_alta());
             stmt.setInt(2, origenAlta.getId_origen_alta());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("origen_alta");
+            return afectado;
         }
     }
 
@@ -145,11 +152,14 @@ public class OrigenAltaRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM origen_alta WHERE id_origen_alta = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("origen_alta");
+            return afectado;
         }
     }
 
@@ -157,34 +167,14 @@ public class OrigenAltaRepository {
      * VERIFICAR si existe un origen de alta por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM origen_alta WHERE id_origen_alta = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * VERIFICAR si existe un origen de alta por nombre
      */
     public boolean existsByName(String nombreOrigen) throws SQLException {
-        String query = "SELECT COUNT(*) FROM origen_alta WHERE nombre_origen_alta = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreOrigen.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return findByName(nombreOrigen).isPresent();
     }
 
     /**
@@ -193,7 +183,7 @@ public class OrigenAltaRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM origen_alta";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -210,7 +200,7 @@ public class OrigenAltaRepository {
     public boolean isOrigenInUse(Integer idOrigen) throws SQLException {
         String query = "SELECT COUNT(*) FROM registro_alta WHERE id_origen_alta = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idOrigen);
@@ -237,7 +227,7 @@ public class OrigenAltaRepository {
 
         List<OrigenEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
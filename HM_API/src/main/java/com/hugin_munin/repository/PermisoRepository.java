@@ -1,6 +1,8 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.Permiso;
 
 import java.sql.*;
@@ -14,14 +16,35 @@ import java.util.Optional;
  */
 public class PermisoRepository {
 
+    private static final CatalogCache<Permiso> CACHE = new CatalogCache<>(
+            "permiso", Permiso::getId_permiso,
+            t -> new Permiso(t.getId_permiso(), t.getNombre_permiso()));
+
+    private final ConnectionProvider connectionProvider;
+
+    public PermisoRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public PermisoRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todos los permisos
      */
     public List<Permiso> findAll() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * CARGAR todos los permisos desde la base de datos (origen del caché)
+     */
+    private List<Permiso> loadAll() throws SQLException {
         List<Permiso> permisos = new ArrayList<>();
         String query = "SELECT id_permiso, nombre_permiso FROM permiso ORDER BY id_permiso ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -37,40 +60,19 @@ public class PermisoRepository {
      * BUSCAR permiso por ID
      */
     public Optional<Permiso> findById(Integer id) throws SQLException {
-        String query = "SELECT id_permiso, nombre_permiso FROM permiso WHERE id_permiso = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToPermiso(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
      * BUSCAR permiso por nombre
      */
     public Optional<Permiso> findByName(String nombrePermiso) throws SQLException {
-        String query = "SELECT id_permiso, nombre_permiso FROM permiso WHERE nombre_permiso = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombrePermiso.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToPermiso(rs));
-                }
-            }
+        if (nombrePermiso == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String buscado = nombrePermiso.trim();
+        return CACHE.findFirst(t -> t.getNombre_permiso() != null
+                && t.getNombre_permiso().trim().equalsIgnoreCase(buscado), this::loadAll);
     }
 
     /**
@@ -80,7 +82,7 @@ public class PermisoRepository {
         List<Permiso> permisos = new ArrayList<>();
         String query = "SELECT id_permiso, nombre_permiso FROM permiso WHERE nombre_permiso LIKE ? ORDER BY nombre_permiso ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombrePermiso + "%");
@@ -115,7 +117,7 @@ public class PermisoRepository {
                 return findAll();
         }
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -139,7 +141,7 @@ public class PermisoRepository {
             ORDER BY p.nombre_permiso ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
@@ -169,7 +171,7 @@ public class PermisoRepository {
             ORDER BY p.nombre_permiso ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
@@ -189,12 +191,14 @@ public class PermisoRepository {
     public Permiso save(Permiso permiso) throws SQLException {
         String query = "INSERT INTO permiso (nombre_permiso) VALUES (?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, permiso.getNombre_permiso());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("permiso");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear permiso, no se insertaron filas");
@@ -218,13 +222,16 @@ public class PermisoRepository {
     public boolean update(Permiso permiso) throws SQLException {
         String query = "UPDATE permiso SET nombre_permiso = ? WHERE id_permiso = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, permiso.getNombre_permiso());
             stmt.setInt(2, permiso.getId_permiso());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("permiso");
+            return afectado;
         }
     }
 
@@ -234,11 +241,14 @@ public class PermisoRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM permiso WHERE id_permiso = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("permiso");
+            return afectado;
         }
     }
 
@@ -246,34 +256,14 @@ public class PermisoRepository {
      * VERIFICAR si existe un permiso por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM permiso WHERE id_permiso = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * VERIFICAR si existe un permiso por nombre
      */
     public boolean existsByName(String nombrePermiso) throws SQLException {
-        String query = "SELECT COUNT(*) FROM permiso WHERE nombre_permiso = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombrePermiso.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return findByName(nombrePermiso).isPresent();
     }
 
     /**
@@ -282,7 +272,7 @@ public class PermisoRepository {
     public boolean isPermisoInUse(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM rol_permiso WHERE id_permiso = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -299,7 +289,7 @@ public class PermisoRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM permiso";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -325,7 +315,7 @@ public class PermisoRepository {
 
         List<PermisoEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -348,13 +338,15 @@ public class PermisoRepository {
     public boolean assignPermisoToRol(Integer idPermiso, Integer idRol) throws SQLException {
         String query = "INSERT INTO rol_permiso (id_rol, id_permiso) VALUES (?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
             stmt.setInt(2, idPermiso);
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("rol_permiso");
+            return afectado;
         }
     }
 
@@ -364,13 +356,15 @@ public class PermisoRepository {
     public boolean removePermisoFromRol(Integer idPermiso, Integer idRol) throws SQLException {
         String query = "DELETE FROM rol_permiso WHERE id_rol = ? AND id_permiso = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
             stmt.setInt(2, idPermiso);
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("rol_permiso");
+            return afectado;
         }
     }
 
@@ -380,7 +374,7 @@ public class PermisoRepository {
     public boolean rolHasPermiso(Integer idRol, Integer idPermiso) throws SQLException {
         String query = "SELECT COUNT(*) FROM rol_permiso WHERE id_rol = ? AND id_permiso = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
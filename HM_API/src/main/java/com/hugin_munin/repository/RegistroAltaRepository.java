@@ -1,5 +1,10 @@
 package com.hugin_munin.repository;
 
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.config.DatabaseConfig;
 import com.hugin_munin.model.RegistroAlta;
 import com.hugin_munin.model.Especimen;
@@ -7,7 +12,11 @@ import com.hugin_munin.model.Especie;
 import com.hugin_munin.model.OrigenAlta;
 import com.hugin_munin.model.Usuario;
 import com.hugin_munin.model.Rol;
+import com.hugin_munin.util.RowHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +28,8 @@ import java.util.Date;
  * */
 public class RegistroAltaRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistroAltaRepository.class);
+
     private static final String BASIC_QUERY = """
         SELECT ra.id_registro_alta, ra.id_especimen, ra.id_origen_alta, ra.id_responsable,
                ra.fecha_ingreso, ra.procedencia, ra.observacion
@@ -61,6 +72,16 @@ public class RegistroAltaRepository {
         LEFT JOIN rol r ON u.id_rol = r.id_rol
         """;
 
+    private final ConnectionProvider connectionProvider;
+
+    public RegistroAltaRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public RegistroAltaRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * GUARDAR nuevo registro
      */
@@ -71,7 +92,7 @@ public class RegistroAltaRepository {
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, registroAlta.getId_especimen());
@@ -82,6 +103,7 @@ public class RegistroAltaRepository {
             stmt.setString(6, registroAlta.getObservacion());
 
             int affectedRows = stmt.executeUpdate();
+            TableVersions.bump("registro_alta");
 
             if (affectedRows == 0) {
                 throw new SQLException("Error al crear el registro de alta");
@@ -90,6 +112,10 @@ public class RegistroAltaRepository {
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     registroAlta.setId_registro_alta(generatedKeys.getInt(1));
+                    DashboardAggregate.altaCreated(registroAlta.getId_registro_alta(), registroAlta.getFecha_ingreso());
+                    CensusIndex.altaCreated(registroAlta.getId_especimen(), registroAlta.getFecha_ingreso());
+                    TimeSeriesCache.append(TimeSeriesCache.Metrica.ALTAS, registroAlta.getFecha_ingreso(),
+                            String.valueOf(registroAlta.getId_origen_alta()));
                     return registroAlta;
                 } else {
                     throw new SQLException("No se pudo obtener el ID del registro de alta");
@@ -98,6 +124,49 @@ public class RegistroAltaRepository {
         }
     }
 
+    /**
+     * GUARDAR varios registros en un solo lote (asigna los IDs generados)
+     */
+    public void saveAllRegisters(List<RegistroAlta> registros) throws SQLException {
+        if (registros.isEmpty()) {
+            return;
+        }
+        String sql = """
+            INSERT INTO registro_alta (id_especimen, id_origen_alta, id_responsable, 
+                                     fecha_ingreso, procedencia, observacion) 
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (RegistroAlta registroAlta : registros) {
+                stmt.setInt(1, registroAlta.getId_especimen());
+                stmt.setInt(2, registroAlta.getId_origen_alta());
+                stmt.setInt(3, registroAlta.getId_responsable());
+                stmt.setDate(4, new java.sql.Date(registroAlta.getFecha_ingreso().getTime()));
+                stmt.setString(5, registroAlta.getProcedencia());
+                stmt.setString(6, registroAlta.getObservacion());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            TableVersions.bump("registro_alta");
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (RegistroAlta registroAlta : registros) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("No se pudieron obtener los IDs de los registros de alta");
+                    }
+                    registroAlta.setId_registro_alta(generatedKeys.getInt(1));
+                    DashboardAggregate.altaCreated(registroAlta.getId_registro_alta(), registroAlta.getFecha_ingreso());
+                    CensusIndex.altaCreated(registroAlta.getId_especimen(), registroAlta.getFecha_ingreso());
+                    TimeSeriesCache.append(TimeSeriesCache.Metrica.ALTAS, registroAlta.getFecha_ingreso(),
+                            String.valueOf(registroAlta.getId_origen_alta()));
+                }
+            }
+        }
+    }
+
     /**
      * BUSCAR todos los registros
      */
@@ -106,11 +175,50 @@ public class RegistroAltaRepository {
             String sql = SAFE_QUERY_WITH_JOINS + " ORDER BY ra.id_registro_alta DESC";
             return executeQueryWithJoins(sql);
         } catch (SQLException e) {
-            System.err.println("Error con joins, usando query básica: " + e.getMessage());
+            log.warn("Error con joins, usando query básica: {}", e.getMessage());
             return findAllRegistersBasic();
         }
     }
 
+    /**
+     * RECORRER todos los registros en streaming (mismo orden y respaldo básico que findAllRegisters)
+     * El respaldo solo aplica si la consulta con joins falla antes de entregar la primera fila
+     */
+    public int streamAllRegisters(RowHandler<? super RegistroAlta> handler) throws SQLException, IOException {
+        int total = 0;
+
+        try {
+            try (Connection conn = connectionProvider.getConnection();
+                 PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn,
+                         SAFE_QUERY_WITH_JOINS + " ORDER BY ra.id_registro_alta DESC");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    handler.accept(mapSafeResultSet(rs));
+                    total++;
+                }
+            }
+            return total;
+        } catch (SQLException e) {
+            if (total > 0) {
+                throw e;
+            }
+            log.warn("Error con joins, usando query básica: {}", e.getMessage());
+        }
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn,
+                     BASIC_QUERY + " ORDER BY ra.id_registro_alta DESC");
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.accept(mapBasicResultSet(rs));
+                total++;
+            }
+        }
+        return total;
+    }
+
     /**
      * BUSCAR todos los registros
      */
@@ -118,7 +226,7 @@ public class RegistroAltaRepository {
         List<RegistroAlta> registros = new ArrayList<>();
         String sql = BASIC_QUERY + " ORDER BY ra.id_registro_alta DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -136,7 +244,7 @@ public class RegistroAltaRepository {
         try {
             String sql = SAFE_QUERY_WITH_JOINS + " WHERE ra.id_registro_alta = ?";
 
-            try (Connection conn = DatabaseConfig.getConnection();
+            try (Connection conn = connectionProvider.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setInt(1, id);
@@ -144,7 +252,7 @@ public class RegistroAltaRepository {
                 return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
             }
         } catch (SQLException e) {
-            System.err.println("Error con joins, usando query básica: " + e.getMessage());
+            log.warn("Error con joins, usando query básica: {}", e.getMessage());
             return findRegisterByIdBasic(id);
         }
     }
@@ -155,7 +263,7 @@ public class RegistroAltaRepository {
     public Optional<RegistroAlta> findRegisterByIdBasic(Integer id) throws SQLException {
         String sql = BASIC_QUERY + " WHERE ra.id_registro_alta = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -180,7 +288,7 @@ public class RegistroAltaRepository {
             WHERE id_registro_alta = ?
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, registroAlta.getId_especimen());
@@ -192,10 +300,14 @@ public class RegistroAltaRepository {
             stmt.setInt(7, registroAlta.getId_registro_alta());
 
             int affectedRows = stmt.executeUpdate();
+            TableVersions.bump("registro_alta");
 
             if (affectedRows == 0) {
                 throw new SQLException("No se pudo actualizar el registro, no existe el ID especificado");
             }
+            DashboardAggregate.altaUpdated(registroAlta.getId_registro_alta(), registroAlta.getFecha_ingreso());
+            TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.ALTAS);
+            CensusIndex.invalidate();
 
             return registroAlta;
         }
@@ -207,11 +319,17 @@ public class RegistroAltaRepository {
     public boolean delete(Integer id) throws SQLException {
         String sql = "DELETE FROM registro_alta WHERE id_registro_alta = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             int affectedRows = stmt.executeUpdate();
+            TableVersions.bump("registro_alta");
+            if (affectedRows > 0) {
+                DashboardAggregate.altaRemoved(id);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.ALTAS);
+                CensusIndex.invalidate();
+            }
             return affectedRows > 0;
         }
     }
@@ -223,7 +341,7 @@ public class RegistroAltaRepository {
         try {
             String sql = SAFE_QUERY_WITH_JOINS + " WHERE ra.id_especimen = ? ORDER BY ra.fecha_ingreso DESC";
 
-            try (Connection conn = DatabaseConfig.getConnection();
+            try (Connection conn = connectionProvider.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setInt(1, idEspecimen);
@@ -232,7 +350,7 @@ public class RegistroAltaRepository {
         } catch (SQLException e) {
             String sql = BASIC_QUERY + " WHERE ra.id_especimen = ? ORDER BY ra.fecha_ingreso DESC";
 
-            try (Connection conn = DatabaseConfig.getConnection();
+            try (Connection conn = connectionProvider.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setInt(1, idEspecimen);
@@ -248,13 +366,80 @@ public class RegistroAltaRepository {
         }
     }
 
+    /**
+     * BUSCAR registros (con origen de alta) de todos los especímenes activos en una sola consulta
+     * Ordenados por especimen y fecha de ingreso descendente; opcionalmente filtrados por nombre
+     */
+    public List<RegistroAlta> findByActiveEspecimenes(String nombreEspecimen) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String where = " WHERE esp.activo = TRUE";
+        if (nombreEspecimen != null && !nombreEspecimen.trim().isEmpty()) {
+            where += " AND esp.nombre_especimen LIKE ?";
+            params.add("%" + nombreEspecimen.trim() + "%");
+        }
+        return findWithOrigen(where, params);
+    }
+
+    /**
+     * BUSCAR registros (con origen de alta) de un conjunto de especímenes en una sola consulta
+     */
+    public List<RegistroAlta> findByEspecimenIds(List<Integer> idsEspecimen) throws SQLException {
+        if (idsEspecimen == null || idsEspecimen.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(",", java.util.Collections.nCopies(idsEspecimen.size(), "?"));
+        return findWithOrigen(" WHERE ra.id_especimen IN (" + placeholders + ")", new ArrayList<>(idsEspecimen));
+    }
+
+    /**
+     * Consulta de registros unidos con especimen y origen de alta, con cláusula WHERE variable
+     */
+    private List<RegistroAlta> findWithOrigen(String where, List<Object> params) throws SQLException {
+        String sql = """
+            SELECT ra.id_registro_alta, ra.id_especimen, ra.id_origen_alta, ra.id_responsable,
+                   ra.fecha_ingreso, ra.procedencia, ra.observacion,
+                   oa.id_origen_alta as oa_id_origen_alta,
+                   oa.nombre_origen_alta
+            FROM registro_alta ra
+            INNER JOIN especimen esp ON ra.id_especimen = esp.id_especimen
+            LEFT JOIN origen_alta oa ON ra.id_origen_alta = oa.id_origen_alta
+            """ + where + " ORDER BY ra.id_especimen ASC, ra.fecha_ingreso DESC";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            List<RegistroAlta> registros = new ArrayList<>();
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    RegistroAlta registro = mapBasicResultSet(rs);
+
+                    if (rs.getObject("oa_id_origen_alta") != null) {
+                        OrigenAlta origenAlta = new OrigenAlta();
+                        origenAlta.setId_origen_alta(rs.getInt("oa_id_origen_alta"));
+                        origenAlta.setNombre_origen_alta(rs.getString("nombre_origen_alta"));
+                        registro.setOrigen_alta(origenAlta);
+                    }
+
+                    registros.add(registro);
+                }
+            }
+            return registros;
+        }
+    }
+
     /**
      * BUSCAR registros por responsable
      */
     public List<RegistroAlta> findByResponsable(Integer idResponsable) throws SQLException {
         String sql = BASIC_QUERY + " WHERE ra.id_responsable = ? ORDER BY ra.fecha_ingreso DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idResponsable);
@@ -275,7 +460,7 @@ public class RegistroAltaRepository {
     public List<RegistroAlta> findByDateRange(Date fechaInicio, Date fechaFin) throws SQLException {
         String sql = BASIC_QUERY + " WHERE ra.fecha_ingreso BETWEEN ? AND ? ORDER BY ra.fecha_ingreso DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDate(1, new java.sql.Date(fechaInicio.getTime()));
@@ -301,7 +486,7 @@ public class RegistroAltaRepository {
             WHERE id_especimen = ? AND DATE(fecha_ingreso) = DATE(?)
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idEspecimen);
@@ -319,7 +504,7 @@ public class RegistroAltaRepository {
     public int countTotal() throws SQLException {
         String sql = "SELECT COUNT(*) FROM registro_alta";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -336,7 +521,7 @@ public class RegistroAltaRepository {
     public int countSpecimensFromLastWeek() throws SQLException {
         String query = "SELECT COUNT(*) FROM registro_alta WHERE fecha_ingreso >= CURRENT_DATE - INTERVAL 7 DAY";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -362,7 +547,7 @@ public class RegistroAltaRepository {
 
         List<EstadisticaOrigen> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -383,7 +568,7 @@ public class RegistroAltaRepository {
      * Método auxiliar para ejecutar consultas con joins
      */
     private List<RegistroAlta> executeQueryWithJoins(String sql) throws SQLException {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             return executeQueryWithJoins(stmt);
         }
@@ -1,10 +1,20 @@
 package com.hugin_munin.repository;
 
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.config.DatabaseConfig;
 import com.hugin_munin.model.*;
 import com.hugin_munin.model.RegistroAlta;
 import com.hugin_munin.model.OrigenAlta;
+import com.hugin_munin.search.EspecimenAutocompleteIndex;
+import com.hugin_munin.util.RowHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +26,8 @@ import java.util.Date;
  */
 public class RegistroBajaRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistroBajaRepository.class);
+
     private static final String SAFE_QUERY_WITH_JOINS = """
         SELECT rb.id_registro_baja, rb.id_especimen, rb.id_causa_baja, rb.id_responsable,
                rb.fecha_baja, rb.observacion,
@@ -65,13 +77,23 @@ public class RegistroBajaRepository {
         LEFT JOIN origen_alta oa ON ra.id_origen_alta = oa.id_origen_alta
         """;
 
+    private final ConnectionProvider connectionProvider;
+
+    public RegistroBajaRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public RegistroBajaRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * GUARDAR nuevo registro de baja (y marcar especimen como inactivo)
      */
     public RegistroBaja saveRegister(RegistroBaja registroBaja) throws SQLException {
         Connection conn = null;
         try {
-            conn = DatabaseConfig.getConnection();
+            conn = connectionProvider.getConnection();
             conn.setAutoCommit(false);
 
             String insertSql = """
@@ -108,6 +130,12 @@ public class RegistroBajaRepository {
             }
 
             conn.commit();
+            TableVersions.bump("registro_baja", "especimen");
+            EspecimenAutocompleteIndex.shared().setActive(registroBaja.getId_especimen(), false);
+            DashboardAggregate.specimenActive(registroBaja.getId_especimen(), false);
+            TimeSeriesCache.append(TimeSeriesCache.Metrica.BAJAS, registroBaja.getFecha_baja(),
+                    String.valueOf(registroBaja.getId_causa_baja()));
+            CensusIndex.bajaCreated(registroBaja.getId_especimen(), registroBaja.getFecha_baja());
             return findRegistersById(registroBaja.getId_registro_baja()).orElse(registroBaja);
 
         } catch (SQLException e) {
@@ -125,7 +153,7 @@ public class RegistroBajaRepository {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error cerrando conexión: " + e.getMessage());
+                    log.error("Error cerrando conexión: {}", e.getMessage());
                 }
             }
         }
@@ -139,13 +167,31 @@ public class RegistroBajaRepository {
         return executeQueryWithJoins(sql);
     }
 
+    /**
+     * RECORRER todos los registros en streaming (mismo orden que findAllRegisters)
+     */
+    public int streamAllRegisters(RowHandler<? super RegistroBaja> handler) throws SQLException, IOException {
+        int total = 0;
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, SAFE_QUERY_WITH_JOINS + " ORDER BY rb.fecha_baja DESC");
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.accept(mapCompleteResultSet(rs));
+                total++;
+            }
+        }
+        return total;
+    }
+
     /**
      * BUSCAR registro por ID
      */
     public Optional<RegistroBaja> findRegistersById(Integer id) throws SQLException {
         String sql = SAFE_QUERY_WITH_JOINS + " WHERE rb.id_registro_baja = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -165,7 +211,7 @@ public class RegistroBajaRepository {
             WHERE id_registro_baja = ?
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, registroBaja.getId_especimen());
@@ -179,6 +225,9 @@ public class RegistroBajaRepository {
             if (affectedRows == 0) {
                 throw new SQLException("No se pudo actualizar el registro, no existe el ID especificado");
             }
+            TableVersions.bump("registro_baja");
+            TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.BAJAS);
+            CensusIndex.invalidate();
 
             return findRegistersById(registroBaja.getId_registro_baja()).orElse(registroBaja);
         }
@@ -190,7 +239,7 @@ public class RegistroBajaRepository {
     public boolean delete(Integer id) throws SQLException {
         Connection conn = null;
         try {
-            conn = DatabaseConfig.getConnection();
+            conn = connectionProvider.getConnection();
             conn.setAutoCommit(false);
 
             Integer idEspecimen = null;
@@ -218,6 +267,9 @@ public class RegistroBajaRepository {
             }
 
             conn.commit();
+            TableVersions.bump("registro_baja");
+            TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.BAJAS);
+            CensusIndex.invalidate();
             return true;
 
         } catch (SQLException e) {
@@ -235,7 +287,7 @@ public class RegistroBajaRepository {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error cerrando conexión: " + e.getMessage());
+                    log.error("Error cerrando conexión: {}", e.getMessage());
                 }
             }
         }
@@ -247,7 +299,7 @@ public class RegistroBajaRepository {
     public List<RegistroBaja> findByEspecimen(Integer idEspecimen) throws SQLException {
         String sql = SAFE_QUERY_WITH_JOINS + " WHERE rb.id_especimen = ? ORDER BY rb.fecha_baja DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idEspecimen);
@@ -261,7 +313,7 @@ public class RegistroBajaRepository {
     public List<RegistroBaja> findByCausaBaja(Integer idCausaBaja) throws SQLException {
         String sql = SAFE_QUERY_WITH_JOINS + " WHERE rb.id_causa_baja = ? ORDER BY rb.fecha_baja DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idCausaBaja);
@@ -275,7 +327,7 @@ public class RegistroBajaRepository {
     public List<RegistroBaja> findByResponsable(Integer idResponsable) throws SQLException {
         String sql = SAFE_QUERY_WITH_JOINS + " WHERE rb.id_responsable = ? ORDER BY rb.fecha_baja DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idResponsable);
@@ -289,7 +341,7 @@ public class RegistroBajaRepository {
     public List<RegistroBaja> findByDateRange(Date fechaInicio, Date fechaFin) throws SQLException {
         String sql = SAFE_QUERY_WITH_JOINS + " WHERE rb.fecha_baja BETWEEN ? AND ? ORDER BY rb.fecha_baja DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDate(1, new java.sql.Date(fechaInicio.getTime()));
@@ -304,7 +356,7 @@ public class RegistroBajaRepository {
     public boolean existsByEspecimen(Integer idEspecimen) throws SQLException {
         String sql = "SELECT COUNT(*) FROM registro_baja WHERE id_especimen = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idEspecimen);
@@ -321,7 +373,7 @@ public class RegistroBajaRepository {
     public int countTotal() throws SQLException {
         String sql = "SELECT COUNT(*) FROM registro_baja";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -346,7 +398,7 @@ public class RegistroBajaRepository {
 
         List<EstadisticaCausa> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -365,7 +417,7 @@ public class RegistroBajaRepository {
 
 
     private List<RegistroBaja> executeQueryWithJoins(String sql) throws SQLException {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             return executeQueryWithJoins(stmt);
         }
@@ -403,7 +455,7 @@ public class RegistroBajaRepository {
                 rol.setActivo(true);
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando rol (continuando sin rol): " + e.getMessage());
+            log.error("Advertencia: Error mapeando rol (continuando sin rol): {}", e.getMessage());
             rol = null;
         }
 
@@ -420,7 +472,7 @@ public class RegistroBajaRepository {
                 usuario.setRol(rol);
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando usuario (continuando sin usuario): " + e.getMessage());
+            log.error("Advertencia: Error mapeando usuario (continuando sin usuario): {}", e.getMessage());
             usuario = null;
         }
 
@@ -434,7 +486,7 @@ public class RegistroBajaRepository {
                 especie.setEspecie(rs.getString("especie"));
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando especie (continuando sin especie): " + e.getMessage());
+            log.error("Advertencia: Error mapeando especie (continuando sin especie): {}", e.getMessage());
             especie = null;
         }
 
@@ -451,7 +503,7 @@ public class RegistroBajaRepository {
                 especimen.setEspecie(especie);
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando especimen (continuando sin especimen): " + e.getMessage());
+            log.error("Advertencia: Error mapeando especimen (continuando sin especimen): {}", e.getMessage());
             especimen = null;
         }
 
@@ -464,7 +516,7 @@ public class RegistroBajaRepository {
                 causaBaja.setNombre_causa_baja(rs.getString("nombre_causa_baja"));
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando causa baja (continuando sin causa): " + e.getMessage());
+            log.error("Advertencia: Error mapeando causa baja (continuando sin causa): {}", e.getMessage());
             causaBaja = null;
         }
 
@@ -477,7 +529,7 @@ public class RegistroBajaRepository {
                 origenAlta.setNombre_origen_alta(rs.getString("nombre_origen_alta"));
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando origen alta (continuando sin origen): " + e.getMessage());
+            log.error("Advertencia: Error mapeando origen alta (continuando sin origen): {}", e.getMessage());
             origenAlta = null;
         }
 
@@ -494,7 +546,7 @@ public class RegistroBajaRepository {
                 registroAlta.setOrigen_alta(origenAlta);
             }
         } catch (SQLException e) {
-            System.err.println("Advertencia: Error mapeando registro alta (continuando sin registro): " + e.getMessage());
+            log.error("Advertencia: Error mapeando registro alta (continuando sin registro): {}", e.getMessage());
             registroAlta = null;
         }
 
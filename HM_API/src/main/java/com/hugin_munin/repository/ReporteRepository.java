@@ -1,13 +1,21 @@
 package com.hugin_munin.repository;
 
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.config.DatabaseConfig;
 import com.hugin_munin.model.*;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Date;
+import java.util.function.Consumer;
 
 /**
  * Repositorio para gestionar reportes
@@ -60,6 +68,22 @@ public class ReporteRepository {
             LEFT JOIN rol rol ON u.id_rol = rol.id_rol
             """;
 
+    /**
+     * Textos indexables de un reporte (motivo solo si es de traslado)
+     */
+    public record TextoReporte(int idReporte, String asunto, String contenido, String motivo) {
+    }
+
+    private final ConnectionProvider connectionProvider;
+
+    public ReporteRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public ReporteRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * GUARDAR nuevo reporte
      */
@@ -70,7 +94,7 @@ public class ReporteRepository {
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, reporte.getId_tipo_reporte());
@@ -81,6 +105,7 @@ public class ReporteRepository {
             stmt.setTimestamp(6, new java.sql.Timestamp(reporte.getFecha_reporte().getTime()));
 
             int affectedRows = stmt.executeUpdate();
+            TableVersions.bump("reporte");
 
             if (affectedRows == 0) {
                 throw new SQLException("Error al crear el reporte");
@@ -94,6 +119,9 @@ public class ReporteRepository {
                 }
             }
         }
+        DashboardAggregate.reporteCreated(reporte.getId_reporte(), reporte.getFecha_reporte());
+        TimeSeriesCache.append(TimeSeriesCache.Metrica.REPORTES, reporte.getFecha_reporte(),
+                String.valueOf(reporte.getId_tipo_reporte()));
 
         return reporte;
     }
@@ -106,13 +134,31 @@ public class ReporteRepository {
         return executeQueryWithJoins(query);
     }
 
+    /**
+     * RECORRER todos los reportes en streaming (mismo orden que findAll)
+     */
+    public int streamAll(RowHandler<? super Reporte> handler) throws SQLException, IOException {
+        int total = 0;
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, COMPLETE_QUERY + " ORDER BY r.fecha_reporte DESC");
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.accept(mapCompleteResultSet(rs));
+                total++;
+            }
+        }
+        return total;
+    }
+
     /**
      * BUSCAR reporte por ID
      */
     public Optional<Reporte> findById(Integer id) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -121,13 +167,56 @@ public class ReporteRepository {
         }
     }
 
+    /**
+     * BUSCAR reportes por IDs (sin orden garantizado)
+     */
+    public List<Reporte> findByIds(List<Integer> ids) throws SQLException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String query = COMPLETE_QUERY + " WHERE r.id_reporte IN (" + placeholders + ")";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            return executeQueryWithJoins(stmt);
+        }
+    }
+
+    /**
+     * RECORRER asunto, contenido y motivo de todos los reportes en orden de ID (índice de búsqueda)
+     */
+    public void forEachTextoBusqueda(Consumer<TextoReporte> consumer) throws SQLException {
+        String query = """
+            SELECT r.id_reporte, r.asunto, r.contenido, rt.motivo
+            FROM reporte r
+            LEFT JOIN reporte_traslado rt ON rt.id_reporte = r.id_reporte
+            ORDER BY r.id_reporte
+            """;
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(new TextoReporte(rs.getInt("id_reporte"), rs.getString("asunto"),
+                        rs.getString("contenido"), rs.getString("motivo")));
+            }
+        }
+    }
+
     /**
      * BUSCAR reportes por tipo
      */
     public List<Reporte> findByTipoReporte(Integer idTipoReporte) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_tipo_reporte = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idTipoReporte);
@@ -141,7 +230,7 @@ public class ReporteRepository {
     public List<Reporte> findByEspecimen(Integer idEspecimen) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_especimen = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idEspecimen);
@@ -155,7 +244,7 @@ public class ReporteRepository {
     public List<Reporte> findByResponsable(Integer idResponsable) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_responsable = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idResponsable);
@@ -169,7 +258,7 @@ public class ReporteRepository {
     public List<Reporte> findByAsuntoContaining(String asunto) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.asunto LIKE ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + asunto + "%");
@@ -183,7 +272,7 @@ public class ReporteRepository {
     public List<Reporte> findByContenidoContaining(String contenido) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.contenido LIKE ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + contenido + "%");
@@ -197,7 +286,7 @@ public class ReporteRepository {
     public List<Reporte> findByDateRange(Date fechaInicio, Date fechaFin) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.fecha_reporte BETWEEN ? AND ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setTimestamp(1, new java.sql.Timestamp(fechaInicio.getTime()));
@@ -217,7 +306,7 @@ public class ReporteRepository {
             WHERE id_reporte = ?
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, reporte.getId_tipo_reporte());
@@ -228,7 +317,14 @@ public class ReporteRepository {
             stmt.setTimestamp(6, new java.sql.Timestamp(reporte.getFecha_reporte().getTime()));
             stmt.setInt(7, reporte.getId_reporte());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("reporte");
+            if (afectado) {
+                DashboardAggregate.reporteUpdated(reporte.getId_reporte(), reporte.getFecha_reporte());
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.REPORTES);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.TRASLADOS);
+            }
+            return afectado;
         }
     }
 
@@ -238,11 +334,18 @@ public class ReporteRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM reporte WHERE id_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("reporte", "reporte_traslado");
+            if (afectado) {
+                DashboardAggregate.reporteRemoved(id);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.REPORTES);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.TRASLADOS);
+            }
+            return afectado;
         }
     }
 
@@ -252,7 +355,7 @@ public class ReporteRepository {
     public boolean existsById(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM reporte WHERE id_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -269,7 +372,7 @@ public class ReporteRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM reporte";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -282,7 +385,7 @@ public class ReporteRepository {
 
     // MÉTODOS AUXILIARES
     private List<Reporte> executeQueryWithJoins(String sql) throws SQLException {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             return executeQueryWithJoins(stmt);
         }
@@ -1,8 +1,14 @@
 package com.hugin_munin.repository;
 
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.config.DatabaseConfig;
 import com.hugin_munin.model.*;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -59,13 +65,23 @@ public class ReporteTrasladoRepository {
         LEFT JOIN rol rol ON u.id_rol = rol.id_rol
         """;
 
+    private final ConnectionProvider connectionProvider;
+
+    public ReporteTrasladoRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public ReporteTrasladoRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * GUARDAR nuevo reporte de traslado (transacción completa)
      */
     public ReporteTraslado save(ReporteTraslado reporteTraslado) throws SQLException {
         Connection conn = null;
         try {
-            conn = DatabaseConfig.getConnection();
+            conn = connectionProvider.getConnection();
             conn.setAutoCommit(false);
 
             String insertReporteQuery = """
@@ -116,6 +132,12 @@ public class ReporteTrasladoRepository {
             }
 
             conn.commit();
+            TableVersions.bump("reporte", "reporte_traslado");
+            DashboardAggregate.reporteCreated(reporteId, reporteTraslado.getFecha_reporte());
+            TimeSeriesCache.append(TimeSeriesCache.Metrica.REPORTES, reporteTraslado.getFecha_reporte(),
+                    String.valueOf(reporteTraslado.getId_tipo_reporte()));
+            TimeSeriesCache.append(TimeSeriesCache.Metrica.TRASLADOS, reporteTraslado.getFecha_reporte(),
+                    AnalyticsRepository.parDeAreas(reporteTraslado.getArea_origen(), reporteTraslado.getArea_destino()));
 
             return findById(reporteId).orElse(reporteTraslado);
 
@@ -147,13 +169,31 @@ public class ReporteTrasladoRepository {
         return executeQueryWithJoins(query);
     }
 
+    /**
+     * RECORRER todos los reportes de traslado en streaming (mismo orden que findAll)
+     */
+    public int streamAll(RowHandler<? super ReporteTraslado> handler) throws SQLException, IOException {
+        int total = 0;
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = DatabaseConfig.prepareStreaming(conn, COMPLETE_QUERY + " ORDER BY r.fecha_reporte DESC");
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.accept(mapCompleteResultSet(rs));
+                total++;
+            }
+        }
+        return total;
+    }
+
     /**
      * BUSCAR reporte de traslado por ID
      */
     public Optional<ReporteTraslado> findById(Integer id) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.id_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -168,7 +208,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByAreaOrigen(String areaOrigen) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.area_origen = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, areaOrigen);
@@ -182,7 +222,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByAreaDestino(String areaDestino) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.area_destino = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, areaDestino);
@@ -196,7 +236,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByUbicacionOrigen(String ubicacionOrigen) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.ubicacion_origen = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, ubicacionOrigen);
@@ -210,7 +250,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByUbicacionDestino(String ubicacionDestino) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.ubicacion_destino = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, ubicacionDestino);
@@ -224,7 +264,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByMotivoContaining(String motivo) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE rt.motivo LIKE ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + motivo + "%");
@@ -238,7 +278,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByEspecimen(Integer idEspecimen) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_especimen = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idEspecimen);
@@ -246,13 +286,85 @@ public class ReporteTrasladoRepository {
         }
     }
 
+    /**
+     * BUSCAR reportes de traslado de todos los especímenes activos en una sola consulta
+     * Solo columnas propias del reporte, ordenadas por especimen y fecha ascendente
+     */
+    public List<ReporteTraslado> findByActiveEspecimenes(String nombreEspecimen) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String where = " WHERE esp.activo = TRUE";
+        if (nombreEspecimen != null && !nombreEspecimen.trim().isEmpty()) {
+            where += " AND esp.nombre_especimen LIKE ?";
+            params.add("%" + nombreEspecimen.trim() + "%");
+        }
+        return findBasicByEspecimen(where, params);
+    }
+
+    /**
+     * BUSCAR reportes de traslado de un conjunto de especímenes en una sola consulta
+     */
+    public List<ReporteTraslado> findByEspecimenIds(List<Integer> idsEspecimen) throws SQLException {
+        if (idsEspecimen == null || idsEspecimen.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(",", java.util.Collections.nCopies(idsEspecimen.size(), "?"));
+        return findBasicByEspecimen(" WHERE r.id_especimen IN (" + placeholders + ")", new ArrayList<>(idsEspecimen));
+    }
+
+    /**
+     * Consulta ligera (sin joins de catálogo) agrupable por especimen, con cláusula WHERE variable
+     */
+    private List<ReporteTraslado> findBasicByEspecimen(String where, List<Object> params) throws SQLException {
+        String query = """
+            SELECT rt.id_reporte, rt.area_origen, rt.area_destino,
+                   rt.ubicacion_origen, rt.ubicacion_destino, rt.motivo,
+                   r.id_tipo_reporte, r.id_especimen, r.id_responsable,
+                   r.asunto, r.contenido, r.fecha_reporte
+            FROM reporte_traslado rt
+            INNER JOIN reporte r ON rt.id_reporte = r.id_reporte
+            INNER JOIN especimen esp ON r.id_especimen = esp.id_especimen
+            """ + where + " ORDER BY r.id_especimen ASC, r.fecha_reporte ASC, rt.id_reporte ASC";
+
+        List<ReporteTraslado> reportes = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ReporteTraslado reporteTraslado = new ReporteTraslado();
+                    reporteTraslado.setId_reporte(rs.getInt("id_reporte"));
+                    reporteTraslado.setId_tipo_reporte(rs.getInt("id_tipo_reporte"));
+                    reporteTraslado.setId_especimen(rs.getInt("id_especimen"));
+                    reporteTraslado.setId_responsable(rs.getInt("id_responsable"));
+                    reporteTraslado.setAsunto(rs.getString("asunto"));
+                    reporteTraslado.setContenido(rs.getString("contenido"));
+                    reporteTraslado.setFecha_reporte(rs.getTimestamp("fecha_reporte"));
+                    reporteTraslado.setArea_origen(rs.getString("area_origen"));
+                    reporteTraslado.setArea_destino(rs.getString("area_destino"));
+                    reporteTraslado.setUbicacion_origen(rs.getString("ubicacion_origen"));
+                    reporteTraslado.setUbicacion_destino(rs.getString("ubicacion_destino"));
+                    reporteTraslado.setMotivo(rs.getString("motivo"));
+                    reportes.add(reporteTraslado);
+                }
+            }
+        }
+
+        return reportes;
+    }
+
     /**
      * BUSCAR reportes de traslado por responsable
      */
     public List<ReporteTraslado> findByResponsable(Integer idResponsable) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.id_responsable = ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idResponsable);
@@ -266,7 +378,7 @@ public class ReporteTrasladoRepository {
     public List<ReporteTraslado> findByDateRange(Date fechaInicio, Date fechaFin) throws SQLException {
         String query = COMPLETE_QUERY + " WHERE r.fecha_reporte BETWEEN ? AND ? ORDER BY r.fecha_reporte DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setTimestamp(1, new java.sql.Timestamp(fechaInicio.getTime()));
@@ -281,7 +393,7 @@ public class ReporteTrasladoRepository {
     public boolean update(ReporteTraslado reporteTraslado) throws SQLException {
         Connection conn = null;
         try {
-            conn = DatabaseConfig.getConnection();
+            conn = connectionProvider.getConnection();
             conn.setAutoCommit(false);
 
             String updateReporteQuery = """
@@ -322,6 +434,10 @@ public class ReporteTrasladoRepository {
             }
 
             conn.commit();
+            TableVersions.bump("reporte", "reporte_traslado");
+            DashboardAggregate.reporteUpdated(reporteTraslado.getId_reporte(), reporteTraslado.getFecha_reporte());
+            TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.REPORTES);
+            TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.TRASLADOS);
             return true;
 
         } catch (SQLException e) {
@@ -351,7 +467,7 @@ public class ReporteTrasladoRepository {
     public boolean deleteById(Integer id) throws SQLException {
         Connection conn = null;
         try {
-            conn = DatabaseConfig.getConnection();
+            conn = connectionProvider.getConnection();
             conn.setAutoCommit(false);
 
             String deleteTrasladoQuery = "DELETE FROM reporte_traslado WHERE id_reporte = ?";
@@ -368,6 +484,12 @@ public class ReporteTrasladoRepository {
             }
 
             conn.commit();
+            TableVersions.bump("reporte", "reporte_traslado");
+            if (deleted) {
+                DashboardAggregate.reporteRemoved(id);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.REPORTES);
+                TimeSeriesCache.invalidate(TimeSeriesCache.Metrica.TRASLADOS);
+            }
             return deleted;
 
         } catch (SQLException e) {
@@ -397,7 +519,7 @@ public class ReporteTrasladoRepository {
     public boolean existsById(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM reporte_traslado WHERE id_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -414,7 +536,7 @@ public class ReporteTrasladoRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM reporte_traslado";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -439,7 +561,7 @@ public class ReporteTrasladoRepository {
 
         List<AreaEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, limit);
@@ -472,7 +594,7 @@ public class ReporteTrasladoRepository {
 
         List<AreaEstadistica> estadisticas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, limit);
@@ -493,7 +615,7 @@ public class ReporteTrasladoRepository {
 
     // MÉTODOS AUXILIARES
     private List<ReporteTraslado> executeQueryWithJoins(String sql) throws SQLException {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             return executeQueryWithJoins(stmt);
         }
@@ -1,7 +1,11 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.Rol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -14,14 +18,37 @@ import java.util.Optional;
  */
 public class RolRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(RolRepository.class);
+
+    private static final CatalogCache<Rol> CACHE = new CatalogCache<>(
+            "rol", Rol::getId_rol,
+            t -> new Rol(t.getId_rol(), t.getNombre_rol(), null, t.isActivo()));
+
+    private final ConnectionProvider connectionProvider;
+
+    public RolRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public RolRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todos los roles
      */
     public List<Rol> findAll() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * CARGAR todos los roles desde la base de datos (origen del caché)
+     */
+    private List<Rol> loadAll() throws SQLException {
         List<Rol> roles = new ArrayList<>();
         String query = "SELECT id_rol, nombre_rol FROM rol ORDER BY id_rol ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -37,17 +64,9 @@ public class RolRepository {
      * BUSCAR todos los roles activos
      */
     public List<Rol> findAllActive() throws SQLException {
-        List<Rol> roles = new ArrayList<>();
-        String query = "SELECT id_rol, nombre_rol FROM rol ORDER BY nombre_rol ASC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                roles.add(mapResultSetToRol(rs));
-            }
-        }
+        List<Rol> roles = CACHE.getAll(this::loadAll);
+        roles.sort(java.util.Comparator.comparing(Rol::getNombre_rol,
+                java.util.Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
         return roles;
     }
 
@@ -55,20 +74,7 @@ public class RolRepository {
      * BUSCAR rol por ID
      */
     public Optional<Rol> findById(Integer id) throws SQLException {
-        String query = "SELECT id_rol, nombre_rol FROM rol WHERE id_rol = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToRol(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
@@ -83,20 +89,12 @@ public class RolRepository {
      * BUSCAR rol por nombre
      */
     public Optional<Rol> findByName(String nombreRol) throws SQLException {
-        String query = "SELECT id_rol, nombre_rol FROM rol WHERE nombre_rol = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreRol.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToRol(rs));
-                }
-            }
+        if (nombreRol == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String buscado = nombreRol.trim();
+        return CACHE.findFirst(t -> t.getNombre_rol() != null
+                && t.getNombre_rol().trim().equalsIgnoreCase(buscado), this::loadAll);
     }
 
     /**
@@ -106,7 +104,7 @@ public class RolRepository {
         List<Rol> roles = new ArrayList<>();
         String query = "SELECT id_rol, nombre_rol FROM rol WHERE nombre_rol LIKE ? ORDER BY nombre_rol ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombreRol + "%");
@@ -126,12 +124,14 @@ public class RolRepository {
     public Rol save(Rol rol) throws SQLException {
         String query = "INSERT INTO rol (nombre_rol) VALUES (?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, rol.getNombre_rol());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("rol");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear rol, no se insertaron filas");
@@ -155,13 +155,16 @@ public class RolRepository {
     public boolean update(Rol rol) throws SQLException {
         String query = "UPDATE rol SET nombre_rol = ? WHERE id_rol = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, rol.getNombre_rol());
             stmt.setInt(2, rol.getId_rol());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("rol");
+            return afectado;
         }
     }
 
@@ -171,11 +174,14 @@ public class RolRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM rol WHERE id_rol = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("rol");
+            return afectado;
         }
     }
 
@@ -183,7 +189,7 @@ public class RolRepository {
      * DESACTIVAR rol (eliminación lógica)
      */
     public boolean deactivateById(Integer id) throws SQLException {
-        System.out.println("ADVERTENCIA: deactivateById llamado pero no hay columna 'activo' en la BD");
+        log.warn("deactivateById llamado pero no hay columna 'activo' en la BD");
         return existsById(id);
     }
 
@@ -191,7 +197,7 @@ public class RolRepository {
      * ACTIVAR rol - ADAPTADO
      */
     public boolean activateById(Integer id) throws SQLException {
-        System.out.println("ADVERTENCIA: activateById llamado pero no hay columna 'activo' en la BD");
+        log.warn("activateById llamado pero no hay columna 'activo' en la BD");
         return existsById(id);
     }
 
@@ -199,34 +205,14 @@ public class RolRepository {
      * VERIFICAR si existe un rol por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM rol WHERE id_rol = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * VERIFICAR si existe un rol por nombre
      */
     public boolean existsByName(String nombreRol) throws SQLException {
-        String query = "SELECT COUNT(*) FROM rol WHERE nombre_rol = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombreRol.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return findByName(nombreRol).isPresent();
     }
 
     /**
@@ -235,7 +221,7 @@ public class RolRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM rol";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -259,7 +245,7 @@ public class RolRepository {
     public boolean isRolInUse(Integer idRol) throws SQLException {
         String query = "SELECT COUNT(*) FROM usuario WHERE id_rol = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idRol);
@@ -1,6 +1,8 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.CatalogCache;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.TipoReporte;
 
 import java.sql.*;
@@ -14,14 +16,35 @@ import java.util.Optional;
  */
 public class TipoReporteRepository {
 
+    private static final CatalogCache<TipoReporte> CACHE = new CatalogCache<>(
+            "tipo_reporte", TipoReporte::getId_tipo_reporte,
+            t -> new TipoReporte(t.getId_tipo_reporte(), t.getNombre_tipo_reporte(), null));
+
+    private final ConnectionProvider connectionProvider;
+
+    public TipoReporteRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public TipoReporteRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todos los tipos de reporte
      */
     public List<TipoReporte> findAll() throws SQLException {
+        return CACHE.getAll(this::loadAll);
+    }
+
+    /**
+     * CARGAR todos los tipos de reporte desde la base de datos (origen del caché)
+     */
+    private List<TipoReporte> loadAll() throws SQLException {
         List<TipoReporte> tipos = new ArrayList<>();
         String query = "SELECT id_tipo_reporte, nombre_tipo_reporte FROM tipo_reporte ORDER BY id_tipo_reporte ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -37,40 +60,19 @@ public class TipoReporteRepository {
      * BUSCAR tipo de reporte por ID
      */
     public Optional<TipoReporte> findById(Integer id) throws SQLException {
-        String query = "SELECT id_tipo_reporte, nombre_tipo_reporte FROM tipo_reporte WHERE id_tipo_reporte = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToTipoReporte(rs));
-                }
-            }
-        }
-        return Optional.empty();
+        return CACHE.get(id, this::loadAll);
     }
 
     /**
      * BUSCAR tipo de reporte por nombre
      */
     public Optional<TipoReporte> findByName(String nombre) throws SQLException {
-        String query = "SELECT id_tipo_reporte, nombre_tipo_reporte FROM tipo_reporte WHERE nombre_tipo_reporte = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombre.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToTipoReporte(rs));
-                }
-            }
+        if (nombre == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        String buscado = nombre.trim();
+        return CACHE.findFirst(t -> t.getNombre_tipo_reporte() != null
+                && t.getNombre_tipo_reporte().trim().equalsIgnoreCase(buscado), this::loadAll);
     }
 
     /**
@@ -80,7 +82,7 @@ public class TipoReporteRepository {
         List<TipoReporte> tipos = new ArrayList<>();
         String query = "SELECT id_tipo_reporte, nombre_tipo_reporte FROM tipo_reporte WHERE nombre_tipo_reporte LIKE ? ORDER BY nombre_tipo_reporte ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombre + "%");
@@ -100,12 +102,14 @@ public class TipoReporteRepository {
     public TipoReporte save(TipoReporte tipoReporte) throws SQLException {
         String query = "INSERT INTO tipo_reporte (nombre_tipo_reporte) VALUES (?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, tipoReporte.getNombre_tipo_reporte());
 
             int rowsAffected = stmt.executeUpdate();
+            CACHE.invalidate();
+            TableVersions.bump("tipo_reporte");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear tipo de reporte, no se insertaron filas");
@@ -129,13 +133,16 @@ public class TipoReporteRepository {
     public boolean update(TipoReporte tipoReporte) throws SQLException {
         String query = "UPDATE tipo_reporte SET nombre_tipo_reporte = ?, WHERE id_tipo_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, tipoReporte.getNombre_tipo_reporte());
             stmt.setInt(2, tipoReporte.getId_tipo_reporte());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("tipo_reporte");
+            return afectado;
         }
     }
 
@@ -145,11 +152,14 @@ public class TipoReporteRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM tipo_reporte WHERE id_tipo_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            CACHE.invalidate();
+            TableVersions.bump("tipo_reporte");
+            return afectado;
         }
     }
 
@@ -157,34 +167,14 @@ public class TipoReporteRepository {
      * VERIFICAR si existe un tipo de reporte por ID
      */
     public boolean existsById(Integer id) throws SQLException {
-        String query = "SELECT COUNT(*) FROM tipo_reporte WHERE id_tipo_reporte = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return CACHE.contains(id, this::loadAll);
     }
 
     /**
      * VERIFICAR si existe un tipo de reporte por nombre
      */
     public boolean existsByName(String nombre) throws SQLException {
-        String query = "SELECT COUNT(*) FROM tipo_reporte WHERE nombre_tipo_reporte = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, nombre.trim());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        }
+        return findByName(nombre).isPresent();
     }
 
     /**
@@ -193,7 +183,7 @@ public class TipoReporteRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM tipo_reporte";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -210,7 +200,7 @@ public class TipoReporteRepository {
     public boolean isTipoInUse(Integer idTipo) throws SQLException {
         String query = "SELECT COUNT(*) FROM reporte WHERE id_tipo_reporte = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, idTipo);
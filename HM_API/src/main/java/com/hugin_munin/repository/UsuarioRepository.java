@@ -1,10 +1,13 @@
 package com.hugin_munin.repository;
 
-import com.hugin_munin.config.DatabaseConfig;
+import com.hugin_munin.cache.TableVersions;
+import com.hugin_munin.config.ConnectionProvider;
 import com.hugin_munin.model.Usuario;
 import com.hugin_munin.model.Rol;
 import com.hugin_munin.model.Permiso;
 import com.hugin_munin.model.UsuarioConPermisos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -17,6 +20,18 @@ import java.util.HashMap;
  */
 public class UsuarioRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioRepository.class);
+
+    private final ConnectionProvider connectionProvider;
+
+    public UsuarioRepository() {
+        this(ConnectionProvider.shared());
+    }
+
+    public UsuarioRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     /**
      * BUSCAR todos los usuarios (sin joins inicialmente)
      */
@@ -24,7 +39,7 @@ public class UsuarioRepository {
         List<Usuario> usuarios = new ArrayList<>();
         String query = "SELECT id_usuario, id_rol, nombre_usuario, correo, contrasena, activo FROM usuario ORDER BY id_usuario ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -42,7 +57,7 @@ public class UsuarioRepository {
     public Usuario findById(Integer id) throws SQLException {
         String query = "SELECT id_usuario, id_rol, nombre_usuario, correo, contrasena, activo FROM usuario WHERE id_usuario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -62,7 +77,7 @@ public class UsuarioRepository {
     public Usuario findByEmail(String correo) throws SQLException {
         String query = "SELECT id_usuario, id_rol, nombre_usuario, correo, contrasena, activo FROM usuario WHERE correo = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, correo.trim().toLowerCase());
@@ -99,9 +114,9 @@ public class UsuarioRepository {
             ORDER BY p.nombre_permiso ASC
             """;
 
-        System.out.println("Repository: Ejecutando query corregido para: " + correo);
+        log.debug("Repository: Ejecutando query corregido para: {}", correo);
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, correo.trim());
@@ -110,9 +125,9 @@ public class UsuarioRepository {
                 UsuarioConPermisos resultado = mapResultSetToUsuarioConPermisos(rs);
 
                 if (resultado == null) {
-                    System.out.println("Repository: No se encontró usuario con correo: " + correo);
+                    log.debug("Repository: No se encontró usuario con correo: {}", correo);
                 } else {
-                    System.out.println("Repository: Usuario encontrado con " + resultado.getPermisos().size() + " permisos");
+                    log.debug("Repository: Usuario encontrado con {} permisos", resultado.getPermisos().size());
                 }
 
                 return resultado;
@@ -143,9 +158,9 @@ public class UsuarioRepository {
             ORDER BY p.nombre_permiso ASC
             """;
 
-        System.out.println("Repository: Ejecutando query por nombre para: " + nombreUsuario);
+        log.debug("Repository: Ejecutando query por nombre para: {}", nombreUsuario);
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, nombreUsuario.trim());
@@ -154,9 +169,9 @@ public class UsuarioRepository {
                 UsuarioConPermisos resultado = mapResultSetToUsuarioConPermisos(rs);
 
                 if (resultado == null) {
-                    System.out.println("Repository: No se encontró usuario con nombre: " + nombreUsuario);
+                    log.debug("Repository: No se encontró usuario con nombre: {}", nombreUsuario);
                 } else {
-                    System.out.println("Repository: Usuario encontrado con " + resultado.getPermisos().size() + " permisos");
+                    log.debug("Repository: Usuario encontrado con {} permisos", resultado.getPermisos().size());
                 }
 
                 return resultado;
@@ -186,7 +201,7 @@ public class UsuarioRepository {
             ORDER BY p.nombre_permiso ASC
             """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -204,7 +219,7 @@ public class UsuarioRepository {
         List<Usuario> usuarios = new ArrayList<>();
         String query = "SELECT id_usuario, id_rol, nombre_usuario, correo, contrasena, activo FROM usuario WHERE nombre_usuario LIKE ? ORDER BY nombre_usuario ASC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, "%" + nombre + "%");
@@ -224,7 +239,7 @@ public class UsuarioRepository {
     public Usuario save(Usuario usuario) throws SQLException {
         String query = "INSERT INTO usuario (id_rol, nombre_usuario, correo, contrasena, activo) VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, usuario.getId_rol());
@@ -234,6 +249,7 @@ public class UsuarioRepository {
             stmt.setBoolean(5, usuario.isActivo());
 
             int rowsAffected = stmt.executeUpdate();
+            TableVersions.bump("usuario");
 
             if (rowsAffected == 0) {
                 throw new SQLException("Error al crear usuario, no se insertaron filas");
@@ -257,7 +273,7 @@ public class UsuarioRepository {
     public boolean update(Usuario usuario) throws SQLException {
         String query = "UPDATE usuario SET id_rol = ?, nombre_usuario = ?, correo = ?, contrasena = ?, activo = ? WHERE id_usuario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, usuario.getId_rol());
@@ -267,7 +283,47 @@ public class UsuarioRepository {
             stmt.setBoolean(5, usuario.isActivo());
             stmt.setInt(6, usuario.getId_usuario());
 
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("usuario");
+            return afectado;
+        }
+    }
+
+    /**
+     * BUSCAR epoch de tokens de un usuario activo
+     * Devuelve null si el usuario no existe o está inactivo
+     */
+    public Long findActiveTokenEpoch(Integer id) throws SQLException {
+        String query = "SELECT activo, token_epoch FROM usuario WHERE id_usuario = ?";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getBoolean("activo")) {
+                    return rs.getLong("token_epoch");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ACTUALIZAR epoch de tokens (invalida los JWT emitidos con un epoch anterior)
+     */
+    public boolean updateTokenEpoch(Integer id, long tokenEpoch) throws SQLException {
+        String query = "UPDATE usuario SET token_epoch = ? WHERE id_usuario = ?";
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setLong(1, tokenEpoch);
+            stmt.setInt(2, id);
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("usuario");
+            return afectado;
         }
     }
 
@@ -277,11 +333,13 @@ public class UsuarioRepository {
     public boolean deleteById(Integer id) throws SQLException {
         String query = "DELETE FROM usuario WHERE id_usuario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean afectado = stmt.executeUpdate() > 0;
+            TableVersions.bump("usuario");
+            return afectado;
         }
     }
 
@@ -291,7 +349,7 @@ public class UsuarioRepository {
     public boolean existsById(Integer id) throws SQLException {
         String query = "SELECT COUNT(*) FROM usuario WHERE id_usuario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -308,7 +366,7 @@ public class UsuarioRepository {
     public boolean existsByEmail(String correo) throws SQLException {
         String query = "SELECT COUNT(*) FROM usuario WHERE correo = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, correo.trim().toLowerCase());
@@ -325,7 +383,7 @@ public class UsuarioRepository {
     public int countTotal() throws SQLException {
         String query = "SELECT COUNT(*) FROM usuario";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -342,7 +400,7 @@ public class UsuarioRepository {
     public int countActive() throws SQLException {
         String query = "SELECT COUNT(*) FROM usuario WHERE activo = TRUE";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
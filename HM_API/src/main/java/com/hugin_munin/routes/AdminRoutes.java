@@ -0,0 +1,34 @@
+package com.hugin_munin.routes;
+
+import com.hugin_munin.controller.AdminController;
+import io.javalin.Javalin;
+
+/**
+ * Configuración de rutas de administración
+ */
+public class AdminRoutes {
+
+    private final AdminController adminController;
+
+    public AdminRoutes(AdminController adminController) {
+        this.adminController = adminController;
+    }
+
+    public void defineRoutes(Javalin app) {
+
+        // GET - Estadísticas de cachés de catálogo
+        app.get("/hm/admin/cache", adminController::getCacheStats);
+
+        // POST - Invalidar cachés de catálogo
+        app.post("/hm/admin/cache/invalidate", adminController::invalidateCaches);
+
+        // GET - Estadísticas de consultas SQL
+        app.get("/hm/admin/sql-stats", adminController::getSqlStats);
+
+        // POST - Reiniciar estadísticas SQL
+        app.post("/hm/admin/sql-stats/reset", adminController::resetSqlStats);
+
+        // POST - Revocar todas las sesiones (tokens) de un usuario
+        app.post("/hm/admin/usuarios/{id}/revocar-sesiones", adminController::revokeUserSessions);
+    }
+}
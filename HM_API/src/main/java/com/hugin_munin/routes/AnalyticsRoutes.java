@@ -0,0 +1,22 @@
+package com.hugin_munin.routes;
+
+import com.hugin_munin.controller.AnalyticsController;
+import io.javalin.Javalin;
+
+/**
+ * Configuración de rutas de la analítica
+ */
+public class AnalyticsRoutes {
+
+    private final AnalyticsController analyticsController;
+
+    public AnalyticsRoutes(AnalyticsController analyticsController) {
+        this.analyticsController = analyticsController;
+    }
+
+    public void defineRoutes(Javalin app) {
+
+        // GET - Conteos por periodo (sin ETag: el rango por defecto termina hoy y cambia con la fecha)
+        app.get("/hm/analytics/timeseries", analyticsController::getTimeSeries);
+    }
+}
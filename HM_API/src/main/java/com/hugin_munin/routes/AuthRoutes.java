@@ -2,6 +2,8 @@ package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.AuthController;
 import io.javalin.Javalin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 
@@ -11,6 +13,8 @@ import java.util.Map;
  */
 public class AuthRoutes {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthRoutes.class);
+
     private final AuthController authController;
 
     public AuthRoutes(AuthController authController) {
@@ -18,7 +22,7 @@ public class AuthRoutes {
     }
 
     public void defineRoutes(Javalin app) {
-        System.out.println("AuthRoutes: Configurando rutas de autenticación JWT...");
+        log.debug("AuthRoutes: Configurando rutas de autenticación JWT...");
 
         // ========================================
         // RUTAS PÚBLICAS (no requieren autenticación)
@@ -26,19 +30,19 @@ public class AuthRoutes {
 
         // POST - Iniciar sesión (devuelve JWT token)
         app.post("/hm/auth/login", authController::login);
-        System.out.println("Ruta configurada: POST /hm/auth/login (PÚBLICA - Devuelve JWT)");
+        log.debug("Ruta configurada: POST /hm/auth/login (PÚBLICA - Devuelve JWT)");
 
         // POST - Cerrar sesión (invalida JWT token)
         app.post("/hm/auth/logout", authController::logout);
-        System.out.println("Ruta configurada: POST /hm/auth/logout (PÚBLICA - Invalida JWT)");
+        log.debug("Ruta configurada: POST /hm/auth/logout (PÚBLICA - Invalida JWT)");
 
         // GET - Verificar token JWT actual
         app.get("/hm/auth/verify", authController::verifyToken);
-        System.out.println("Ruta configurada: GET /hm/auth/verify (PÚBLICA - Verifica JWT)");
+        log.debug("Ruta configurada: GET /hm/auth/verify (PÚBLICA - Verifica JWT)");
 
         // POST - Refrescar token JWT
         app.post("/hm/auth/refresh", authController::refreshToken);
-        System.out.println("Ruta configurada: POST /hm/auth/refresh (PÚBLICA - Refresca JWT)");
+        log.debug("Ruta configurada: POST /hm/auth/refresh (PÚBLICA - Refresca JWT)");
 
         // ========================================
         // RUTAS PROTEGIDAS (requieren JWT válido)
@@ -46,11 +50,11 @@ public class AuthRoutes {
 
         // GET - Obtener perfil del usuario autenticado
         app.get("/hm/auth/profile", authController::getProfile);
-        System.out.println("Ruta configurada: GET /hm/auth/profile (PROTEGIDA - Requiere JWT)");
+        log.debug("Ruta configurada: GET /hm/auth/profile (PROTEGIDA - Requiere JWT)");
 
         // PUT - Cambiar contraseña
         app.put("/hm/auth/change-password", authController::changePassword);
-        System.out.println("Ruta configurada: PUT /hm/auth/change-password (PROTEGIDA - Requiere JWT)");
+        log.debug("Ruta configurada: PUT /hm/auth/change-password (PROTEGIDA - Requiere JWT)");
 
         // ========================================
         // INFORMACIÓN Y DEBUGGING (opcional)
@@ -76,11 +80,11 @@ public class AuthRoutes {
                     "timestamp", System.currentTimeMillis()
             ));
         });
-        System.out.println("Ruta configurada: GET /hm/auth/info (PÚBLICA - Info del sistema JWT)");
+        log.debug("Ruta configurada: GET /hm/auth/info (PÚBLICA - Info del sistema JWT)");
 
-        System.out.println("AuthRoutes: Todas las rutas JWT configuradas correctamente");
-        System.out.println("AuthRoutes: 5 rutas públicas + 2 rutas protegidas = 7 rutas totales");
-        System.out.println("AuthRoutes: Sistema de autenticación JWT activo\n");
+        log.debug("AuthRoutes: Todas las rutas JWT configuradas correctamente");
+        log.debug("AuthRoutes: 5 rutas públicas + 2 rutas protegidas = 7 rutas totales");
+        log.debug("AuthRoutes: Sistema de autenticación JWT activo");
     }
 
     /**
@@ -112,12 +116,12 @@ public class AuthRoutes {
      * Imprimir información detallada de las rutas
      */
     public void printRoutesInfo() {
-        System.out.println("\n=== INFORMACIÓN DE RUTAS JWT ===");
+        log.debug("=== INFORMACIÓN DE RUTAS JWT ===");
         var info = getRoutesInfo();
-        System.out.println("Total de rutas: " + info.get("total_routes"));
-        System.out.println("Rutas públicas: " + info.get("public_routes"));
-        System.out.println("Rutas protegidas: " + info.get("protected_routes"));
-        System.out.println("Método de autenticación: " + info.get("authentication_method"));
-        System.out.println("===============================\n");
+        log.debug("Total de rutas: {}", info.get("total_routes"));
+        log.debug("Rutas públicas: {}", info.get("public_routes"));
+        log.debug("Rutas protegidas: {}", info.get("protected_routes"));
+        log.debug("Método de autenticación: {}", info.get("authentication_method"));
+        log.debug("===============================");
     }
 }
\ No newline at end of file
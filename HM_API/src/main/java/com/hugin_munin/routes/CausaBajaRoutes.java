@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.CausaBajaController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,9 @@ import io.javalin.Javalin;
  */
 public class CausaBajaRoutes {
 
+    // Catálogo: se reutiliza durante CATALOG_MAX_AGE_SECONDS
+    private static final String[] TABLAS = {"causa_baja"};
+
     private final CausaBajaController causaBajaController;
 
     public CausaBajaRoutes(CausaBajaController causaBajaController) {
@@ -17,10 +21,10 @@ public class CausaBajaRoutes {
     public void defineRoutes(Javalin app) {
 
         // GET - Obtener todas las causas de baja
-        app.get("/hm/causas_baja", causaBajaController::getAllCausas);
+        app.get("/hm/causas_baja", ConditionalGet.catalog(causaBajaController::getAllCausas, TABLAS));
 
         // GET - Obtener causa de baja por ID
-        app.get("/hm/causas_baja/{id}", causaBajaController::getCausaById);
+        app.get("/hm/causas_baja/{id}", ConditionalGet.catalog(causaBajaController::getCausaById, TABLAS));
 
         // POST - Crear nueva causa de baja
         app.post("/hm/causas_baja", causaBajaController::createCausa);
@@ -0,0 +1,22 @@
+package com.hugin_munin.routes;
+
+import com.hugin_munin.controller.DashboardController;
+import io.javalin.Javalin;
+
+/**
+ * Configuración de rutas del dashboard
+ */
+public class DashboardRoutes {
+
+    private final DashboardController dashboardController;
+
+    public DashboardRoutes(DashboardController dashboardController) {
+        this.dashboardController = dashboardController;
+    }
+
+    public void defineRoutes(Javalin app) {
+
+        // GET - Resumen en memoria (sin ETag: los "recientes" cambian con la fecha aunque no haya escrituras)
+        app.get("/hm/dashboard/summary", dashboardController::getSummary);
+    }
+}
@@ -1,12 +1,19 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.EspecieController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
  * Configuración de rutas para especies con CRUD completo
  */
 public class EspecieRoutes {
+
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"especie"};
+    // Las estadísticas cuentan especímenes por especie
+    private static final String[] TABLAS_ESTADISTICAS = {"especie", "especimen"};
+
     private final EspecieController especieController;
 
     public EspecieRoutes(EspecieController especieController) {
@@ -15,13 +22,16 @@ public class EspecieRoutes {
 
     public void defineRoutes(Javalin app) {
         // GET - Estadísticas de especies
-        app.get("/hm/especies/estadisticas", especieController::getSpecieStatistics);
+        app.get("/hm/especies/estadisticas", ConditionalGet.of(especieController::getSpecieStatistics, TABLAS_ESTADISTICAS));
+
+        // GET - Censo de toda la colección (sin ETag: la fecha por defecto es hoy y cambia sin escrituras)
+        app.get("/hm/especies/censo", especieController::getCollectionCensus);
 
         // GET - Buscar especies por nombre científico
-        app.get("/hm/especies/search", especieController::getSpeciesByScientificName);
+        app.get("/hm/especies/search", ConditionalGet.of(especieController::getSpeciesByScientificName, TABLAS));
 
         // GET - Obtener todas las especies
-        app.get("/hm/especies", especieController::getAllSpecies);
+        app.get("/hm/especies", ConditionalGet.of(especieController::getAllSpecies, TABLAS));
 
         // POST - Crear nueva especie
         app.post("/hm/especies", especieController::createSpecie);
@@ -30,7 +40,10 @@ public class EspecieRoutes {
         app.post("/hm/especies/validar-nombre", especieController::validateSpecieName);
 
         // GET - Obtener especie por ID
-        app.get("/hm/especies/{id}", especieController::getSpecieById);
+        app.get("/hm/especies/{id}", ConditionalGet.of(especieController::getSpecieById, TABLAS));
+
+        // GET - Censo de una especie (sin ETag, como el de la colección)
+        app.get("/hm/especies/{id}/censo", especieController::getSpecieCensus);
 
         // PUT - Actualizar especie existente
         app.put("/hm/especies/{id}", especieController::updateSpecie);
@@ -2,12 +2,17 @@ package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.EspecimenController;
 
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
  * Configuración de rutas para especímenes con CRUD completo
  */
 public class EspecimenRoutes {
+
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"especimen", "especie"};
+
     private final EspecimenController especimenController;
 
     public EspecimenRoutes(EspecimenController especimenController) {
@@ -16,22 +21,25 @@ public class EspecimenRoutes {
 
     public void defineRoutes(Javalin app) {
         // GET - Obtener todos los especímenes
-        app.get("/hm/especimenes", especimenController::getAllSpecimens);
+        app.get("/hm/especimenes", ConditionalGet.of(especimenController::getAllSpecimens, TABLAS));
 
         // GET - Obtener especímenes activos
-        app.get("/hm/especimenes/activos", especimenController::countActiveSpecimens);
+        app.get("/hm/especimenes/activos", ConditionalGet.of(especimenController::countActiveSpecimens, TABLAS));
 
         // GET - Obtener especímenes activos
-        app.get("/hm/especimenes/bajas", especimenController::countInactiveSpecimens);
+        app.get("/hm/especimenes/bajas", ConditionalGet.of(especimenController::countInactiveSpecimens, TABLAS));
 
         // GET - Buscar especímenes por nombre
-        app.get("/hm/especimenes/search", especimenController::searchSpecimensByName);
+        app.get("/hm/especimenes/search", ConditionalGet.of(especimenController::searchSpecimensByName, TABLAS));
 
         // GET - Buscar especímenes por número de inventario
-        app.get("/hm/especimenes/search_num", especimenController::searchByInventoryNum);
+        app.get("/hm/especimenes/search_num", ConditionalGet.of(especimenController::searchByInventoryNum, TABLAS));
+
+        // GET - Autocompletar por inventario, nombre o especie (índice en memoria)
+        app.get("/hm/especimenes/autocomplete", ConditionalGet.of(especimenController::autocomplete, TABLAS));
 
         // GET - Obtener especimen por ID
-        app.get("/hm/especimenes/{id}", especimenController::getSpecimenById);
+        app.get("/hm/especimenes/{id}", ConditionalGet.of(especimenController::getSpecimenById, TABLAS));
 
         // POST - Crear nuevo especimen
         app.post("/hm/especimenes", especimenController::createSpecimen);
@@ -52,6 +60,6 @@ public class EspecimenRoutes {
         app.post("/hm/especimenes/validar-inventario", especimenController::validateInventoryNumber);
 
         // GET - Estadísticas de especímenes
-        app.get("/hm/especimenes/estadisticas", especimenController::getSpecimenStatistics);
+        app.get("/hm/especimenes/estadisticas", ConditionalGet.of(especimenController::getSpecimenStatistics, TABLAS));
     }
 }
\ No newline at end of file
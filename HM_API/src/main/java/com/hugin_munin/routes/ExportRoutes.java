@@ -0,0 +1,22 @@
+package com.hugin_munin.routes;
+
+import com.hugin_munin.controller.ExportController;
+import io.javalin.Javalin;
+
+/**
+ * Configuración de rutas de exportación
+ */
+public class ExportRoutes {
+
+    private final ExportController exportController;
+
+    public ExportRoutes(ExportController exportController) {
+        this.exportController = exportController;
+    }
+
+    public void defineRoutes(Javalin app) {
+
+        // GET - Exportar especimen, registro_alta, registro_baja, reporte o reporte_traslado (CSV / JSONL)
+        app.get("/hm/export/{entidad}", exportController::export);
+    }
+}
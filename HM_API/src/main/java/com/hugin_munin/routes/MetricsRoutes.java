@@ -0,0 +1,22 @@
+package com.hugin_munin.routes;
+
+import com.hugin_munin.controller.MetricsController;
+import io.javalin.Javalin;
+
+/**
+ * Configuración de rutas de métricas
+ */
+public class MetricsRoutes {
+
+    private final MetricsController metricsController;
+
+    public MetricsRoutes(MetricsController metricsController) {
+        this.metricsController = metricsController;
+    }
+
+    public void defineRoutes(Javalin app) {
+
+        // GET - Métricas en formato Prometheus
+        app.get("/hm/metrics", metricsController::getMetrics);
+    }
+}
@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.OrigenAltaController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,9 @@ import io.javalin.Javalin;
  */
 public class OrigenAltaRoutes {
 
+    // Catálogo: se reutiliza durante CATALOG_MAX_AGE_SECONDS
+    private static final String[] TABLAS = {"origen_alta"};
+
     private final OrigenAltaController origenAltaController;
 
     public OrigenAltaRoutes(OrigenAltaController origenAltaController) {
@@ -17,13 +21,13 @@ public class OrigenAltaRoutes {
     public void defineRoutes(Javalin app) {
 
         // GET - Obtener todos los orígenes de alta
-        app.get("/hm/origenes-alta", origenAltaController::getAllOrigenes);
+        app.get("/hm/origenes-alta", ConditionalGet.catalog(origenAltaController::getAllOrigenes, TABLAS));
 
         // GET - Obtener origen de alta por ID
-        app.get("/hm/origenes-alta/{id}", origenAltaController::getOrigenById);
+        app.get("/hm/origenes-alta/{id}", ConditionalGet.catalog(origenAltaController::getOrigenById, TABLAS));
 
         // GET - Buscar orígenes por nombre
-        app.get("/hm/origenes-alta/search", origenAltaController::searchOrigenesByName);
+        app.get("/hm/origenes-alta/search", ConditionalGet.catalog(origenAltaController::searchOrigenesByName, TABLAS));
 
         // POST - Crear nuevo origen de alta
         app.post("/hm/origenes-alta", origenAltaController::createOrigen);
@@ -34,13 +38,13 @@ public class OrigenAltaRoutes {
         // DELETE - Eliminar origen de alta
         app.delete("/hm/origenes_alta/{id}", origenAltaController::deleteOrigen);
 
-        // GET - Estadísticas de orígenes
+        // GET - Estadísticas de orígenes (sin ETag: cuentan el último mes respecto de hoy)
         app.get("/hm/origenes_alta/estadisticas", origenAltaController::getOrigenStatistics);
 
         // GET - Orígenes más populares
         app.get("/hm/origenes_alta/populares", origenAltaController::getOrigenesPopulares);
 
-        // GET - Orígenes con actividad reciente
+        // GET - Orígenes con actividad reciente (sin ETag: depende de la fecha actual)
         app.get("/hm/origenes_alta/actividad-reciente", origenAltaController::getOrigenesConActividadReciente);
 
         // POST - Validar nombre de origen
@@ -1,10 +1,14 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.RegistroAltaController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 public class RegistroAltaRoutes {
 
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"registro_alta", "especimen", "especie", "origen_alta", "usuario", "rol"};
+
     private final RegistroAltaController controller;
 
     public RegistroAltaRoutes(RegistroAltaController controller) {
@@ -12,9 +16,10 @@ public class RegistroAltaRoutes {
     }
 
     public void defineRoutes(Javalin app) {
-        app.get("/hm/registro_alta", controller::getAll);
+        app.get("/hm/registro_alta", ConditionalGet.of(controller::getAll, TABLAS));
+        // Sin ETag: el resultado depende de la fecha actual, no solo de las tablas
         app.get("/hm/registro_alta/recientes", controller::countRecentSpecimens);
-        app.get("/hm/registro_alta/{id}", controller::getById);
+        app.get("/hm/registro_alta/{id}", ConditionalGet.of(controller::getById, TABLAS));
         app.post("/hm/registro_alta", controller::create);
         app.put("/hm/registro_alta/{id}", controller::update);
         app.delete("/hm/registro_alta/{id}", controller::delete);
@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.RegistroBajaController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,9 @@ import io.javalin.Javalin;
  */
 public class RegistroBajaRoutes {
 
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"registro_baja", "especimen", "especie", "causa_baja", "usuario", "rol"};
+
     private final RegistroBajaController controller;
 
     public RegistroBajaRoutes(RegistroBajaController controller) {
@@ -17,22 +21,22 @@ public class RegistroBajaRoutes {
     public void defineRoutes(Javalin app) {
 
         // CRUD básico
-        app.get("/hm/registro_baja", controller::getAll);
-        app.get("/hm/registro_baja/{id}", controller::getById);
+        app.get("/hm/registro_baja", ConditionalGet.of(controller::getAll, TABLAS));
+        app.get("/hm/registro_baja/{id}", ConditionalGet.of(controller::getById, TABLAS));
         app.post("/hm/registro_baja", controller::create);
         app.put("/hm/registro_baja/{id}", controller::update);
         app.delete("/hm/registro_baja/{id}", controller::delete);
 
         // Búsquedas específicas
-        app.get("/hm/registro_baja/especimen/{id}", controller::getByEspecimen);
-        app.get("/hm/registro_baja/causa/{id}", controller::getByCausaBaja);
-        app.get("/hm/registro_baja/responsable/{id}", controller::getByResponsable);
+        app.get("/hm/registro_baja/especimen/{id}", ConditionalGet.of(controller::getByEspecimen, TABLAS));
+        app.get("/hm/registro_baja/causa/{id}", ConditionalGet.of(controller::getByCausaBaja, TABLAS));
+        app.get("/hm/registro_baja/responsable/{id}", ConditionalGet.of(controller::getByResponsable, TABLAS));
 
         // Estadísticas y reportes
-        app.get("/hm/registro_baja/estadisticas/causas", controller::getEstadisticasPorCausa);
-        app.get("/hm/registro_baja/estadisticas/general", controller::getEstadisticasGenerales);
+        app.get("/hm/registro_baja/estadisticas/causas", ConditionalGet.of(controller::getEstadisticasPorCausa, TABLAS));
+        app.get("/hm/registro_baja/estadisticas/general", ConditionalGet.of(controller::getEstadisticasGenerales, TABLAS));
 
         // Verificaciones
-        app.get("/hm/registro_baja/verificar/{id}", controller::verificarEspecimenDadoDeBaja);
+        app.get("/hm/registro_baja/verificar/{id}", ConditionalGet.of(controller::verificarEspecimenDadoDeBaja, TABLAS));
     }
 }
\ No newline at end of file
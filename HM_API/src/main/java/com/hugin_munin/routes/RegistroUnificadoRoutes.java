@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.RegistroUnificadoController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,10 @@ import io.javalin.Javalin;
  * Maneja CRUD completo de la creación coordinada de especie, especimen y registro de alta
  */
 public class RegistroUnificadoRoutes {
+
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"especimen", "especie", "registro_alta", "origen_alta", "usuario", "reporte", "reporte_traslado", "tipo_reporte"};
+
     private final RegistroUnificadoController controller;
 
     public RegistroUnificadoRoutes(RegistroUnificadoController controller) {
@@ -19,21 +24,24 @@ public class RegistroUnificadoRoutes {
         app.post("/hm/registro_unificado", controller::createUnifiedRegistration);
 
         // GET - Obtener registro unificado completo por ID de especimen
-        app.get("/hm/registro_unificado/{id_especimen}", controller::getUnifiedRegistration);
+        app.get("/hm/registro_unificado/{id_especimen}", ConditionalGet.of(controller::getUnifiedRegistration, TABLAS));
 
         // PUT - Actualizar registro unificado completo
         app.put("/hm/registro_unificado/{id_especimen}", controller::updateUnifiedRegistration);
 
+        // POST - Importación masiva desde JSONL o CSV
+        app.post("/hm/registro_unificado/bulk", controller::importBulk);
+
         // POST - Validar datos antes de crear
         app.post("/hm/registro_unificado/validar", controller::validateUnifiedRegistration);
 
         // GET - Obtener datos necesarios para el formulario
-        app.get("/hm/registro_unificado/formulario-data", controller::getFormData);
+        app.get("/hm/registro_unificado/formulario-data", ConditionalGet.catalog(controller::getFormData));
 
         // GET - Obtener ejemplo de estructura JSON
-        app.get("/hm/registro_unificado/ejemplo", controller::getExampleStructure);
+        app.get("/hm/registro_unificado/ejemplo", ConditionalGet.catalog(controller::getExampleStructure));
 
         // GET - Listar todos los registros unificados
-        app.get("/hm/registro_unificado", controller::listUnifiedRegistrations);
+        app.get("/hm/registro_unificado", ConditionalGet.of(controller::listUnifiedRegistrations, TABLAS));
     }
 }
\ No newline at end of file
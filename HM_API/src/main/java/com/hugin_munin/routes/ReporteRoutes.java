@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.ReporteController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,13 @@ import io.javalin.Javalin;
  */
 public class ReporteRoutes {
 
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"reporte", "tipo_reporte", "especimen", "especie", "usuario", "rol"};
+
+    // La búsqueda por texto también indexa el motivo de los traslados
+    private static final String[] TABLAS_BUSQUEDA = {"reporte", "reporte_traslado", "tipo_reporte", "especimen",
+            "especie", "usuario", "rol"};
+
     private final ReporteController reporteController;
 
     public ReporteRoutes(ReporteController reporteController) {
@@ -16,26 +24,29 @@ public class ReporteRoutes {
 
     public void defineRoutes(Javalin app) {
 
+        // Búsqueda por texto con ranking (antes de /{id} para que "search" no se tome como ID)
+        app.get("/hm/reportes/search", ConditionalGet.of(reporteController::searchReportes, TABLAS_BUSQUEDA));
+
         // CRUD básico
-        app.get("/hm/reportes", reporteController::getAllReportes);
-        app.get("/hm/reportes/{id}", reporteController::getReporteById);
+        app.get("/hm/reportes", ConditionalGet.of(reporteController::getAllReportes, TABLAS));
+        app.get("/hm/reportes/{id}", ConditionalGet.of(reporteController::getReporteById, TABLAS));
         app.post("/hm/reportes", reporteController::createReporte);
         app.put("/hm/reportes/{id}", reporteController::updateReporte);
         app.delete("/hm/reportes/{id}", reporteController::deleteReporte);
 
         // Búsquedas específicas por atributos
-        app.get("/hm/reportes/tipo/{id}", reporteController::getReportesByTipo);
-        app.get("/hm/reportes/especimen/{id}", reporteController::getReportesByEspecimen);
-        app.get("/hm/reportes/responsable/{id}", reporteController::getReportesByResponsable);
+        app.get("/hm/reportes/tipo/{id}", ConditionalGet.of(reporteController::getReportesByTipo, TABLAS));
+        app.get("/hm/reportes/especimen/{id}", ConditionalGet.of(reporteController::getReportesByEspecimen, TABLAS));
+        app.get("/hm/reportes/responsable/{id}", ConditionalGet.of(reporteController::getReportesByResponsable, TABLAS));
 
         // Búsquedas por contenido
-        app.get("/hm/reportes/search/asunto", reporteController::searchReportesByAsunto);
-        app.get("/hm/reportes/search/contenido", reporteController::searchReportesByContenido);
+        app.get("/hm/reportes/search/asunto", ConditionalGet.of(reporteController::searchReportesByAsunto, TABLAS));
+        app.get("/hm/reportes/search/contenido", ConditionalGet.of(reporteController::searchReportesByContenido, TABLAS));
 
         // Búsqueda por fechas
-        app.get("/hm/reportes/fechas", reporteController::getReportesByDateRange);
+        app.get("/hm/reportes/fechas", ConditionalGet.of(reporteController::getReportesByDateRange, TABLAS));
 
         // Estadísticas
-        app.get("/hm/reportes/estadisticas", reporteController::getReporteStatistics);
+        app.get("/hm/reportes/estadisticas", ConditionalGet.of(reporteController::getReporteStatistics, TABLAS));
     }
 }
\ No newline at end of file
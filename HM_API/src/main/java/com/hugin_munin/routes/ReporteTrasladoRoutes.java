@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.ReporteTrasladoController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,9 @@ import io.javalin.Javalin;
  */
 public class ReporteTrasladoRoutes {
 
+    // Tablas que leen los GET (ETag, ver ConditionalGet)
+    private static final String[] TABLAS = {"reporte_traslado", "reporte", "tipo_reporte", "especimen", "especie", "usuario", "rol"};
+
     private final ReporteTrasladoController reporteTrasladoController;
 
     public ReporteTrasladoRoutes(ReporteTrasladoController reporteTrasladoController) {
@@ -17,29 +21,29 @@ public class ReporteTrasladoRoutes {
     public void defineRoutes(Javalin app) {
 
         // CRUD básico
-        app.get("/hm/reportes_traslado", reporteTrasladoController::getAllReportesTraslado);
-        app.get("/hm/reportes_traslado/{id}", reporteTrasladoController::getReporteTrasladoById);
+        app.get("/hm/reportes_traslado", ConditionalGet.of(reporteTrasladoController::getAllReportesTraslado, TABLAS));
+        app.get("/hm/reportes_traslado/{id}", ConditionalGet.of(reporteTrasladoController::getReporteTrasladoById, TABLAS));
         app.post("/hm/reportes_traslado", reporteTrasladoController::createReporteTraslado);
         app.put("/hm/reportes_traslado/{id}", reporteTrasladoController::updateReporteTraslado);
         app.delete("/hm/reportes_traslado/{id}", reporteTrasladoController::deleteReporteTraslado);
 
         // Búsquedas específicas por atributos de traslado
-        app.get("/hm/reportes_traslado/area_origen/{area}", reporteTrasladoController::getReportesByAreaOrigen);
-        app.get("/hm/reportes_traslado/area_destino/{area}", reporteTrasladoController::getReportesByAreaDestino);
-        app.get("/hm/reportes_traslado/ubicacion_origen/{ubicacion}", reporteTrasladoController::getReportesByUbicacionOrigen);
-        app.get("/hm/reportes_traslado/ubicacion_destino/{ubicacion}", reporteTrasladoController::getReportesByUbicacionDestino);
+        app.get("/hm/reportes_traslado/area_origen/{area}", ConditionalGet.of(reporteTrasladoController::getReportesByAreaOrigen, TABLAS));
+        app.get("/hm/reportes_traslado/area_destino/{area}", ConditionalGet.of(reporteTrasladoController::getReportesByAreaDestino, TABLAS));
+        app.get("/hm/reportes_traslado/ubicacion_origen/{ubicacion}", ConditionalGet.of(reporteTrasladoController::getReportesByUbicacionOrigen, TABLAS));
+        app.get("/hm/reportes_traslado/ubicacion_destino/{ubicacion}", ConditionalGet.of(reporteTrasladoController::getReportesByUbicacionDestino, TABLAS));
 
         // Búsqueda por motivo
-        app.get("/hm/reportes-traslado/search/motivo", reporteTrasladoController::searchReportesByMotivo);
+        app.get("/hm/reportes-traslado/search/motivo", ConditionalGet.of(reporteTrasladoController::searchReportesByMotivo, TABLAS));
 
         // Búsquedas por atributos heredados del padre
-        app.get("/hm/reportes_traslado/especimen/{id}", reporteTrasladoController::getReportesByEspecimen);
-        app.get("/hm/reportes_traslado/responsable/{id}", reporteTrasladoController::getReportesByResponsable);
-        app.get("/hm/reportes_traslado/fechas", reporteTrasladoController::getReportesByDateRange);
+        app.get("/hm/reportes_traslado/especimen/{id}", ConditionalGet.of(reporteTrasladoController::getReportesByEspecimen, TABLAS));
+        app.get("/hm/reportes_traslado/responsable/{id}", ConditionalGet.of(reporteTrasladoController::getReportesByResponsable, TABLAS));
+        app.get("/hm/reportes_traslado/fechas", ConditionalGet.of(reporteTrasladoController::getReportesByDateRange, TABLAS));
 
         // Estadísticas específicas de traslados
-        app.get("/hm/reportes_traslado/estadisticas", reporteTrasladoController::getReporteTrasladoStatistics);
-        app.get("/hm/reportes_traslado/estadisticas/areas_origen", reporteTrasladoController::getAreasOrigenPopulares);
-        app.get("/hm/reportes_traslado/estadisticas/areas_destino", reporteTrasladoController::getAreasDestinoPopulares);
+        app.get("/hm/reportes_traslado/estadisticas", ConditionalGet.of(reporteTrasladoController::getReporteTrasladoStatistics, TABLAS));
+        app.get("/hm/reportes_traslado/estadisticas/areas_origen", ConditionalGet.of(reporteTrasladoController::getAreasOrigenPopulares, TABLAS));
+        app.get("/hm/reportes_traslado/estadisticas/areas_destino", ConditionalGet.of(reporteTrasladoController::getAreasDestinoPopulares, TABLAS));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.hugin_munin.routes;
 
 import com.hugin_munin.controller.TipoReporteController;
+import com.hugin_munin.middleware.ConditionalGet;
 import io.javalin.Javalin;
 
 /**
@@ -8,6 +9,11 @@ import io.javalin.Javalin;
  */
 public class TipoReporteRoutes {
 
+    // Catálogo: se reutiliza durante CATALOG_MAX_AGE_SECONDS
+    private static final String[] TABLAS = {"tipo_reporte"};
+    // Las estadísticas cuentan reportes por tipo
+    private static final String[] TABLAS_ESTADISTICAS = {"tipo_reporte", "reporte"};
+
     private final TipoReporteController tipoReporteController;
 
     public TipoReporteRoutes(TipoReporteController tipoReporteController) {
@@ -17,13 +23,13 @@ public class TipoReporteRoutes {
     public void defineRoutes(Javalin app) {
 
         // GET - Obtener todos los tipos de reporte
-        app.get("/hm/tipos-reporte", tipoReporteController::getAllTipos);
+        app.get("/hm/tipos-reporte", ConditionalGet.catalog(tipoReporteController::getAllTipos, TABLAS));
 
         // GET - Obtener tipo por ID
-        app.get("/hm/tipos-reporte/{id}", tipoReporteController::getTipoById);
+        app.get("/hm/tipos-reporte/{id}", ConditionalGet.catalog(tipoReporteController::getTipoById, TABLAS));
 
         // GET - Buscar tipos por nombre
-        app.get("/hm/tipos-reporte/search", tipoReporteController::searchTiposByName);
+        app.get("/hm/tipos-reporte/search", ConditionalGet.catalog(tipoReporteController::searchTiposByName, TABLAS));
 
         // POST - Crear nuevo tipo
         app.post("/hm/tipos-reporte", tipoReporteController::createTipo);
@@ -35,7 +41,7 @@ public class TipoReporteRoutes {
         app.delete("/hm/tipos-reporte/{id}", tipoReporteController::deleteTipo);
 
         // GET - Estadísticas
-        app.get("/hm/tipos-reporte/estadisticas", tipoReporteController::getTipoStatistics);
+        app.get("/hm/tipos-reporte/estadisticas", ConditionalGet.of(tipoReporteController::getTipoStatistics, TABLAS_ESTADISTICAS));
 
         // POST - Validar nombre
         app.post("/hm/tipos-reporte/validar-nombre", tipoReporteController::validateTipoName);
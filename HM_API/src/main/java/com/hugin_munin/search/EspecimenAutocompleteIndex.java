@@ -0,0 +1,707 @@
+package com.hugin_munin.search;
+
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.dto.EspecimenSugerencia;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Índice de trigramas en memoria para autocompletar especímenes
+ * Busca en número de inventario, nombre del especimen y binomio de la especie ("genero especie").
+ * Cada texto se normaliza (minúsculas, sin acentos, separadores como un espacio) y se parte en
+ * trigramas; las consultas de 1-2 letras usan trigramas de inicio de palabra ("  j", " ja").
+ * Las especies se indexan aparte (por id_especie): renombrar una especie no toca sus especímenes.
+ * Se carga completo en la primera búsqueda (o al arrancar) y luego se mantiene desde los
+ * repositorios de especimen, especie y registro de baja, siempre después de confirmar.
+ */
+public class EspecimenAutocompleteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EspecimenAutocompleteIndex.class);
+
+    // Tipos de coincidencia, de menor a mayor
+    private static final int SUBCADENA = 1;
+    private static final int INICIO_PALABRA = 2;
+    private static final int PREFIJO = 3;
+    private static final int EXACTA = 4;
+
+    // Puntaje por tipo de coincidencia (índice = tipo) en cada campo
+    private static final double[] PESOS_INVENTARIO = {0, 50, 60, 90, 100};
+    private static final double[] PESOS_NOMBRE = {0, 40, 70, 80, 95};
+    private static final double[] PESOS_ESPECIE = {0, 30, 55, 60, 70};
+
+    // Los activos primero; a igual puntaje gana la posición menor (se asignan en orden de ID),
+    // lo que permite cortar un recorrido en orden de posición en cuanto el top está lleno
+    private static final double BONO_ACTIVO = 5;
+
+    // Mejor puntaje posible sin coincidencia exacta (prefijo de inventario de un activo)
+    private static final double TOPE_SIN_EXACTA = PESOS_INVENTARIO[PREFIJO] + BONO_ACTIVO;
+
+    private static final String CAMPO_INVENTARIO = "num_inventario";
+    private static final String CAMPO_NOMBRE = "nombre_especimen";
+    private static final String CAMPO_ESPECIE = "especie";
+
+    // Único índice: lo mantienen los repositorios de especimen, especie y registro de baja
+    private static final EspecimenAutocompleteIndex SHARED = new EspecimenAutocompleteIndex();
+
+    /**
+     * Destino de la carga completa: primero las especies, luego los especímenes
+     */
+    public interface Carga {
+        void especie(int idEspecie, String genero, String especie);
+
+        void especimen(int idEspecimen, String numInventario, String nombre, int idEspecie, boolean activo);
+    }
+
+    /**
+     * Lectura de las tablas de especie y especimen
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Carga carga) throws SQLException;
+    }
+
+    // Especímenes por posición interna; una posición eliminada queda vacía hasta la próxima carga
+    private int[] ids = new int[0];
+    private String[] inventarios = new String[0];
+    private String[] nombres = new String[0];
+    private String[] inventariosNorm = new String[0];
+    private String[] nombresNorm = new String[0];
+    private long[] firmasInventario = new long[0];
+    private long[] firmasNombre = new long[0];
+    private int[] especiesDe = new int[0];
+    private boolean[] activos = new boolean[0];
+    private boolean[] vivos = new boolean[0];
+    private int posiciones;
+    private final Map<Integer, Integer> posicionPorId = new HashMap<>();
+
+    // Trigrama → posiciones de especímenes (inventario y nombre)
+    private final Map<Long, IntPostings> gramas = new HashMap<>();
+
+    // Inventario o nombre normalizado completo → posiciones (coincidencias exactas)
+    private final Map<String, IntPostings> exactos = new HashMap<>();
+
+    // Especies: id → {genero, especie, binomio normalizado}
+    private final Map<Integer, String[]> especies = new HashMap<>();
+    private final Map<Long, IntPostings> gramasEspecie = new HashMap<>();
+    private final Map<Integer, IntPostings> posicionesPorEspecie = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean cargado;
+
+    private EspecimenAutocompleteIndex() {
+    }
+
+    /**
+     * Índice compartido por los repositorios
+     */
+    public static EspecimenAutocompleteIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * SUGERENCIAS para el texto escrito, las mejores primero
+     */
+    public List<EspecimenSugerencia> search(String consulta, int limite, boolean soloActivos, Loader loader)
+            throws SQLException {
+        String q = normalize(consulta);
+        if (q.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        if (!cargado) {
+            ensureLoaded(loader);
+        }
+
+        lock.readLock().lock();
+        try {
+            Consulta busqueda = new Consulta(q);
+            Mejores mejores = new Mejores(limite);
+
+            // Coincidencias exactas por búsqueda directa: así el recorrido solo puede encontrar
+            // prefijos o menos y se corta en cuanto ninguno de esos puede entrar al top
+            IntPostings exactas = exactos.get(q);
+            for (int i = 0; exactas != null && i < exactas.size(); i++) {
+                offerSpecimen(mejores, busqueda, exactas.get(i), soloActivos);
+            }
+
+            // Especímenes cuyo inventario o nombre contiene los trigramas, en orden de posición
+            Candidatos candidatos = intersect(gramas, busqueda.gramas);
+            for (int i = 0; i < candidatos.size(); i++) {
+                int posicion = candidatos.get(i);
+                if (!mejores.admits(TOPE_SIN_EXACTA, posicion)) {
+                    break;
+                }
+                if (!candidatos.inRest(posicion)) {
+                    continue;
+                }
+                offerSpecimen(mejores, busqueda, posicion, soloActivos);
+            }
+
+            // Especímenes que solo coinciden por la especie
+            for (int e = 0; e < busqueda.especies; e++) {
+                IntPostings deEspecie = posicionesPorEspecie.get(busqueda.idsEspecie[e]);
+                double peso = busqueda.pesosEspecie[e];
+                for (int i = 0; deEspecie != null && i < deEspecie.size(); i++) {
+                    int posicion = deEspecie.get(i);
+                    if (!mejores.admits(peso + BONO_ACTIVO, posicion)) {
+                        break;
+                    }
+                    if (vivos[posicion] && (!soloActivos || activos[posicion])
+                            && !candidatos.contains(posicion)) {
+                        mejores.offer(posicion, peso + (activos[posicion] ? BONO_ACTIVO : 0), CAMPO_ESPECIE);
+                    }
+                }
+            }
+
+            return mejores.toSugerencias();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * CONSTRUIR el índice completo
+     * Las escrituras que lleguen mientras tanto esperan y se aplican sobre el índice nuevo
+     */
+    public void rebuild(Loader loader) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            load(loader);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * AGREGAR o reemplazar un especimen (al confirmar, si hay unidad de trabajo abierta)
+     */
+    public void putSpecimen(int idEspecimen, String numInventario, String nombre, int idEspecie, boolean activo) {
+        UnitOfWork.runAfterCommit(() -> write(() -> {
+            Integer posicion = posicionPorId.get(idEspecimen);
+            if (posicion != null) {
+                unindexSpecimen(posicion);
+            } else {
+                posicion = allocate(idEspecimen);
+            }
+            indexSpecimen(posicion, numInventario, nombre, idEspecie, activo);
+        }));
+    }
+
+    /**
+     * CAMBIAR el estado activo de un especimen
+     */
+    public void setActive(int idEspecimen, boolean activo) {
+        UnitOfWork.runAfterCommit(() -> write(() -> {
+            Integer posicion = posicionPorId.get(idEspecimen);
+            if (posicion != null) {
+                activos[posicion] = activo;
+            }
+        }));
+    }
+
+    /**
+     * QUITAR un especimen
+     */
+    public void removeSpecimen(int idEspecimen) {
+        UnitOfWork.runAfterCommit(() -> write(() -> {
+            Integer posicion = posicionPorId.remove(idEspecimen);
+            if (posicion != null) {
+                unindexSpecimen(posicion);
+                vivos[posicion] = false;
+                inventarios[posicion] = null;
+                nombres[posicion] = null;
+                inventariosNorm[posicion] = null;
+                nombresNorm[posicion] = null;
+            }
+        }));
+    }
+
+    /**
+     * AGREGAR o renombrar una especie
+     */
+    public void putSpecies(int idEspecie, String genero, String especie) {
+        UnitOfWork.runAfterCommit(() -> write(() -> indexSpecies(idEspecie, genero, especie)));
+    }
+
+    /**
+     * QUITAR una especie
+     */
+    public void removeSpecies(int idEspecie) {
+        UnitOfWork.runAfterCommit(() -> write(() -> {
+            String[] anterior = especies.remove(idEspecie);
+            if (anterior != null) {
+                forEachGram(anterior[2], grama -> removeFrom(gramasEspecie, grama, idEspecie));
+            }
+        }));
+    }
+
+    // MÉTODOS PRIVADOS
+
+    /**
+     * Aplicar una escritura; sin índice construido no hay nada que mantener
+     * (la carga leerá las filas ya confirmadas)
+     */
+    private void write(Runnable cambio) {
+        lock.writeLock().lock();
+        try {
+            if (cargado) {
+                cambio.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded(Loader loader) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                load(loader);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(Loader loader) throws SQLException {
+        long inicio = System.nanoTime();
+
+        cargado = false;
+        posiciones = 0;
+        posicionPorId.clear();
+        gramas.clear();
+        exactos.clear();
+        especies.clear();
+        gramasEspecie.clear();
+        posicionesPorEspecie.clear();
+
+        loader.load(new Carga() {
+            @Override
+            public void especie(int idEspecie, String genero, String especie) {
+                indexSpecies(idEspecie, genero, especie);
+            }
+
+            @Override
+            public void especimen(int idEspecimen, String numInventario, String nombre, int idEspecie, boolean activo) {
+                indexSpecimen(allocate(idEspecimen), numInventario, nombre, idEspecie, activo);
+            }
+        });
+        cargado = true;
+
+        log.info("Índice de autocompletado: {} especímenes, {} especies, {} trigramas en {} ms",
+                posicionPorId.size(), especies.size(), gramas.size() + gramasEspecie.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private int allocate(int idEspecimen) {
+        if (posiciones == ids.length) {
+            int capacidad = Math.max(1024, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacidad);
+            inventarios = Arrays.copyOf(inventarios, capacidad);
+            nombres = Arrays.copyOf(nombres, capacidad);
+            inventariosNorm = Arrays.copyOf(inventariosNorm, capacidad);
+            nombresNorm = Arrays.copyOf(nombresNorm, capacidad);
+            firmasInventario = Arrays.copyOf(firmasInventario, capacidad);
+            firmasNombre = Arrays.copyOf(firmasNombre, capacidad);
+            especiesDe = Arrays.copyOf(especiesDe, capacidad);
+            activos = Arrays.copyOf(activos, capacidad);
+            vivos = Arrays.copyOf(vivos, capacidad);
+        }
+        int posicion = posiciones++;
+        ids[posicion] = idEspecimen;
+        posicionPorId.put(idEspecimen, posicion);
+        return posicion;
+    }
+
+    private void indexSpecimen(int posicion, String numInventario, String nombre, int idEspecie, boolean activo) {
+        inventarios[posicion] = numInventario;
+        nombres[posicion] = nombre;
+        inventariosNorm[posicion] = normalize(numInventario);
+        nombresNorm[posicion] = normalize(nombre);
+        firmasInventario[posicion] = signature(inventariosNorm[posicion]);
+        firmasNombre[posicion] = signature(nombresNorm[posicion]);
+        especiesDe[posicion] = idEspecie;
+        activos[posicion] = activo;
+        vivos[posicion] = true;
+
+        forEachGram(inventariosNorm[posicion], grama -> gramas.computeIfAbsent(grama, g -> new IntPostings()).add(posicion));
+        forEachGram(nombresNorm[posicion], grama -> gramas.computeIfAbsent(grama, g -> new IntPostings()).add(posicion));
+        posicionesPorEspecie.computeIfAbsent(idEspecie, id -> new IntPostings()).add(posicion);
+        exactos.computeIfAbsent(inventariosNorm[posicion], t -> new IntPostings()).add(posicion);
+        exactos.computeIfAbsent(nombresNorm[posicion], t -> new IntPostings()).add(posicion);
+    }
+
+    private void unindexSpecimen(int posicion) {
+        forEachGram(inventariosNorm[posicion], grama -> removeFrom(gramas, grama, posicion));
+        forEachGram(nombresNorm[posicion], grama -> removeFrom(gramas, grama, posicion));
+        removeFrom(exactos, inventariosNorm[posicion], posicion);
+        removeFrom(exactos, nombresNorm[posicion], posicion);
+        IntPostings deEspecie = posicionesPorEspecie.get(especiesDe[posicion]);
+        if (deEspecie != null) {
+            deEspecie.remove(posicion);
+        }
+    }
+
+    private void indexSpecies(int idEspecie, String genero, String especie) {
+        String[] anterior = especies.get(idEspecie);
+        if (anterior != null) {
+            forEachGram(anterior[2], grama -> removeFrom(gramasEspecie, grama, idEspecie));
+        }
+        String binomio = normalize((genero != null ? genero : "") + " " + (especie != null ? especie : ""));
+        especies.put(idEspecie, new String[]{genero, especie, binomio});
+        forEachGram(binomio, grama -> gramasEspecie.computeIfAbsent(grama, g -> new IntPostings()).add(idEspecie));
+    }
+
+    private static <K> void removeFrom(Map<K, IntPostings> mapa, K clave, int valor) {
+        IntPostings lista = mapa.get(clave);
+        if (lista != null) {
+            lista.remove(valor);
+            if (lista.size() == 0) {
+                mapa.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Puntuar un especimen por su mejor campo y ofrecerlo al top
+     * Solo se prueban los tipos de coincidencia que todavía pueden entrar
+     */
+    private void offerSpecimen(Mejores mejores, Consulta busqueda, int posicion, boolean soloActivos) {
+        if (!vivos[posicion] || (soloActivos && !activos[posicion])) {
+            return;
+        }
+        double bono = activos[posicion] ? BONO_ACTIVO : 0;
+        double inventario = PESOS_INVENTARIO[busqueda.matchKind(inventariosNorm[posicion],
+                firmasInventario[posicion], mejores.minKind(PESOS_INVENTARIO, bono, posicion))];
+        double nombre = PESOS_NOMBRE[busqueda.matchKind(nombresNorm[posicion],
+                firmasNombre[posicion], mejores.minKind(PESOS_NOMBRE, bono, posicion))];
+        double especie = busqueda.speciesWeight(especiesDe[posicion]);
+
+        if (inventario >= nombre && inventario >= especie && inventario > 0) {
+            mejores.offer(posicion, inventario + bono, CAMPO_INVENTARIO);
+        } else if (nombre >= especie && nombre > 0) {
+            mejores.offer(posicion, nombre + bono, CAMPO_NOMBRE);
+        } else if (especie > 0) {
+            mejores.offer(posicion, especie + bono, CAMPO_ESPECIE);
+        }
+    }
+
+    /**
+     * Candidatos de los trigramas de la consulta (ninguno si falta alguno)
+     */
+    private static Candidatos intersect(Map<Long, IntPostings> mapa, long[] gramasConsulta) {
+        IntPostings[] listas = new IntPostings[gramasConsulta.length];
+        for (int i = 0; i < gramasConsulta.length; i++) {
+            listas[i] = mapa.get(gramasConsulta[i]);
+            if (listas[i] == null) {
+                return Candidatos.NINGUNO;
+            }
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.size(), b.size()));
+        return new Candidatos(listas);
+    }
+
+    /**
+     * Firma de un texto normalizado: sus 3 primeros caracteres y su largo en un long
+     * Permite descartar EXACTA y PREFIJO sin leer el String (que suele no estar en caché)
+     */
+    private static long signature(String texto) {
+        long firma = (long) Math.min(texto.length(), 0xFFFF) << 48;
+        for (int i = 0; i < 3 && i < texto.length(); i++) {
+            firma |= (long) texto.charAt(i) << (32 - 16 * i);
+        }
+        return firma;
+    }
+
+    /**
+     * Consulta normalizada con lo que se precalcula una vez por búsqueda (bajo el lock de lectura),
+     * incluidas las especies cuyo binomio coincide
+     */
+    private final class Consulta {
+        private final String texto;
+        private final String inicioPalabra;
+        private final long firma;
+        private final long mascaraPrefijo;
+        private final long[] gramas;
+
+        // Especies que coinciden: ids ordenados y su peso
+        private final int[] idsEspecie;
+        private final double[] pesosEspecie;
+        private int especies;
+
+        Consulta(String texto) {
+            this.texto = texto;
+            this.inicioPalabra = " " + texto;
+            this.firma = signature(texto);
+            this.mascaraPrefijo = 0xFFFF_FFFF_FFFFL & ~((1L << (48 - 16 * Math.min(texto.length(), 3))) - 1);
+            this.gramas = queryGrams(texto);
+
+            Candidatos candidatas = intersect(gramasEspecie, gramas);
+            this.idsEspecie = new int[candidatas.size()];
+            this.pesosEspecie = new double[candidatas.size()];
+            for (int i = 0; i < candidatas.size(); i++) {
+                int idEspecie = candidatas.get(i);
+                if (!candidatas.inRest(idEspecie)) {
+                    continue;
+                }
+                String binomio = EspecimenAutocompleteIndex.this.especies.get(idEspecie)[2];
+                int tipo = matchKind(binomio, signature(binomio), SUBCADENA);
+                if (tipo > 0) {
+                    idsEspecie[especies] = idEspecie;
+                    pesosEspecie[especies++] = PESOS_ESPECIE[tipo];
+                }
+            }
+        }
+
+        double speciesWeight(int idEspecie) {
+            if (especies == 0) {
+                return 0;
+            }
+            int i = Arrays.binarySearch(idsEspecie, 0, especies, idEspecie);
+            return i >= 0 ? pesosEspecie[i] : 0;
+        }
+
+        /**
+         * Tipo de coincidencia en el campo, probando solo desde el tipo mínimo que interesa
+         * (0 si no alcanza o si los trigramas coincidieron por casualidad)
+         */
+        int matchKind(String campo, long firmaCampo, int minimo) {
+            if (campo == null || campo.isEmpty() || minimo > EXACTA) {
+                return 0;
+            }
+            if (minimo >= PREFIJO && ((firmaCampo ^ firma) & mascaraPrefijo) != 0) {
+                return 0;
+            }
+            if (minimo == EXACTA && (firmaCampo >>> 48) != (firma >>> 48)) {
+                return 0;
+            }
+            if (campo.equals(texto)) {
+                return EXACTA;
+            }
+            if (minimo <= PREFIJO && campo.startsWith(texto)) {
+                return PREFIJO;
+            }
+            if (minimo <= INICIO_PALABRA && campo.contains(inicioPalabra)) {
+                return INICIO_PALABRA;
+            }
+            // Con 1-2 letras solo cuenta el inicio de palabra (no hay trigramas de subcadena)
+            return minimo <= SUBCADENA && texto.length() >= 3 && campo.contains(texto) ? SUBCADENA : 0;
+        }
+    }
+
+    /**
+     * Texto en minúsculas, sin acentos y con cualquier separador reducido a un espacio
+     */
+    static String normalize(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        boolean separador = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = SpanishAnalyzer.fold(texto.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (separador && !sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                separador = false;
+            } else {
+                separador = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Trigramas de un texto normalizado, con relleno para los inicios de palabra
+     */
+    private static void forEachGram(String texto, LongConsumer destino) {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+        String relleno = "  " + texto;
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            destino.accept(encode(relleno.charAt(i), relleno.charAt(i + 1), relleno.charAt(i + 2)));
+        }
+        for (int i = 1; i < texto.length(); i++) {
+            if (texto.charAt(i - 1) == ' ') {
+                destino.accept(encode(' ', ' ', texto.charAt(i)));
+            }
+        }
+    }
+
+    /**
+     * Trigramas de la consulta: 1-2 letras buscan inicio de palabra, 3 o más cualquier subcadena
+     */
+    private static long[] queryGrams(String q) {
+        if (q.length() == 1) {
+            return new long[]{encode(' ', ' ', q.charAt(0))};
+        }
+        if (q.length() == 2) {
+            return new long[]{encode(' ', q.charAt(0), q.charAt(1))};
+        }
+        long[] resultado = new long[q.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = encode(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2));
+        }
+        return resultado;
+    }
+
+    private static long encode(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Intersección de las listas de los trigramas sin materializarla: se recorre en orden la más
+     * corta y cada valor se verifica en las demás, así un recorrido que se corta temprano no paga
+     * la intersección completa
+     */
+    private static final class Candidatos {
+        static final Candidatos NINGUNO = new Candidatos(new IntPostings[]{new IntPostings()});
+
+        // Ordenadas de menor a mayor tamaño; cursores de avance en las demás
+        private final IntPostings[] listas;
+        private final int[] cursores;
+
+        Candidatos(IntPostings[] listas) {
+            this.listas = listas;
+            this.cursores = new int[listas.length];
+        }
+
+        /**
+         * Tamaño de la lista recorrida (cota superior de la intersección)
+         */
+        int size() {
+            return listas[0].size();
+        }
+
+        int get(int i) {
+            return listas[0].get(i);
+        }
+
+        /**
+         * El valor de la lista recorrida está también en las demás
+         * Los valores deben consultarse en orden creciente (los cursores solo avanzan)
+         */
+        boolean inRest(int valor) {
+            for (int i = 1; i < listas.length; i++) {
+                IntPostings lista = listas[i];
+                int cursor = cursores[i];
+                while (cursor < lista.size() && lista.get(cursor) < valor) {
+                    cursor++;
+                }
+                cursores[i] = cursor;
+                if (cursor == lista.size() || lista.get(cursor) != valor) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Pertenencia en cualquier orden (búsqueda binaria en cada lista)
+         */
+        boolean contains(int valor) {
+            for (IntPostings lista : listas) {
+                if (!lista.contains(valor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Las k mejores posiciones en arreglos ordenados por puntaje (k es chico: inserción directa)
+     */
+    private final class Mejores {
+        private final int[] posicionesTop;
+        private final double[] puntajes;
+        private final String[] campos;
+        private int n;
+
+        Mejores(int k) {
+            this.posicionesTop = new int[k];
+            this.puntajes = new double[k];
+            this.campos = new String[k];
+        }
+
+        /**
+         * Entraría al top con ese puntaje
+         */
+        boolean admits(double puntaje, int posicion) {
+            int k = posicionesTop.length;
+            return n < k || better(puntaje, posicion, puntajes[k - 1], posicionesTop[k - 1]);
+        }
+
+        /**
+         * Menor tipo de coincidencia con el que la posición entraría al top (EXACTA + 1 si ninguno)
+         */
+        int minKind(double[] pesos, double bono, int posicion) {
+            for (int tipo = SUBCADENA; tipo <= EXACTA; tipo++) {
+                if (admits(pesos[tipo] + bono, posicion)) {
+                    return tipo;
+                }
+            }
+            return EXACTA + 1;
+        }
+
+        void offer(int posicion, double puntaje, String campo) {
+            if (!admits(puntaje, posicion)) {
+                return;
+            }
+            // Una coincidencia exacta ya ofrecida vuelve a aparecer en el recorrido
+            for (int i = 0; i < n; i++) {
+                if (posicionesTop[i] == posicion) {
+                    return;
+                }
+            }
+            int k = posicionesTop.length;
+            int i = n == k ? k - 1 : n++;
+            while (i > 0 && better(puntaje, posicion, puntajes[i - 1], posicionesTop[i - 1])) {
+                posicionesTop[i] = posicionesTop[i - 1];
+                puntajes[i] = puntajes[i - 1];
+                campos[i] = campos[i - 1];
+                i--;
+            }
+            posicionesTop[i] = posicion;
+            puntajes[i] = puntaje;
+            campos[i] = campo;
+        }
+
+        /**
+         * Mayor puntaje primero; a igual puntaje, la posición menor (el más antiguo)
+         */
+        private boolean better(double puntaje, int posicion, double otroPuntaje, int otraPosicion) {
+            return puntaje > otroPuntaje || (puntaje == otroPuntaje && posicion < otraPosicion);
+        }
+
+        List<EspecimenSugerencia> toSugerencias() {
+            List<EspecimenSugerencia> sugerencias = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int posicion = posicionesTop[i];
+                String[] especie = especies.get(especiesDe[posicion]);
+                sugerencias.add(new EspecimenSugerencia(
+                        ids[posicion],
+                        inventarios[posicion],
+                        nombres[posicion],
+                        especiesDe[posicion],
+                        especie != null ? especie[0] : null,
+                        especie != null ? especie[1] : null,
+                        activos[posicion],
+                        campos[i],
+                        puntajes[i]));
+            }
+            return sugerencias;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hugin_munin.search;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto ordenado de enteros sobre un int[] (sin boxing)
+ * Agregar un id mayor que todos es O(1) amortizado, que es el caso de la carga y de las altas.
+ */
+final class IntPostings {
+
+    private int[] datos;
+    private int size;
+
+    IntPostings() {
+        this.datos = new int[4];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return datos[i];
+    }
+
+    /**
+     * AGREGAR un id (sin efecto si ya estaba)
+     */
+    void add(int valor) {
+        if (size > 0 && datos[size - 1] < valor) {
+            ensureCapacity();
+            datos[size++] = valor;
+            return;
+        }
+        int posicion = Arrays.binarySearch(datos, 0, size, valor);
+        if (posicion >= 0) {
+            return;
+        }
+        int insercion = -posicion - 1;
+        ensureCapacity();
+        System.arraycopy(datos, insercion, datos, insercion + 1, size - insercion);
+        datos[insercion] = valor;
+        size++;
+    }
+
+    /**
+     * QUITAR un id (sin efecto si no estaba)
+     */
+    void remove(int valor) {
+        int posicion = Arrays.binarySearch(datos, 0, size, valor);
+        if (posicion < 0) {
+            return;
+        }
+        System.arraycopy(datos, posicion + 1, datos, posicion, size - posicion - 1);
+        size--;
+    }
+
+    boolean contains(int valor) {
+        return Arrays.binarySearch(datos, 0, size, valor) >= 0;
+    }
+
+    private void ensureCapacity() {
+        if (size == datos.length) {
+            datos = Arrays.copyOf(datos, datos.length * 2);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.hugin_munin.search;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Lista de apariciones de un término: pares (id de documento, frecuencia) ordenados por id
+ * Inmutable y comprimida: cada id se guarda como diferencia con el anterior y cada número
+ * como varint (7 bits por byte), así que un término frecuente ocupa ~2 bytes por documento.
+ * Las modificaciones devuelven una lista nueva.
+ */
+public final class PostingsList {
+
+    public static final PostingsList EMPTY = new PostingsList(new byte[0], 0);
+
+    private final byte[] datos;
+    private final int size;
+
+    private PostingsList(byte[] datos, int size) {
+        this.datos = datos;
+        this.size = size;
+    }
+
+    /**
+     * Número de documentos (document frequency)
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Bytes ocupados por la lista comprimida
+     */
+    public int sizeInBytes() {
+        return datos.length;
+    }
+
+    /**
+     * RECORRER la lista en orden de id
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * NUEVA lista con el documento agregado o con su frecuencia reemplazada
+     */
+    public PostingsList with(int doc, int frecuencia) {
+        Encoder encoder = new Encoder(datos.length + 10);
+        boolean escrito = false;
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            if (!escrito && cursor.doc() >= doc) {
+                encoder.add(doc, frecuencia);
+                escrito = true;
+                if (cursor.doc() == doc) {
+                    continue;
+                }
+            }
+            encoder.add(cursor.doc(), cursor.frequency());
+        }
+        if (!escrito) {
+            encoder.add(doc, frecuencia);
+        }
+        return encoder.build();
+    }
+
+    /**
+     * NUEVA lista sin el documento (la misma si no estaba)
+     */
+    public PostingsList without(int doc) {
+        Encoder encoder = new Encoder(datos.length);
+        boolean encontrado = false;
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            if (cursor.doc() == doc) {
+                encontrado = true;
+            } else {
+                encoder.add(cursor.doc(), cursor.frequency());
+            }
+        }
+        return encontrado ? encoder.build() : this;
+    }
+
+    /**
+     * Construcción de una lista a partir de ids crecientes
+     */
+    public static final class Encoder {
+
+        private final ByteArrayOutputStream out;
+        private int anterior = -1;
+        private int size;
+
+        public Encoder() {
+            this(32);
+        }
+
+        private Encoder(int capacidad) {
+            this.out = new ByteArrayOutputStream(capacidad);
+        }
+
+        /**
+         * AGREGAR un documento; los ids deben llegar en orden creciente y sin repetir
+         */
+        public void add(int doc, int frecuencia) {
+            if (doc <= anterior) {
+                throw new IllegalStateException("Los ids deben ser crecientes: " + doc + " después de " + anterior);
+            }
+            writeVarInt(anterior < 0 ? doc : doc - anterior);
+            writeVarInt(frecuencia);
+            anterior = doc;
+            size++;
+        }
+
+        public PostingsList build() {
+            return size == 0 ? EMPTY : new PostingsList(out.toByteArray(), size);
+        }
+
+        private void writeVarInt(int valor) {
+            while ((valor & ~0x7F) != 0) {
+                out.write((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            out.write(valor);
+        }
+    }
+
+    /**
+     * Lectura secuencial de la lista comprimida
+     */
+    public final class Cursor {
+
+        private int posicion;
+        private int doc = -1;
+        private int frecuencia;
+
+        private Cursor() {
+        }
+
+        /**
+         * AVANZAR al siguiente documento; false al final
+         */
+        public boolean next() {
+            if (posicion >= datos.length) {
+                return false;
+            }
+            int delta = readVarInt();
+            doc = doc < 0 ? delta : doc + delta;
+            frecuencia = readVarInt();
+            return true;
+        }
+
+        public int doc() {
+            return doc;
+        }
+
+        public int frequency() {
+            return frecuencia;
+        }
+
+        private int readVarInt() {
+            int valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.hugin_munin.search;
+
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.repository.ReporteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre el asunto y contenido de los reportes y el motivo de los traslados
+ * Se construye completo al arrancar (o en la primera búsqueda) y luego se mantiene con las escrituras
+ * de ReporteService / ReporteTrasladoService, que lo actualizan solo después de confirmar.
+ * Ranking BM25 por campo (el asunto pesa el doble); todas las palabras de la consulta deben aparecer
+ * y la última, si no termina en espacio, se busca como prefijo ("trasl" encuentra "traslado").
+ */
+public class ReporteSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReporteSearchIndex.class);
+
+    // Parámetros habituales de BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Tope de términos que puede abarcar un prefijo (se quedan los de más documentos)
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    /**
+     * Campos indexados y su peso en el puntaje
+     */
+    public enum Campo {
+        ASUNTO(2.0), CONTENIDO(1.0), MOTIVO(1.0);
+
+        private final double peso;
+
+        Campo(double peso) {
+            this.peso = peso;
+        }
+    }
+
+    private static final Campo[] CAMPOS = Campo.values();
+
+    /**
+     * Reporte encontrado y su puntaje
+     */
+    public record Coincidencia(int idReporte, double puntaje) {
+    }
+
+    /**
+     * Página de resultados ordenada por puntaje y total de coincidencias
+     * truncado: el prefijo abarcaba más de MAX_PREFIX_EXPANSIONS términos y el total puede quedarse corto
+     */
+    public record Resultado(List<Coincidencia> coincidencias, int total, boolean truncado) {
+    }
+
+    /**
+     * Términos que abarca un prefijo y si hubo que descartar alguno
+     */
+    private record Expansion(List<String> terminos, boolean truncada) {
+    }
+
+    /**
+     * Términos distintos y largo (en términos) de cada campo de un reporte
+     */
+    private static final class Documento {
+        final String[][] terminos = new String[CAMPOS.length][];
+        final int[] largos = new int[CAMPOS.length];
+
+        Documento() {
+            for (int i = 0; i < CAMPOS.length; i++) {
+                terminos[i] = new String[0];
+            }
+        }
+    }
+
+    private final ReporteRepository reporteRepository;
+
+    // Un diccionario por campo: término → apariciones (comprimidas)
+    private final List<TreeMap<String, PostingsList>> diccionarios = new ArrayList<>(CAMPOS.length);
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+    private final long[] largosTotales = new long[CAMPOS.length];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean cargado;
+
+    public ReporteSearchIndex(ReporteRepository reporteRepository) {
+        this.reporteRepository = reporteRepository;
+        for (int i = 0; i < CAMPOS.length; i++) {
+            diccionarios.add(new TreeMap<>());
+        }
+    }
+
+    /**
+     * CONSTRUIR el índice completo desde la base de datos
+     * Las escrituras que lleguen mientras tanto esperan y se aplican sobre el índice nuevo
+     */
+    public void rebuild() throws SQLException {
+        lock.writeLock().lock();
+        try {
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * AGREGAR o reemplazar asunto y contenido de un reporte (el motivo se conserva)
+     * Dentro de una unidad de trabajo se aplica al confirmarla; si se revierte, no se aplica
+     */
+    public void put(int idReporte, String asunto, String contenido) {
+        UnitOfWork.runAfterCommit(() -> apply(idReporte, asunto, contenido, null, false));
+    }
+
+    /**
+     * AGREGAR o reemplazar un reporte de traslado
+     */
+    public void put(int idReporte, String asunto, String contenido, String motivo) {
+        UnitOfWork.runAfterCommit(() -> apply(idReporte, asunto, contenido, motivo, true));
+    }
+
+    /**
+     * QUITAR un reporte del índice
+     */
+    public void remove(int idReporte) {
+        UnitOfWork.runAfterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Documento documento = documentos.remove(idReporte);
+                if (documento == null) {
+                    return;
+                }
+                for (Campo campo : CAMPOS) {
+                    removeField(idReporte, documento, campo);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * BUSCAR reportes: página [desde, desde + limite) ordenada por puntaje (y por id más reciente)
+     */
+    public Resultado search(String consulta, int limite, int desde) throws SQLException {
+        List<String> exactos = new ArrayList<>();
+        String prefijo = parseQuery(consulta, exactos);
+        if (exactos.isEmpty() && prefijo == null) {
+            return new Resultado(List.of(), 0, false);
+        }
+
+        if (!cargado) {
+            ensureLoaded();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Puntaje de cada documento por palabra de la consulta; deben coincidir todas
+            List<Map<Integer, Double>> porPalabra = new ArrayList<>();
+            for (String termino : exactos) {
+                porPalabra.add(scoreTerms(List.of(termino)));
+            }
+            boolean truncado = false;
+            if (prefijo != null) {
+                Expansion expansion = expandPrefix(prefijo);
+                truncado = expansion.truncada();
+                porPalabra.add(scoreTerms(expansion.terminos()));
+            }
+            porPalabra.sort(Comparator.comparingInt(Map::size));
+
+            Map<Integer, Double> candidatos = porPalabra.get(0);
+            for (int i = 1; i < porPalabra.size() && !candidatos.isEmpty(); i++) {
+                Map<Integer, Double> siguiente = porPalabra.get(i);
+                Map<Integer, Double> interseccion = new HashMap<>();
+                for (Map.Entry<Integer, Double> entry : candidatos.entrySet()) {
+                    Double puntaje = siguiente.get(entry.getKey());
+                    if (puntaje != null) {
+                        interseccion.put(entry.getKey(), entry.getValue() + puntaje);
+                    }
+                }
+                candidatos = interseccion;
+            }
+
+            return new Resultado(topK(candidatos, limite, desde), candidatos.size(), truncado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * El índice ya se construyó
+     */
+    public boolean isLoaded() {
+        return cargado;
+    }
+
+    // MÉTODOS PRIVADOS
+
+    private void apply(int idReporte, String asunto, String contenido, String motivo, boolean conMotivo) {
+        lock.writeLock().lock();
+        try {
+            // Sin índice construido no hay nada que mantener: la carga leerá la fila confirmada
+            if (!cargado) {
+                return;
+            }
+            Documento documento = documentos.computeIfAbsent(idReporte, id -> new Documento());
+            replaceField(idReporte, documento, Campo.ASUNTO, asunto);
+            replaceField(idReporte, documento, Campo.CONTENIDO, contenido);
+            if (conMotivo) {
+                replaceField(idReporte, documento, Campo.MOTIVO, motivo);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carga perezosa si el arranque no pudo construir el índice (una sola vez aunque busquen varios)
+     */
+    private void ensureLoaded() throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws SQLException {
+        long inicio = System.nanoTime();
+
+        for (TreeMap<String, PostingsList> diccionario : diccionarios) {
+            diccionario.clear();
+        }
+        documentos.clear();
+        Arrays.fill(largosTotales, 0);
+        cargado = false;
+
+        // Los reportes llegan en orden de id: cada lista se escribe de corrido, sin reordenar
+        List<Map<String, PostingsList.Encoder>> encoders = new ArrayList<>(CAMPOS.length);
+        for (int i = 0; i < CAMPOS.length; i++) {
+            encoders.add(new HashMap<>());
+        }
+
+        reporteRepository.forEachTextoBusqueda(texto -> {
+            Documento documento = new Documento();
+            String[] valores = {texto.asunto(), texto.contenido(), texto.motivo()};
+            for (int i = 0; i < CAMPOS.length; i++) {
+                Map<String, Integer> frecuencias = frequencies(valores[i], documento, i);
+                Map<String, PostingsList.Encoder> porTermino = encoders.get(i);
+                for (Map.Entry<String, Integer> entry : frecuencias.entrySet()) {
+                    porTermino.computeIfAbsent(entry.getKey(), t -> new PostingsList.Encoder())
+                            .add(texto.idReporte(), entry.getValue());
+                }
+            }
+            documentos.put(texto.idReporte(), documento);
+        });
+
+        long bytes = 0;
+        int terminos = 0;
+        for (int i = 0; i < CAMPOS.length; i++) {
+            TreeMap<String, PostingsList> diccionario = diccionarios.get(i);
+            for (Map.Entry<String, PostingsList.Encoder> entry : encoders.get(i).entrySet()) {
+                PostingsList lista = entry.getValue().build();
+                diccionario.put(entry.getKey(), lista);
+                bytes += lista.sizeInBytes();
+            }
+            terminos += diccionario.size();
+        }
+        cargado = true;
+
+        log.info("Índice de búsqueda de reportes: {} reportes, {} términos, {} KB de apariciones en {} ms",
+                documentos.size(), terminos, bytes / 1024, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Frecuencia de cada término del texto; deja en el documento sus términos y su largo
+     */
+    private Map<String, Integer> frequencies(String texto, Documento documento, int campo) {
+        List<String> terminos = SpanishAnalyzer.terms(texto);
+        Map<String, Integer> frecuencias = new LinkedHashMap<>();
+        for (String termino : terminos) {
+            frecuencias.merge(termino, 1, Integer::sum);
+        }
+        documento.terminos[campo] = frecuencias.keySet().toArray(new String[0]);
+        documento.largos[campo] = terminos.size();
+        largosTotales[campo] += terminos.size();
+        return frecuencias;
+    }
+
+    private void replaceField(int idReporte, Documento documento, Campo campo, String texto) {
+        removeField(idReporte, documento, campo);
+
+        Map<String, Integer> frecuencias = frequencies(texto, documento, campo.ordinal());
+        TreeMap<String, PostingsList> diccionario = diccionarios.get(campo.ordinal());
+        for (Map.Entry<String, Integer> entry : frecuencias.entrySet()) {
+            diccionario.merge(entry.getKey(), PostingsList.EMPTY.with(idReporte, entry.getValue()),
+                    (actual, nuevo) -> actual.with(idReporte, entry.getValue()));
+        }
+    }
+
+    private void removeField(int idReporte, Documento documento, Campo campo) {
+        int i = campo.ordinal();
+        TreeMap<String, PostingsList> diccionario = diccionarios.get(i);
+        for (String termino : documento.terminos[i]) {
+            PostingsList lista = diccionario.get(termino);
+            if (lista == null) {
+                continue;
+            }
+            PostingsList restante = lista.without(idReporte);
+            if (restante.isEmpty()) {
+                diccionario.remove(termino);
+            } else {
+                diccionario.put(termino, restante);
+            }
+        }
+        largosTotales[i] -= documento.largos[i];
+        documento.terminos[i] = new String[0];
+        documento.largos[i] = 0;
+    }
+
+    /**
+     * Separa la consulta en términos exactos y, si la última palabra no terminó, su prefijo
+     */
+    private static String parseQuery(String consulta, List<String> exactos) {
+        if (consulta == null || consulta.isBlank()) {
+            return null;
+        }
+
+        List<String> tokens = SpanishAnalyzer.tokens(consulta);
+        char ultimo = consulta.charAt(consulta.length() - 1);
+        boolean abierta = !tokens.isEmpty() && Character.isLetterOrDigit(ultimo);
+
+        Set<String> terminos = new LinkedHashSet<>();
+        int hasta = abierta ? tokens.size() - 1 : tokens.size();
+        for (int i = 0; i < hasta; i++) {
+            String token = tokens.get(i);
+            if (!SpanishAnalyzer.isStopword(token)) {
+                terminos.add(SpanishAnalyzer.stem(token));
+            }
+        }
+        exactos.addAll(terminos);
+
+        if (!abierta) {
+            return null;
+        }
+        String ultima = tokens.get(tokens.size() - 1);
+        if (ultima.length() < MIN_PREFIX_LENGTH) {
+            return null;
+        }
+        // La raíz es prefijo de la palabra: "traslado" también encuentra "traslad"
+        return SpanishAnalyzer.stem(ultima);
+    }
+
+    /**
+     * Términos del diccionario (de cualquier campo) que empiezan con el prefijo
+     * Si son más que el tope se quedan los que aparecen en más documentos, no los primeros en orden alfabético
+     */
+    private Expansion expandPrefix(String prefijo) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        for (TreeMap<String, PostingsList> diccionario : diccionarios) {
+            SortedMap<String, PostingsList> rango = diccionario.subMap(prefijo, prefijo + Character.MAX_VALUE);
+            for (Map.Entry<String, PostingsList> entry : rango.entrySet()) {
+                frecuencias.merge(entry.getKey(), entry.getValue().size(), Integer::sum);
+            }
+        }
+        if (frecuencias.size() <= MAX_PREFIX_EXPANSIONS) {
+            return new Expansion(new ArrayList<>(frecuencias.keySet()), false);
+        }
+
+        List<String> terminos = frecuencias.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_PREFIX_EXPANSIONS)
+                .map(Map.Entry::getKey)
+                .toList();
+        return new Expansion(terminos, true);
+    }
+
+    /**
+     * Puntaje BM25 por documento para una palabra de la consulta
+     * Con varias variantes (prefijo) cuenta la mejor, para no premiar a quien repite la raíz
+     */
+    private Map<Integer, Double> scoreTerms(List<String> variantes) {
+        Map<Integer, Double> puntajes = new HashMap<>();
+        int total = documentos.size();
+        if (total == 0) {
+            return puntajes;
+        }
+
+        for (String termino : variantes) {
+            Map<Integer, Double> variante = new HashMap<>();
+            for (Campo campo : CAMPOS) {
+                PostingsList lista = diccionarios.get(campo.ordinal()).get(termino);
+                if (lista == null) {
+                    continue;
+                }
+
+                int df = lista.size();
+                double idf = Math.log(1 + (total - df + 0.5) / (df + 0.5));
+                double promedio = Math.max(1.0, (double) largosTotales[campo.ordinal()] / total);
+
+                PostingsList.Cursor cursor = lista.cursor();
+                while (cursor.next()) {
+                    Documento documento = documentos.get(cursor.doc());
+                    double tf = cursor.frequency();
+                    double norma = K1 * (1 - B + B * documento.largos[campo.ordinal()] / promedio);
+                    double puntaje = campo.peso * idf * tf * (K1 + 1) / (tf + norma);
+                    variante.merge(cursor.doc(), puntaje, Double::sum);
+                }
+            }
+            variante.forEach((doc, puntaje) -> puntajes.merge(doc, puntaje, Math::max));
+        }
+        return puntajes;
+    }
+
+    private static List<Coincidencia> topK(Map<Integer, Double> candidatos, int limite, int desde) {
+        int k = desde + limite;
+        if (k <= 0 || candidatos.isEmpty()) {
+            return List.of();
+        }
+
+        Comparator<Coincidencia> orden = Comparator.comparingDouble(Coincidencia::puntaje)
+                .thenComparingInt(Coincidencia::idReporte);
+        PriorityQueue<Coincidencia> mejores = new PriorityQueue<>(Math.min(k, candidatos.size()) + 1, orden);
+        for (Map.Entry<Integer, Double> entry : candidatos.entrySet()) {
+            mejores.add(new Coincidencia(entry.getKey(), entry.getValue()));
+            if (mejores.size() > k) {
+                mejores.poll();
+            }
+        }
+
+        List<Coincidencia> ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(orden.reversed());
+        return desde >= ordenadas.size() ? List.of() : ordenadas.subList(desde, ordenadas.size());
+    }
+}
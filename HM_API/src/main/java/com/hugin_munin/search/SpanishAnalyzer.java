@@ -0,0 +1,120 @@
+package com.hugin_munin.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Análisis de texto en español para el índice de búsqueda
+ * Minúsculas, sin acentos (ñ se conserva), sin palabras vacías y con un stemmer ligero
+ * que solo quita plural y género: "traslados", "traslada" y "trasladó" quedan en "traslad".
+ */
+public final class SpanishAnalyzer {
+
+    // Por debajo de este largo no se recorta nada ("casa" no es "cas")
+    private static final int MIN_STEM_LENGTH = 5;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "algo", "ante", "como", "con", "contra", "cual", "cuando", "de", "del", "desde",
+            "donde", "durante", "e", "el", "ella", "ellas", "ellos", "en", "entre", "era", "es", "esa",
+            "ese", "eso", "esta", "este", "esto", "fue", "ha", "hay", "la", "las", "le", "les", "lo",
+            "los", "mas", "me", "mi", "muy", "ni", "no", "nos", "o", "para", "pero", "por", "que", "se",
+            "sin", "sobre", "su", "sus", "tambien", "te", "tras", "u", "un", "una", "uno",
+            "unos", "unas", "y", "ya");
+
+    private SpanishAnalyzer() {
+    }
+
+    /**
+     * TÉRMINOS indexables del texto (en orden, con repeticiones)
+     */
+    public static List<String> terms(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String token : tokens(texto)) {
+            if (!STOPWORDS.contains(token)) {
+                terminos.add(stem(token));
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * PALABRAS del texto normalizadas (minúsculas, sin acentos), sin stemming ni filtro
+     */
+    public static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = fold(texto.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                actual.append(c);
+            } else if (!actual.isEmpty()) {
+                tokens.add(actual.toString());
+                actual.setLength(0);
+            }
+        }
+        if (!actual.isEmpty()) {
+            tokens.add(actual.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Es una palabra vacía (ya normalizada)
+     */
+    public static boolean isStopword(String token) {
+        return STOPWORDS.contains(token);
+    }
+
+    /**
+     * RAÍZ de una palabra normalizada: quita -s/-es de plural y la vocal final de género
+     * El resultado siempre es un prefijo de la palabra, salvo -ces → -z ("peces" → "pez")
+     */
+    public static String stem(String token) {
+        int len = token.length();
+        if (len < MIN_STEM_LENGTH) {
+            return token;
+        }
+
+        char ultima = token.charAt(len - 1);
+        if (ultima == 'a' || ultima == 'e' || ultima == 'o') {
+            return token.substring(0, len - 1);
+        }
+        if (ultima != 's') {
+            return token;
+        }
+
+        char penultima = token.charAt(len - 2);
+        char antepenultima = token.charAt(len - 3);
+        if (penultima == 'e' && antepenultima == 's' && token.charAt(len - 4) == 'e') {
+            // "meses" → "mes"
+            return token.substring(0, len - 2);
+        }
+        if (penultima == 'e' && antepenultima == 'c') {
+            return token.substring(0, len - 3) + 'z';
+        }
+        if (penultima == 'a' || penultima == 'e' || penultima == 'o') {
+            return token.substring(0, len - 2);
+        }
+        return token;
+    }
+
+    /**
+     * Minúscula sin acento (á → a, Ü → u); la ñ se conserva
+     */
+    static char fold(char c) {
+        c = Character.toLowerCase(c);
+        return switch (c) {
+            case 'á', 'à', 'ä', 'â' -> 'a';
+            case 'é', 'è', 'ë', 'ê' -> 'e';
+            case 'í', 'ì', 'ï', 'î' -> 'i';
+            case 'ó', 'ò', 'ö', 'ô' -> 'o';
+            case 'ú', 'ù', 'ü', 'û' -> 'u';
+            default -> c;
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.hugin_munin.service;
+
+import com.hugin_munin.cache.TimeSeriesCache;
+import com.hugin_munin.cache.TimeSeriesCache.Granularidad;
+import com.hugin_munin.cache.TimeSeriesCache.Metrica;
+import com.hugin_munin.dto.SerieTemporal;
+import com.hugin_munin.model.CausaBaja;
+import com.hugin_munin.model.OrigenAlta;
+import com.hugin_munin.model.TipoReporte;
+import com.hugin_munin.repository.AnalyticsRepository;
+import com.hugin_munin.repository.CausaBajaRepository;
+import com.hugin_munin.repository.OrigenAltaRepository;
+import com.hugin_munin.repository.TipoReporteRepository;
+import com.hugin_munin.util.Fechas;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de la analítica por periodos: altas por origen, bajas por causa, reportes por tipo
+ * y traslados por par de áreas (los conteos salen de TimeSeriesCache)
+ */
+public class AnalyticsService {
+
+    // Tope de periodos por respuesta (dos años por día)
+    private static final int MAX_PERIODOS = 731;
+
+    private final AnalyticsRepository analyticsRepository;
+    private final OrigenAltaRepository origenAltaRepository;
+    private final CausaBajaRepository causaBajaRepository;
+    private final TipoReporteRepository tipoReporteRepository;
+
+    public AnalyticsService(AnalyticsRepository analyticsRepository, OrigenAltaRepository origenAltaRepository,
+                            CausaBajaRepository causaBajaRepository, TipoReporteRepository tipoReporteRepository) {
+        this.analyticsRepository = analyticsRepository;
+        this.origenAltaRepository = origenAltaRepository;
+        this.causaBajaRepository = causaBajaRepository;
+        this.tipoReporteRepository = tipoReporteRepository;
+    }
+
+    /**
+     * OBTENER la serie de una métrica agrupada por periodos
+     * Sin fin se usa hoy; sin inicio, los últimos periodos por defecto de la granularidad
+     */
+    public SerieTemporal getTimeSeries(String metricaParam, String granularidadParam, String inicioParam,
+                                       String finParam) throws SQLException {
+        if (metricaParam == null || metricaParam.isBlank()) {
+            throw new IllegalArgumentException("El parámetro metric es requerido (altas, bajas, reportes o traslados)");
+        }
+        Metrica metrica = Metrica.parse(metricaParam.trim());
+        Granularidad granularidad = granularidadParam == null || granularidadParam.isBlank()
+                ? Granularidad.MES : Granularidad.parse(granularidadParam.trim());
+
+        LocalDate hasta = parseFecha(finParam, "fin");
+        if (hasta == null) {
+            hasta = LocalDate.now();
+        }
+        LocalDate desde = parseFecha(inicioParam, "inicio");
+        desde = granularidad.inicio(desde != null ? desde : defaultDesde(granularidad, hasta));
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        int cantidad = granularidad.indice(desde, hasta) + 1;
+        if (cantidad > MAX_PERIODOS) {
+            throw new IllegalArgumentException("El rango abarca " + cantidad + " periodos; el máximo es "
+                    + MAX_PERIODOS + " (use una granularidad mayor o un rango menor)");
+        }
+
+        Map<String, int[]> conteos = TimeSeriesCache.get(metrica, granularidad, desde, hasta, analyticsRepository::sweep);
+        Map<String, String> etiquetas = etiquetas(metrica);
+
+        List<SerieTemporal.Serie> series = new ArrayList<>(conteos.size());
+        int[] totales = new int[cantidad];
+        long total = 0;
+        for (Map.Entry<String, int[]> entrada : conteos.entrySet()) {
+            int[] valores = entrada.getValue();
+            long totalSerie = 0;
+            for (int i = 0; i < cantidad; i++) {
+                totales[i] += valores[i];
+                totalSerie += valores[i];
+            }
+            total += totalSerie;
+            series.add(new SerieTemporal.Serie(entrada.getKey(),
+                    etiquetas.getOrDefault(entrada.getKey(), entrada.getKey()), valores, totalSerie));
+        }
+        series.sort(Comparator.comparingLong(SerieTemporal.Serie::total).reversed()
+                .thenComparing(SerieTemporal.Serie::etiqueta));
+
+        List<String> periodos = new ArrayList<>(cantidad);
+        for (LocalDate periodo = desde; !periodo.isAfter(hasta); periodo = granularidad.siguiente(periodo)) {
+            periodos.add(periodo.toString());
+        }
+
+        return new SerieTemporal(metrica.nombre(), granularidad.nombre(), desde.toString(), hasta.toString(),
+                periodos, series, totales, total);
+    }
+
+    // MÉTODOS PRIVADOS
+
+    /**
+     * Primer día por defecto: 30 días, 12 semanas, 12 meses o 5 años hasta la fecha de fin
+     */
+    private LocalDate defaultDesde(Granularidad granularidad, LocalDate hasta) {
+        return switch (granularidad) {
+            case DIA -> hasta.minusDays(29);
+            case SEMANA -> hasta.minusWeeks(11);
+            case MES -> hasta.minusMonths(11);
+            case ANIO -> hasta.minusYears(4);
+        };
+    }
+
+    /**
+     * Nombres de las claves de la métrica (de los catálogos en caché; los traslados ya son legibles)
+     */
+    private Map<String, String> etiquetas(Metrica metrica) throws SQLException {
+        Map<String, String> etiquetas = new HashMap<>();
+        switch (metrica) {
+            case ALTAS -> {
+                for (OrigenAlta origen : origenAltaRepository.findAll()) {
+                    etiquetas.put(String.valueOf(origen.getId_origen_alta()), origen.getNombre_origen_alta());
+                }
+            }
+            case BAJAS -> {
+                for (CausaBaja causa : causaBajaRepository.findAll()) {
+                    etiquetas.put(String.valueOf(causa.getId_causa_baja()), causa.getNombre_causa_baja());
+                }
+            }
+            case REPORTES -> {
+                for (TipoReporte tipo : tipoReporteRepository.findAll()) {
+                    etiquetas.put(String.valueOf(tipo.getId_tipo_reporte()), tipo.getNombre_tipo_reporte());
+                }
+            }
+            case TRASLADOS -> {
+            }
+        }
+        return etiquetas;
+    }
+
+    private LocalDate parseFecha(String valor, String nombre) {
+        try {
+            return Fechas.parse(valor);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Fecha de " + nombre + " inválida (use YYYY-MM-DD): " + valor);
+        }
+    }
+}
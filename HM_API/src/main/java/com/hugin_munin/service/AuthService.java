@@ -1,13 +1,23 @@
 package com.hugin_munin.service;
 
+import com.hugin_munin.cache.PrincipalCache;
+import com.hugin_munin.cache.TokenEpochCache;
 import com.hugin_munin.model.Usuario;
 import com.hugin_munin.repository.UsuarioRepository;
+import com.hugin_munin.util.JwtClaims;
 import com.hugin_munin.util.JwtUtil;
+import com.hugin_munin.util.RevocationStore;
+import com.hugin_munin.util.TokenDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.nio.charset.StandardCharsets;
@@ -18,16 +28,29 @@ import java.nio.charset.StandardCharsets;
  */
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UsuarioRepository usuarioRepository;
+    private final PrincipalCache principalCache;
+
+    // Epoch de sesiones por usuario: tokens con epoch anterior quedan revocados
+    private final TokenEpochCache tokenEpochCache;
 
-    // Lista negra de tokens invalidados (para logout)
-    private final Map<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    // Tokens revocados (logout, refresh) hasta su propia expiración
+    private final RevocationStore revocationStore;
 
-    // Tiempo de limpieza de tokens expirados (cada hora)
-    private static final long CLEANUP_INTERVAL = 60 * 60 * 1000;
+    // Intervalo de purga de revocaciones vencidas
+    private static final long CLEANUP_INTERVAL_MINUTES = 10;
 
-    public AuthService(UsuarioRepository usuarioRepository) {
+    // Vigencia por defecto de una revocación si el token no declara exp
+    private static final long DEFAULT_REVOCATION_SECONDS = 30L * 24 * 60 * 60;
+
+    public AuthService(UsuarioRepository usuarioRepository, PrincipalCache principalCache,
+                       RevocationStore revocationStore, TokenEpochCache tokenEpochCache) {
         this.usuarioRepository = usuarioRepository;
+        this.principalCache = principalCache;
+        this.tokenEpochCache = tokenEpochCache;
+        this.revocationStore = revocationStore;
         startTokenCleanup();
     }
 
@@ -48,24 +71,24 @@ public class AuthService {
                 .orElse(null);
 
         if (usuario == null) {
-            System.out.println("Usuario no encontrado: " + nombreUsuario);
+            log.info("Usuario no encontrado: {}", nombreUsuario);
             return new AuthResponse(false, "Usuario no encontrado", null, null);
         }
 
         if (!usuario.isActivo()) {
-            System.out.println("Usuario inactivo: " + nombreUsuario);
+            log.info("Usuario inactivo: {}", nombreUsuario);
             return new AuthResponse(false, "Usuario desactivado", null, null);
         }
 
         // Verificar contraseña
         if (!verifyPassword(contrasena, usuario.getContrasena())) {
-            System.out.println("Contraseña incorrecta para: " + nombreUsuario);
+            log.info("Contraseña incorrecta para: {}", nombreUsuario);
             return new AuthResponse(false, "Contraseña incorrecta", null, null);
         }
 
         // Generar JWT
-        String token = JwtUtil.generateToken(usuario);
-        System.out.println("JWT generado para usuario: " + usuario.getNombre_usuario());
+        String token = JwtUtil.generateToken(usuario, tokenEpochCache.currentEpoch(usuario.getId_usuario()));
+        log.debug("JWT generado para usuario: {}", usuario.getNombre_usuario());
 
         return new AuthResponse(true, "Autenticación exitosa", token, usuario);
     }
@@ -75,37 +98,51 @@ public class AuthService {
      */
     public Usuario getUserByToken(String token) throws SQLException {
         if (token == null || token.trim().isEmpty()) {
-            System.out.println("Token vacío o nulo");
+            log.debug("Token vacío o nulo");
             return null;
         }
 
         // Verificar si el token está en la lista negra
         if (isTokenBlacklisted(token)) {
-            System.out.println("Token está en lista negra");
+            log.debug("Token está en lista negra");
+            return null;
+        }
+
+        TokenDigest key = TokenDigest.of(token);
+        Usuario cached = principalCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Validar token JWT (una sola verificación y decodificación)
+        JwtClaims claims = JwtUtil.verifyAndDecode(token);
+        if (claims == null) {
+            log.debug("Token JWT inválido");
             return null;
         }
 
-        // Validar token JWT
-        if (!JwtUtil.validateToken(token)) {
-            System.out.println("Token JWT inválido o expirado");
+        long expiresAt = claims.expiresAtMillis();
+        if (expiresAt < System.currentTimeMillis()) {
+            log.debug("Token JWT expirado");
             return null;
         }
 
         // Extraer usuario del token
-        Usuario usuario = JwtUtil.extractUsuario(token);
-        if (usuario == null) {
-            System.out.println("No se pudo extraer usuario del token");
+        Usuario usuario = claims.toUsuario();
+        if (usuario.getId_usuario() == null) {
+            log.debug("No se pudo extraer usuario del token");
             return null;
         }
 
-        // Verificar que el usuario aún existe y está activo en la base de datos
-        Usuario dbUsuario = usuarioRepository.findById(usuario.getId_usuario());
-        if (dbUsuario == null || !dbUsuario.isActivo()) {
-            System.out.println("Usuario no existe o está inactivo en BD: " + usuario.getId_usuario());
+        // Verificar que el usuario sigue activo y no revocó sus sesiones (epoch en memoria)
+        if (!tokenEpochCache.isValid(usuario.getId_usuario(), claims.epoch())) {
+            log.debug("Sesión revocada, usuario inexistente o inactivo: {}", usuario.getId_usuario());
             return null;
         }
 
-        System.out.println("Token válido para usuario: " + usuario.getNombre_usuario());
+        principalCache.put(key, usuario, expiresAt);
+
+        log.debug("Token válido para usuario: {}", usuario.getNombre_usuario());
         return usuario;
     }
 
@@ -117,28 +154,39 @@ public class AuthService {
             return false;
         }
 
-        // Agregar token a lista negra con timestamp de expiración
-        long expirationTime = System.currentTimeMillis() + (30L * 24 * 60 * 60 * 1000); // 30 días
-        blacklistedTokens.put(token, expirationTime);
+        // Solo se registran tokens emitidos por la API; uno inválido ya no autentica
+        JwtClaims claims = JwtUtil.verifyAndDecode(token);
+        if (claims != null) {
+            long expiresAt = claims.exp() > 0
+                    ? claims.exp()
+                    : System.currentTimeMillis() / 1000 + DEFAULT_REVOCATION_SECONDS;
+            revocationStore.revoke(token, expiresAt);
+        }
+        principalCache.invalidate(TokenDigest.of(token));
 
-        System.out.println("Token agregado a lista negra");
+        log.debug("Token agregado a lista negra");
         return true;
     }
 
     /**
      * Refrescar token si está próximo a expirar
      */
-    public String refreshTokenIfNeeded(String token) {
+    public String refreshTokenIfNeeded(String token) throws SQLException {
         if (token == null || !JwtUtil.validateToken(token)) {
             return null;
         }
 
+        JwtClaims claims = JwtUtil.verifyAndDecode(token);
+        if (claims == null || !tokenEpochCache.isValid(claims.idUsuario(), claims.epoch())) {
+            return null;
+        }
+
         if (JwtUtil.needsRefresh(token)) {
             String newToken = JwtUtil.refreshToken(token);
             if (newToken != null) {
                 // Invalidar token anterior
                 invalidateToken(token);
-                System.out.println("Token refrescado");
+                log.debug("Token refrescado");
                 return newToken;
             }
         }
@@ -164,22 +212,39 @@ public class AuthService {
         boolean updated = usuarioRepository.update(usuario);
 
         if (updated) {
-            System.out.println("Contraseña cambiada para usuario ID: " + userId);
-            // Nota: Con JWT no invalidamos todas las sesiones automáticamente
-            // El cliente debe re-autenticarse o implementar invalidación por usuario
+            // Cerrar todas las sesiones abiertas con la contraseña anterior
+            tokenEpochCache.revokeAll(userId);
+            principalCache.invalidateUser(userId);
+            log.info("Contraseña cambiada para usuario ID: {}", userId);
         }
 
         return updated;
     }
 
+    /**
+     * Revocar todas las sesiones de un usuario
+     */
+    public void revokeAllSessions(Integer userId) throws SQLException {
+        if (userId == null || !usuarioRepository.existsById(userId)) {
+            throw new IllegalArgumentException("Usuario no encontrado con ID: " + userId);
+        }
+
+        tokenEpochCache.revokeAll(userId);
+        principalCache.invalidateUser(userId);
+        log.info("Sesiones revocadas para usuario ID: {}", userId);
+    }
+
     /**
      * Obtener información del servicio de autenticación
      */
     public Map<String, Object> getAuthInfo() {
         Map<String, Object> info = new ConcurrentHashMap<>();
         info.put("tipo_autenticacion", "JWT");
-        info.put("tokens_en_lista_negra", blacklistedTokens.size());
+        info.put("tokens_en_lista_negra", revocationStore.size());
+        info.put("memoria_lista_negra_bytes", revocationStore.memoryBytes());
         info.put("tiempo_expiracion_token", "30 días");
+        info.put("cache_usuarios", principalCache.getStats());
+        info.put("epochs_en_memoria", tokenEpochCache.size());
         return info;
     }
 
@@ -187,7 +252,7 @@ public class AuthService {
      * Verificar si un token está en la lista negra
      */
     private boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.containsKey(token);
+        return revocationStore.isRevoked(token);
     }
 
     /**
@@ -230,47 +295,28 @@ public class AuthService {
     }
 
     /**
-     * Iniciar hilo de limpieza de tokens expirados en lista negra
+     * Programar la purga periódica de revocaciones vencidas y el guardado del snapshot
      */
     private void startTokenCleanup() {
-        Thread cleanupThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(CLEANUP_INTERVAL);
-                    int removedCount = cleanupExpiredBlacklistedTokens();
-                    if (removedCount > 0) {
-                        System.out.println("🧹 Limpieza de tokens: " + removedCount + " tokens expirados eliminados de lista negra");
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("Error en limpieza de tokens: " + e.getMessage());
-                }
-            }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "JWTTokenCleanup");
+            thread.setDaemon(true);
+            return thread;
         });
 
-        cleanupThread.setDaemon(true);
-        cleanupThread.setName("JWTTokenCleanup");
-        cleanupThread.start();
-    }
-
-    /**
-     * Limpiar tokens expirados de la lista negra
-     */
-    private int cleanupExpiredBlacklistedTokens() {
-        long currentTime = System.currentTimeMillis();
-        final int[] removedCount = {0};
-
-        blacklistedTokens.entrySet().removeIf(entry -> {
-            if (entry.getValue() < currentTime) {
-                removedCount[0]++;
-                return true;
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                int removedCount = revocationStore.purgeExpired();
+                if (removedCount > 0) {
+                    log.info("🧹 Limpieza de tokens: {} tokens expirados eliminados de lista negra", removedCount);
+                }
+                revocationStore.saveSnapshot();
+            } catch (Exception e) {
+                log.error("Error en limpieza de tokens: {}", e.getMessage());
             }
-            return false;
-        });
+        }, CLEANUP_INTERVAL_MINUTES, CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
 
-        return removedCount[0];
+        Runtime.getRuntime().addShutdownHook(new Thread(revocationStore::saveSnapshot, "JWTRevocationSnapshot"));
     }
 
     /**
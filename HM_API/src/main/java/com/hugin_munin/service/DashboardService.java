@@ -0,0 +1,77 @@
+package com.hugin_munin.service;
+
+import com.hugin_munin.cache.DashboardAggregate;
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.dto.ResumenDashboard;
+import com.hugin_munin.repository.DashboardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio del resumen del dashboard
+ * Las lecturas salen de DashboardAggregate; este servicio lo carga al arrancar y lo concilia
+ * periódicamente con la base para corregir cualquier desvío de las actualizaciones incrementales
+ */
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    // Especies en la gráfica del dashboard
+    private static final int TOP_ESPECIES = 10;
+
+    private static final long RECONCILE_MINUTES = AppConfig.getLong("DASHBOARD_RECONCILE_MINUTES", 10);
+
+    private final DashboardRepository dashboardRepository;
+
+    public DashboardService(DashboardRepository dashboardRepository) {
+        this.dashboardRepository = dashboardRepository;
+    }
+
+    /**
+     * OBTENER el resumen (sin consultas salvo que aún no se haya cargado)
+     */
+    public ResumenDashboard getSummary() throws SQLException {
+        if (!DashboardAggregate.isLoaded()) {
+            reconcile();
+        }
+        return DashboardAggregate.summary(TOP_ESPECIES);
+    }
+
+    /**
+     * CONCILIAR con la base: recarga el resumen y registra si había diferencias
+     */
+    public boolean reconcile() throws SQLException {
+        return DashboardAggregate.reload(dashboardRepository::loadSummary);
+    }
+
+    /**
+     * Cargar el resumen y programar la conciliación periódica
+     */
+    public void start() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // Sin base de datos disponible se cargará en la primera lectura
+            log.warn("No se pudo cargar el resumen del dashboard: {}", e.getMessage());
+        }
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DashboardReconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                log.error("Error en la conciliación del dashboard: {}", e.getMessage());
+            }
+        }, RECONCILE_MINUTES, RECONCILE_MINUTES, TimeUnit.MINUTES);
+    }
+}
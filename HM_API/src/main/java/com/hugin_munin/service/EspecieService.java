@@ -1,9 +1,18 @@
 package com.hugin_munin.service;
 
+import com.hugin_munin.cache.CensusIndex;
+import com.hugin_munin.cache.TimeSeriesCache.Granularidad;
+import com.hugin_munin.dto.Censo;
 import com.hugin_munin.model.Especie;
+import com.hugin_munin.repository.CensusRepository;
 import com.hugin_munin.repository.EspecieRepository;
+import com.hugin_munin.util.Fechas;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -14,10 +23,16 @@ import java.util.Optional;
  * Contiene toda la lógica de negocio para operaciones CRUD de especies
  */
 public class EspecieService {
+
+    // Tope de puntos de la evolución del censo (dos años por día)
+    private static final int MAX_PUNTOS_CENSO = 731;
+
     private final EspecieRepository especieRepository;
+    private final CensusRepository censusRepository;
 
-    public EspecieService(EspecieRepository especieRepository) {
+    public EspecieService(EspecieRepository especieRepository, CensusRepository censusRepository) {
         this.especieRepository = especieRepository;
+        this.censusRepository = censusRepository;
     }
 
     /**
@@ -188,6 +203,67 @@ public class EspecieService {
         return especieRepository.findAllGeneros();
     }
 
+    /**
+     * CENSO de especímenes vivos de una especie (o de toda la colección si idEspecie es null)
+     * A una fecha (hoy por defecto) o, si se indica inicio o granularidad, su evolución hasta fin
+     */
+    public Censo getCensus(Integer idEspecie, String fechaParam, String inicioParam, String finParam,
+                           String granularidadParam) throws SQLException {
+        if (idEspecie != null) {
+            if (idEspecie <= 0) {
+                throw new IllegalArgumentException("ID inválido");
+            }
+            if (!especieRepository.existsById(idEspecie)) {
+                throw new IllegalArgumentException("Especie no encontrada con ID: " + idEspecie);
+            }
+        }
+
+        boolean rango = (inicioParam != null && !inicioParam.isBlank())
+                || (granularidadParam != null && !granularidadParam.isBlank());
+        if (!rango) {
+            LocalDate fecha = parseFecha(fechaParam, "fecha");
+            if (fecha == null) {
+                fecha = LocalDate.now();
+            }
+            int especimenes = CensusIndex.census(idEspecie, fecha, censusRepository::loadCensus);
+            List<Censo.ConteoEspecie> especies = idEspecie == null ? censusBySpecies(fecha) : List.of();
+            return new Censo(idEspecie, fecha.toString(), especimenes, List.of(), especies);
+        }
+
+        Granularidad granularidad = granularidadParam == null || granularidadParam.isBlank()
+                ? Granularidad.MES : Granularidad.parse(granularidadParam.trim());
+        LocalDate hasta = parseFecha(finParam, "fin");
+        if (hasta == null) {
+            hasta = LocalDate.now();
+        }
+        LocalDate desde = parseFecha(inicioParam, "inicio");
+        if (desde == null) {
+            desde = hasta.minusMonths(11);
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+        desde = granularidad.inicio(desde);
+        if (granularidad.indice(desde, hasta) >= MAX_PUNTOS_CENSO) {
+            throw new IllegalArgumentException("El rango supera los " + MAX_PUNTOS_CENSO
+                    + " puntos (use una granularidad mayor o un rango menor)");
+        }
+
+        // Un punto al final de cada periodo; el último es la fecha de fin
+        List<LocalDate> fechas = new ArrayList<>();
+        for (LocalDate periodo = desde; !periodo.isAfter(hasta); periodo = granularidad.siguiente(periodo)) {
+            LocalDate fin = granularidad.siguiente(periodo).minusDays(1);
+            fechas.add(fin.isAfter(hasta) ? hasta : fin);
+        }
+        int[] valores = CensusIndex.census(idEspecie, fechas, censusRepository::loadCensus);
+
+        List<Censo.Punto> evolucion = new ArrayList<>(fechas.size());
+        for (int i = 0; i < valores.length; i++) {
+            evolucion.add(new Censo.Punto(fechas.get(i).toString(), valores[i]));
+        }
+        return new Censo(idEspecie, hasta.toString(), valores[valores.length - 1], evolucion, List.of());
+    }
+
 
     /**
      * Validar datos de la especie
@@ -238,4 +314,30 @@ public class EspecieService {
         String trimmed = text.trim();
         return trimmed.substring(0, 1).toUpperCase() + trimmed.substring(1).toLowerCase();
     }
-}
\ No newline at end of file
+
+    /**
+     * Vivos por especie a la fecha, de más a menos
+     */
+    private List<Censo.ConteoEspecie> censusBySpecies(LocalDate fecha) throws SQLException {
+        Map<Integer, Integer> conteos = CensusIndex.censusBySpecies(fecha, censusRepository::loadCensus);
+        List<Censo.ConteoEspecie> especies = new ArrayList<>(conteos.size());
+        for (Especie especie : especieRepository.findAllSpecies()) {
+            Integer vivos = conteos.get(especie.getId_especie());
+            if (vivos != null) {
+                especies.add(new Censo.ConteoEspecie(especie.getId_especie(),
+                        especie.getGenero() + " " + especie.getEspecie(), vivos));
+            }
+        }
+        especies.sort(Comparator.comparingInt(Censo.ConteoEspecie::especimenes).reversed()
+                .thenComparing(Censo.ConteoEspecie::nombre_cientifico_completo));
+        return especies;
+    }
+
+    private LocalDate parseFecha(String valor, String nombre) {
+        try {
+            return Fechas.parse(valor);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Fecha de " + nombre + " inválida (use YYYY-MM-DD): " + valor);
+        }
+    }
+}
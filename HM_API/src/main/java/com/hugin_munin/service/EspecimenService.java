@@ -1,5 +1,12 @@
 package com.hugin_munin.service;
 
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.dto.EspecieInfo;
+import com.hugin_munin.dto.EspecimenInfo;
+import com.hugin_munin.dto.EspecimenSugerencia;
+import com.hugin_munin.dto.RegistroAltaInfo;
+import com.hugin_munin.dto.RegistroUnificadoCommand;
+import com.hugin_munin.dto.RegistroUnificadoCreado;
 import com.hugin_munin.model.Especimen;
 import com.hugin_munin.model.Especie;
 import com.hugin_munin.model.RegistroAlta;
@@ -8,26 +15,49 @@ import com.hugin_munin.repository.EspecieRepository;
 import com.hugin_munin.repository.RegistroAltaRepository;
 import com.hugin_munin.repository.UsuarioRepository;
 import com.hugin_munin.repository.OrigenAltaRepository;
+import com.hugin_munin.util.FanOut;
+import com.hugin_munin.util.RowHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Optional;
 import java.util.Date;
-import java.text.SimpleDateFormat;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * Servicio para gestionar especímenes con lógica de creación unificada COMPLETO
  * Incluye todos los métodos necesarios para el registro unificado
  */
 public class EspecimenService {
+
+    private static final Logger log = LoggerFactory.getLogger(EspecimenService.class);
     private final EspecimenRepository especimenRepository;
     private final EspecieRepository especieRepository;
     private final RegistroAltaRepository registroAltaRepository;
     private final UsuarioRepository usuarioRepository;
     private final OrigenAltaRepository origenAltaRepository;
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_AUTOCOMPLETE = 50;
+    private static final long COUNT_TTL_MS = 30_000;
+
+    // Conteos por (solo activos, texto buscado), LRU: cada texto distinto del buscador crea una entrada
+    private static final int MAX_COUNT_ENTRIES = 256;
+    private static final ReentrantLock COUNT_LOCK = new ReentrantLock();
+    private static final LinkedHashMap<String, CountEntry> COUNT_CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CountEntry> eldest) {
+            return size() > MAX_COUNT_ENTRIES;
+        }
+    };
+
     public EspecimenService(EspecimenRepository especimenRepository,
                             EspecieRepository especieRepository,
                             RegistroAltaRepository registroAltaRepository,
@@ -47,6 +77,13 @@ public class EspecimenService {
         return especimenRepository.findAllSpecimen();
     }
 
+    /**
+     * Recorrer todos los especímenes en streaming
+     */
+    public int streamAllSpecimens(RowHandler<? super Especimen> handler) throws SQLException, IOException {
+        return especimenRepository.streamAllSpecimen(handler);
+    }
+
     /**
      * Obtener especimen por ID
      */
@@ -61,159 +98,246 @@ public class EspecimenService {
     }
 
 
+    /**
+     * Obtener especimen (con especie) y sus registros de alta; las dos consultas van en paralelo
+     */
     public Map<String, Object> getSpecimenWithAllData(Integer idEspecimen) throws SQLException {
-        System.out.println("Obteniendo datos completos para especimen ID: " + idEspecimen);
-
-        try {
-            Optional<Especimen> especimenOpt = especimenRepository.findByIdWithSpecieInfo(idEspecimen);
-            if (especimenOpt.isEmpty()) {
-                return null;
-            }
+        log.debug("Obteniendo datos completos para especimen ID: {}", idEspecimen);
 
-            Especimen especimen = especimenOpt.get();
+        try (FanOut fanOut = FanOut.open()) {
+            Supplier<Map<String, Object>> datos = forkSpecimenWithAllData(fanOut, idEspecimen);
+            fanOut.join();
+            return datos.get();
 
-            List<RegistroAlta> registrosAlta = registroAltaRepository.findByEspecimen(idEspecimen);
-
-            Map<String, Object> response = new HashMap<>();
+        } catch (Exception e) {
+            log.error("Error obteniendo datos completos: {}", e.getMessage());
+            throw e;
+        }
+    }
 
-            Map<String, Object> especimenInfo = new HashMap<>();
-            especimenInfo.put("id_especimen", especimen.getId_especimen());
-            especimenInfo.put("num_inventario", especimen.getNum_inventario());
-            especimenInfo.put("id_especie", especimen.getId_especie());
-            especimenInfo.put("nombre_especimen", especimen.getNombre_especimen());
-            especimenInfo.put("activo", especimen.isActivo());
-
-            if (especimen.getEspecie() != null) {
-                Map<String, Object> especieInfo = new HashMap<>();
-                especieInfo.put("id_especie", especimen.getEspecie().getId_especie());
-                especieInfo.put("genero", especimen.getEspecie().getGenero());
-                especieInfo.put("especie", especimen.getEspecie().getEspecie());
-                especimenInfo.put("especie_info", especieInfo);
+    /**
+     * Lanzar en el fan-out las consultas de getSpecimenWithAllData para combinarlas con otras
+     * El resultado (null si el especimen no existe) se lee después de fanOut.join()
+     */
+    public Supplier<Map<String, Object>> forkSpecimenWithAllData(FanOut fanOut, Integer idEspecimen) {
+        FanOut.Branch<Optional<Especimen>> especimenOpt = fanOut.fork("especimen",
+                () -> especimenRepository.findByIdWithSpecieInfo(idEspecimen));
+        FanOut.Branch<List<RegistroAlta>> registrosAlta = fanOut.fork("registros_alta",
+                () -> registroAltaRepository.findByEspecimen(idEspecimen));
+
+        return () -> {
+            if (especimenOpt.get().isEmpty()) {
+                return null;
             }
 
-            response.put("especimen", especimenInfo);
-            response.put("registros_alta", registrosAlta);
-            response.put("total_registros_alta", registrosAlta.size());
+            Map<String, Object> response = new HashMap<>();
+            response.put("especimen", EspecimenInfo.of(especimenOpt.get().get()));
+            response.put("registros_alta", registrosAlta.get());
+            response.put("total_registros_alta", registrosAlta.get().size());
 
-            System.out.println("Datos completos obtenidos exitosamente");
+            log.debug("Datos completos obtenidos exitosamente");
             return response;
-
-        } catch (Exception e) {
-            System.err.println("Error obteniendo datos completos: " + e.getMessage());
-            throw e;
-        }
+        };
     }
 
 
-    public Map<String, Object> updateSpecimenWithRegistration(Map<String, Object> requestData) throws SQLException {
-        System.out.println("Actualizando especimen con registro...");
+    /**
+     * Actualizar especimen (y su registro de alta si viene) desde el registro unificado
+     */
+    public Especimen updateSpecimenWithRegistration(Integer idEspecimen, RegistroUnificadoCommand command) throws SQLException {
+        log.debug("Actualizando especimen con registro...");
 
         try {
-            Integer idEspecimen = (Integer) requestData.get("id_especimen");
+            RegistroUnificadoValidator.validateUpdate(command);
 
-            @SuppressWarnings("unchecked")
-            Map<String, String> especieData = (Map<String, String>) requestData.get("especie");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> especimenData = (Map<String, Object>) requestData.get("especimen");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> registroData = (Map<String, Object>) requestData.get("registro_alta");
+            return UnitOfWork.run("especimen.update_registro", () -> {
+                Especie especie = findOrCreateEspecie(command.especie());
 
-            Especie especie = findOrCreateEspecie(especieData);
+                Especimen especimen = updateSpecimenData(idEspecimen, command.especimen(), especie);
 
-            Especimen especimen = updateSpecimenData(idEspecimen, especimenData, especie);
-
-            if (registroData != null) {
-                updateRegistroAltaData(idEspecimen, registroData);
-            }
+                if (command.registro_alta() != null) {
+                    updateRegistroAltaData(idEspecimen, command.registro_alta());
+                }
 
-            return buildUpdateResponse(especimen, especie);
+                return especimen;
+            });
 
         } catch (Exception e) {
-            System.err.println("Error en actualización: " + e.getMessage());
+            log.error("Error en actualización: {}", e.getMessage());
             throw e;
         }
     }
 
 
     public Map<String, Object> getSpecimensWithPagination(int page, int size, String search) throws SQLException {
-        System.out.println("Obteniendo especímenes paginados: page=" + page + ", size=" + size);
+        return getSpecimensPage(null, page, size, search, "id", false);
+    }
 
-        try {
-            List<Especimen> allSpecimens;
+    public Map<String, Object> getSpecimensWithPaginationActiveOnly(int page, int size, String search) throws SQLException {
+        return getSpecimensPage(null, page, size, search, "id", true);
+    }
 
-            if (search != null && !search.trim().isEmpty()) {
-                allSpecimens = especimenRepository.findByNameContaining(search);
-            } else {
-                allSpecimens = especimenRepository.findAllWithSpecieInfo();
-            }
+    /**
+     * Obtener una página de especímenes resuelta en base de datos
+     * Con cursor usa keyset (sin OFFSET); sin cursor usa página/tamaño
+     */
+    public Map<String, Object> getSpecimensPage(String cursor, int page, int size, String search,
+                                                String sort, boolean soloActivos) throws SQLException {
+        SpecimenPage pagina = findSpecimensPage(cursor, page, size, search, sort, soloActivos);
+
+        List<EspecimenInfo> specimensData = pagina.getEspecimenes().stream()
+                .map(EspecimenInfo::of)
+                .collect(java.util.stream.Collectors.toList());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("specimens", specimensData);
+        result.put("total", pagina.getTotal());
+        result.put("page", page);
+        result.put("size", size);
+        result.put("total_pages", (int) Math.ceil((double) pagina.getTotal() / size));
+        result.put("next_cursor", pagina.getNextCursor());
+        result.put("has_more", pagina.isHasMore());
+
+        return result;
+    }
 
-            int totalItems = allSpecimens.size();
-            int offset = (page - 1) * size;
-            int endIndex = Math.min(offset + size, totalItems);
+    /**
+     * Obtener una página de especímenes (con su especie) sin convertir a mapa
+     * Solo se materializan size + 1 filas para saber si hay más resultados
+     */
+    public SpecimenPage findSpecimensPage(String cursor, int page, int size, String search,
+                                          String sort, boolean soloActivos) throws SQLException {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        if (page <= 0) {
+            throw new IllegalArgumentException("La página debe ser mayor a 0");
+        }
 
-            List<Especimen> pagedSpecimens = allSpecimens.subList(
-                    Math.max(0, offset),
-                    Math.max(0, endIndex)
-            );
+        boolean ordenarPorNombre = "nombre".equalsIgnoreCase(sort);
+        Integer afterId = null;
+        String afterName = null;
 
-            List<Map<String, Object>> specimensData = pagedSpecimens.stream()
-                    .map(this::convertSpecimenToMap)
-                    .collect(java.util.stream.Collectors.toList());
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            String[] partes = decodeCursor(cursor);
+            ordenarPorNombre = "n".equals(partes[0]);
+            afterId = Integer.parseInt(partes[1]);
+            afterName = ordenarPorNombre ? partes[2] : null;
+        }
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("specimens", specimensData);
-            result.put("total", totalItems);
-            result.put("page", page);
-            result.put("size", size);
-            result.put("total_pages", (int) Math.ceil((double) totalItems / size));
+        List<Especimen> filas = especimenRepository.findPage(soloActivos, search, ordenarPorNombre,
+                afterId, afterName, (page - 1) * size, size + 1);
 
-            return result;
+        boolean hasMore = filas.size() > size;
+        List<Especimen> especimenes = hasMore ? filas.subList(0, size) : filas;
 
-        } catch (Exception e) {
-            System.err.println("Error en paginación: " + e.getMessage());
-            throw e;
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = encodeCursor(especimenes.get(especimenes.size() - 1), ordenarPorNombre);
         }
+
+        return new SpecimenPage(especimenes, countSpecimens(soloActivos, search), nextCursor, hasMore);
     }
 
-    public Map<String, Object> getSpecimensWithPaginationActiveOnly(int page, int size, String search) throws SQLException {
-        System.out.println("Obteniendo especímenes ACTIVOS paginados: page=" + page + ", size=" + size);
+    /**
+     * Contar especímenes filtrados, usando un caché de vida corta
+     */
+    private int countSpecimens(boolean soloActivos, String search) throws SQLException {
+        String clave = soloActivos + "|" + (search == null ? "" : search.trim().toLowerCase());
+        long ahora = System.currentTimeMillis();
 
+        COUNT_LOCK.lock();
         try {
-            List<Especimen> allSpecimens;
-
-            if (search != null && !search.trim().isEmpty()) {
-                allSpecimens = especimenRepository.findByNameContaining(search).stream()
-                        .filter(Especimen::isActivo)
-                        .collect(java.util.stream.Collectors.toList());
-            } else {
-                allSpecimens = especimenRepository.findActiveSpecimens();
+            CountEntry entry = COUNT_CACHE.get(clave);
+            if (entry != null) {
+                if (entry.expiresAt > ahora) {
+                    return entry.total;
+                }
+                COUNT_CACHE.remove(clave);
             }
+        } finally {
+            COUNT_LOCK.unlock();
+        }
 
-            int totalItems = allSpecimens.size();
-            int offset = (page - 1) * size;
-            int endIndex = Math.min(offset + size, totalItems);
+        int total = especimenRepository.countFiltered(soloActivos, search);
+        COUNT_LOCK.lock();
+        try {
+            COUNT_CACHE.put(clave, new CountEntry(total, ahora + COUNT_TTL_MS));
+        } finally {
+            COUNT_LOCK.unlock();
+        }
+        return total;
+    }
 
-            List<Especimen> pagedSpecimens = allSpecimens.subList(
-                    Math.max(0, offset),
-                    Math.max(0, endIndex)
-            );
+    /**
+     * Invalidar los conteos en caché tras cualquier escritura sobre especímenes
+     */
+    public static void invalidateCounts() {
+        COUNT_LOCK.lock();
+        try {
+            COUNT_CACHE.clear();
+        } finally {
+            COUNT_LOCK.unlock();
+        }
+    }
 
-            List<Map<String, Object>> specimensData = pagedSpecimens.stream()
-                    .map(this::convertSpecimenToMap)
-                    .collect(java.util.stream.Collectors.toList());
+    private String encodeCursor(Especimen ultimo, boolean ordenarPorNombre) {
+        String raw = ordenarPorNombre
+                ? "n|" + ultimo.getId_especimen() + "|" + ultimo.getNombre_especimen()
+                : "i|" + ultimo.getId_especimen();
+        return java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("specimens", specimensData);
-            result.put("total", totalItems);
-            result.put("page", page);
-            result.put("size", size);
-            result.put("total_pages", (int) Math.ceil((double) totalItems / size));
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(java.util.Base64.getUrlDecoder().decode(cursor.trim()),
+                    java.nio.charset.StandardCharsets.UTF_8);
+            String[] partes = raw.split("\\|", 3);
 
-            return result;
+            if ("i".equals(partes[0]) && partes.length == 2) {
+                Integer.parseInt(partes[1]);
+                return partes;
+            }
+            if ("n".equals(partes[0]) && partes.length == 3) {
+                Integer.parseInt(partes[1]);
+                return partes;
+            }
+        } catch (IllegalArgumentException e) {
+            // cae al error de abajo
+        }
+        throw new IllegalArgumentException("Cursor de paginación inválido");
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error en paginación activos: " + e.getMessage());
-            throw e;
+    /**
+     * Página de especímenes con su cursor de continuación
+     */
+    public static class SpecimenPage {
+        private final List<Especimen> especimenes;
+        private final int total;
+        private final String nextCursor;
+        private final boolean hasMore;
+
+        public SpecimenPage(List<Especimen> especimenes, int total, String nextCursor, boolean hasMore) {
+            this.especimenes = especimenes;
+            this.total = total;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+
+        public List<Especimen> getEspecimenes() { return especimenes; }
+        public int getTotal() { return total; }
+        public String getNextCursor() { return nextCursor; }
+        public boolean isHasMore() { return hasMore; }
+    }
+
+    private static final class CountEntry {
+        final int total;
+        final long expiresAt;
+
+        CountEntry(int total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
         }
     }
 
@@ -224,6 +348,40 @@ public class EspecimenService {
         return especimenRepository.findActiveSpecimens();
     }
 
+    /**
+     * Obtener especímenes activos con su especie (una sola consulta)
+     */
+    public List<Especimen> getActiveSpecimensWithSpecieInfo(String search) throws SQLException {
+        return especimenRepository.findActiveWithSpecieInfo(search);
+    }
+
+    /**
+     * Obtener el registro de alta más reciente de cada especimen activo, indexado por ID de especimen
+     * Equivale a findByEspecimen(id).get(0) para cada especimen, pero en una sola consulta
+     */
+    public Map<Integer, RegistroAlta> getLatestRegistrosAltaForActiveSpecimens(String search) throws SQLException {
+        Map<Integer, RegistroAlta> registrosPorEspecimen = new HashMap<>();
+
+        for (RegistroAlta registro : registroAltaRepository.findByActiveEspecimenes(search)) {
+            registrosPorEspecimen.putIfAbsent(registro.getId_especimen(), registro);
+        }
+
+        return registrosPorEspecimen;
+    }
+
+    /**
+     * Obtener el registro de alta más reciente de cada especimen indicado, indexado por ID de especimen
+     */
+    public Map<Integer, RegistroAlta> getLatestRegistrosAltaForSpecimens(List<Integer> idsEspecimen) throws SQLException {
+        Map<Integer, RegistroAlta> registrosPorEspecimen = new HashMap<>();
+
+        for (RegistroAlta registro : registroAltaRepository.findByEspecimenIds(idsEspecimen)) {
+            registrosPorEspecimen.putIfAbsent(registro.getId_especimen(), registro);
+        }
+
+        return registrosPorEspecimen;
+    }
+
     /**
      * Contar especímenes activos
      */
@@ -231,8 +389,6 @@ public class EspecimenService {
         try {
             return especimenRepository.countActiveSpecimens();
         } catch (SQLException e) {
-            e.printStackTrace();
-            // Puedes lanzar una RuntimeException o manejarlo como prefieras
             throw new RuntimeException("Error al contar los especímenes activos", e);
         }
     }
@@ -244,9 +400,7 @@ public class EspecimenService {
         try {
             return especimenRepository.countInactiveSpecimens();
         } catch (SQLException e) {
-            e.printStackTrace();
-            // Puedes lanzar una RuntimeException o manejarlo como prefieras
-            throw new RuntimeException("Error al contar los especímenes activos", e);
+            throw new RuntimeException("Error al contar los especímenes inactivos", e);
         }
     }
 
@@ -261,6 +415,20 @@ public class EspecimenService {
         return especimenRepository.findByNameContaining(nombre.trim());
     }
 
+    /**
+     * AUTOCOMPLETAR especímenes por inventario, nombre o especie (desde memoria)
+     */
+    public List<EspecimenSugerencia> autocompleteSpecimens(String texto, int limite, boolean soloActivos) throws SQLException {
+        if (limite < 1 || limite > MAX_AUTOCOMPLETE) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_AUTOCOMPLETE);
+        }
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+
+        return especimenRepository.autocomplete(texto, limite, soloActivos);
+    }
+
     /**
      * Buscar especímenes por número de inventario
      */
@@ -271,74 +439,43 @@ public class EspecimenService {
     /**
      * MÉTODO PRINCIPAL: Crear especimen con manejo unificado
      */
-    public Map<String, Object> createSpecimenWithRegistration(Map<String, Object> requestData) throws SQLException {
-        System.out.println("EspecimenService.createSpecimenWithRegistration iniciado");
+    public RegistroUnificadoCreado createSpecimenWithRegistration(RegistroUnificadoCommand command) throws SQLException {
+        log.debug("EspecimenService.createSpecimenWithRegistration iniciado");
 
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, String> especieData = (Map<String, String>) requestData.get("especie");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> especimenData = (Map<String, Object>) requestData.get("especimen");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> registroData = (Map<String, Object>) requestData.get("registro_alta");
+            log.debug("Datos recibidos - especie: {}, especimen: {}, registro: {}",
+                    command.especie(), command.especimen(), command.registro_alta());
 
-            System.out.println("   Datos extraídos:");
-            System.out.println("   especie: " + especieData);
-            System.out.println("   especimen: " + especimenData);
-            System.out.println("   registro: " + registroData);
+            RegistroUnificadoValidator.validateCreate(command);
 
-            validateUnifiedRequestData(especieData, especimenData, registroData);
+            // Especie, especimen y registro de alta en una sola conexión y transacción
+            RegistroUnificadoCreado response = UnitOfWork.run("especimen.create_registro", () -> {
+                log.debug("Paso 1: Buscar/crear especie...");
+                Especie especie = findOrCreateEspecie(command.especie());
+                log.debug("Especie: ID={}, {} {}", especie.getId_especie(), especie.getGenero(), especie.getEspecie());
 
-            System.out.println("Paso 1: Buscar/crear especie...");
-            Especie especie = findOrCreateEspecie(especieData);
-            System.out.println("Especie: ID=" + especie.getId_especie() + ", " + especie.getGenero() + " " + especie.getEspecie());
+                log.debug("Paso 2: Crear especimen...");
+                Especimen especimen = createSpecimen(command.especimen(), especie);
+                log.debug("Especimen: ID={}, Inventario={}", especimen.getId_especimen(), especimen.getNum_inventario());
 
-            System.out.println("Paso 2: Crear especimen...");
-            Especimen especimen = createSpecimen(especimenData, especie);
-            System.out.println("Especimen: ID=" + especimen.getId_especimen() + ", Inventario=" + especimen.getNum_inventario());
+                log.debug("Paso 3: Crear registro de alta...");
+                RegistroAlta registroAlta = createRegistroAlta(command.registro_alta(), especimen);
+                log.debug("RegistroAlta: ID={}", registroAlta.getId_registro_alta());
 
-            System.out.println("Paso 3: Crear registro de alta...");
-            RegistroAlta registroAlta = createRegistroAlta(registroData, especimen);
-            System.out.println("RegistroAlta: ID=" + registroAlta.getId_registro_alta());
-
-            Map<String, Object> response = new HashMap<>();
+                return new RegistroUnificadoCreado(
+                        EspecieInfo.of(especie),
+                        EspecimenInfo.basic(especimen),
+                        RegistroAltaInfo.of(registroAlta),
+                        "Especimen registrado exitosamente con todos sus datos asociados",
+                        true);
+            });
 
-            Map<String, Object> especieInfo = new HashMap<>();
-            especieInfo.put("id_especie", especie.getId_especie());
-            especieInfo.put("genero", especie.getGenero());
-            especieInfo.put("especie", especie.getEspecie());
-
-            Map<String, Object> especimenInfo = new HashMap<>();
-            especimenInfo.put("id_especimen", especimen.getId_especimen());  // *** CLAVE CRÍTICA ***
-            especimenInfo.put("num_inventario", especimen.getNum_inventario());
-            especimenInfo.put("id_especie", especimen.getId_especie());
-            especimenInfo.put("nombre_especimen", especimen.getNombre_especimen());
-            especimenInfo.put("activo", especimen.isActivo());
-
-            Map<String, Object> registroInfo = new HashMap<>();
-            registroInfo.put("id_registro_alta", registroAlta.getId_registro_alta());
-            registroInfo.put("id_especimen", registroAlta.getId_especimen());
-            registroInfo.put("id_origen_alta", registroAlta.getId_origen_alta());
-            registroInfo.put("id_responsable", registroAlta.getId_responsable());
-            registroInfo.put("fecha_ingreso", registroAlta.getFecha_ingreso());
-            registroInfo.put("procedencia", registroAlta.getProcedencia());
-            registroInfo.put("observacion", registroAlta.getObservacion());
-
-
-            response.put("especie", especieInfo);
-            response.put("especimen", especimenInfo);
-            response.put("registro_alta", registroInfo);
-            response.put("message", "Especimen registrado exitosamente con todos sus datos asociados");
-            response.put("success", true);
-
-            System.out.println("   Respuesta preparada exitosamente:");
-            System.out.println("   ID Especimen en respuesta: " + especimenInfo.get("id_especimen"));
+            log.debug("ID Especimen en respuesta: {}", response.especimen().id_especimen());
 
             return response;
 
         } catch (Exception e) {
-            System.err.println("Error en createSpecimenWithRegistration: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error en createSpecimenWithRegistration: {}", e.getMessage(), e);
             throw e;
         }
     }
@@ -358,7 +495,9 @@ public class EspecimenService {
         }
 
         especimen.setActivo(true);
-        return especimenRepository.saveSpecimen(especimen);
+        Especimen creado = especimenRepository.saveSpecimen(especimen);
+        invalidateCounts();
+        return creado;
     }
 
     /**
@@ -392,6 +531,7 @@ public class EspecimenService {
         if (!updated) {
             throw new SQLException("No se pudo actualizar el especimen");
         }
+        invalidateCounts();
 
         return especimen;
     }
@@ -412,7 +552,9 @@ public class EspecimenService {
             throw new IllegalArgumentException("No se puede eliminar el especimen porque está siendo usado en registros");
         }
 
-        return especimenRepository.deleteById(id);
+        boolean eliminado = especimenRepository.deleteById(id);
+        invalidateCounts();
+        return eliminado;
     }
 
     /**
@@ -427,7 +569,9 @@ public class EspecimenService {
             throw new IllegalArgumentException("Especimen no encontrado con ID: " + id);
         }
 
-        return especimenRepository.activateById(id);
+        boolean activado = especimenRepository.activateById(id);
+        invalidateCounts();
+        return activado;
     }
 
     /**
@@ -442,7 +586,9 @@ public class EspecimenService {
             throw new IllegalArgumentException("Especimen no encontrado con ID: " + id);
         }
 
-        return especimenRepository.deactivateById(id);
+        boolean desactivado = especimenRepository.deactivateById(id);
+        invalidateCounts();
+        return desactivado;
     }
 
     /**
@@ -473,45 +619,43 @@ public class EspecimenService {
     /**
      * Buscar especie existente o crear una nueva
      */
-    private Especie findOrCreateEspecie(Map<String, String> especieData) throws SQLException {
-        String genero = especieData.get("genero");
-        String especie = especieData.get("especie");
+    private Especie findOrCreateEspecie(RegistroUnificadoCommand.Especie especieData) throws SQLException {
+        String genero = especieData.genero();
+        String especie = especieData.especie();
 
-        System.out.println("Buscando especie: " + genero + " " + especie);
+        log.debug("Buscando especie: {} {}", genero, especie);
 
         if (especieRepository.existsByGeneroAndEspecie(genero, especie)) {
             List<Especie> especies = especieRepository.findSpeciesByScientificName(genero + " " + especie);
             if (!especies.isEmpty()) {
-                System.out.println("Especie encontrada: ID=" + especies.get(0).getId_especie());
+                log.debug("Especie encontrada: ID={}", especies.get(0).getId_especie());
                 return especies.get(0);
             }
         }
 
-        System.out.println("Creando nueva especie...");
+        log.debug("Creando nueva especie...");
         Especie nuevaEspecie = new Especie();
         nuevaEspecie.setGenero(normalizeText(genero));
         nuevaEspecie.setEspecie(normalizeText(especie));
 
         Especie especieCreada = especieRepository.saveSpecie(nuevaEspecie);
-        System.out.println("Nueva especie creada: ID=" + especieCreada.getId_especie());
+        log.debug("Nueva especie creada: ID={}", especieCreada.getId_especie());
         return especieCreada;
     }
 
     /**
-     * Crear especimen con datos del mapa
+     * Crear especimen con datos del registro unificado
      */
-    private Especimen createSpecimen(Map<String, Object> especimenData, Especie especie) throws SQLException {
-        System.out.println("Creando especimen...");
+    private Especimen createSpecimen(RegistroUnificadoCommand.Especimen especimenData, Especie especie) throws SQLException {
+        log.debug("Creando especimen...");
 
         Especimen especimen = new Especimen();
-        especimen.setNum_inventario((String) especimenData.get("num_inventario"));
+        especimen.setNum_inventario(especimenData.num_inventario());
         especimen.setId_especie(especie.getId_especie());
-        especimen.setNombre_especimen((String) especimenData.get("nombre_especimen"));
+        especimen.setNombre_especimen(especimenData.nombre_especimen());
         especimen.setActivo(true);
-        System.out.println("   Datos del especimen a crear:");
-        System.out.println("   Inventario: " + especimen.getNum_inventario());
-        System.out.println("   ID Especie: " + especimen.getId_especie());
-        System.out.println("   Nombre: " + especimen.getNombre_especimen());
+        log.debug("Datos del especimen a crear - inventario: {}, especie: {}, nombre: {}",
+                especimen.getNum_inventario(), especimen.getId_especie(), especimen.getNombre_especimen());
 
         validateSpecimenData(especimen);
 
@@ -520,82 +664,49 @@ public class EspecimenService {
         }
 
         Especimen especimenCreado = especimenRepository.saveSpecimen(especimen);
-        System.out.println("Especimen creado: ID=" + especimenCreado.getId_especimen());
+        invalidateCounts();
+        log.debug("Especimen creado: ID={}", especimenCreado.getId_especimen());
 
         return especimenCreado;
     }
 
     /**
-     * Crear registro de alta con manejo mejorado de fechas
+     * Crear registro de alta (sin fecha_ingreso se usa el momento actual)
      */
-    private RegistroAlta createRegistroAlta(Map<String, Object> registroData, Especimen especimen) throws SQLException {
-        System.out.println("Creando registro de alta...");
+    private RegistroAlta createRegistroAlta(RegistroUnificadoCommand.RegistroAlta registroData, Especimen especimen) throws SQLException {
+        log.debug("Creando registro de alta...");
 
         RegistroAlta registro = new RegistroAlta();
         registro.setId_especimen(especimen.getId_especimen());
-        registro.setId_origen_alta((Integer) registroData.get("id_origen_alta"));
-        registro.setId_responsable((Integer) registroData.get("id_responsable"));
-        registro.setProcedencia((String) registroData.get("procedencia"));
-        registro.setObservacion((String) registroData.get("observacion"));
-
-        System.out.println("   Datos del registro de alta:");
-        System.out.println("   ID Especimen: " + registro.getId_especimen());
-        System.out.println("   ID Origen: " + registro.getId_origen_alta());
-        System.out.println("   ID Responsable: " + registro.getId_responsable());
-
-        if (registroData.containsKey("fecha_ingreso")) {
-            Object fechaObj = registroData.get("fecha_ingreso");
-
-            if (fechaObj instanceof Date) {
-                registro.setFecha_ingreso((Date) fechaObj);
-                System.out.println("Usando fecha Date existente: " + fechaObj);
-            } else if (fechaObj instanceof String) {
-                String fechaStr = (String) fechaObj;
-                if (!fechaStr.trim().isEmpty()) {
-                    try {
-                        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                        Date fecha = sdf.parse(fechaStr);
-                        registro.setFecha_ingreso(fecha);
-                        System.out.println("Fecha convertida de String: " + fechaStr + " -> " + fecha);
-                    } catch (Exception e) {
-                        System.err.println("Error al convertir fecha String: " + fechaStr);
-                        registro.setFecha_ingreso(new Date());
-                    }
-                } else {
-                    registro.setFecha_ingreso(new Date());
-                    System.out.println("Usando fecha actual por String vacío");
-                }
-            } else if (fechaObj == null) {
-                registro.setFecha_ingreso(new Date());
-                System.out.println("Usando fecha actual por valor null");
-            } else {
-                System.err.println("Tipo de fecha desconocido: " + fechaObj.getClass());
-                registro.setFecha_ingreso(new Date());
-            }
-        } else {
-            registro.setFecha_ingreso(new Date());
-            System.out.println("Usando fecha actual por ausencia de campo");
-        }
+        registro.setId_origen_alta(registroData.id_origen_alta());
+        registro.setId_responsable(registroData.id_responsable());
+        registro.setProcedencia(registroData.procedencia());
+        registro.setObservacion(registroData.observacion());
+        registro.setFecha_ingreso(registroData.fechaIngresoOrNow());
+
+        log.debug("Datos del registro de alta - especimen: {}, origen: {}, responsable: {}, fecha: {}",
+                registro.getId_especimen(), registro.getId_origen_alta(), registro.getId_responsable(),
+                registro.getFecha_ingreso());
 
         validateRegistroReferences(registro);
 
         RegistroAlta registroCreado = registroAltaRepository.saveRegister(registro);
-        System.out.println("Registro de alta creado: ID=" + registroCreado.getId_registro_alta());
+        log.debug("Registro de alta creado: ID={}", registroCreado.getId_registro_alta());
 
         return registroCreado;
     }
 
 
-    private Especimen updateSpecimenData(Integer idEspecimen, Map<String, Object> especimenData, Especie especie) throws SQLException {
+    private Especimen updateSpecimenData(Integer idEspecimen, RegistroUnificadoCommand.Especimen especimenData, Especie especie) throws SQLException {
         Optional<Especimen> existingOpt = especimenRepository.findById(idEspecimen);
         if (existingOpt.isEmpty()) {
             throw new IllegalArgumentException("Especimen no encontrado");
         }
 
         Especimen especimen = existingOpt.get();
-        especimen.setNum_inventario((String) especimenData.get("num_inventario"));
+        especimen.setNum_inventario(especimenData.num_inventario());
         especimen.setId_especie(especie.getId_especie());
-        especimen.setNombre_especimen((String) especimenData.get("nombre_especimen"));
+        especimen.setNombre_especimen(especimenData.nombre_especimen());
 
         validateSpecimenData(especimen);
 
@@ -603,131 +714,29 @@ public class EspecimenService {
         if (!updated) {
             throw new SQLException("No se pudo actualizar el especimen");
         }
+        invalidateCounts();
 
         return especimen;
     }
 
 
-    private void updateRegistroAltaData(Integer idEspecimen, Map<String, Object> registroData) throws SQLException {
+    private void updateRegistroAltaData(Integer idEspecimen, RegistroUnificadoCommand.RegistroAlta registroData) throws SQLException {
         List<RegistroAlta> registros = registroAltaRepository.findByEspecimen(idEspecimen);
         if (!registros.isEmpty()) {
             RegistroAlta registro = registros.get(0);
 
-
-            registro.setId_origen_alta((Integer) registroData.get("id_origen_alta"));
-            registro.setId_responsable((Integer) registroData.get("id_responsable"));
-            registro.setProcedencia((String) registroData.get("procedencia"));
-            registro.setObservacion((String) registroData.get("observacion"));
-
-            if (registroData.containsKey("fecha_ingreso")) {
-                Object fechaObj = registroData.get("fecha_ingreso");
-
-                if (fechaObj instanceof Date) {
-                    registro.setFecha_ingreso((Date) fechaObj);
-                    System.out.println("Fecha actualizada desde Date: " + fechaObj);
-                } else if (fechaObj instanceof String) {
-                    String fechaStr = (String) fechaObj;
-                    if (!fechaStr.trim().isEmpty()) {
-                        try {
-                            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                            Date fecha = sdf.parse(fechaStr);
-                            registro.setFecha_ingreso(fecha);
-                            System.out.println("Fecha actualizada desde String: " + fechaStr + " -> " + fecha);
-                        } catch (Exception e) {
-                            System.err.println("Error al convertir fecha en actualización: " + fechaStr);
-                        }
-                    }
-                }
-            }
+            registro.setId_origen_alta(registroData.id_origen_alta());
+            registro.setId_responsable(registroData.id_responsable());
+            registro.setProcedencia(registroData.procedencia());
+            registro.setObservacion(registroData.observacion());
+            registro.setFecha_ingreso(registroData.fechaIngresoOrNow());
 
             registroAltaRepository.updateRegister(registro);
-            System.out.println("Registro de alta actualizado con fecha: " + registro.getFecha_ingreso());
-        }
-    }
-
-
-    private Map<String, Object> buildUpdateResponse(Especimen especimen, Especie especie) {
-        Map<String, Object> response = new HashMap<>();
-
-        Map<String, Object> especieInfo = new HashMap<>();
-        especieInfo.put("id_especie", especie.getId_especie());
-        especieInfo.put("genero", especie.getGenero());
-        especieInfo.put("especie", especie.getEspecie());
-
-        Map<String, Object> especimenInfo = new HashMap<>();
-        especimenInfo.put("id_especimen", especimen.getId_especimen());
-        especimenInfo.put("num_inventario", especimen.getNum_inventario());
-        especimenInfo.put("id_especie", especimen.getId_especie());
-        especimenInfo.put("nombre_especimen", especimen.getNombre_especimen());
-        especimenInfo.put("activo", especimen.isActivo());
-
-        response.put("especie", especieInfo);
-        response.put("especimen", especimenInfo);
-        response.put("success", true);
-
-        return response;
-    }
-
-
-    private Map<String, Object> convertSpecimenToMap(Especimen especimen) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id_especimen", especimen.getId_especimen());
-        map.put("num_inventario", especimen.getNum_inventario());
-        map.put("id_especie", especimen.getId_especie());
-        map.put("nombre_especimen", especimen.getNombre_especimen());
-
-        map.put("activo", especimen.isActivo());
-
-        if (especimen.getEspecie() != null) {
-            Map<String, Object> especieInfo = new HashMap<>();
-            especieInfo.put("id_especie", especimen.getEspecie().getId_especie());
-            especieInfo.put("genero", especimen.getEspecie().getGenero());
-            especieInfo.put("especie", especimen.getEspecie().getEspecie());
-            map.put("especie_info", especieInfo);
+            log.debug("Registro de alta actualizado con fecha: {}", registro.getFecha_ingreso());
         }
-
-        return map;
     }
 
 
-    /**
-     * Validar datos de solicitud unificada
-     */
-    private void validateUnifiedRequestData(Map<String, String> especieData,
-                                            Map<String, Object> especimenData,
-                                            Map<String, Object> registroData) {
-        if (especieData == null || especimenData == null || registroData == null) {
-            throw new IllegalArgumentException("Todos los datos (especie, especimen, registro) son requeridos");
-        }
-
-        if (especieData.get("genero") == null || especieData.get("genero").trim().isEmpty()) {
-            throw new IllegalArgumentException("El género de la especie es requerido");
-        }
-        if (especieData.get("especie") == null || especieData.get("especie").trim().isEmpty()) {
-            throw new IllegalArgumentException("La especie es requerida");
-        }
-
-        if (especimenData.get("num_inventario") == null || especimenData.get("num_inventario").toString().trim().isEmpty()) {
-            throw new IllegalArgumentException("El número de inventario es requerido");
-        }
-        if (especimenData.get("nombre_especimen") == null || especimenData.get("nombre_especimen").toString().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del especimen es requerido");
-        }
-
-        if (registroData.get("id_origen_alta") == null) {
-            throw new IllegalArgumentException("El origen de alta es requerido");
-        }
-        if (registroData.get("id_responsable") == null) {
-            throw new IllegalArgumentException("El responsable es requerido");
-        }
-        if (registroData.get("procedencia") == null || registroData.get("procedencia").toString().trim().isEmpty()) {
-            throw new IllegalArgumentException("La procedencia es requerida");
-        }
-        if (registroData.get("observacion") == null || registroData.get("observacion").toString().trim().isEmpty()) {
-            throw new IllegalArgumentException("La observación es requerida");
-        }
-    }
-
     /**
      * Validar datos del especimen
      */
@@ -744,7 +753,7 @@ public class EspecimenService {
             throw new IllegalArgumentException("El número de inventario debe tener entre 1 y 50 caracteres");
         }
 
-        if (!especimen.getNum_inventario().matches("^[a-zA-Z0-9\\-_.#]+$")) {
+        if (!RegistroUnificadoValidator.NUM_INVENTARIO.matcher(especimen.getNum_inventario()).matches()) {
             throw new IllegalArgumentException("El número de inventario solo puede contener letras, números, guiones, puntos y #");
         }
 
@@ -752,7 +761,7 @@ public class EspecimenService {
             throw new IllegalArgumentException("El nombre del especimen debe tener entre 2 y 100 caracteres");
         }
 
-        if (!especimen.getNombre_especimen().matches("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]+$")) {
+        if (!RegistroUnificadoValidator.NOMBRE_ESPECIMEN.matcher(especimen.getNombre_especimen()).matches()) {
             throw new IllegalArgumentException("El nombre del especimen solo puede contener letras y espacios");
         }
     }
@@ -789,7 +798,7 @@ public class EspecimenService {
     /**
      * Normalizar texto para especie
      */
-    private String normalizeText(String text) {
+    static String normalizeText(String text) {
         if (text == null || text.trim().isEmpty()) {
             return text;
         }
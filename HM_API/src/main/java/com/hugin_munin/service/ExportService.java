@@ -0,0 +1,82 @@
+package com.hugin_munin.service;
+
+import com.hugin_munin.repository.ExportRepository;
+import com.hugin_munin.util.Fechas;
+import com.hugin_munin.util.RowHandler;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio de exportación de registros y reportes (CSV / JSONL)
+ * Valida entidad, columnas y rango de fechas antes de abrir el cursor
+ */
+public class ExportService {
+
+    private final ExportRepository exportRepository;
+
+    public ExportService(ExportRepository exportRepository) {
+        this.exportRepository = exportRepository;
+    }
+
+    /**
+     * Exportación ya validada
+     */
+    public record Exportacion(ExportRepository.Entidad entidad, List<String> columnas, LocalDate inicio, LocalDate fin) {
+    }
+
+    /**
+     * VALIDAR parámetros: campos separados por coma (todos si no vienen) y fechas inclusivas YYYY-MM-DD
+     */
+    public Exportacion prepare(String nombreEntidad, String campos, String inicio, String fin) {
+        ExportRepository.Entidad entidad = exportRepository.findEntidad(nombreEntidad)
+                .orElseThrow(() -> new IllegalArgumentException("Entidad no exportable: " + nombreEntidad
+                        + ". Opciones: " + String.join(", ", exportRepository.getNombresEntidades())));
+
+        List<String> columnas = new ArrayList<>();
+        if (campos == null || campos.isBlank()) {
+            columnas.addAll(entidad.nombresColumnas());
+        } else {
+            for (String campo : campos.split(",")) {
+                String nombre = campo.trim();
+                if (nombre.isEmpty() || columnas.contains(nombre)) {
+                    continue;
+                }
+                if (!entidad.columnas().containsKey(nombre)) {
+                    throw new IllegalArgumentException("Campo desconocido para " + entidad.nombre() + ": " + nombre
+                            + ". Opciones: " + String.join(", ", entidad.nombresColumnas()));
+                }
+                columnas.add(nombre);
+            }
+            if (columnas.isEmpty()) {
+                throw new IllegalArgumentException("Debe indicar al menos un campo");
+            }
+        }
+
+        LocalDate fechaInicio;
+        LocalDate fechaFin;
+        try {
+            fechaInicio = Fechas.parse(inicio);
+            fechaFin = Fechas.parse(fin);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Las fechas deben tener formato YYYY-MM-DD");
+        }
+        if (fechaInicio != null && fechaFin != null && fechaInicio.isAfter(fechaFin)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        return new Exportacion(entidad, List.copyOf(columnas), fechaInicio, fechaFin);
+    }
+
+    /**
+     * RECORRER la exportación en streaming; devuelve el número de filas
+     */
+    public int export(Exportacion exportacion, RowHandler<Object[]> handler) throws SQLException, IOException {
+        return exportRepository.stream(exportacion.entidad(), exportacion.columnas(),
+                exportacion.inicio(), exportacion.fin(), handler);
+    }
+}
@@ -0,0 +1,348 @@
+package com.hugin_munin.service;
+
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.dto.ImportacionFila;
+import com.hugin_munin.dto.RegistroUnificadoCommand;
+import com.hugin_munin.model.Especie;
+import com.hugin_munin.model.Especimen;
+import com.hugin_munin.model.RegistroAlta;
+import com.hugin_munin.repository.EspecieRepository;
+import com.hugin_munin.repository.EspecimenRepository;
+import com.hugin_munin.repository.OrigenAltaRepository;
+import com.hugin_munin.repository.RegistroAltaRepository;
+import com.hugin_munin.repository.UsuarioRepository;
+import com.hugin_munin.util.ImportReader;
+import com.hugin_munin.util.RowHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Importación masiva de especímenes con su registro de alta
+ * El archivo se procesa por bloques de IMPORT_CHUNK_SIZE filas: validación en memoria,
+ * una consulta IN por bloque para inventarios existentes, especies nuevas en un solo INSERT
+ * y especimen / registro_alta con executeBatch dentro de una transacción por bloque.
+ * Una fila inválida no detiene la importación; si el lote falla en la base de datos
+ * se revierte su bloque completo y se informa en cada fila.
+ */
+public class ImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionService.class);
+
+    private static final int CHUNK_SIZE = AppConfig.getInt("IMPORT_CHUNK_SIZE", 500);
+
+    // Límites de columna del esquema: un valor más largo haría fallar el lote entero
+    private static final int MAX_NUM_INVENTARIO = 20;
+    private static final int MAX_TAXON = 50;
+    private static final int MAX_PROCEDENCIA = 100;
+
+    private final EspecieRepository especieRepository;
+    private final EspecimenRepository especimenRepository;
+    private final RegistroAltaRepository registroAltaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final OrigenAltaRepository origenAltaRepository;
+
+    public ImportacionService(EspecieRepository especieRepository,
+                              EspecimenRepository especimenRepository,
+                              RegistroAltaRepository registroAltaRepository,
+                              UsuarioRepository usuarioRepository,
+                              OrigenAltaRepository origenAltaRepository) {
+        this.especieRepository = especieRepository;
+        this.especimenRepository = especimenRepository;
+        this.registroAltaRepository = registroAltaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.origenAltaRepository = origenAltaRepository;
+    }
+
+    /**
+     * Totales de una importación
+     */
+    public record Resumen(int procesadas, int creadas, int fallidas, long duracionMs) {
+
+        public double filasPorSegundo() {
+            return duracionMs == 0 ? procesadas : procesadas * 1000.0 / duracionMs;
+        }
+    }
+
+    /**
+     * IMPORTAR todas las filas del archivo; cada resultado se entrega en orden, bloque a bloque
+     */
+    public Resumen importar(ImportReader reader, RowHandler<ImportacionFila> resultados) throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        Lote lote = new Lote();
+        Set<String> vistos = new HashSet<>();
+        Map<Integer, Boolean> responsables = new HashMap<>();
+        int creadas = 0;
+        int procesadas = 0;
+
+        ImportReader.Entrada entrada;
+        while ((entrada = reader.next()) != null) {
+            lote.entradas.add(entrada);
+            if (lote.entradas.size() == CHUNK_SIZE) {
+                creadas += processChunk(lote, vistos, responsables, resultados);
+                procesadas += lote.entradas.size();
+                lote = new Lote();
+            }
+        }
+        if (!lote.entradas.isEmpty()) {
+            creadas += processChunk(lote, vistos, responsables, resultados);
+            procesadas += lote.entradas.size();
+        }
+
+        if (creadas > 0) {
+            EspecimenService.invalidateCounts();
+        }
+
+        Resumen resumen = new Resumen(procesadas, creadas, procesadas - creadas, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("Importación masiva: {} filas, {} creadas, {} con error en {} ms ({} filas/s)",
+                resumen.procesadas(), resumen.creadas(), resumen.fallidas(), resumen.duracionMs(),
+                Math.round(resumen.filasPorSegundo()));
+        return resumen;
+    }
+
+    /**
+     * Filas de un bloque y su resultado, en el orden del archivo
+     */
+    private static final class Lote {
+        private final List<ImportReader.Entrada> entradas = new ArrayList<>(CHUNK_SIZE);
+        private final Map<Integer, List<String>> errores = new HashMap<>();
+
+        private void fail(int indice, String error) {
+            errores.computeIfAbsent(indice, k -> new ArrayList<>()).add(error);
+        }
+
+        private boolean isValid(int indice) {
+            return !errores.containsKey(indice);
+        }
+    }
+
+    private int processChunk(Lote lote, Set<String> vistos, Map<Integer, Boolean> responsables,
+                             RowHandler<ImportacionFila> resultados) throws SQLException, IOException {
+        validateRows(lote, vistos, responsables);
+        rejectExistingInventory(lote);
+
+        Map<String, Especie> especies = resolveSpecies(lote);
+
+        List<Integer> indices = new ArrayList<>();
+        List<Especimen> especimenes = new ArrayList<>();
+        List<RegistroAlta> registros = new ArrayList<>();
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            if (!lote.isValid(i)) {
+                continue;
+            }
+            RegistroUnificadoCommand command = lote.entradas.get(i).command();
+
+            Especimen especimen = new Especimen();
+            especimen.setNum_inventario(command.especimen().num_inventario());
+            especimen.setId_especie(especies.get(speciesKey(command.especie())).getId_especie());
+            especimen.setNombre_especimen(command.especimen().nombre_especimen());
+            especimen.setActivo(true);
+
+            RegistroUnificadoCommand.RegistroAlta datos = command.registro_alta();
+            RegistroAlta registro = new RegistroAlta();
+            registro.setId_origen_alta(datos.id_origen_alta());
+            registro.setId_responsable(datos.id_responsable());
+            registro.setProcedencia(datos.procedencia());
+            registro.setObservacion(datos.observacion());
+            registro.setFecha_ingreso(datos.fechaIngresoOrNow());
+
+            indices.add(i);
+            especimenes.add(especimen);
+            registros.add(registro);
+        }
+
+        try {
+            if (!indices.isEmpty()) {
+                insertChunk(especimenes, registros);
+            }
+        } catch (SQLException e) {
+            log.warn("Bloque de importación revertido ({} filas): {}", indices.size(), e.getMessage());
+            for (int indice : indices) {
+                lote.fail(indice, "Bloque revertido por un error de base de datos: " + e.getMessage());
+            }
+            indices.clear();
+        }
+
+        Map<Integer, Integer> creadas = new HashMap<>();
+        for (int i = 0; i < indices.size(); i++) {
+            creadas.put(indices.get(i), i);
+        }
+
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            ImportReader.Entrada entrada = lote.entradas.get(i);
+            String numInventario = entrada.command() != null && entrada.command().especimen() != null
+                    ? entrada.command().especimen().num_inventario()
+                    : null;
+            Integer posicion = creadas.get(i);
+            if (posicion != null) {
+                resultados.accept(ImportacionFila.creada(entrada.fila(), numInventario,
+                        especimenes.get(posicion).getId_especimen(), registros.get(posicion).getId_registro_alta()));
+            } else {
+                resultados.accept(ImportacionFila.fallida(entrada.fila(), numInventario, lote.errores.get(i)));
+            }
+        }
+
+        return indices.size();
+    }
+
+    /**
+     * Especímenes y registros de alta del bloque en una transacción, dos lotes JDBC
+     */
+    private void insertChunk(List<Especimen> especimenes, List<RegistroAlta> registros) throws SQLException {
+        UnitOfWork.run("registro_unificado.bulk", () -> {
+            especimenRepository.saveAllSpecimens(especimenes);
+            for (int i = 0; i < registros.size(); i++) {
+                registros.get(i).setId_especimen(especimenes.get(i).getId_especimen());
+            }
+            registroAltaRepository.saveAllRegisters(registros);
+            return null;
+        });
+    }
+
+    /**
+     * Reglas de campo, inventario repetido en el archivo y referencias a catálogos
+     */
+    private void validateRows(Lote lote, Set<String> vistos, Map<Integer, Boolean> responsables) throws SQLException {
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            ImportReader.Entrada entrada = lote.entradas.get(i);
+            if (entrada.error() != null) {
+                lote.fail(i, entrada.error());
+                continue;
+            }
+
+            RegistroUnificadoCommand command = entrada.command();
+            try {
+                RegistroUnificadoValidator.validateCreate(command);
+            } catch (ValidationException e) {
+                for (String error : e.getErrors()) {
+                    lote.fail(i, error);
+                }
+                continue;
+            }
+
+            String numInventario = command.especimen().num_inventario();
+            if (numInventario.length() > MAX_NUM_INVENTARIO) {
+                lote.fail(i, "El número de inventario no puede exceder " + MAX_NUM_INVENTARIO + " caracteres");
+            }
+            if (command.especie().genero().trim().length() > MAX_TAXON
+                    || command.especie().especie().trim().length() > MAX_TAXON) {
+                lote.fail(i, "El género y la especie no pueden exceder " + MAX_TAXON + " caracteres");
+            }
+            if (command.registro_alta().procedencia().length() > MAX_PROCEDENCIA) {
+                lote.fail(i, "La procedencia no puede exceder " + MAX_PROCEDENCIA + " caracteres");
+            }
+
+            Integer idResponsable = command.registro_alta().id_responsable();
+            Boolean responsableExiste = responsables.get(idResponsable);
+            if (responsableExiste == null) {
+                responsableExiste = usuarioRepository.existsById(idResponsable);
+                responsables.put(idResponsable, responsableExiste);
+            }
+            if (!responsableExiste) {
+                lote.fail(i, "El responsable con ID " + idResponsable + " no existe");
+            }
+
+            Integer idOrigen = command.registro_alta().id_origen_alta();
+            if (!origenAltaRepository.existsById(idOrigen)) {
+                lote.fail(i, "El origen de alta con ID " + idOrigen + " no existe");
+            }
+
+            // Se reserva aunque la fila tenga otros errores: un segundo uso en el archivo es ambiguo
+            if (!vistos.add(numInventario.toLowerCase(Locale.ROOT))) {
+                lote.fail(i, "El número de inventario " + numInventario + " está repetido en el archivo");
+            }
+        }
+    }
+
+    /**
+     * Una sola consulta IN por bloque para los inventarios que ya existen
+     */
+    private void rejectExistingInventory(Lote lote) throws SQLException {
+        Map<String, Integer> candidatos = new LinkedHashMap<>();
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            if (lote.isValid(i)) {
+                candidatos.put(lote.entradas.get(i).command().especimen().num_inventario().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        List<String> numeros = new ArrayList<>();
+        for (int indice : candidatos.values()) {
+            numeros.add(lote.entradas.get(indice).command().especimen().num_inventario());
+        }
+
+        for (String existente : especimenRepository.findExistingInventoryNumbers(numeros)) {
+            Integer indice = candidatos.get(existente.toLowerCase(Locale.ROOT));
+            if (indice != null) {
+                lote.fail(indice, "El número de inventario ya está en uso");
+            }
+        }
+    }
+
+    /**
+     * Especies del bloque: primero el catálogo en caché, las que faltan en un solo INSERT
+     */
+    private Map<String, Especie> resolveSpecies(Lote lote) throws SQLException {
+        Map<String, Especie> especies = new HashMap<>();
+        Map<String, Especie> nuevas = new LinkedHashMap<>();
+
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            if (!lote.isValid(i)) {
+                continue;
+            }
+            RegistroUnificadoCommand.Especie datos = lote.entradas.get(i).command().especie();
+            String clave = speciesKey(datos);
+            if (especies.containsKey(clave) || nuevas.containsKey(clave)) {
+                continue;
+            }
+
+            Optional<Especie> existente = especieRepository.findByGeneroAndEspecie(datos.genero(), datos.especie());
+            if (existente.isPresent()) {
+                especies.put(clave, existente.get());
+            } else {
+                Especie especie = new Especie();
+                especie.setGenero(EspecimenService.normalizeText(datos.genero()));
+                especie.setEspecie(EspecimenService.normalizeText(datos.especie()));
+                nuevas.put(clave, especie);
+            }
+        }
+
+        if (!nuevas.isEmpty()) {
+            for (Especie especie : especieRepository.upsertAll(new ArrayList<>(nuevas.values()))) {
+                especies.put(speciesKey(especie.getGenero(), especie.getEspecie()), especie);
+            }
+            log.debug("Importación masiva: {} especies nuevas", nuevas.size());
+        }
+
+        // Una especie que no volvió del upsert deja sus filas con error en lugar de romper el bloque
+        for (int i = 0; i < lote.entradas.size(); i++) {
+            if (lote.isValid(i) && !especies.containsKey(speciesKey(lote.entradas.get(i).command().especie()))) {
+                lote.fail(i, "No se pudo registrar la especie");
+            }
+        }
+
+        return especies;
+    }
+
+    private static String speciesKey(RegistroUnificadoCommand.Especie especie) {
+        return speciesKey(especie.genero(), especie.especie());
+    }
+
+    private static String speciesKey(String genero, String especie) {
+        return genero.trim().toLowerCase(Locale.ROOT) + " " + especie.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,7 +4,9 @@ import com.hugin_munin.model.RegistroAlta;
 import com.hugin_munin.repository.RegistroAltaRepository;
 import com.hugin_munin.repository.EspecimenRepository;
 import com.hugin_munin.repository.UsuarioRepository;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +58,13 @@ public class RegistroAltaService {
         return repository.findAllRegisters();
     }
 
+    /**
+     * RECORRER todos los registros en streaming
+     */
+    public int streamAll(RowHandler<? super RegistroAlta> handler) throws SQLException, IOException {
+        return repository.streamAllRegisters(handler);
+    }
+
     /**
      * OBTENER registro por ID con información completa
      */
@@ -166,7 +175,6 @@ public class RegistroAltaService {
         try {
             return repository.countSpecimensFromLastWeek();
         } catch (SQLException e) {
-            e.printStackTrace();
             throw new RuntimeException("Error counting recent specimens", e);
         }
     }
@@ -5,7 +5,9 @@ import com.hugin_munin.repository.RegistroBajaRepository;
 import com.hugin_munin.repository.EspecimenRepository;
 import com.hugin_munin.repository.UsuarioRepository;
 import com.hugin_munin.repository.CausaBajaRepository;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
@@ -50,7 +52,10 @@ public class RegistroBajaService {
             registro.setFecha_baja(new Date());
         }
 
-        return repository.saveRegister(registro);
+        RegistroBaja creado = repository.saveRegister(registro);
+        // El trigger de baja desactiva el especimen
+        EspecimenService.invalidateCounts();
+        return creado;
     }
 
     /**
@@ -60,6 +65,13 @@ public class RegistroBajaService {
         return repository.findAllRegisters();
     }
 
+    /**
+     * RECORRER todos los registros en streaming
+     */
+    public int streamAll(RowHandler<? super RegistroBaja> handler) throws SQLException, IOException {
+        return repository.streamAllRegisters(handler);
+    }
+
     /**
      * OBTENER registro por ID con información completa
      */
@@ -125,7 +137,9 @@ public class RegistroBajaService {
             throw new IllegalArgumentException("No existe el registro con ID: " + id);
         }
 
-        return repository.delete(id);
+        boolean eliminado = repository.delete(id);
+        EspecimenService.invalidateCounts();
+        return eliminado;
     }
 
     /**
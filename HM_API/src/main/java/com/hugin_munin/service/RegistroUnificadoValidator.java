@@ -0,0 +1,123 @@
+package com.hugin_munin.service;
+
+import com.hugin_munin.dto.RegistroUnificadoCommand;
+import com.hugin_munin.util.Fechas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Validación del registro unificado en una sola pasada
+ * Reúne todos los errores de campo en lugar de detenerse en el primero.
+ * Las referencias a otras tablas (responsable, origen, inventario duplicado) se siguen validando en EspecimenService.
+ */
+public final class RegistroUnificadoValidator {
+
+    static final Pattern NUM_INVENTARIO = Pattern.compile("^[a-zA-Z0-9\\-_.#]+$");
+    static final Pattern NOMBRE_ESPECIMEN = Pattern.compile("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]+$");
+
+    private RegistroUnificadoValidator() {
+    }
+
+    /**
+     * VALIDAR creación: especie, especimen y registro de alta obligatorios
+     */
+    public static void validateCreate(RegistroUnificadoCommand command) {
+        throwIfAny(collect(command, true));
+    }
+
+    /**
+     * VALIDAR actualización: el registro de alta es opcional
+     */
+    public static void validateUpdate(RegistroUnificadoCommand command) {
+        throwIfAny(collect(command, false));
+    }
+
+    private static List<String> collect(RegistroUnificadoCommand command, boolean registroRequerido) {
+        List<String> errores = new ArrayList<>();
+
+        RegistroUnificadoCommand.Especie especie = command.especie();
+        if (especie == null) {
+            errores.add("Los datos de especie son requeridos");
+        } else {
+            if (isBlank(especie.genero())) {
+                errores.add("El género de la especie es requerido");
+            }
+            if (isBlank(especie.especie())) {
+                errores.add("La especie es requerida");
+            }
+        }
+
+        RegistroUnificadoCommand.Especimen especimen = command.especimen();
+        if (especimen == null) {
+            errores.add("Los datos del especimen son requeridos");
+        } else {
+            validateEspecimen(especimen.num_inventario(), especimen.nombre_especimen(), errores);
+        }
+
+        RegistroUnificadoCommand.RegistroAlta registro = command.registro_alta();
+        if (registro == null) {
+            if (registroRequerido) {
+                errores.add("Los datos de registro de alta son requeridos");
+            }
+        } else {
+            if (registro.id_origen_alta() == null) {
+                errores.add("El origen de alta es requerido");
+            }
+            if (registro.id_responsable() == null) {
+                errores.add("El responsable es requerido");
+            }
+            if (isBlank(registro.procedencia())) {
+                errores.add("La procedencia es requerida");
+            } else if (registro.procedencia().length() > 200) {
+                errores.add("La procedencia no puede exceder 200 caracteres");
+            }
+            if (isBlank(registro.observacion())) {
+                errores.add("La observación es requerida");
+            } else if (registro.observacion().length() > 500) {
+                errores.add("La observación no puede exceder 500 caracteres");
+            }
+            if (!Fechas.isValid(registro.fecha_ingreso())) {
+                errores.add("fecha_ingreso debe tener formato YYYY-MM-DD");
+            }
+        }
+
+        if (command.hasReporteTraslado() && !Fechas.isValid(command.reporte_traslado().fecha_reporte())) {
+            errores.add("fecha_reporte debe tener formato YYYY-MM-DD");
+        }
+
+        return errores;
+    }
+
+    /**
+     * Reglas de número de inventario y nombre del especimen
+     */
+    static void validateEspecimen(String numInventario, String nombre, List<String> errores) {
+        if (isBlank(numInventario)) {
+            errores.add("El número de inventario es requerido");
+        } else if (numInventario.length() > 50) {
+            errores.add("El número de inventario debe tener entre 1 y 50 caracteres");
+        } else if (!NUM_INVENTARIO.matcher(numInventario).matches()) {
+            errores.add("El número de inventario solo puede contener letras, números, guiones, puntos y #");
+        }
+
+        if (isBlank(nombre)) {
+            errores.add("El nombre del especimen es requerido");
+        } else if (nombre.length() < 2 || nombre.length() > 100) {
+            errores.add("El nombre del especimen debe tener entre 2 y 100 caracteres");
+        } else if (!NOMBRE_ESPECIMEN.matcher(nombre).matches()) {
+            errores.add("El nombre del especimen solo puede contener letras y espacios");
+        }
+    }
+
+    private static void throwIfAny(List<String> errores) {
+        if (!errores.isEmpty()) {
+            throw new ValidationException(errores);
+        }
+    }
+
+    private static boolean isBlank(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+}
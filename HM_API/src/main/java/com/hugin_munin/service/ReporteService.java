@@ -5,8 +5,12 @@ import com.hugin_munin.repository.ReporteRepository;
 import com.hugin_munin.repository.TipoReporteRepository;
 import com.hugin_munin.repository.EspecimenRepository;
 import com.hugin_munin.repository.UsuarioRepository;
+import com.hugin_munin.search.ReporteSearchIndex;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -19,19 +23,25 @@ import java.util.Date;
  */
 public class ReporteService {
 
+    // Tamaño de página de la búsqueda por texto
+    private static final int SEARCH_MAX_LIMIT = 100;
+
     private final ReporteRepository reporteRepository;
     private final TipoReporteRepository tipoReporteRepository;
     private final EspecimenRepository especimenRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ReporteSearchIndex searchIndex;
 
     public ReporteService(ReporteRepository reporteRepository,
                           TipoReporteRepository tipoReporteRepository,
                           EspecimenRepository especimenRepository,
-                          UsuarioRepository usuarioRepository) {
+                          UsuarioRepository usuarioRepository,
+                          ReporteSearchIndex searchIndex) {
         this.reporteRepository = reporteRepository;
         this.tipoReporteRepository = tipoReporteRepository;
         this.especimenRepository = especimenRepository;
         this.usuarioRepository = usuarioRepository;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -41,6 +51,13 @@ public class ReporteService {
         return reporteRepository.findAll();
     }
 
+    /**
+     * RECORRER todos los reportes en streaming
+     */
+    public int streamAllReportes(RowHandler<? super Reporte> handler) throws SQLException, IOException {
+        return reporteRepository.streamAll(handler);
+    }
+
     /**
      * OBTENER reporte por ID
      */
@@ -109,6 +126,47 @@ public class ReporteService {
         return reporteRepository.findByContenidoContaining(contenido.trim());
     }
 
+    /**
+     * Página de resultados de la búsqueda por texto (reportes en orden de relevancia)
+     */
+    public record ResultadoBusqueda(List<Reporte> reportes, int total, boolean truncado) {
+    }
+
+    /**
+     * BUSCAR reportes por texto en asunto, contenido y motivo, ordenados por relevancia
+     * Los IDs salen del índice en memoria y se completan con una sola consulta IN
+     */
+    public ResultadoBusqueda searchReportes(String consulta, int limite, int desde) throws SQLException {
+        if (consulta == null || consulta.trim().isEmpty()) {
+            throw new IllegalArgumentException("El texto a buscar no puede estar vacío");
+        }
+        if (limite < 1 || limite > SEARCH_MAX_LIMIT) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + SEARCH_MAX_LIMIT);
+        }
+        if (desde < 0) {
+            throw new IllegalArgumentException("El desplazamiento no puede ser negativo");
+        }
+
+        ReporteSearchIndex.Resultado resultado = searchIndex.search(consulta, limite, desde);
+        List<Integer> ids = resultado.coincidencias().stream()
+                .map(ReporteSearchIndex.Coincidencia::idReporte)
+                .toList();
+
+        Map<Integer, Reporte> porId = new HashMap<>();
+        for (Reporte reporte : reporteRepository.findByIds(ids)) {
+            porId.put(reporte.getId_reporte(), reporte);
+        }
+
+        List<Reporte> ordenados = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Reporte reporte = porId.get(id);
+            if (reporte != null) {
+                ordenados.add(reporte);
+            }
+        }
+        return new ResultadoBusqueda(ordenados, resultado.total(), resultado.truncado());
+    }
+
     /**
      * BUSCAR reportes por rango de fechas
      */
@@ -137,7 +195,9 @@ public class ReporteService {
         }
 
         // Guardar reporte
-        return reporteRepository.save(reporte);
+        Reporte guardado = reporteRepository.save(reporte);
+        searchIndex.put(guardado.getId_reporte(), guardado.getAsunto(), guardado.getContenido());
+        return guardado;
     }
 
     /**
@@ -160,6 +220,7 @@ public class ReporteService {
         if (!updated) {
             throw new SQLException("No se pudo actualizar el reporte");
         }
+        searchIndex.put(reporte.getId_reporte(), reporte.getAsunto(), reporte.getContenido());
 
         return reporte;
     }
@@ -178,7 +239,11 @@ public class ReporteService {
         }
 
         // Eliminar reporte
-        return reporteRepository.deleteById(id);
+        boolean eliminado = reporteRepository.deleteById(id);
+        if (eliminado) {
+            searchIndex.remove(id);
+        }
+        return eliminado;
     }
 
     /**
@@ -5,7 +5,10 @@ import com.hugin_munin.repository.ReporteTrasladoRepository;
 import com.hugin_munin.repository.TipoReporteRepository;
 import com.hugin_munin.repository.EspecimenRepository;
 import com.hugin_munin.repository.UsuarioRepository;
+import com.hugin_munin.search.ReporteSearchIndex;
+import com.hugin_munin.util.RowHandler;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
@@ -22,15 +25,18 @@ public class ReporteTrasladoService {
     private final TipoReporteRepository tipoReporteRepository;
     private final EspecimenRepository especimenRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ReporteSearchIndex searchIndex;
 
     public ReporteTrasladoService(ReporteTrasladoRepository reporteTrasladoRepository,
                                   TipoReporteRepository tipoReporteRepository,
                                   EspecimenRepository especimenRepository,
-                                  UsuarioRepository usuarioRepository) {
+                                  UsuarioRepository usuarioRepository,
+                                  ReporteSearchIndex searchIndex) {
         this.reporteTrasladoRepository = reporteTrasladoRepository;
         this.tipoReporteRepository = tipoReporteRepository;
         this.especimenRepository = especimenRepository;
         this.usuarioRepository = usuarioRepository;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -40,6 +46,13 @@ public class ReporteTrasladoService {
         return reporteTrasladoRepository.findAll();
     }
 
+    /**
+     * RECORRER todos los reportes de traslado en streaming
+     */
+    public int streamAllReportesTraslado(RowHandler<? super ReporteTraslado> handler) throws SQLException, IOException {
+        return reporteTrasladoRepository.streamAll(handler);
+    }
+
     /**
      * OBTENER reporte de traslado por ID
      */
@@ -124,6 +137,33 @@ public class ReporteTrasladoService {
         return reporteTrasladoRepository.findByEspecimen(idEspecimen);
     }
 
+    /**
+     * OBTENER el primer reporte de traslado (el de alta) de cada especimen activo, indexado por ID de especimen
+     * Corresponde al último elemento de getReportesByEspecimen(id), resuelto en una sola consulta
+     */
+    public Map<Integer, ReporteTraslado> getFirstReportesForActiveSpecimens(String search) throws SQLException {
+        Map<Integer, ReporteTraslado> reportesPorEspecimen = new HashMap<>();
+
+        for (ReporteTraslado reporte : reporteTrasladoRepository.findByActiveEspecimenes(search)) {
+            reportesPorEspecimen.putIfAbsent(reporte.getId_especimen(), reporte);
+        }
+
+        return reportesPorEspecimen;
+    }
+
+    /**
+     * Obtener el primer reporte de traslado de cada especimen indicado, indexado por ID de especimen
+     */
+    public Map<Integer, ReporteTraslado> getFirstReportesForSpecimens(List<Integer> idsEspecimen) throws SQLException {
+        Map<Integer, ReporteTraslado> reportesPorEspecimen = new HashMap<>();
+
+        for (ReporteTraslado reporte : reporteTrasladoRepository.findByEspecimenIds(idsEspecimen)) {
+            reportesPorEspecimen.putIfAbsent(reporte.getId_especimen(), reporte);
+        }
+
+        return reportesPorEspecimen;
+    }
+
     /**
      * BUSCAR reportes de traslado por responsable
      */
@@ -172,7 +212,9 @@ public class ReporteTrasladoService {
         normalizeTrasladoData(reporteTraslado);
 
         // Guardar reporte de traslado
-        return reporteTrasladoRepository.save(reporteTraslado);
+        ReporteTraslado guardado = reporteTrasladoRepository.save(reporteTraslado);
+        searchIndex.put(guardado.getId_reporte(), guardado.getAsunto(), guardado.getContenido(), guardado.getMotivo());
+        return guardado;
     }
 
     /**
@@ -199,6 +241,8 @@ public class ReporteTrasladoService {
         if (!updated) {
             throw new SQLException("No se pudo actualizar el reporte de traslado");
         }
+        searchIndex.put(reporteTraslado.getId_reporte(), reporteTraslado.getAsunto(),
+                reporteTraslado.getContenido(), reporteTraslado.getMotivo());
 
         return reporteTraslado;
     }
@@ -215,7 +259,11 @@ public class ReporteTrasladoService {
             throw new IllegalArgumentException("Reporte de traslado no encontrado con ID: " + id);
         }
 
-        return reporteTrasladoRepository.deleteById(id);
+        boolean eliminado = reporteTrasladoRepository.deleteById(id);
+        if (eliminado) {
+            searchIndex.remove(id);
+        }
+        return eliminado;
     }
 
     /**
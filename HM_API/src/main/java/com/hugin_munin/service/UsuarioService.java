@@ -1,9 +1,13 @@
 package com.hugin_munin.service;
 
+import com.hugin_munin.cache.PrincipalCache;
+import com.hugin_munin.cache.TokenEpochCache;
 import com.hugin_munin.model.Usuario;
 import com.hugin_munin.model.UsuarioConPermisos;
 import com.hugin_munin.repository.UsuarioRepository;
 import com.hugin_munin.repository.RolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -19,12 +23,19 @@ import java.nio.charset.StandardCharsets;
  */
 public class UsuarioService {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioService.class);
+
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
+    private final PrincipalCache principalCache;
+    private final TokenEpochCache tokenEpochCache;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, RolRepository rolRepository) {
+    public UsuarioService(UsuarioRepository usuarioRepository, RolRepository rolRepository,
+                          PrincipalCache principalCache, TokenEpochCache tokenEpochCache) {
         this.usuarioRepository = usuarioRepository;
         this.rolRepository = rolRepository;
+        this.principalCache = principalCache;
+        this.tokenEpochCache = tokenEpochCache;
     }
 
     /**
@@ -32,45 +43,43 @@ public class UsuarioService {
      */
     public UsuarioConPermisos getUsuarioConPermisosByCorreo(String correo) throws SQLException {
         try {
-            System.out.println("UsuarioService: Buscando usuario por correo: " + correo);
+            log.debug("UsuarioService: Buscando usuario por correo: {}", correo);
 
             if (correo == null || correo.trim().isEmpty()) {
-                System.out.println("Error: Correo vacío");
+                log.debug("Error: Correo vacío");
                 throw new IllegalArgumentException("El correo electrónico es requerido");
             }
 
             if (!isValidEmail(correo)) {
-                System.out.println("Error: Formato de correo inválido: " + correo);
+                log.debug("Error: Formato de correo inválido: {}", correo);
                 throw new IllegalArgumentException("El formato del correo electrónico no es válido");
             }
 
-            System.out.println("Correo válido, llamando a repository...");
+            log.debug("Correo válido, llamando a repository...");
 
             UsuarioConPermisos usuarioConPermisos = usuarioRepository.findUsuarioConPermisosByCorreo(correo.trim());
 
             if (usuarioConPermisos == null) {
-                System.out.println("Repository devolvió null para correo: " + correo);
+                log.debug("Repository devolvió null para correo: {}", correo);
                 throw new IllegalArgumentException("No se encontró un usuario con el correo: " + correo);
             }
 
-            System.out.println("Usuario encontrado: " + usuarioConPermisos.getUsuario().getNombre_usuario());
+            log.debug("Usuario encontrado: {}", usuarioConPermisos.getUsuario().getNombre_usuario());
 
             if (!usuarioConPermisos.getUsuario().isActivo()) {
-                System.out.println("Usuario inactivo: " + correo);
+                log.debug("Usuario inactivo: {}", correo);
                 throw new IllegalArgumentException("El usuario está desactivado");
             }
 
-            System.out.println("Usuario activo con " + usuarioConPermisos.getPermisos().size() + " permisos");
+            log.debug("Usuario activo con {} permisos", usuarioConPermisos.getPermisos().size());
 
             return usuarioConPermisos;
 
         } catch (SQLException e) {
-            System.err.println("Error SQL en getUsuarioConPermisosByCorreo: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error SQL en getUsuarioConPermisosByCorreo: {}", e.getMessage(), e);
             throw e;
         } catch (Exception e) {
-            System.err.println("Error general en getUsuarioConPermisosByCorreo: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error general en getUsuarioConPermisosByCorreo: {}", e.getMessage(), e);
             throw new SQLException("Error al obtener usuario con permisos", e);
         }
     }
@@ -80,46 +89,44 @@ public class UsuarioService {
      */
     public UsuarioConPermisos getUsuarioConPermisosByNombre(String nombreUsuario) throws SQLException {
         try {
-            System.out.println("UsuarioService: Buscando usuario por nombre: " + nombreUsuario);
+            log.debug("UsuarioService: Buscando usuario por nombre: {}", nombreUsuario);
 
             // Validar nombre de usuario
             if (nombreUsuario == null || nombreUsuario.trim().isEmpty()) {
-                System.out.println("Error: Nombre de usuario vacío");
+                log.debug("Error: Nombre de usuario vacío");
                 throw new IllegalArgumentException("El nombre de usuario es requerido");
             }
 
             if (nombreUsuario.trim().length() < 2) {
-                System.out.println("Error: Nombre de usuario muy corto: " + nombreUsuario);
+                log.debug("Error: Nombre de usuario muy corto: {}", nombreUsuario);
                 throw new IllegalArgumentException("El nombre de usuario debe tener al menos 2 caracteres");
             }
 
-            System.out.println("Nombre de usuario válido, llamando a repository...");
+            log.debug("Nombre de usuario válido, llamando a repository...");
 
             UsuarioConPermisos usuarioConPermisos = usuarioRepository.findUsuarioConPermisosByNombre(nombreUsuario.trim());
 
             if (usuarioConPermisos == null) {
-                System.out.println("Repository devolvió null para nombre: " + nombreUsuario);
+                log.debug("Repository devolvió null para nombre: {}", nombreUsuario);
                 throw new IllegalArgumentException("No se encontró un usuario con el nombre: " + nombreUsuario);
             }
 
-            System.out.println("Usuario encontrado: " + usuarioConPermisos.getUsuario().getNombre_usuario());
+            log.debug("Usuario encontrado: {}", usuarioConPermisos.getUsuario().getNombre_usuario());
 
             if (!usuarioConPermisos.getUsuario().isActivo()) {
-                System.out.println("Usuario inactivo: " + nombreUsuario);
+                log.debug("Usuario inactivo: {}", nombreUsuario);
                 throw new IllegalArgumentException("El usuario está desactivado");
             }
 
-            System.out.println("Usuario activo con " + usuarioConPermisos.getPermisos().size() + " permisos");
+            log.debug("Usuario activo con {} permisos", usuarioConPermisos.getPermisos().size());
 
             return usuarioConPermisos;
 
         } catch (SQLException e) {
-            System.err.println("Error SQL en getUsuarioConPermisosByNombre: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error SQL en getUsuarioConPermisosByNombre: {}", e.getMessage(), e);
             throw e;
         } catch (Exception e) {
-            System.err.println("Error general en getUsuarioConPermisosByNombre: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error general en getUsuarioConPermisosByNombre: {}", e.getMessage(), e);
             throw new SQLException("Error al obtener usuario con permisos por nombre", e);
         }
     }
@@ -211,7 +218,7 @@ public class UsuarioService {
         // CORREGIDO: Hash real de la contraseña
         if (usuario.getContrasena() != null && !usuario.getContrasena().startsWith("sha256:")) {
             usuario.setContrasena(hashPassword(usuario.getContrasena()));
-            System.out.println("Contraseña hasheada para nuevo usuario");
+            log.debug("Contraseña hasheada para nuevo usuario");
         }
 
         Usuario usuarioCreado = usuarioRepository.save(usuario);
@@ -255,7 +262,7 @@ public class UsuarioService {
         } else if (!usuario.getContrasena().startsWith("sha256:")) {
             // Si se proporciona nueva contraseña, hashearla
             usuario.setContrasena(hashPassword(usuario.getContrasena()));
-            System.out.println("Nueva contraseña hasheada para usuario: " + usuario.getNombre_usuario());
+            log.debug("Nueva contraseña hasheada para usuario: {}", usuario.getNombre_usuario());
         }
 
         boolean updated = usuarioRepository.update(usuario);
@@ -263,6 +270,18 @@ public class UsuarioService {
             throw new SQLException("No se pudo actualizar el usuario");
         }
 
+        // Los tokens emitidos llevan rol y estado: si cambian (o la contraseña) se revocan todas las sesiones
+        boolean revocarSesiones = !usuario.isActivo()
+                || !usuario.getId_rol().equals(existingUser.getId_rol())
+                || !usuario.getContrasena().equals(existingUser.getContrasena());
+        if (revocarSesiones) {
+            tokenEpochCache.revokeAll(usuario.getId_usuario());
+        }
+        tokenEpochCache.forget(usuario.getId_usuario());
+
+        // Sesiones en caché con datos anteriores (rol, estado activo)
+        principalCache.invalidateUser(usuario.getId_usuario());
+
         // No devolver la contraseña en la respuesta
         usuario.setContrasena("[PROTEGIDA]");
 
@@ -281,7 +300,12 @@ public class UsuarioService {
             throw new IllegalArgumentException("Usuario no encontrado con ID: " + id);
         }
 
-        return usuarioRepository.deleteById(id);
+        boolean eliminado = usuarioRepository.deleteById(id);
+        if (eliminado) {
+            tokenEpochCache.markDeleted(id);
+        }
+        principalCache.invalidateUser(id);
+        return eliminado;
     }
 
     /**
@@ -418,7 +442,7 @@ public class UsuarioService {
 
             return "sha256:" + hexString.toString();
         } catch (NoSuchAlgorithmException e) {
-            System.err.println("Error: SHA-256 no disponible");
+            log.error("Error: SHA-256 no disponible");
             throw new RuntimeException("Error al hashear contraseña", e);
         }
     }
@@ -0,0 +1,21 @@
+package com.hugin_munin.service;
+
+import java.util.List;
+
+/**
+ * Errores de validación de una petición, todos a la vez
+ * Es IllegalArgumentException: los controladores existentes ya la responden como 400
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private final List<String> errors;
+
+    public ValidationException(List<String> errors) {
+        super(String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
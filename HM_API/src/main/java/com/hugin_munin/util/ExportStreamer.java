@@ -0,0 +1,197 @@
+package com.hugin_munin.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hugin_munin.config.JsonConfig;
+import io.javalin.http.Context;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritura de una exportación (CSV o JSONL) directamente al stream de la respuesta
+ * Un búfer fijo entre el cursor JDBC y el cliente: la memoria no depende del número de filas.
+ * Como JsonListStreamer, la respuesta comienza con la primera fila (o al terminar),
+ * así que un error de la consulta antes de eso todavía se responde como error normal.
+ */
+public class ExportStreamer implements RowHandler<Object[]> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Context ctx;
+    private final String nombre;
+    private final List<String> columnas;
+    private final boolean csv;
+    private final boolean gzip;
+    private Writer writer;
+    private JsonGenerator generator;
+    private int total;
+
+    private ExportStreamer(Context ctx, String nombre, List<String> columnas, boolean csv, boolean gzip) {
+        this.ctx = ctx;
+        this.nombre = nombre;
+        this.columnas = columnas;
+        this.csv = csv;
+        this.gzip = gzip;
+    }
+
+    /**
+     * CSV con cabecera (RFC 4180)
+     */
+    public static ExportStreamer csv(Context ctx, String nombre, List<String> columnas, boolean gzip) {
+        return new ExportStreamer(ctx, nombre, columnas, true, gzip);
+    }
+
+    /**
+     * Un objeto JSON por línea
+     */
+    public static ExportStreamer jsonLines(Context ctx, String nombre, List<String> columnas, boolean gzip) {
+        return new ExportStreamer(ctx, nombre, columnas, false, gzip);
+    }
+
+    /**
+     * ESCRIBIR una fila (valores en el orden de columnas)
+     */
+    @Override
+    public void accept(Object[] fila) throws IOException {
+        start();
+        if (csv) {
+            writeCsvRecord(fila);
+        } else {
+            writeJsonLine(fila);
+        }
+        total++;
+    }
+
+    /**
+     * CERRAR la exportación (y el gzip, si aplica)
+     */
+    public void finish() throws IOException {
+        start();
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.close();
+    }
+
+    /**
+     * Cortar una exportación ya iniciada tras un error (el cliente recibe un archivo truncado)
+     */
+    public void abort() {
+        if (writer != null) {
+            try {
+                if (generator != null) {
+                    generator.flush();
+                }
+                writer.flush();
+            } catch (IOException ignored) {
+                // El cliente ya no está disponible
+            }
+        }
+    }
+
+    /**
+     * Ya se escribieron bytes: no es posible cambiar estado ni cabeceras
+     */
+    public boolean isStarted() {
+        return writer != null;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    private void start() throws IOException {
+        if (writer != null) {
+            return;
+        }
+
+        String extension = csv ? ".csv" : ".jsonl";
+        if (gzip) {
+            ctx.contentType("application/gzip");
+            extension += ".gz";
+        } else {
+            ctx.contentType(csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+        }
+        ctx.header("Content-Disposition", "attachment; filename=\"" + nombre + extension + "\"");
+
+        OutputStream out = gzip ? new GZIPOutputStream(ctx.outputStream(), BUFFER_SIZE) : ctx.outputStream();
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (csv) {
+            writeCsvRecord(columnas.toArray());
+        } else {
+            generator = JsonConfig.getMapper().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Sin separador entre objetos raíz: cada uno termina en su propio salto de línea
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    private void writeCsvRecord(Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object valor = valores[i];
+            if (valor != null) {
+                writeCsvField(format(valor));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvField(String valor) throws IOException {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonLine(Object[] fila) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fila.length; i++) {
+            generator.writeFieldName(columnas.get(i));
+            Object valor = fila[i];
+            if (valor == null) {
+                generator.writeNull();
+            } else if (valor instanceof Number || valor instanceof Boolean) {
+                generator.writeObject(valor);
+            } else {
+                generator.writeString(format(valor));
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Fechas como YYYY-MM-DD (o fecha-hora ISO), el resto como texto
+     */
+    private static String format(Object valor) {
+        if (valor instanceof java.sql.Date fecha) {
+            return fecha.toLocalDate().toString();
+        }
+        if (valor instanceof java.sql.Timestamp momento) {
+            return momento.toLocalDateTime().toString();
+        }
+        if (valor instanceof TemporalAccessor temporal) {
+            return temporal.toString();
+        }
+        return valor.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package com.hugin_munin.util;
+
+import com.hugin_munin.config.AppConfig;
+import com.hugin_munin.config.DbPermitLimiter;
+import com.hugin_munin.config.RequestConnectionScope;
+import com.hugin_munin.config.UnitOfWork;
+import com.hugin_munin.metrics.SqlStats;
+import org.slf4j.MDC;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Consultas independientes en paralelo sobre hilos virtuales (fork / join)
+ * Mismo contrato que StructuredTaskScope.ShutdownOnFailure (preview en Java 21):
+ * el primer fallo cancela el resto y join() lo relanza; cada rama tiene su propio plazo
+ * y como máximo FANOUT_MAX_BRANCHES ramas de cada fan-out consultan la base a la vez
+ * (el total de conexiones lo acota el DbPermitLimiter).
+ * Cada rama usa su propia conexión del pool (no la de la petición).
+ * Dentro de una UnitOfWork, de otra rama o si el hilo ya tiene su conexión de petición las ramas se
+ * ejecutan en el hilo actual: quien espera en join() no debe retener un permiso que las ramas
+ * necesitan (con DB_PERMITS ocupados por peticiones esperando, ninguna rama avanzaría).
+ */
+public final class FanOut implements AutoCloseable {
+
+    private static final int MAX_BRANCHES = AppConfig.getInt("FANOUT_MAX_BRANCHES", 3);
+    private static final long BRANCH_TIMEOUT_MS = AppConfig.getLong("FANOUT_BRANCH_TIMEOUT_MS", 5000);
+
+    private static final ThreadLocal<Boolean> IN_BRANCH = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Resultado de una rama, disponible tras join()
+     */
+    public static final class Branch<T> implements Supplier<T> {
+        private final String nombre;
+        private final long timeoutMs;
+        private final long deadline;
+        private volatile Future<T> future;
+        private T valor;
+        private boolean listo;
+
+        private Branch(String nombre, long timeoutMs) {
+            this.nombre = nombre;
+            this.timeoutMs = timeoutMs;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+
+        @Override
+        public T get() {
+            if (!listo) {
+                throw new IllegalStateException("La rama " + nombre + " se leyó antes de join()");
+            }
+            return valor;
+        }
+
+        private void complete(T resultado) {
+            valor = resultado;
+            listo = true;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore ramas;
+    private final Map<String, String> mdc;
+    private final AtomicLong consultas;
+    private final List<Branch<?>> forks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> primerFallo = new AtomicReference<>();
+
+    private FanOut(boolean paralelo) {
+        this.executor = paralelo ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.ramas = paralelo ? new Semaphore(MAX_BRANCHES) : null;
+        this.mdc = paralelo ? MDC.getCopyOfContextMap() : null;
+        this.consultas = paralelo ? SqlStats.requestCounter() : null;
+    }
+
+    /**
+     * ABRIR un fan-out (en línea si ya estamos en una rama, en una UnitOfWork o con la conexión de la petición)
+     */
+    public static FanOut open() {
+        return new FanOut(!Boolean.TRUE.equals(IN_BRANCH.get()) && !UnitOfWork.isActive()
+                && !RequestConnectionScope.holdsConnection());
+    }
+
+    /**
+     * LANZAR una rama con el plazo por defecto
+     */
+    public <T> Branch<T> fork(String nombre, Task<T> task) {
+        return fork(nombre, BRANCH_TIMEOUT_MS, task);
+    }
+
+    /**
+     * LANZAR una rama con plazo propio (cuenta desde ahora, incluida la espera por el límite de ramas)
+     */
+    public <T> Branch<T> fork(String nombre, long timeoutMs, Task<T> task) {
+        Branch<T> rama = new Branch<>(nombre, timeoutMs);
+        forks.add(rama);
+
+        if (executor == null) {
+            if (primerFallo.get() == null) {
+                try {
+                    rama.complete(task.call());
+                } catch (Throwable t) {
+                    primerFallo.compareAndSet(null, t);
+                }
+            }
+            return rama;
+        }
+
+        rama.future = executor.submit(() -> runBranch(task));
+        return rama;
+    }
+
+    /**
+     * ESPERAR todas las ramas; relanza el primer fallo o el primer plazo vencido
+     */
+    public void join() throws SQLException {
+        if (executor != null) {
+            for (Branch<?> rama : forks) {
+                await(rama);
+            }
+        }
+
+        Throwable fallo = primerFallo.get();
+        if (fallo != null) {
+            throw rethrow(fallo);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            // Sin esperar: una rama bloqueada en JDBC termina sola y cierra su conexión
+            cancelAll();
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> T runBranch(Task<T> task) throws Exception {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        // Las consultas de la rama cuentan en X-Query-Count de la petición
+        SqlStats.bindRequestCounter(consultas);
+        IN_BRANCH.set(Boolean.TRUE);
+
+        ramas.acquire();
+        try {
+            return task.call();
+        } catch (Throwable t) {
+            if (primerFallo.compareAndSet(null, t)) {
+                cancelAll();
+            }
+            throw t;
+        } finally {
+            ramas.release();
+        }
+    }
+
+    private <T> void await(Branch<T> rama) throws SQLException {
+        try {
+            long restante = rama.deadline - System.nanoTime();
+            rama.complete(rama.future.get(Math.max(restante, 0), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            SQLTimeoutException vencido = new SQLTimeoutException(
+                    "Tiempo agotado en la consulta " + rama.nombre + " (" + rama.timeoutMs + " ms)");
+            if (primerFallo.compareAndSet(null, vencido)) {
+                cancelAll();
+            }
+        } catch (CancellationException | ExecutionException e) {
+            // El fallo (propio o de otra rama) ya está en primerFallo
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll();
+            primerFallo.compareAndSet(null, new SQLException("Consulta interrumpida: " + rama.nombre, e));
+        }
+    }
+
+    private void cancelAll() {
+        for (Branch<?> rama : forks) {
+            if (rama.future != null) {
+                rama.future.cancel(true);
+            }
+        }
+    }
+
+    private SQLException rethrow(Throwable fallo) {
+        if (fallo instanceof SQLTransientConnectionException) {
+            // El rechazo ocurrió en el hilo de la rama: LoadShedding lo mira en el de la petición
+            DbPermitLimiter.markRejectedInRequest();
+        }
+        if (fallo instanceof SQLException sql) {
+            return sql;
+        }
+        if (fallo instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (fallo instanceof Error error) {
+            throw error;
+        }
+        return new SQLException(fallo.getMessage(), fallo);
+    }
+}
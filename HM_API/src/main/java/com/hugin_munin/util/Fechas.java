@@ -0,0 +1,80 @@
+package com.hugin_munin.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Fechas de entrada (YYYY-MM-DD) con java.time: inmutable y seguro entre hilos, a diferencia de SimpleDateFormat
+ */
+public final class Fechas {
+
+    // Acepta mes y día con uno o dos dígitos, como el SimpleDateFormat("yyyy-MM-dd") anterior
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("uuuu-M-d");
+
+    private Fechas() {
+    }
+
+    /**
+     * Convertir texto a fecha; null si viene vacío
+     * Acepta YYYY-MM-DD, una fecha-hora ISO (se toma la parte de fecha) o milisegundos epoch
+     */
+    public static LocalDate parse(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+
+        String texto = valor.trim();
+        if (texto.chars().allMatch(Character::isDigit) && texto.length() > 8) {
+            return Instant.ofEpochMilli(Long.parseLong(texto)).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+
+        int separador = texto.indexOf('T');
+        if (separador < 0) {
+            separador = texto.indexOf(' ');
+        }
+        return LocalDate.parse(separador > 0 ? texto.substring(0, separador) : texto, FORMATO);
+    }
+
+    /**
+     * La fecha es válida o vacía
+     */
+    public static boolean isValid(String valor) {
+        try {
+            parse(valor);
+            return true;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Medianoche local de la fecha, como java.util.Date para los modelos
+     */
+    public static Date toDate(LocalDate fecha) {
+        return fecha != null ? Date.from(fecha.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    /**
+     * Fecha local de un java.util.Date de los modelos (java.sql.Date no admite toInstant)
+     */
+    public static LocalDate toLocalDate(Date fecha) {
+        if (fecha == null) {
+            return null;
+        }
+        if (fecha instanceof java.sql.Date fechaSql) {
+            return fechaSql.toLocalDate();
+        }
+        return fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Fecha indicada o el momento actual si no viene
+     */
+    public static Date toDateOrNow(LocalDate fecha) {
+        return fecha != null ? toDate(fecha) : new Date();
+    }
+}
@@ -0,0 +1,218 @@
+package com.hugin_munin.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hugin_munin.config.JsonConfig;
+import com.hugin_munin.dto.RegistroUnificadoCommand;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lectura en streaming de un archivo de importación, un registro a la vez
+ * JSONL: un objeto por línea con la misma forma que POST /hm/registro_unificado.
+ * CSV: cabecera con genero, especie, num_inventario, nombre_especimen, id_origen_alta,
+ * id_responsable, procedencia, observacion, fecha_ingreso (separador , o ;).
+ * Un registro mal formado no detiene la lectura: se devuelve con su error.
+ */
+public final class ImportReader implements Closeable {
+
+    private static final ObjectReader COMMAND_READER = JsonConfig.getMapper().readerFor(RegistroUnificadoCommand.class);
+
+    private static final List<String> COLUMNAS = List.of(
+            "genero", "especie", "num_inventario", "nombre_especimen", "id_origen_alta",
+            "id_responsable", "procedencia", "observacion", "fecha_ingreso");
+
+    /**
+     * Registro leído: fila (1 = primer registro de datos), comando o error de formato
+     */
+    public record Entrada(int fila, RegistroUnificadoCommand command, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private Map<String, Integer> cabecera;
+    private char separador = ',';
+    private int fila;
+
+    private ImportReader(InputStream in, boolean csv) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.csv = csv;
+    }
+
+    public static ImportReader csv(InputStream in) {
+        return new ImportReader(in, true);
+    }
+
+    public static ImportReader jsonLines(InputStream in) {
+        return new ImportReader(in, false);
+    }
+
+    /**
+     * SIGUIENTE registro o null al final del archivo
+     */
+    public Entrada next() throws IOException {
+        return csv ? nextCsv() : nextJson();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Entrada nextJson() throws IOException {
+        String linea;
+        do {
+            linea = reader.readLine();
+            if (linea == null) {
+                return null;
+            }
+        } while (linea.isBlank());
+
+        fila++;
+        try {
+            RegistroUnificadoCommand command = COMMAND_READER.readValue(linea);
+            return command == null
+                    ? new Entrada(fila, null, "Se esperaba un objeto JSON")
+                    : new Entrada(fila, command, null);
+        } catch (JsonProcessingException e) {
+            return new Entrada(fila, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private Entrada nextCsv() throws IOException {
+        if (cabecera == null) {
+            readHeader();
+        }
+
+        List<String> campos;
+        do {
+            campos = readRecord();
+            if (campos == null) {
+                return null;
+            }
+        } while (campos.size() == 1 && campos.get(0).isBlank());
+
+        fila++;
+        try {
+            RegistroUnificadoCommand command = new RegistroUnificadoCommand(
+                    new RegistroUnificadoCommand.Especie(text(campos, "genero"), text(campos, "especie")),
+                    new RegistroUnificadoCommand.Especimen(text(campos, "num_inventario"), text(campos, "nombre_especimen")),
+                    new RegistroUnificadoCommand.RegistroAlta(
+                            integer(campos, "id_origen_alta"),
+                            integer(campos, "id_responsable"),
+                            text(campos, "procedencia"),
+                            text(campos, "observacion"),
+                            text(campos, "fecha_ingreso")),
+                    null);
+            return new Entrada(fila, command, null);
+        } catch (NumberFormatException e) {
+            return new Entrada(fila, null, e.getMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        reader.mark(4096);
+        String primera = reader.readLine();
+        if (primera == null) {
+            throw new IllegalArgumentException("El archivo CSV está vacío");
+        }
+        if (primera.indexOf(',') < 0 && primera.indexOf(';') >= 0) {
+            separador = ';';
+        }
+        reader.reset();
+
+        List<String> nombres = readRecord();
+        cabecera = new HashMap<>();
+        for (int i = 0; i < nombres.size(); i++) {
+            String nombre = nombres.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            cabecera.putIfAbsent(nombre, i);
+        }
+
+        // fecha_ingreso es opcional (se usa la fecha actual)
+        List<String> faltantes = COLUMNAS.stream()
+                .filter(c -> !c.equals("fecha_ingreso") && !cabecera.containsKey(c))
+                .toList();
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera CSV: " + String.join(", ", faltantes));
+        }
+    }
+
+    /**
+     * Un registro CSV (RFC 4180): comillas dobles, "" escapadas y saltos de línea dentro de comillas
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean comillas = false;
+        boolean leido = false;
+        int c;
+
+        while ((c = reader.read()) != -1) {
+            leido = true;
+            char ch = (char) c;
+            if (comillas) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int siguiente = reader.read();
+                    if (siguiente == '"') {
+                        campo.append('"');
+                    } else {
+                        comillas = false;
+                        if (siguiente != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                comillas = true;
+            } else if (ch == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\n') {
+                campos.add(campo.toString());
+                return campos;
+            } else if (ch != '\r') {
+                campo.append(ch);
+            }
+        }
+
+        if (!leido) {
+            return null;
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private String text(List<String> campos, String columna) {
+        Integer indice = cabecera.get(columna);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private Integer integer(List<String> campos, String columna) {
+        String valor = text(campos, columna);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(columna + " debe ser un número entero");
+        }
+    }
+}
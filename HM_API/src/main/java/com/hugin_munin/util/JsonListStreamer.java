@@ -0,0 +1,107 @@
+package com.hugin_munin.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hugin_munin.config.JsonConfig;
+import io.javalin.http.Context;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Escritura de listas JSON directamente al stream de la respuesta
+ * Cada fila se serializa mientras avanza el cursor JDBC; nada se acumula en memoria.
+ * Modo sobre: {"data": [...], "total": n, ...campos finales}; modo arreglo: [...]
+ * La respuesta comienza con la primera fila (o al terminar): si la consulta falla antes,
+ * el controlador todavía puede responder un error normal.
+ */
+public class JsonListStreamer implements RowHandler<Object> {
+
+    private final Context ctx;
+    private final boolean envelope;
+    private JsonGenerator generator;
+    private int total;
+
+    private JsonListStreamer(Context ctx, boolean envelope) {
+        this.ctx = ctx;
+        this.envelope = envelope;
+    }
+
+    /**
+     * Sobre estándar de la API: data, total y campos adicionales
+     */
+    public static JsonListStreamer envelope(Context ctx) {
+        return new JsonListStreamer(ctx, true);
+    }
+
+    /**
+     * Arreglo JSON sin sobre
+     */
+    public static JsonListStreamer array(Context ctx) {
+        return new JsonListStreamer(ctx, false);
+    }
+
+    /**
+     * ESCRIBIR una fila
+     */
+    @Override
+    public void accept(Object row) throws IOException {
+        start();
+        generator.writeObject(row);
+        total++;
+    }
+
+    /**
+     * CERRAR la lista: total y campos finales del sobre (ignorados en modo arreglo)
+     */
+    public void finish(Map<String, Object> trailer) throws IOException {
+        start();
+        generator.writeEndArray();
+        if (envelope) {
+            generator.writeNumberField("total", total);
+            for (Map.Entry<String, Object> campo : trailer.entrySet()) {
+                generator.writeFieldName(campo.getKey());
+                generator.writeObject(campo.getValue());
+            }
+            generator.writeEndObject();
+        }
+        generator.close();
+    }
+
+    /**
+     * Cortar una respuesta ya iniciada tras un error (el cliente recibe JSON truncado)
+     */
+    public void abort() {
+        if (generator != null) {
+            try {
+                generator.flush();
+            } catch (IOException ignored) {
+                // El cliente ya no está disponible
+            }
+        }
+    }
+
+    /**
+     * Ya se escribieron bytes: no es posible cambiar estado ni cabeceras
+     */
+    public boolean isStarted() {
+        return generator != null;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    private void start() throws IOException {
+        if (generator != null) {
+            return;
+        }
+
+        ctx.contentType("application/json");
+        generator = JsonConfig.getMapper().createGenerator(ctx.outputStream());
+        if (envelope) {
+            generator.writeStartObject();
+            generator.writeFieldName("data");
+        }
+        generator.writeStartArray();
+    }
+}
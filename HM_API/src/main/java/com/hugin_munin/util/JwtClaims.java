@@ -0,0 +1,43 @@
+package com.hugin_munin.util;
+
+import com.hugin_munin.model.Usuario;
+
+/**
+ * Claims ya verificados de un JWT emitido por la API
+ * iat y exp en segundos, como en el token; epoch en milisegundos (0 en tokens anteriores)
+ */
+public record JwtClaims(String sub,
+                        Integer idUsuario,
+                        String nombreUsuario,
+                        String correo,
+                        Integer idRol,
+                        boolean activo,
+                        long iat,
+                        long exp,
+                        String iss,
+                        long epoch) {
+
+    /**
+     * Expiración en milisegundos (Long.MAX_VALUE si el token no la declara)
+     */
+    public long expiresAtMillis() {
+        return exp > 0 ? exp * 1000 : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis() < nowMillis;
+    }
+
+    /**
+     * Usuario representado por el token (sin contraseña)
+     */
+    public Usuario toUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setId_usuario(idUsuario);
+        usuario.setNombre_usuario(nombreUsuario);
+        usuario.setCorreo(correo);
+        usuario.setId_rol(idRol);
+        usuario.setActivo(activo);
+        return usuario;
+    }
+}
@@ -1,38 +1,74 @@
 package com.hugin_munin.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugin_munin.config.JsonConfig;
 import com.hugin_munin.model.Usuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Utilidad para manejo de JWT simplificado
  * Implementación básica sin dependencias externas JWT
+ * Verifica y decodifica cada token en una sola pasada sobre sus bytes (verifyAndDecode)
  */
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     private static final String SECRET_KEY = "HuginMuninSecretKeyForJWTTokensVerySecureAndLong2024!";
     private static final long JWT_EXPIRATION = 30L * 24 * 60 * 60 * 1000; // 30 días
     private static final String ALGORITHM = "HmacSHA256";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = JsonConfig.getMapper();
+    private static final JsonFactory jsonFactory = objectMapper.getFactory();
+
+    private static final String HEADER_ENCODED = base64UrlEncode(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    // Macs ya inicializados con la clave; con hilos virtuales (uno por petición) un ThreadLocal no se reutilizaría.
+    // Firmar no bloquea, así que no hay más usos simultáneos que procesadores; si el pool está vacío se crea uno
+    private static final ArrayBlockingQueue<Mac> MACS = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private static final byte[] BASE64_URL_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_URL_DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL_DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
 
     /**
      * Generar token JWT para usuario
      */
     public static String generateToken(Usuario usuario) {
+        return generateToken(usuario, 0);
+    }
+
+    /**
+     * Generar token JWT para usuario con el epoch de sesiones vigente
+     */
+    public static String generateToken(Usuario usuario, long epoch) {
         try {
-            // Header
-            Map<String, Object> header = new HashMap<>();
-            header.put("alg", "HS256");
-            header.put("typ", "JWT");
+            long ahora = System.currentTimeMillis();
 
             // Payload
             Map<String, Object> payload = new HashMap<>();
@@ -42,59 +78,55 @@ public class JwtUtil {
             payload.put("correo", usuario.getCorreo());
             payload.put("id_rol", usuario.getId_rol());
             payload.put("activo", usuario.isActivo());
-            payload.put("iat", System.currentTimeMillis() / 1000);
-            payload.put("exp", (System.currentTimeMillis() + JWT_EXPIRATION) / 1000);
+            payload.put("iat", ahora / 1000);
+            payload.put("exp", (ahora + JWT_EXPIRATION) / 1000);
             payload.put("iss", "HuginMunin");
+            payload.put("epoch", epoch);
 
-            // Convertir a JSON y codificar en Base64
-            String headerEncoded = base64UrlEncode(objectMapper.writeValueAsString(header));
-            String payloadEncoded = base64UrlEncode(objectMapper.writeValueAsString(payload));
+            String data = HEADER_ENCODED + "." + base64UrlEncode(objectMapper.writeValueAsBytes(payload));
+            byte[] signature = hmac(data.getBytes(StandardCharsets.US_ASCII), 0, data.length());
 
-            // Crear signature
-            String data = headerEncoded + "." + payloadEncoded;
-            String signature = createSignature(data);
-
-            return data + "." + signature;
+            return data + "." + base64UrlEncode(signature);
 
         } catch (Exception e) {
-            System.err.println("Error generando token: " + e.getMessage());
+            log.error("Error generando token: {}", e.getMessage());
             return null;
         }
     }
 
     /**
-     * Extraer claims del token
+     * Verificar firma y decodificar claims en una sola pasada
+     * Devuelve null si el token está mal formado o la firma no coincide (no revisa expiración)
      */
-    public static Map<String, Object> extractClaims(String token) {
-        try {
-            if (token == null || token.trim().isEmpty()) {
-                return null;
-            }
-
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) {
-                System.err.println("Token JWT inválido: formato incorrecto");
-                return null;
-            }
+    public static JwtClaims verifyAndDecode(String token) {
+        byte[] payload = verifiedPayload(token);
+        if (payload == null) {
+            return null;
+        }
 
-            // Verificar signature
-            String data = parts[0] + "." + parts[1];
-            String expectedSignature = createSignature(data);
+        try {
+            return parseClaims(payload);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error decodificando claims: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            if (!expectedSignature.equals(parts[2])) {
-                System.err.println("Token JWT inválido: signature incorrecta");
-                return null;
-            }
+    /**
+     * Extraer claims del token como mapa genérico
+     */
+    public static Map<String, Object> extractClaims(String token) {
+        byte[] payload = verifiedPayload(token);
+        if (payload == null) {
+            return null;
+        }
 
-            // Decodificar payload
-            String payloadJson = base64UrlDecode(parts[1]);
+        try {
             @SuppressWarnings("unchecked")
-            Map<String, Object> claims = objectMapper.readValue(payloadJson, Map.class);
-
+            Map<String, Object> claims = objectMapper.readValue(payload, Map.class);
             return claims;
-
         } catch (Exception e) {
-            System.err.println("Error extrayendo claims: " + e.getMessage());
+            log.warn("Error extrayendo claims: {}", e.getMessage());
             return null;
         }
     }
@@ -103,93 +135,65 @@ public class JwtUtil {
      * Extraer usuario del token
      */
     public static Usuario extractUsuario(String token) {
-        try {
-            Map<String, Object> claims = extractClaims(token);
-            if (claims == null) {
-                return null;
-            }
-
-            Usuario usuario = new Usuario();
-            usuario.setId_usuario((Integer) claims.get("id_usuario"));
-            usuario.setNombre_usuario((String) claims.get("nombre_usuario"));
-            usuario.setCorreo((String) claims.get("correo"));
-            usuario.setId_rol((Integer) claims.get("id_rol"));
-            usuario.setActivo((Boolean) claims.get("activo"));
-
-            return usuario;
-        } catch (Exception e) {
-            System.err.println("Error extrayendo usuario: " + e.getMessage());
-            return null;
-        }
+        JwtClaims claims = verifyAndDecode(token);
+        return claims != null ? claims.toUsuario() : null;
     }
 
     /**
      * Extraer nombre de usuario del token
      */
     public static String extractUsername(String token) {
-        Map<String, Object> claims = extractClaims(token);
-        return claims != null ? (String) claims.get("sub") : null;
+        JwtClaims claims = verifyAndDecode(token);
+        return claims != null ? claims.sub() : null;
     }
 
     /**
      * Extraer fecha de expiración
      */
     public static Date extractExpiration(String token) {
-        Map<String, Object> claims = extractClaims(token);
-        if (claims == null) {
+        JwtClaims claims = verifyAndDecode(token);
+        if (claims == null || claims.exp() <= 0) {
             return null;
         }
-
-        Object exp = claims.get("exp");
-        if (exp instanceof Number) {
-            long expTime = ((Number) exp).longValue() * 1000; // Convertir a millisegundos
-            return new Date(expTime);
-        }
-        return null;
+        return new Date(claims.expiresAtMillis());
     }
 
     /**
      * Verificar si el token ha expirado
      */
     public static Boolean isTokenExpired(String token) {
-        Date expiration = extractExpiration(token);
-        return expiration != null && expiration.before(new Date());
+        JwtClaims claims = verifyAndDecode(token);
+        return claims != null && claims.isExpired(System.currentTimeMillis());
     }
 
     /**
      * Validar token con username
      */
     public static Boolean validateToken(String token, String username) {
-        try {
-            final String tokenUsername = extractUsername(token);
-            return (username.equals(tokenUsername) && !isTokenExpired(token));
-        } catch (Exception e) {
-            System.err.println("Error validando token: " + e.getMessage());
-            return false;
-        }
+        JwtClaims claims = verifyAndDecode(token);
+        return claims != null
+                && username != null
+                && username.equals(claims.sub())
+                && !claims.isExpired(System.currentTimeMillis());
     }
 
     /**
      * Validar token sin comparar username
      */
     public static Boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token) && extractClaims(token) != null;
-        } catch (Exception e) {
-            System.err.println("Error validando token: " + e.getMessage());
-            return false;
-        }
+        JwtClaims claims = verifyAndDecode(token);
+        return claims != null && !claims.isExpired(System.currentTimeMillis());
     }
 
     /**
      * Obtener tiempo restante del token en milisegundos
      */
     public static long getTimeToExpiration(String token) {
-        Date expiration = extractExpiration(token);
-        if (expiration == null) {
+        JwtClaims claims = verifyAndDecode(token);
+        if (claims == null || claims.exp() <= 0) {
             return 0;
         }
-        return expiration.getTime() - System.currentTimeMillis();
+        return claims.expiresAtMillis() - System.currentTimeMillis();
     }
 
     /**
@@ -205,49 +209,153 @@ public class JwtUtil {
      * Refrescar token (generar nuevo token para el mismo usuario)
      */
     public static String refreshToken(String token) {
-        Usuario usuario = extractUsuario(token);
-        if (usuario != null && validateToken(token)) {
-            return generateToken(usuario);
+        JwtClaims claims = verifyAndDecode(token);
+        if (claims != null && !claims.isExpired(System.currentTimeMillis())) {
+            return generateToken(claims.toUsuario(), claims.epoch());
         }
         return null;
     }
 
     /**
-     * Crear signature HMAC SHA256
+     * Localizar segmentos por índice, verificar la firma en tiempo constante
+     * y devolver el payload decodificado
      */
-    private static String createSignature(String data) {
-        try {
-            Mac mac = Mac.getInstance(ALGORITHM);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(
-                    SECRET_KEY.getBytes(StandardCharsets.UTF_8),
-                    ALGORITHM
-            );
-            mac.init(secretKeySpec);
+    private static byte[] verifiedPayload(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == token.length() - 1
+                || token.indexOf('.', secondDot + 1) >= 0) {
+            log.debug("Token JWT inválido: formato incorrecto");
+            return null;
+        }
 
-            byte[] signature = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return base64UrlEncode(signature);
+        byte[] raw = token.getBytes(StandardCharsets.US_ASCII);
 
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("Error creando signature", e);
+        byte[] expected = hmac(raw, 0, secondDot);
+
+        byte[] provided = decodeBase64Url(raw, secondDot + 1, raw.length - secondDot - 1);
+        if (provided == null || provided.length != SIGNATURE_LENGTH || !MessageDigest.isEqual(expected, provided)) {
+            log.debug("Token JWT inválido: signature incorrecta");
+            return null;
+        }
+
+        byte[] payload = decodeBase64Url(raw, firstDot + 1, secondDot - firstDot - 1);
+        if (payload == null) {
+            log.debug("Token JWT inválido: payload mal codificado");
         }
+        return payload;
     }
 
     /**
-     * Codificar en Base64 URL-safe
+     * HMAC-SHA256 de bytes[offset, offset + length) con un Mac del pool
      */
-    private static String base64UrlEncode(String input) {
-        return base64UrlEncode(input.getBytes(StandardCharsets.UTF_8));
+    private static byte[] hmac(byte[] bytes, int offset, int length) {
+        Mac mac = MACS.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            mac.update(bytes, offset, length);
+            return mac.doFinal();
+        } finally {
+            mac.reset();
+            MACS.offer(mac);
+        }
     }
 
-    private static String base64UrlEncode(byte[] input) {
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(input);
+    private static Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error inicializando HMAC", e);
+        }
     }
 
     /**
-     * Decodificar de Base64 URL-safe
+     * Leer los claims conocidos con el parser de streaming de Jackson
      */
-    private static String base64UrlDecode(String input) {
-        byte[] decoded = Base64.getUrlDecoder().decode(input);
-        return new String(decoded, StandardCharsets.UTF_8);
+    private static JwtClaims parseClaims(byte[] payload) throws IOException {
+        String sub = null;
+        Integer idUsuario = null;
+        String nombreUsuario = null;
+        String correo = null;
+        Integer idRol = null;
+        boolean activo = false;
+        long iat = 0;
+        long exp = 0;
+        String iss = null;
+        long epoch = 0;
+
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                boolean nulo = valor == JsonToken.VALUE_NULL;
+
+                switch (campo) {
+                    case "sub" -> sub = nulo ? null : parser.getText();
+                    case "id_usuario" -> idUsuario = nulo ? null : parser.getIntValue();
+                    case "nombre_usuario" -> nombreUsuario = nulo ? null : parser.getText();
+                    case "correo" -> correo = nulo ? null : parser.getText();
+                    case "id_rol" -> idRol = nulo ? null : parser.getIntValue();
+                    case "activo" -> activo = valor == JsonToken.VALUE_TRUE;
+                    case "iat" -> iat = nulo ? 0 : parser.getLongValue();
+                    case "exp" -> exp = nulo ? 0 : parser.getLongValue();
+                    case "iss" -> iss = nulo ? null : parser.getText();
+                    case "epoch" -> epoch = nulo ? 0 : parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new JwtClaims(sub, idUsuario, nombreUsuario, correo, idRol, activo, iat, exp, iss, epoch);
+    }
+
+    /**
+     * Decodificar Base64 URL-safe (sin relleno) directamente desde los bytes del token
+     */
+    private static byte[] decodeBase64Url(byte[] src, int offset, int length) {
+        while (length > 0 && src[offset + length - 1] == '=') {
+            length--;
+        }
+        if (length % 4 == 1) {
+            return null;
+        }
+
+        byte[] out = new byte[length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1)];
+        int acc = 0;
+        int bits = 0;
+        int o = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            int c = src[i];
+            int v = c >= 0 ? BASE64_URL_DECODE[c] : -1;
+            if (v < 0) {
+                return null;
+            }
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[o++] = (byte) (acc >> bits);
+                acc &= (1 << bits) - 1;
+            }
+        }
+
+        return out;
+    }
+
+    private static String base64UrlEncode(byte[] input) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(input);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,297 @@
+package com.hugin_munin.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Almacén de tokens revocados (logout, refresh)
+ * Tabla de direccionamiento abierto sobre arreglos primitivos: huella de 128 bits
+ * más la expiración del propio token (24 bytes por ranura, ocupación 35-70%). Las entradas vencidas
+ * se descartan al purgar, y el contenido puede persistirse en un archivo opcional.
+ */
+public class RevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationStore.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SNAPSHOT_MAGIC = 0x484D5256; // "HMRV"
+
+    private final StampedLock lock = new StampedLock();
+
+    // Guardado periódico y hook de apagado escriben el mismo .tmp: uno a la vez
+    private final ReentrantLock guardado = new ReentrantLock();
+    private final Path snapshotPath;
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    public RevocationStore(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        loadSnapshot();
+    }
+
+    /**
+     * REVOCAR token hasta su expiración (en segundos epoch)
+     */
+    public void revoke(String token, long expiresAtSeconds) {
+        TokenDigest digest = TokenDigest.of(token);
+        long hi = digest.getHi();
+        long lo = digest.getLo();
+
+        long stamp = lock.writeLock();
+        try {
+            insert(hi, lo, expiresAtSeconds);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * VERIFICAR si un token está revocado
+     */
+    public boolean isRevoked(String token) {
+        TokenDigest digest = TokenDigest.of(token);
+        long hi = digest.getHi();
+        long lo = digest.getLo();
+        long now = System.currentTimeMillis() / 1000;
+
+        long stamp = lock.tryOptimisticRead();
+        boolean revoked = table.contains(hi, lo, now);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                revoked = table.contains(hi, lo, now);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return revoked;
+    }
+
+    /**
+     * Número de tokens revocados almacenados (incluye vencidos aún no purgados)
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Bytes ocupados por la tabla actual
+     */
+    public long memoryBytes() {
+        return (long) table.capacity() * 24;
+    }
+
+    /**
+     * PURGAR entradas vencidas, reconstruyendo la tabla a su tamaño justo
+     */
+    public int purgeExpired() {
+        long stamp = lock.writeLock();
+        try {
+            Table actual = table;
+            int antes = actual.size;
+            table = rebuild(actual, actual.liveCount(System.currentTimeMillis() / 1000));
+            return antes - table.size;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * GUARDAR las revocaciones vigentes en el archivo de snapshot (si está configurado)
+     */
+    public void saveSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+
+        guardado.lock();
+        try {
+            long now = System.currentTimeMillis() / 1000;
+            long[] his;
+            long[] los;
+            long[] exps;
+            int count = 0;
+
+            long stamp = lock.readLock();
+            try {
+                Table actual = table;
+                int vivos = actual.liveCount(now);
+                his = new long[vivos];
+                los = new long[vivos];
+                exps = new long[vivos];
+                for (int i = 0; i < actual.capacity(); i++) {
+                    if (actual.exps[i] > now) {
+                        his[count] = actual.his[i];
+                        los[count] = actual.los[i];
+                        exps[count] = actual.exps[i];
+                        count++;
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            try {
+                Path parent = snapshotPath.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeInt(count);
+                    for (int i = 0; i < count; i++) {
+                        out.writeLong(his[i]);
+                        out.writeLong(los[i]);
+                        out.writeLong(exps[i]);
+                    }
+                }
+                Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("No se pudo guardar el snapshot de revocaciones: {}", e.getMessage());
+            }
+        } finally {
+            guardado.unlock();
+        }
+    }
+
+    private void loadSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis() / 1000;
+        int cargados = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("Snapshot de revocaciones con formato desconocido: {}", snapshotPath);
+                return;
+            }
+
+            int count = in.readInt();
+            long stamp = lock.writeLock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    long hi = in.readLong();
+                    long lo = in.readLong();
+                    long exp = in.readLong();
+                    if (exp > now) {
+                        insert(hi, lo, exp);
+                        cargados++;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            log.info("Revocaciones restauradas desde snapshot: {}", cargados);
+        } catch (IOException e) {
+            log.warn("No se pudo leer el snapshot de revocaciones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Insertar con el candado de escritura tomado
+     */
+    private void insert(long hi, long lo, long exp) {
+        Table actual = table;
+        if ((actual.size + 1) * 10 > actual.capacity() * 7) {
+            actual = rebuild(actual, actual.liveCount(System.currentTimeMillis() / 1000) + 1);
+            table = actual;
+        }
+        actual.put(hi, lo, exp);
+    }
+
+    private static Table rebuild(Table origen, int entradasEsperadas) {
+        int capacidad = INITIAL_CAPACITY;
+        while (capacidad < entradasEsperadas * 2) {
+            capacidad <<= 1;
+        }
+
+        long now = System.currentTimeMillis() / 1000;
+        Table destino = new Table(capacidad);
+        for (int i = 0; i < origen.capacity(); i++) {
+            if (origen.exps[i] > now) {
+                destino.put(origen.his[i], origen.los[i], origen.exps[i]);
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Tabla de sondeo lineal; exps[i] == 0 marca una ranura libre
+     */
+    private static final class Table {
+        final long[] his;
+        final long[] los;
+        final long[] exps;
+        final int mask;
+        int size;
+
+        Table(int capacity) {
+            his = new long[capacity];
+            los = new long[capacity];
+            exps = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return exps.length;
+        }
+
+        boolean contains(long hi, long lo, long now) {
+            int slot = index(hi, lo);
+            for (int i = 0; i < exps.length; i++) {
+                long exp = exps[slot];
+                if (exp == 0) {
+                    return false;
+                }
+                if (his[slot] == hi && los[slot] == lo) {
+                    return exp > now;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        void put(long hi, long lo, long exp) {
+            int slot = index(hi, lo);
+            while (exps[slot] != 0) {
+                if (his[slot] == hi && los[slot] == lo) {
+                    exps[slot] = Math.max(exps[slot], exp);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            his[slot] = hi;
+            los[slot] = lo;
+            exps[slot] = Math.max(exp, 1);
+            size++;
+        }
+
+        int liveCount(long now) {
+            int vivos = 0;
+            for (long exp : exps) {
+                if (exp > now) {
+                    vivos++;
+                }
+            }
+            return vivos;
+        }
+
+        private int index(long hi, long lo) {
+            long h = hi ^ lo;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.hugin_munin.util;
+
+import java.io.IOException;
+
+/**
+ * Receptor de filas para lecturas en streaming (una fila a la vez, sin acumular listas)
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+    void accept(T row) throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.hugin_munin.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Huella de 128 bits de un token (primeros 16 bytes de su SHA-256)
+ * Permite indexar tokens sin guardar la cadena completa
+ */
+public final class TokenDigest {
+
+    // Hashers libres (tope: un uso simultáneo por procesador); si no queda ninguno se crea otro
+    private static final ArrayBlockingQueue<Hasher> HASHERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private final long hi;
+    private final long lo;
+
+    public TokenDigest(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    /**
+     * Calcular la huella de un token
+     */
+    public static TokenDigest of(String token) {
+        Hasher hasher = HASHERS.poll();
+        if (hasher == null) {
+            hasher = new Hasher();
+        }
+        try {
+            byte[] hash = hasher.sha256(token);
+            return new TokenDigest(readLong(hash, 0), readLong(hash, 8));
+        } finally {
+            HASHERS.offer(hasher);
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xffL);
+        }
+        return value;
+    }
+
+    /**
+     * SHA-256 con sus buffers: bytes del token y resultado del hash
+     */
+    private static final class Hasher {
+        private final MessageDigest digest;
+        private byte[] input = new byte[512];
+        private final byte[] hash = new byte[32];
+
+        Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 no disponible", e);
+            }
+        }
+
+        byte[] sha256(String token) {
+            int length = token.length();
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                char c = token.charAt(i);
+                ascii = c < 0x80;
+                input[i] = (byte) c;
+            }
+
+            digest.reset();
+            if (ascii) {
+                digest.update(input, 0, length);
+            } else {
+                // Los JWT son ASCII; cualquier otra entrada se hashea como UTF-8
+                digest.update(token.getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                digest.digest(hash, 0, 32);
+            } catch (DigestException e) {
+                throw new IllegalStateException("Error calculando SHA-256", e);
+            }
+            return hash;
+        }
+    }
+
+    public long getHi() { return hi; }
+    public long getLo() { return lo; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TokenDigest)) return false;
+        TokenDigest that = (TokenDigest) o;
+        return hi == that.hi && lo == that.lo;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hi ^ lo);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", hi, lo);
+    }
+}